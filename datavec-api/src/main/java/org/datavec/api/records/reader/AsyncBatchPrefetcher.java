@@ -0,0 +1,52 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader;
+
+import org.datavec.api.writable.Writable;
+
+import java.util.List;
+
+/**
+ * Prefetches minibatches ({@link RecordReader#next(int)}) from a record reader that supports batches. Used by
+ * {@link AsyncRecordReader} and {@link AsyncSequenceRecordReader}: each element of the prefetch queue holds a single
+ * minibatch, so the queue depth is the maximum number of prefetched minibatches.
+ */
+class AsyncBatchPrefetcher extends AsyncPrefetcher<List<Writable>> {
+
+    private final RecordReader recordReader;
+    private final int minibatchSize;
+
+    AsyncBatchPrefetcher(String name, RecordReader recordReader, int queueDepth, int minibatchSize) {
+        super(name, queueDepth, 1);
+        this.recordReader = recordReader;
+        this.minibatchSize = minibatchSize;
+    }
+
+    int getMinibatchSize() {
+        return minibatchSize;
+    }
+
+    @Override
+    protected boolean hasNextUnderlying() {
+        return recordReader.hasNext();
+    }
+
+    @Override
+    protected List<Writable> nextUnderlying() {
+        return recordReader.next(minibatchSize);
+    }
+}
@@ -0,0 +1,228 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prefetches elements (records or sequences) on a background thread, into a bounded queue of batches.
+ * Used by {@link AsyncRecordReader} and {@link AsyncSequenceRecordReader}.<br>
+ * The background thread is started on the first call to {@link #hasNext()}, and stopped by {@link #stop()}.
+ * Exceptions thrown on the background thread are rethrown (wrapped in a RuntimeException) by {@link #hasNext()} and
+ * {@link #next()}, once all elements prefetched before the exception have been returned.
+ *
+ * @param <T> Type of element
+ */
+abstract class AsyncPrefetcher<T> {
+
+    private static final long OFFER_TIMEOUT_MS = 50;
+
+    private final String name;
+    private final int queueDepth;
+    private final int batchSize;
+
+    private BlockingQueue<Element<T>> queue;
+    private Thread thread;
+    private volatile boolean stopped;
+    private List<T> current;
+    private int position;
+    private boolean finished;
+
+    //Statistics: cumulative over all epochs
+    private volatile long producerWaitNanos;
+    private long consumerWaitNanos;
+    private long batchesConsumed;
+    private long queueSizeSum;
+
+    AsyncPrefetcher(String name, int queueDepth, int batchSize) {
+        if (queueDepth <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Queue depth and batch size must be positive: got queueDepth="
+                            + queueDepth + ", batchSize=" + batchSize);
+        }
+        this.name = name;
+        this.queueDepth = queueDepth;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Called on the background thread only
+     */
+    protected abstract boolean hasNextUnderlying();
+
+    /**
+     * Called on the background thread only
+     */
+    protected abstract T nextUnderlying();
+
+    boolean hasNext() {
+        if (current != null && position < current.size()) {
+            return true;
+        }
+        if (finished) {
+            return false;
+        }
+        if (thread == null) {
+            start();
+        }
+
+        Element<T> e = queue.poll();
+        queueSizeSum += (e == null ? 0 : queue.size() + 1);
+        if (e == null) {
+            long start = System.nanoTime();
+            try {
+                e = queue.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for " + name + " to prefetch next element", ex);
+            }
+            consumerWaitNanos += System.nanoTime() - start;
+        }
+        batchesConsumed++;
+
+        if (e.error != null) {
+            finished = true;
+            current = null;
+            throw new RuntimeException("Error in " + name + " prefetch thread", e.error);
+        }
+        if (e.items == null) {
+            finished = true;
+            current = null;
+            return false;
+        }
+        current = e.items;
+        position = 0;
+        return true;
+    }
+
+    /**
+     * @return True if the background thread has been started (and not stopped since)
+     */
+    boolean isStarted() {
+        return thread != null;
+    }
+
+    T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No next element found!");
+        }
+        T t = current.get(position);
+        current.set(position++, null);
+        return t;
+    }
+
+    private void start() {
+        stopped = false;
+        queue = new LinkedBlockingQueue<>(queueDepth);
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                produce();
+            }
+        }, name + " prefetch thread");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void produce() {
+        try {
+            while (!stopped && hasNextUnderlying()) {
+                List<T> items = new ArrayList<>(batchSize);
+                while (items.size() < batchSize && !stopped && hasNextUnderlying()) {
+                    items.add(nextUnderlying());
+                }
+                if (!put(new Element<>(items, null))) {
+                    return;
+                }
+            }
+            put(new Element<T>(null, null));
+        } catch (Throwable t) {
+            put(new Element<T>(null, t));
+        }
+    }
+
+    /**
+     * @return False if the prefetcher was stopped before the element could be added to the queue
+     */
+    private boolean put(Element<T> e) {
+        if (queue.offer(e)) {
+            return true;
+        }
+        long start = System.nanoTime();
+        try {
+            while (!queue.offer(e, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                if (stopped) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException ex) {
+            return false;
+        } finally {
+            producerWaitNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Stop the background thread (if running), and discard all prefetched elements. This method blocks until any
+     * call to {@link #nextUnderlying()} in progress has completed, so that the underlying reader can safely be used
+     * (reset, closed, etc) once it returns. The prefetcher can be used again after being stopped: the background
+     * thread is restarted on the next call to {@link #hasNext()}
+     */
+    void stop() {
+        if (thread != null) {
+            stopped = true;
+            boolean interrupted = false;
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        thread = null;
+        queue = null;
+        current = null;
+        finished = false;
+    }
+
+    AsyncReaderStats getStats() {
+        BlockingQueue<Element<T>> q = queue;
+        return new AsyncReaderStats(queueDepth, batchSize, q == null ? 0 : q.size(), batchesConsumed,
+                        batchesConsumed == 0 ? 0.0 : queueSizeSum / (double) batchesConsumed,
+                        TimeUnit.NANOSECONDS.toMillis(consumerWaitNanos),
+                        TimeUnit.NANOSECONDS.toMillis(producerWaitNanos));
+    }
+
+    private static class Element<T> {
+        private final List<T> items;
+        private final Throwable error;
+
+        private Element(List<T> items, Throwable error) {
+            this.items = items;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * Prefetch queue statistics for {@link AsyncRecordReader} and {@link AsyncSequenceRecordReader}, as returned by
+ * their getStats() methods. Counts and times are cumulative since the wrapper was created.<br>
+ * These statistics can be used to determine whether the pipeline is I/O (reader) bound or compute (consumer) bound:
+ * <ul>
+ * <li>Consumer wait time large, and average queue size close to 0: the reader can't keep up with the consumer -
+ * I/O or decode bound</li>
+ * <li>Producer wait time large, and average queue size close to the queue depth: the reader is faster than the
+ * consumer - compute bound. Increasing the queue depth will not help in this case</li>
+ * </ul>
+ */
+@Data
+@AllArgsConstructor
+public class AsyncReaderStats implements Serializable {
+    /** Maximum number of batches in the queue */
+    private final int queueDepth;
+    /** Number of records (or sequences) per batch */
+    private final int batchSize;
+    /** Number of batches currently in the queue */
+    private final int queueSize;
+    /** Number of batches taken from the queue by the consumer */
+    private final long batchesConsumed;
+    /** Average number of batches available in the queue when the consumer requested a batch */
+    private final double averageQueueSize;
+    /** Total time the consumer spent waiting for the reader (queue empty) */
+    private final long consumerWaitMs;
+    /** Total time the reader spent waiting for the consumer (queue full) */
+    private final long producerWaitMs;
+}
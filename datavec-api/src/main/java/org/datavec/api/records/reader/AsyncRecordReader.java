@@ -0,0 +1,247 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader;
+
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.listener.RecordListener;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.split.InputSplit;
+import org.datavec.api.writable.Writable;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A {@link RecordReader} that wraps another RecordReader, and reads records from it on a background thread.
+ * Records are prefetched (via {@link RecordReader#nextRecord()}) into a bounded queue, so that I/O, decoding and
+ * parsing in the underlying reader overlap with the processing of the records by the consumer.<br>
+ * <br>
+ * Records are added to the queue in batches of {@code batchSize} records (to reduce synchronization overhead); at
+ * most {@code queueDepth} batches are buffered. Records are returned in the same order as by the underlying
+ * reader.<br>
+ * Exceptions thrown by the underlying reader on the background thread are rethrown by {@link #hasNext()},
+ * {@link #next()} and {@link #nextRecord()} (wrapped in a RuntimeException) once all records read before the
+ * exception have been returned.<br>
+ * {@link #reset()}, {@link #initialize(InputSplit)} and {@link #close()} first stop the background thread: these
+ * methods wait for the record being read (if any) to be completed, and discard all prefetched records.<br>
+ * If the underlying reader supports batches, minibatches ({@link RecordReader#next(int)}) are prefetched instead of
+ * records once {@link #next(int)} is called: the prefetch thread is started by the first {@link #nextRecord()},
+ * {@link #next()} or {@link #next(int)} call, and determines which of the two is prefetched until the next
+ * {@link #reset()}. Mixing the two, or changing the minibatch size, requires a reset first.<br>
+ * Use {@link #getStats()} to determine whether the pipeline is I/O bound or compute bound.<br>
+ * <br>
+ * Note that the underlying reader is used from the background thread: record listeners are invoked on that thread.
+ * {@link #loadFromMetaData(RecordMetaData)} and {@link #record(URI, DataInputStream)} are passed to the underlying
+ * reader directly, on the calling thread.
+ */
+public class AsyncRecordReader implements RecordReader {
+
+    public static final int DEFAULT_QUEUE_DEPTH = 8;
+    public static final int DEFAULT_BATCH_SIZE = 32;
+
+    private final RecordReader recordReader;
+    private final int queueDepth;
+    private final int batchSize;
+    private transient AsyncBatchPrefetcher batchPrefetcher;
+    private transient AsyncPrefetcher<Record> prefetcher;
+
+    /**
+     * @param recordReader Record reader to wrap
+     */
+    public AsyncRecordReader(RecordReader recordReader) {
+        this(recordReader, DEFAULT_QUEUE_DEPTH, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param recordReader Record reader to wrap
+     * @param queueDepth   Maximum number of batches of records to prefetch
+     * @param batchSize    Number of records per batch. Use 1 for records that are expensive to read (images, etc)
+     */
+    public AsyncRecordReader(RecordReader recordReader, int queueDepth, int batchSize) {
+        this.recordReader = recordReader;
+        this.queueDepth = queueDepth;
+        this.batchSize = batchSize;
+        this.prefetcher = createPrefetcher();
+    }
+
+    private AsyncPrefetcher<Record> createPrefetcher() {
+        return new AsyncPrefetcher<Record>("AsyncRecordReader", queueDepth, batchSize) {
+            @Override
+            protected boolean hasNextUnderlying() {
+                return recordReader.hasNext();
+            }
+
+            @Override
+            protected Record nextUnderlying() {
+                return recordReader.nextRecord();
+            }
+        };
+    }
+
+    private AsyncPrefetcher<Record> prefetcher() {
+        if (prefetcher == null) {
+            //After deserialization
+            prefetcher = createPrefetcher();
+        }
+        return prefetcher;
+    }
+
+    /**
+     * @return The underlying (wrapped) record reader
+     */
+    public RecordReader getUnderlying() {
+        return recordReader;
+    }
+
+    /**
+     * @return Statistics for the prefetch queue. When minibatches are prefetched ({@link #next(int)}), each element
+     *         of the queue is one minibatch
+     */
+    public AsyncReaderStats getStats() {
+        return (batchPrefetcher != null ? batchPrefetcher.getStats() : prefetcher().getStats());
+    }
+
+    private void stopPrefetching() {
+        prefetcher().stop();
+        if (batchPrefetcher != null) {
+            batchPrefetcher.stop();
+            batchPrefetcher = null;
+        }
+    }
+
+    @Override
+    public void initialize(InputSplit split) throws IOException, InterruptedException {
+        stopPrefetching();
+        recordReader.initialize(split);
+    }
+
+    @Override
+    public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
+        stopPrefetching();
+        recordReader.initialize(conf, split);
+    }
+
+    @Override
+    public boolean batchesSupported() {
+        return recordReader.batchesSupported();
+    }
+
+    @Override
+    public List<Writable> next(int num) {
+        if (!recordReader.batchesSupported()) {
+            throw new UnsupportedOperationException("next(int) is not supported: the underlying reader ("
+                            + recordReader.getClass().getSimpleName() + ") does not support batches");
+        }
+        if (prefetcher().isStarted()) {
+            throw new IllegalStateException(
+                            "Cannot read minibatches after reading individual records: call reset() first");
+        }
+        if (batchPrefetcher == null) {
+            batchPrefetcher = new AsyncBatchPrefetcher("AsyncRecordReader", recordReader, queueDepth, num);
+        } else if (batchPrefetcher.getMinibatchSize() != num) {
+            throw new IllegalStateException("Cannot change the minibatch size from "
+                            + batchPrefetcher.getMinibatchSize() + " to " + num + ": call reset() first");
+        }
+        return batchPrefetcher.next();
+    }
+
+    @Override
+    public List<Writable> next() {
+        return nextRecord().getRecord();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (batchPrefetcher != null) {
+            return batchPrefetcher.hasNext();
+        } else if (!prefetcher().isStarted()) {
+            //Neither records nor minibatches read yet: the prefetch thread is started by the first read
+            return recordReader.hasNext();
+        }
+        return prefetcher().hasNext();
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return recordReader.getLabels();
+    }
+
+    @Override
+    public void reset() {
+        stopPrefetching();
+        recordReader.reset();
+    }
+
+    @Override
+    public List<Writable> record(URI uri, DataInputStream dataInputStream) throws IOException {
+        return recordReader.record(uri, dataInputStream);
+    }
+
+    @Override
+    public Record nextRecord() {
+        if (batchPrefetcher != null) {
+            throw new IllegalStateException(
+                            "Cannot read individual records after reading minibatches: call reset() first");
+        }
+        return prefetcher().next();
+    }
+
+    @Override
+    public Record loadFromMetaData(RecordMetaData recordMetaData) throws IOException {
+        return recordReader.loadFromMetaData(recordMetaData);
+    }
+
+    @Override
+    public List<Record> loadFromMetaData(List<RecordMetaData> recordMetaDatas) throws IOException {
+        return recordReader.loadFromMetaData(recordMetaDatas);
+    }
+
+    @Override
+    public List<RecordListener> getListeners() {
+        return recordReader.getListeners();
+    }
+
+    @Override
+    public void setListeners(RecordListener... listeners) {
+        recordReader.setListeners(listeners);
+    }
+
+    @Override
+    public void setListeners(Collection<RecordListener> listeners) {
+        recordReader.setListeners(listeners);
+    }
+
+    @Override
+    public void close() throws IOException {
+        stopPrefetching();
+        recordReader.close();
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        recordReader.setConf(conf);
+    }
+
+    @Override
+    public Configuration getConf() {
+        return recordReader.getConf();
+    }
+}
@@ -0,0 +1,259 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader;
+
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.SequenceRecord;
+import org.datavec.api.records.listener.RecordListener;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.split.InputSplit;
+import org.datavec.api.writable.Writable;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A {@link SequenceRecordReader} that wraps another SequenceRecordReader, and reads sequences from it on a background
+ * thread, via {@link SequenceRecordReader#nextSequence()}. See {@link AsyncRecordReader} for details: the same
+ * semantics apply for prefetching, {@link #reset()}, {@link #close()} and exceptions.<br>
+ * Only the sequence methods ({@link #sequenceRecord()} and {@link #nextSequence()}) are supported for iteration:
+ * {@link #next()} and {@link #nextRecord()} throw an UnsupportedOperationException. Minibatches ({@link #next(int)})
+ * are prefetched instead if the underlying reader supports batches, as per {@link AsyncRecordReader}.
+ */
+public class AsyncSequenceRecordReader implements SequenceRecordReader {
+
+    public static final int DEFAULT_QUEUE_DEPTH = 8;
+    public static final int DEFAULT_BATCH_SIZE = 1;
+
+    private final SequenceRecordReader sequenceRecordReader;
+    private final int queueDepth;
+    private final int batchSize;
+    private transient AsyncBatchPrefetcher batchPrefetcher;
+    private transient AsyncPrefetcher<SequenceRecord> prefetcher;
+
+    /**
+     * @param sequenceRecordReader Sequence record reader to wrap
+     */
+    public AsyncSequenceRecordReader(SequenceRecordReader sequenceRecordReader) {
+        this(sequenceRecordReader, DEFAULT_QUEUE_DEPTH, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param sequenceRecordReader Sequence record reader to wrap
+     * @param queueDepth           Maximum number of batches of sequences to prefetch
+     * @param batchSize            Number of sequences per batch
+     */
+    public AsyncSequenceRecordReader(SequenceRecordReader sequenceRecordReader, int queueDepth, int batchSize) {
+        this.sequenceRecordReader = sequenceRecordReader;
+        this.queueDepth = queueDepth;
+        this.batchSize = batchSize;
+        this.prefetcher = createPrefetcher();
+    }
+
+    private AsyncPrefetcher<SequenceRecord> createPrefetcher() {
+        return new AsyncPrefetcher<SequenceRecord>("AsyncSequenceRecordReader", queueDepth, batchSize) {
+            @Override
+            protected boolean hasNextUnderlying() {
+                return sequenceRecordReader.hasNext();
+            }
+
+            @Override
+            protected SequenceRecord nextUnderlying() {
+                return sequenceRecordReader.nextSequence();
+            }
+        };
+    }
+
+    private AsyncPrefetcher<SequenceRecord> prefetcher() {
+        if (prefetcher == null) {
+            //After deserialization
+            prefetcher = createPrefetcher();
+        }
+        return prefetcher;
+    }
+
+    /**
+     * @return The underlying (wrapped) sequence record reader
+     */
+    public SequenceRecordReader getUnderlying() {
+        return sequenceRecordReader;
+    }
+
+    /**
+     * @return Statistics for the prefetch queue. When minibatches are prefetched ({@link #next(int)}), each element
+     *         of the queue is one minibatch
+     */
+    public AsyncReaderStats getStats() {
+        return (batchPrefetcher != null ? batchPrefetcher.getStats() : prefetcher().getStats());
+    }
+
+    private void stopPrefetching() {
+        prefetcher().stop();
+        if (batchPrefetcher != null) {
+            batchPrefetcher.stop();
+            batchPrefetcher = null;
+        }
+    }
+
+    @Override
+    public void initialize(InputSplit split) throws IOException, InterruptedException {
+        stopPrefetching();
+        sequenceRecordReader.initialize(split);
+    }
+
+    @Override
+    public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
+        stopPrefetching();
+        sequenceRecordReader.initialize(conf, split);
+    }
+
+    @Override
+    public List<List<Writable>> sequenceRecord() {
+        return nextSequence().getSequenceRecord();
+    }
+
+    @Override
+    public List<List<Writable>> sequenceRecord(URI uri, DataInputStream dataInputStream) throws IOException {
+        return sequenceRecordReader.sequenceRecord(uri, dataInputStream);
+    }
+
+    @Override
+    public SequenceRecord nextSequence() {
+        if (batchPrefetcher != null) {
+            throw new IllegalStateException(
+                            "Cannot read individual sequences after reading minibatches: call reset() first");
+        }
+        return prefetcher().next();
+    }
+
+    @Override
+    public SequenceRecord loadSequenceFromMetaData(RecordMetaData recordMetaData) throws IOException {
+        return sequenceRecordReader.loadSequenceFromMetaData(recordMetaData);
+    }
+
+    @Override
+    public List<SequenceRecord> loadSequenceFromMetaData(List<RecordMetaData> recordMetaDatas) throws IOException {
+        return sequenceRecordReader.loadSequenceFromMetaData(recordMetaDatas);
+    }
+
+    @Override
+    public boolean batchesSupported() {
+        return sequenceRecordReader.batchesSupported();
+    }
+
+    @Override
+    public List<Writable> next(int num) {
+        if (!sequenceRecordReader.batchesSupported()) {
+            throw new UnsupportedOperationException("next(int) is not supported: the underlying reader ("
+                            + sequenceRecordReader.getClass().getSimpleName() + ") does not support batches");
+        }
+        if (prefetcher().isStarted()) {
+            throw new IllegalStateException(
+                            "Cannot read minibatches after reading individual sequences: call reset() first");
+        }
+        if (batchPrefetcher == null) {
+            batchPrefetcher = new AsyncBatchPrefetcher("AsyncSequenceRecordReader", sequenceRecordReader, queueDepth,
+                            num);
+        } else if (batchPrefetcher.getMinibatchSize() != num) {
+            throw new IllegalStateException("Cannot change the minibatch size from "
+                            + batchPrefetcher.getMinibatchSize() + " to " + num + ": call reset() first");
+        }
+        return batchPrefetcher.next();
+    }
+
+    @Override
+    public List<Writable> next() {
+        throw new UnsupportedOperationException("AsyncSequenceRecordReader: use sequenceRecord() or nextSequence()");
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (batchPrefetcher != null) {
+            return batchPrefetcher.hasNext();
+        } else if (!prefetcher().isStarted()) {
+            //Neither records nor minibatches read yet: the prefetch thread is started by the first read
+            return sequenceRecordReader.hasNext();
+        }
+        return prefetcher().hasNext();
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return sequenceRecordReader.getLabels();
+    }
+
+    @Override
+    public void reset() {
+        stopPrefetching();
+        sequenceRecordReader.reset();
+    }
+
+    @Override
+    public List<Writable> record(URI uri, DataInputStream dataInputStream) throws IOException {
+        return sequenceRecordReader.record(uri, dataInputStream);
+    }
+
+    @Override
+    public Record nextRecord() {
+        throw new UnsupportedOperationException("AsyncSequenceRecordReader: use sequenceRecord() or nextSequence()");
+    }
+
+    @Override
+    public Record loadFromMetaData(RecordMetaData recordMetaData) throws IOException {
+        return sequenceRecordReader.loadFromMetaData(recordMetaData);
+    }
+
+    @Override
+    public List<Record> loadFromMetaData(List<RecordMetaData> recordMetaDatas) throws IOException {
+        return sequenceRecordReader.loadFromMetaData(recordMetaDatas);
+    }
+
+    @Override
+    public List<RecordListener> getListeners() {
+        return sequenceRecordReader.getListeners();
+    }
+
+    @Override
+    public void setListeners(RecordListener... listeners) {
+        sequenceRecordReader.setListeners(listeners);
+    }
+
+    @Override
+    public void setListeners(Collection<RecordListener> listeners) {
+        sequenceRecordReader.setListeners(listeners);
+    }
+
+    @Override
+    public void close() throws IOException {
+        stopPrefetching();
+        sequenceRecordReader.close();
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        sequenceRecordReader.setConf(conf);
+    }
+
+    @Override
+    public Configuration getConf() {
+        return sequenceRecordReader.getConf();
+    }
+}
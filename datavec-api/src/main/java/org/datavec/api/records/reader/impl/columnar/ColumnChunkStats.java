@@ -0,0 +1,235 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader.impl.columnar;
+
+import lombok.Getter;
+import org.datavec.api.transform.condition.ConditionOp;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Collection;
+
+/**
+ * Minimum and maximum value of a column chunk in a columnar file (see {@link ColumnarFormat}).<br>
+ * Statistics are stored for integer (int/long) chunks, floating point (double/float) chunks without NaN values, and
+ * String chunks (as per {@link String#compareTo(String)}) where the minimum and maximum values are at most
+ * {@link ColumnarFormat#MAX_STRING_STATS_LENGTH} characters. For all other chunks, the statistics are
+ * {@link #NONE}.
+ */
+@Getter
+public class ColumnChunkStats implements Serializable {
+
+    public enum Kind {
+        NONE, LONG, DOUBLE, STRING
+    }
+
+    public static final ColumnChunkStats NONE = new ColumnChunkStats(Kind.NONE, 0, 0, 0, 0, null, null);
+
+    private final Kind kind;
+    private final long minLong;
+    private final long maxLong;
+    private final double minDouble;
+    private final double maxDouble;
+    private final String minString;
+    private final String maxString;
+
+    private ColumnChunkStats(Kind kind, long minLong, long maxLong, double minDouble, double maxDouble,
+                    String minString, String maxString) {
+        this.kind = kind;
+        this.minLong = minLong;
+        this.maxLong = maxLong;
+        this.minDouble = minDouble;
+        this.maxDouble = maxDouble;
+        this.minString = minString;
+        this.maxString = maxString;
+    }
+
+    public static ColumnChunkStats ofLong(long min, long max) {
+        return new ColumnChunkStats(Kind.LONG, min, max, 0, 0, null, null);
+    }
+
+    public static ColumnChunkStats ofDouble(double min, double max) {
+        return new ColumnChunkStats(Kind.DOUBLE, 0, 0, min, max, null, null);
+    }
+
+    public static ColumnChunkStats ofString(String min, String max) {
+        return new ColumnChunkStats(Kind.STRING, 0, 0, 0, 0, min, max);
+    }
+
+    /**
+     * Determine whether any value in the chunk could satisfy "value op conditionValue" (or, for InSet/NotInSet, "value
+     * in/not in set"). This method is conservative: it returns false only if no value in the chunk can satisfy the
+     * condition
+     *
+     * @param op             Condition op
+     * @param conditionValue Value for the condition: a Number or String. Not used for InSet and NotInSet
+     * @param set            Set of values, for InSet and NotInSet
+     * @return False if no value in the chunk can satisfy the condition
+     */
+    public boolean mightMatch(ConditionOp op, Object conditionValue, Collection<?> set) {
+        if (kind == Kind.NONE) {
+            return true;
+        }
+        switch (op) {
+            case LessThan:
+                return kind == Kind.STRING || anyBelow(conditionValue, false);
+            case LessOrEqual:
+                return kind == Kind.STRING || anyBelow(conditionValue, true);
+            case GreaterThan:
+                return kind == Kind.STRING || anyAbove(conditionValue, false);
+            case GreaterOrEqual:
+                return kind == Kind.STRING || anyAbove(conditionValue, true);
+            case Equal:
+                return inRange(conditionValue);
+            case NotEqual:
+                return !allEqual(conditionValue);
+            case InSet:
+                for (Object o : set) {
+                    if (inRange(o)) {
+                        return true;
+                    }
+                }
+                return false;
+            case NotInSet:
+                for (Object o : set) {
+                    //Set membership uses Double.equals, for which 0.0 and -0.0 differ: the chunk could contain both
+                    if (isFloating(o) && ((Number) o).doubleValue() == 0) {
+                        continue;
+                    }
+                    if (allEqual(o)) {
+                        return false;
+                    }
+                }
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /*
+     * The comparisons below are the primitive comparisons of ConditionOp. Long chunks are compared as longs, except
+     * for floating point condition values: DoubleColumnCondition converts each value to a double first, which is
+     * monotonic, so the converted minimum and maximum bound the converted values.
+     */
+
+    private static boolean isFloating(Object value) {
+        return value instanceof Double || value instanceof Float;
+    }
+
+    /**
+     * @return True if the chunk might contain a value less than (or equal to, if orEqual) the specified value
+     */
+    private boolean anyBelow(Object value, boolean orEqual) {
+        if (kind == Kind.LONG && !isFloating(value)) {
+            long l = ((Number) value).longValue();
+            return orEqual ? minLong <= l : minLong < l;
+        } else if (kind == Kind.STRING) {
+            int c = minString.compareTo(value.toString());
+            return orEqual ? c <= 0 : c < 0;
+        }
+        double d = ((Number) value).doubleValue();
+        double min = (kind == Kind.LONG ? (double) minLong : minDouble);
+        return orEqual ? min <= d : min < d;
+    }
+
+    /**
+     * @return True if the chunk might contain a value greater than (or equal to, if orEqual) the specified value
+     */
+    private boolean anyAbove(Object value, boolean orEqual) {
+        if (kind == Kind.LONG && !isFloating(value)) {
+            long l = ((Number) value).longValue();
+            return orEqual ? maxLong >= l : maxLong > l;
+        } else if (kind == Kind.STRING) {
+            int c = maxString.compareTo(value.toString());
+            return orEqual ? c >= 0 : c > 0;
+        }
+        double d = ((Number) value).doubleValue();
+        double max = (kind == Kind.LONG ? (double) maxLong : maxDouble);
+        return orEqual ? max >= d : max > d;
+    }
+
+    private boolean inRange(Object value) {
+        return anyBelow(value, true) && anyAbove(value, true);
+    }
+
+    /**
+     * @return True if all values in the chunk are equal to the specified value
+     */
+    private boolean allEqual(Object value) {
+        if (kind == Kind.LONG && !isFloating(value)) {
+            long l = ((Number) value).longValue();
+            return minLong == l && maxLong == l;
+        } else if (kind == Kind.STRING) {
+            return minString.equals(value.toString()) && maxString.equals(value.toString());
+        }
+        double d = ((Number) value).doubleValue();
+        if (kind == Kind.LONG) {
+            return (double) minLong == d && (double) maxLong == d;
+        }
+        return minDouble == d && maxDouble == d;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeByte(kind.ordinal());
+        switch (kind) {
+            case LONG:
+                out.writeLong(minLong);
+                out.writeLong(maxLong);
+                break;
+            case DOUBLE:
+                out.writeDouble(minDouble);
+                out.writeDouble(maxDouble);
+                break;
+            case STRING:
+                out.writeUTF(minString);
+                out.writeUTF(maxString);
+                break;
+            default:
+                break;
+        }
+    }
+
+    public static ColumnChunkStats read(DataInput in) throws IOException {
+        Kind kind = Kind.values()[in.readByte()];
+        switch (kind) {
+            case LONG:
+                return ofLong(in.readLong(), in.readLong());
+            case DOUBLE:
+                return ofDouble(in.readDouble(), in.readDouble());
+            case STRING:
+                return ofString(in.readUTF(), in.readUTF());
+            default:
+                return NONE;
+        }
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case LONG:
+                return "ColumnChunkStats(min=" + minLong + ",max=" + maxLong + ")";
+            case DOUBLE:
+                return "ColumnChunkStats(min=" + minDouble + ",max=" + maxDouble + ")";
+            case STRING:
+                return "ColumnChunkStats(min=\"" + minString + "\",max=\"" + maxString + "\")";
+            default:
+                return "ColumnChunkStats(NONE)";
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader.impl.columnar;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.datavec.api.transform.schema.Schema;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The footer of a columnar file (see {@link ColumnarFormat}): the {@link Schema} of the data, and the location,
+ * encoding and statistics of each column chunk in each row group
+ */
+@Getter
+public class ColumnarFileFooter implements Serializable {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final Schema schema;
+    private final List<RowGroup> rowGroups;
+
+    public ColumnarFileFooter(Schema schema, List<RowGroup> rowGroups) {
+        this.schema = schema;
+        this.rowGroups = Collections.unmodifiableList(new ArrayList<>(rowGroups));
+    }
+
+    /**
+     * @return Total number of rows (records) in the file
+     */
+    public long numRows() {
+        long n = 0;
+        for (RowGroup rg : rowGroups) {
+            n += rg.getNumRows();
+        }
+        return n;
+    }
+
+    /**
+     * @return Index of the first row of each row group, plus the total number of rows as the last element
+     */
+    public long[] rowGroupOffsets() {
+        long[] out = new long[rowGroups.size() + 1];
+        for (int i = 0; i < rowGroups.size(); i++) {
+            out[i + 1] = out[i] + rowGroups.get(i).getNumRows();
+        }
+        return out;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(ColumnarFormat.VERSION);
+        byte[] schemaBytes = schema.toJson().getBytes(UTF8);
+        out.writeInt(schemaBytes.length);
+        out.write(schemaBytes);
+        out.writeInt(rowGroups.size());
+        for (RowGroup rg : rowGroups) {
+            out.writeInt(rg.getNumRows());
+            for (ColumnChunk c : rg.getColumns()) {
+                out.writeLong(c.getOffset());
+                out.writeInt(c.getStoredLength());
+                out.writeInt(c.getRawLength());
+                out.writeBoolean(c.isCompressed());
+                out.writeByte(c.getEncoding());
+                c.getStats().write(out);
+            }
+        }
+    }
+
+    public static ColumnarFileFooter read(DataInput in) throws IOException {
+        int version = in.readInt();
+        if (version != ColumnarFormat.VERSION) {
+            throw new IOException("Unsupported columnar file version: " + version + " (supported: "
+                            + ColumnarFormat.VERSION + ")");
+        }
+        byte[] schemaBytes = new byte[in.readInt()];
+        in.readFully(schemaBytes);
+        Schema schema = Schema.fromJson(new String(schemaBytes, UTF8));
+        int numColumns = schema.numColumns();
+        int numRowGroups = in.readInt();
+        List<RowGroup> rowGroups = new ArrayList<>(numRowGroups);
+        for (int i = 0; i < numRowGroups; i++) {
+            int numRows = in.readInt();
+            ColumnChunk[] columns = new ColumnChunk[numColumns];
+            for (int j = 0; j < numColumns; j++) {
+                columns[j] = new ColumnChunk(in.readLong(), in.readInt(), in.readInt(), in.readBoolean(),
+                                in.readByte(), ColumnChunkStats.read(in));
+            }
+            rowGroups.add(new RowGroup(numRows, columns));
+        }
+        return new ColumnarFileFooter(schema, rowGroups);
+    }
+
+    /**
+     * Read the footer of the specified columnar file
+     *
+     * @param file Open file to read the footer from
+     * @return Footer of the file
+     * @throws IOException If the file is not a valid columnar file
+     */
+    public static ColumnarFileFooter read(RandomAccessFile file) throws IOException {
+        int magicLength = ColumnarFormat.MAGIC.length;
+        long length = file.length();
+        if (length < 2 * magicLength + 4) {
+            throw new IOException("Invalid columnar file: file is too short (" + length + " bytes)");
+        }
+        byte[] magic = new byte[magicLength];
+        file.seek(0);
+        file.readFully(magic);
+        if (!Arrays.equals(magic, ColumnarFormat.MAGIC)) {
+            throw new IOException("Invalid columnar file: no magic number at start of file");
+        }
+        file.seek(length - magicLength);
+        file.readFully(magic);
+        if (!Arrays.equals(magic, ColumnarFormat.MAGIC)) {
+            throw new IOException("Invalid columnar file: no magic number at end of file (file was not closed?)");
+        }
+        file.seek(length - magicLength - 4);
+        int footerLength = file.readInt();
+        byte[] footer = new byte[footerLength];
+        file.seek(length - magicLength - 4 - footerLength);
+        file.readFully(footer);
+        return read(new DataInputStream(new ByteArrayInputStream(footer)));
+    }
+
+    /**
+     * A row group: a set of consecutive rows, stored as one column chunk per column
+     */
+    @AllArgsConstructor
+    @Getter
+    public static class RowGroup implements Serializable {
+        private final int numRows;
+        private final ColumnChunk[] columns;
+    }
+
+    /**
+     * Location, encoding and statistics of one column chunk
+     */
+    @AllArgsConstructor
+    @Getter
+    public static class ColumnChunk implements Serializable {
+        /** Offset of the chunk in the file */
+        private final long offset;
+        /** Length of the chunk in the file (compressed length, if compressed) */
+        private final int storedLength;
+        /** Length of the chunk after decompression */
+        private final int rawLength;
+        private final boolean compressed;
+        /** One of the ColumnarFormat.ENCODING_* values */
+        private final byte encoding;
+        private final ColumnChunkStats stats;
+    }
+}
@@ -0,0 +1,422 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader.impl.columnar;
+
+import org.datavec.api.transform.batch.*;
+import org.datavec.api.transform.condition.BooleanCondition;
+import org.datavec.api.transform.condition.Condition;
+import org.datavec.api.transform.condition.column.*;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The DataVec columnar file format, as written by
+ * {@link org.datavec.api.records.writer.impl.columnar.ColumnarRecordWriter} and read by {@link ColumnarRecordReader}.
+ * <br>
+ * A columnar file stores (non-sequence) records column-wise: rows are divided into row groups, and the values of each
+ * column in a row group (a "column chunk") are stored contiguously, with a typed encoding. This allows readers to read
+ * only the columns they need, and (using the per-chunk min/max statistics) to skip entire row groups that cannot match
+ * a filter. The file layout is as follows:
+ * <pre>
+ * MAGIC                                      4 bytes
+ * row group 0: column chunk 0, column chunk 1, ...
+ * row group 1: ...
+ * footer                                     see {@link ColumnarFileFooter}
+ * footer length                              4 bytes (int)
+ * MAGIC                                      4 bytes
+ * </pre>
+ * The encoding of each chunk is chosen based on the values in the chunk: if all values are IntWritable, LongWritable,
+ * DoubleWritable, FloatWritable or BooleanWritable, they are stored as primitives; if all values are Text, they are
+ * dictionary encoded (or stored as length-prefixed UTF-8 if there are too many distinct values). Otherwise (mixed
+ * types, NullWritable, NDArrayWritable, etc) each value is stored with its type, as per
+ * {@link WritableFactory#writeWithType(Writable, DataOutput)}. Hence the Writable type of every value is preserved.
+ * Chunks are optionally compressed using {@link Deflater}.<br>
+ * All values are big-endian.
+ */
+public class ColumnarFormat {
+
+    public static final byte[] MAGIC = {'D', 'V', 'C', 'F'};
+    public static final int VERSION = 1;
+
+    public static final byte ENCODING_WRITABLE = 0;
+    public static final byte ENCODING_INT = 1;
+    public static final byte ENCODING_LONG = 2;
+    public static final byte ENCODING_DOUBLE = 3;
+    public static final byte ENCODING_FLOAT = 4;
+    public static final byte ENCODING_BOOLEAN = 5;
+    public static final byte ENCODING_DICTIONARY = 6;
+    public static final byte ENCODING_TEXT = 7;
+
+    public static final int MAX_STRING_STATS_LENGTH = 256;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private ColumnarFormat() {}
+
+    /**
+     * A column chunk, encoded but not compressed
+     */
+    public static class EncodedChunk {
+        private final byte encoding;
+        private final byte[] data;
+        private final ColumnChunkStats stats;
+
+        private EncodedChunk(byte encoding, byte[] data, ColumnChunkStats stats) {
+            this.encoding = encoding;
+            this.data = data;
+            this.stats = stats;
+        }
+
+        public byte getEncoding() {
+            return encoding;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        public ColumnChunkStats getStats() {
+            return stats;
+        }
+    }
+
+    /**
+     * Encode the first numRows values, choosing the most compact encoding able to represent all values exactly
+     *
+     * @param values  Values to encode
+     * @param numRows Number of values to encode
+     * @return Encoded chunk
+     */
+    public static EncodedChunk encode(Writable[] values, int numRows) throws IOException {
+        Class<?> c = (numRows == 0 ? null : values[0].getClass());
+        for (int i = 1; i < numRows && c != null; i++) {
+            if (values[i].getClass() != c) {
+                c = null;
+            }
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        byte encoding;
+        ColumnChunkStats stats = ColumnChunkStats.NONE;
+        if (c == IntWritable.class || c == LongWritable.class) {
+            boolean isInt = c == IntWritable.class;
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < numRows; i++) {
+                long v;
+                if (isInt) {
+                    int iv = ((IntWritable) values[i]).get();
+                    out.writeInt(iv);
+                    v = iv;
+                } else {
+                    v = ((LongWritable) values[i]).get();
+                    out.writeLong(v);
+                }
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            encoding = (isInt ? ENCODING_INT : ENCODING_LONG);
+            stats = ColumnChunkStats.ofLong(min, max);
+        } else if (c == DoubleWritable.class || c == FloatWritable.class) {
+            boolean isDouble = c == DoubleWritable.class;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            boolean anyNaN = false;
+            for (int i = 0; i < numRows; i++) {
+                double v;
+                if (isDouble) {
+                    v = ((DoubleWritable) values[i]).get();
+                    out.writeDouble(v);
+                } else {
+                    float f = ((FloatWritable) values[i]).get();
+                    out.writeFloat(f);
+                    v = f;
+                }
+                anyNaN |= Double.isNaN(v);
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            encoding = (isDouble ? ENCODING_DOUBLE : ENCODING_FLOAT);
+            stats = (anyNaN ? ColumnChunkStats.NONE : ColumnChunkStats.ofDouble(min, max));
+        } else if (c == BooleanWritable.class) {
+            for (int i = 0; i < numRows; i++) {
+                out.writeBoolean(((BooleanWritable) values[i]).get());
+            }
+            encoding = ENCODING_BOOLEAN;
+        } else if (c == Text.class) {
+            Map<String, Integer> indexes = new LinkedHashMap<>();
+            int[] codes = new int[numRows];
+            String min = null;
+            String max = null;
+            for (int i = 0; i < numRows; i++) {
+                String s = values[i].toString();
+                Integer idx = indexes.get(s);
+                if (idx == null) {
+                    idx = indexes.size();
+                    indexes.put(s, idx);
+                    if (min == null || s.compareTo(min) < 0)
+                        min = s;
+                    if (max == null || s.compareTo(max) > 0)
+                        max = s;
+                }
+                codes[i] = idx;
+            }
+            if (indexes.size() <= numRows / 2) {
+                out.writeInt(indexes.size());
+                for (String s : indexes.keySet()) {
+                    writeString(out, s);
+                }
+                for (int code : codes) {
+                    out.writeInt(code);
+                }
+                encoding = ENCODING_DICTIONARY;
+            } else {
+                for (int i = 0; i < numRows; i++) {
+                    Text t = (Text) values[i];
+                    out.writeInt(t.getLength());
+                    out.write(t.getBytes(), 0, t.getLength());
+                }
+                encoding = ENCODING_TEXT;
+            }
+            if (max.length() <= MAX_STRING_STATS_LENGTH && min.length() <= MAX_STRING_STATS_LENGTH) {
+                stats = ColumnChunkStats.ofString(min, max);
+            }
+        } else {
+            WritableFactory wf = WritableFactory.getInstance();
+            for (int i = 0; i < numRows; i++) {
+                wf.writeWithType(values[i], out);
+            }
+            encoding = ENCODING_WRITABLE;
+        }
+        out.flush();
+        return new EncodedChunk(encoding, baos.toByteArray(), stats);
+    }
+
+    /**
+     * Decode a column chunk
+     *
+     * @param encoding Encoding of the chunk (one of the ENCODING_* values)
+     * @param data     Encoded (uncompressed) chunk
+     * @param numRows  Number of values in the chunk
+     * @return Column vector with the values of the chunk
+     */
+    public static ColumnVector decode(byte encoding, byte[] data, int numRows) throws IOException {
+        ByteBuffer bb = ByteBuffer.wrap(data);
+        switch (encoding) {
+            case ENCODING_INT:
+                int[] ints = new int[numRows];
+                bb.asIntBuffer().get(ints);
+                return new IntColumnVector(ints);
+            case ENCODING_LONG:
+                long[] longs = new long[numRows];
+                bb.asLongBuffer().get(longs);
+                return new LongColumnVector(longs);
+            case ENCODING_DOUBLE:
+                double[] doubles = new double[numRows];
+                bb.asDoubleBuffer().get(doubles);
+                return new DoubleColumnVector(doubles);
+            case ENCODING_FLOAT:
+                Writable[] floats = new Writable[numRows];
+                for (int i = 0; i < numRows; i++) {
+                    floats[i] = new FloatWritable(bb.getFloat());
+                }
+                return new WritableColumnVector(floats);
+            case ENCODING_BOOLEAN:
+                Writable[] booleans = new Writable[numRows];
+                for (int i = 0; i < numRows; i++) {
+                    booleans[i] = new BooleanWritable(bb.get() != 0);
+                }
+                return new WritableColumnVector(booleans);
+            case ENCODING_DICTIONARY:
+                int dictSize = bb.getInt();
+                List<String> dictionary = new ArrayList<>(dictSize);
+                for (int i = 0; i < dictSize; i++) {
+                    dictionary.add(readString(bb));
+                }
+                int[] codes = new int[numRows];
+                bb.asIntBuffer().get(codes);
+                return new DictionaryColumnVector(codes, dictionary);
+            case ENCODING_TEXT:
+                Writable[] texts = new Writable[numRows];
+                for (int i = 0; i < numRows; i++) {
+                    int length = bb.getInt();
+                    Text t = new Text();
+                    t.set(data, bb.position(), length);
+                    bb.position(bb.position() + length);
+                    texts[i] = t;
+                }
+                return new WritableColumnVector(texts);
+            case ENCODING_WRITABLE:
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+                WritableFactory wf = WritableFactory.getInstance();
+                Writable[] writables = new Writable[numRows];
+                for (int i = 0; i < numRows; i++) {
+                    writables[i] = wf.readWithType(in);
+                }
+                return new WritableColumnVector(writables);
+            default:
+                throw new IOException("Invalid columnar file: unknown encoding " + encoding);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(UTF8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer bb) {
+        int length = bb.getInt();
+        String s = new String(bb.array(), bb.position(), length, UTF8);
+        bb.position(bb.position() + length);
+        return s;
+    }
+
+    /**
+     * Compress the data using {@link Deflater}
+     *
+     * @param data  Data to compress
+     * @param level Compression level (0 to 9)
+     * @return Compressed data
+     */
+    public static byte[] compress(byte[] data, int level) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                baos.write(buffer, 0, n);
+            }
+            return baos.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Decompress data compressed with {@link #compress(byte[], int)}
+     *
+     * @param data      Compressed data
+     * @param rawLength Length of the data after decompression
+     * @return Decompressed data
+     */
+    public static byte[] decompress(byte[] data, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] out = new byte[rawLength];
+            int n = 0;
+            while (n < rawLength && !inflater.finished()) {
+                int read = inflater.inflate(out, n, rawLength - n);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                n += read;
+            }
+            if (n != rawLength) {
+                throw new IOException("Invalid columnar file: decompressed " + n + " bytes, expected " + rawLength);
+            }
+            return out;
+        } catch (DataFormatException e) {
+            throw new IOException("Invalid columnar file: corrupt compressed data", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Determine whether any row in the row group could satisfy the condition, using the column chunk statistics. This
+     * is conservative: it returns false only if no row in the row group can satisfy the condition.<br>
+     * Statistics are used for {@link IntegerColumnCondition}, {@link LongColumnCondition},
+     * {@link TimeColumnCondition}, {@link DoubleColumnCondition}, {@link StringColumnCondition} and
+     * {@link CategoricalColumnCondition}, and AND/OR combinations of these ({@link BooleanCondition}); for all other
+     * conditions, this method returns true.
+     *
+     * @param condition Condition. Must have been initialized with the schema of the file
+     * @param schema    Schema of the file
+     * @param rowGroup  Row group
+     * @return False if no row in the row group can satisfy the condition
+     */
+    public static boolean mightMatch(Condition condition, Schema schema, ColumnarFileFooter.RowGroup rowGroup) {
+        if (condition instanceof BooleanCondition) {
+            BooleanCondition bc = (BooleanCondition) condition;
+            switch (bc.getType()) {
+                case AND:
+                    for (Condition c : bc.getConditions()) {
+                        if (!mightMatch(c, schema, rowGroup)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                case OR:
+                    for (Condition c : bc.getConditions()) {
+                        if (mightMatch(c, schema, rowGroup)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                default:
+                    return true;
+            }
+        }
+        if (!(condition instanceof BaseColumnCondition)) {
+            return true;
+        }
+
+        int column = schema.getIndexOfColumn(((BaseColumnCondition) condition).columnName());
+        ColumnarFileFooter.ColumnChunk chunk = rowGroup.getColumns()[column];
+        byte enc = chunk.getEncoding();
+        boolean integral = enc == ENCODING_INT || enc == ENCODING_LONG;
+        boolean numeric = integral || enc == ENCODING_DOUBLE || enc == ENCODING_FLOAT;
+        boolean text = enc == ENCODING_DICTIONARY || enc == ENCODING_TEXT;
+        ColumnChunkStats stats = chunk.getStats();
+
+        //Only use the statistics where the condition's conversion of the values (toInt, toLong, etc) is exact
+        if (condition instanceof IntegerColumnCondition && enc == ENCODING_INT) {
+            IntegerColumnCondition c = (IntegerColumnCondition) condition;
+            return stats.mightMatch(c.getOp(), c.getValue(), c.getSet());
+        } else if (condition instanceof LongColumnCondition && integral) {
+            LongColumnCondition c = (LongColumnCondition) condition;
+            return stats.mightMatch(c.getOp(), c.getValue(), c.getSet());
+        } else if (condition instanceof TimeColumnCondition && integral) {
+            TimeColumnCondition c = (TimeColumnCondition) condition;
+            return stats.mightMatch(c.getOp(), c.getValue(), c.getSet());
+        } else if (condition instanceof DoubleColumnCondition && numeric) {
+            DoubleColumnCondition c = (DoubleColumnCondition) condition;
+            return stats.mightMatch(c.getOp(), c.getValue(), c.getSet());
+        } else if (condition instanceof StringColumnCondition && text) {
+            StringColumnCondition c = (StringColumnCondition) condition;
+            return stats.mightMatch(c.getOp(), c.getValue(), c.getSet());
+        } else if (condition instanceof CategoricalColumnCondition && text) {
+            CategoricalColumnCondition c = (CategoricalColumnCondition) condition;
+            return stats.mightMatch(c.getOp(), c.getValue(), c.getSet());
+        }
+        return true;
+    }
+}
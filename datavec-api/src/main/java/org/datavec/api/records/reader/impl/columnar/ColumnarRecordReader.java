@@ -0,0 +1,450 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader.impl.columnar;
+
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.metadata.RecordMetaDataIndex;
+import org.datavec.api.records.reader.BaseRecordReader;
+import org.datavec.api.split.InputSplit;
+import org.datavec.api.transform.batch.ColumnBatch;
+import org.datavec.api.transform.batch.ColumnVector;
+import org.datavec.api.transform.batch.WritableColumnVector;
+import org.datavec.api.transform.condition.Condition;
+import org.datavec.api.transform.metadata.ColumnMetaData;
+import org.datavec.api.transform.plan.ExecutionPlanCompiler;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.NullWritable;
+import org.datavec.api.writable.Writable;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.util.*;
+
+/**
+ * Reads records from files in the DataVec columnar format (see {@link ColumnarFormat}), as written by
+ * {@link org.datavec.api.records.writer.impl.columnar.ColumnarRecordWriter}.<br>
+ * <br>
+ * Two optional features reduce the amount of data read and decoded:
+ * <ul>
+ * <li>Column projection: only the specified columns are returned (in the specified order), and only those columns
+ * (plus any columns needed for the filter condition) are read from disk</li>
+ * <li>Filtering: only records for which the {@link Condition} returns true are returned. Row groups that cannot
+ * contain any matching record (as determined from the min/max statistics of each column chunk - see
+ * {@link ColumnarFormat#mightMatch(Condition, Schema, ColumnarFileFooter.RowGroup)}) are skipped without being read.
+ * The condition is evaluated in columnar mode where supported (see
+ * {@link ColumnBatch#conditionMask(Condition)})</li>
+ * </ul>
+ * Records can also be read directly as {@link ColumnBatch}es via {@link #nextBatch()}, avoiding the conversion of
+ * primitive columns to Writables.<br>
+ * The {@link RecordMetaDataIndex} of each record (see {@link #nextRecord()}) contains the index of the record within
+ * its file. Only local files are supported.
+ */
+public class ColumnarRecordReader extends BaseRecordReader {
+
+    private final List<String> columns;
+    private final Condition condition;
+
+    private Configuration conf;
+    private InputSplit inputSplit;
+    private URI[] locations;
+    private int fileIndex;
+    private RandomAccessFile file;
+    private ColumnarFileFooter footer;
+    private long[] rowGroupOffsets;
+    private int rowGroupIndex;
+    private int[] outputColumns; //Indices (in the file schema) of the columns to return
+    private boolean[] readColumns; //Columns to read: output columns, plus those required by the condition
+    private Schema outputSchema;
+
+    private ColumnBatch current;
+    private long[] currentRowIndices;
+    private int position;
+    private long lastRowIndex;
+    private URI lastUri;
+
+    private long rowGroupsRead;
+    private long rowGroupsSkipped;
+
+    /**
+     * Read all columns of all records
+     */
+    public ColumnarRecordReader() {
+        this(null, null);
+    }
+
+    /**
+     * @param columns   Names of the columns to return, in order. If null: return all columns
+     * @param condition Condition: only records for which the condition is true are returned. If null: return all
+     *                  records
+     */
+    public ColumnarRecordReader(List<String> columns, Condition condition) {
+        this.columns = (columns == null ? null : new ArrayList<>(columns));
+        this.condition = condition;
+    }
+
+    @Override
+    public void initialize(InputSplit split) throws IOException, InterruptedException {
+        URI[] uris = split.locations();
+        for (URI uri : uris) {
+            if (!"file".equals(uri.getScheme())) {
+                throw new UnsupportedOperationException("Unsupported location: " + uri
+                                + ". ColumnarRecordReader only supports local files");
+            }
+        }
+        close();
+        this.inputSplit = split;
+        this.locations = uris;
+        this.fileIndex = -1;
+        this.lastUri = null;
+        if (uris.length > 0) {
+            try (RandomAccessFile f = new RandomAccessFile(new File(uris[0]), "r")) {
+                setSchema(ColumnarFileFooter.read(f).getSchema());
+            }
+        }
+    }
+
+    @Override
+    public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
+        this.conf = conf;
+        initialize(split);
+    }
+
+    private void setSchema(Schema fileSchema) {
+        int n = fileSchema.numColumns();
+        readColumns = new boolean[n];
+        if (columns == null) {
+            outputColumns = new int[n];
+            for (int i = 0; i < n; i++) {
+                outputColumns[i] = i;
+            }
+            outputSchema = fileSchema;
+        } else {
+            outputColumns = new int[columns.size()];
+            List<ColumnMetaData> meta = new ArrayList<>();
+            for (int i = 0; i < outputColumns.length; i++) {
+                int idx = fileSchema.getIndexOfColumn(columns.get(i));
+                outputColumns[i] = idx;
+                meta.add(fileSchema.getMetaData(idx));
+            }
+            outputSchema = fileSchema.newSchema(meta);
+        }
+        for (int i : outputColumns) {
+            readColumns[i] = true;
+        }
+
+        if (condition != null) {
+            condition.setInputSchema(fileSchema);
+            Set<String> conditionColumns = ExecutionPlanCompiler.inputColumns(condition);
+            for (int i = 0; i < n; i++) {
+                if (conditionColumns == null || conditionColumns.contains(fileSchema.getName(i))) {
+                    readColumns[i] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Schema of the returned records (i.e., after column projection). Available after initialization
+     */
+    public Schema getSchema() {
+        return outputSchema;
+    }
+
+    /**
+     * @return Number of row groups read (i.e., not skipped) since the reader was created
+     */
+    public long getRowGroupsRead() {
+        return rowGroupsRead;
+    }
+
+    /**
+     * @return Number of row groups skipped (based on the filter condition and the column chunk statistics) since the
+     * reader was created
+     */
+    public long getRowGroupsSkipped() {
+        return rowGroupsSkipped;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (current != null && position < current.getNumRows()) {
+            return true;
+        }
+        if (locations == null) {
+            throw new IllegalStateException("Cannot get next record: record reader has not been initialized");
+        }
+        try {
+            while (true) {
+                if (file == null) {
+                    if (fileIndex + 1 >= locations.length) {
+                        current = null;
+                        return false;
+                    }
+                    openFile(++fileIndex);
+                }
+                if (rowGroupIndex >= footer.getRowGroups().size()) {
+                    file.close();
+                    file = null;
+                    continue;
+                }
+                int rg = rowGroupIndex++;
+                if (condition != null
+                                && !ColumnarFormat.mightMatch(condition, footer.getSchema(), footer.getRowGroups().get(rg))) {
+                    rowGroupsSkipped++;
+                    continue;
+                }
+                rowGroupsRead++;
+                readRowGroup(rg);
+                if (current.getNumRows() > 0) {
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading columnar file " + locations[fileIndex], e);
+        }
+    }
+
+    private void openFile(int idx) throws IOException {
+        file = new RandomAccessFile(new File(locations[idx]), "r");
+        footer = ColumnarFileFooter.read(file);
+        rowGroupOffsets = footer.rowGroupOffsets();
+        rowGroupIndex = 0;
+        setSchema(footer.getSchema());
+    }
+
+    private ColumnVector readChunk(RandomAccessFile f, ColumnarFileFooter.RowGroup rowGroup, int column)
+                    throws IOException {
+        ColumnarFileFooter.ColumnChunk chunk = rowGroup.getColumns()[column];
+        byte[] data = new byte[chunk.getStoredLength()];
+        f.seek(chunk.getOffset());
+        f.readFully(data);
+        if (chunk.isCompressed()) {
+            data = ColumnarFormat.decompress(data, chunk.getRawLength());
+        }
+        return ColumnarFormat.decode(chunk.getEncoding(), data, rowGroup.getNumRows());
+    }
+
+    private void readRowGroup(int rg) throws IOException {
+        ColumnarFileFooter.RowGroup rowGroup = footer.getRowGroups().get(rg);
+        int numRows = rowGroup.getNumRows();
+        Schema fileSchema = footer.getSchema();
+        ColumnVector[] all = new ColumnVector[fileSchema.numColumns()];
+        for (int i = 0; i < all.length; i++) {
+            if (readColumns[i]) {
+                all[i] = readChunk(file, rowGroup, i);
+            }
+        }
+
+        boolean[] remove = null;
+        int numKept = numRows;
+        if (condition != null) {
+            //Columns not used by the condition are not read: use placeholder values
+            WritableColumnVector placeholder = null;
+            ColumnVector[] forCondition = new ColumnVector[all.length];
+            for (int i = 0; i < all.length; i++) {
+                if (all[i] == null) {
+                    if (placeholder == null) {
+                        Writable[] nulls = new Writable[numRows];
+                        Arrays.fill(nulls, NullWritable.INSTANCE);
+                        placeholder = new WritableColumnVector(nulls);
+                    }
+                    forCondition[i] = placeholder;
+                } else {
+                    forCondition[i] = all[i];
+                }
+            }
+            boolean[] match = new ColumnBatch(fileSchema, numRows, forCondition).conditionMask(condition);
+            remove = new boolean[numRows];
+            for (int i = 0; i < numRows; i++) {
+                remove[i] = !match[i];
+                if (remove[i]) {
+                    numKept--;
+                }
+            }
+        }
+
+        ColumnVector[] out = new ColumnVector[outputColumns.length];
+        for (int i = 0; i < out.length; i++) {
+            ColumnVector v = all[outputColumns[i]];
+            out[i] = (numKept == numRows ? v : v.removeRows(remove, numKept));
+        }
+        current = new ColumnBatch(outputSchema, numKept, out);
+        currentRowIndices = new long[numKept];
+        long first = rowGroupOffsets[rg];
+        for (int i = 0, j = 0; i < numRows; i++) {
+            if (numKept == numRows || !remove[i]) {
+                currentRowIndices[j++] = first + i;
+            }
+        }
+        position = 0;
+    }
+
+    @Override
+    public List<Writable> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No next element found!");
+        }
+        List<Writable> ret = current.getRow(position);
+        lastRowIndex = currentRowIndices[position];
+        lastUri = locations[fileIndex];
+        position++;
+        invokeListeners(ret);
+        return ret;
+    }
+
+    /**
+     * Return the remaining records of the current row group (after projection and filtering) as a
+     * {@link ColumnBatch}. The number of rows in each batch is determined by the row group size of the file, and the
+     * filter condition (if any). Columns stored with a primitive encoding are returned as primitive column vectors,
+     * without creating Writables
+     *
+     * @return Batch of records, or null if there are no more records
+     */
+    public ColumnBatch nextBatch() {
+        if (!hasNext()) {
+            return null;
+        }
+        ColumnBatch ret = current;
+        if (position > 0) {
+            boolean[] remove = new boolean[current.getNumRows()];
+            Arrays.fill(remove, 0, position, true);
+            ret = current.removeRows(remove);
+        }
+        lastRowIndex = currentRowIndices[currentRowIndices.length - 1];
+        lastUri = locations[fileIndex];
+        position = current.getNumRows();
+        return ret;
+    }
+
+    @Override
+    public Record nextRecord() {
+        List<Writable> next = next();
+        return new org.datavec.api.records.impl.Record(next,
+                        new RecordMetaDataIndex(lastRowIndex, lastUri, ColumnarRecordReader.class));
+    }
+
+    @Override
+    public Record loadFromMetaData(RecordMetaData recordMetaData) throws IOException {
+        return loadFromMetaData(Collections.singletonList(recordMetaData)).get(0);
+    }
+
+    @Override
+    public List<Record> loadFromMetaData(List<RecordMetaData> recordMetaDatas) throws IOException {
+        //Group by file and row group, so each required column chunk is read once
+        Map<URI, TreeMap<Long, List<Writable>>> byUri = new LinkedHashMap<>();
+        for (RecordMetaData rmd : recordMetaDatas) {
+            if (!(rmd instanceof RecordMetaDataIndex)) {
+                throw new IllegalArgumentException("Invalid metadata; expected RecordMetaDataIndex instance; got: "
+                                + rmd);
+            }
+            if (!byUri.containsKey(rmd.getURI())) {
+                byUri.put(rmd.getURI(), new TreeMap<Long, List<Writable>>());
+            }
+            byUri.get(rmd.getURI()).put(((RecordMetaDataIndex) rmd).getIndex(), null);
+        }
+
+        for (Map.Entry<URI, TreeMap<Long, List<Writable>>> e : byUri.entrySet()) {
+            try (RandomAccessFile f = new RandomAccessFile(new File(e.getKey()), "r")) {
+                ColumnarFileFooter fileFooter = ColumnarFileFooter.read(f);
+                setSchema(fileFooter.getSchema());
+                long[] offsets = fileFooter.rowGroupOffsets();
+                int loadedGroup = -1;
+                ColumnVector[] loaded = new ColumnVector[outputColumns.length];
+                for (Map.Entry<Long, List<Writable>> r : e.getValue().entrySet()) {
+                    long idx = r.getKey();
+                    if (idx < 0 || idx >= offsets[offsets.length - 1]) {
+                        throw new IllegalArgumentException("Invalid record index " + idx + " for file " + e.getKey()
+                                        + " with " + offsets[offsets.length - 1] + " records");
+                    }
+                    int rg = Arrays.binarySearch(offsets, idx);
+                    rg = (rg >= 0 ? rg : -(rg + 1) - 1);
+                    while (fileFooter.getRowGroups().get(rg).getNumRows() == 0) {
+                        rg++;
+                    }
+                    if (rg != loadedGroup) {
+                        for (int i = 0; i < outputColumns.length; i++) {
+                            loaded[i] = readChunk(f, fileFooter.getRowGroups().get(rg), outputColumns[i]);
+                        }
+                        loadedGroup = rg;
+                    }
+                    List<Writable> record = new ArrayList<>(loaded.length);
+                    for (ColumnVector v : loaded) {
+                        record.add(v.getWritable((int) (idx - offsets[rg])));
+                    }
+                    r.setValue(record);
+                }
+            }
+        }
+        if (footer != null) {
+            //Restore the state for the current file
+            setSchema(footer.getSchema());
+        }
+
+        List<Record> out = new ArrayList<>(recordMetaDatas.size());
+        for (RecordMetaData rmd : recordMetaDatas) {
+            List<Writable> r = byUri.get(rmd.getURI()).get(((RecordMetaDataIndex) rmd).getIndex());
+            out.add(new org.datavec.api.records.impl.Record(r, rmd));
+        }
+        return out;
+    }
+
+    @Override
+    public List<Writable> record(URI uri, DataInputStream dataInputStream) throws IOException {
+        throw new UnsupportedOperationException("Reading columnar data from DataInputStream is not supported");
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return null;
+    }
+
+    @Override
+    public void reset() {
+        if (inputSplit == null)
+            throw new UnsupportedOperationException("Cannot reset without first initializing");
+        try {
+            initialize(inputSplit);
+        } catch (Exception e) {
+            throw new RuntimeException("Error during ColumnarRecordReader reset", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (file != null) {
+            file.close();
+            file = null;
+        }
+        footer = null;
+        current = null;
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        this.conf = conf;
+    }
+
+    @Override
+    public Configuration getConf() {
+        return conf;
+    }
+}
@@ -0,0 +1,483 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader.impl.csv;
+
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.metadata.RecordMetaDataIndex;
+import org.datavec.api.records.metadata.RecordMetaDataLine;
+import org.datavec.api.records.reader.BaseRecordReader;
+import org.datavec.api.split.InputSplit;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.batch.*;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.*;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.*;
+
+/**
+ * A high-throughput CSV record reader for local files.<br>
+ * Unlike {@link CSVRecordReader}, which reads each line as a String and splits it into a String per value, this
+ * record reader memory-maps the files and scans delimiters and quotes directly on the bytes (see
+ * {@link MappedCSVScanner}).<br>
+ * If a {@link Schema} is provided, Integer, Long, Double and Float columns are parsed directly from the bytes into
+ * {@link IntWritable}, {@link LongWritable}, {@link DoubleWritable} and {@link FloatWritable} values respectively
+ * (values that cannot be parsed are returned as {@link Text}); all other columns are returned as Text. Without a
+ * schema, all values are returned as Text, as per CSVRecordReader. With a schema, records can also be read directly
+ * into a columnar {@link ColumnBatch} via {@link #nextBatch(int)}.<br>
+ * <br>
+ * Limitations and differences vs. CSVRecordReader:
+ * <ul>
+ * <li>Only local files are supported (i.e., InputSplits with file URIs, such as FileSplit)</li>
+ * <li>Files must be UTF-8 (or ASCII) encoded, and the delimiter and quote characters must be ASCII characters</li>
+ * <li>Quotes are handled as per RFC 4180: a quote within a quoted value is escaped by doubling it. Unlike
+ * CSVRecordReader, a quoted value may contain newlines</li>
+ * </ul>
+ * The line numbers in the {@link RecordMetaDataLine} of each record are the index of the record in its file
+ * (including any skipped lines); these are equal to line numbers unless quoted values contain newlines. For records
+ * with an index above Integer.MAX_VALUE (which RecordMetaDataLine cannot hold), the metadata is a
+ * {@link RecordMetaDataIndex} instead.
+ */
+public class MappedCSVRecordReader extends BaseRecordReader {
+
+    protected int skipNumLines;
+    protected char delimiter;
+    protected char quote;
+    protected Schema schema;
+    protected int mapSize;
+
+    protected Configuration conf;
+    protected InputSplit inputSplit;
+    protected URI[] locations;
+    protected int splitIndex = -1;
+    protected MappedCSVScanner scanner;
+    protected long recordIndex = -1; //Index of the current record within the current file
+    protected ColumnType[] columnTypes;
+    private boolean hasNextRecord = false; //True if the scanner is positioned at a record not yet returned
+
+    public MappedCSVRecordReader() {
+        this(0);
+    }
+
+    /**
+     * @param skipNumLines Number of lines to skip at the start of each file
+     */
+    public MappedCSVRecordReader(int skipNumLines) {
+        this(skipNumLines, CSVRecordReader.DEFAULT_DELIMITER);
+    }
+
+    /**
+     * @param skipNumLines Number of lines to skip at the start of each file
+     * @param delimiter    Delimiter character
+     */
+    public MappedCSVRecordReader(int skipNumLines, char delimiter) {
+        this(skipNumLines, delimiter, CSVRecordReader.DEFAULT_QUOTE);
+    }
+
+    /**
+     * @param skipNumLines Number of lines to skip at the start of each file
+     * @param delimiter    Delimiter character
+     * @param quote        Quote character
+     */
+    public MappedCSVRecordReader(int skipNumLines, char delimiter, char quote) {
+        this(skipNumLines, delimiter, quote, null);
+    }
+
+    /**
+     * @param skipNumLines Number of lines to skip at the start of each file
+     * @param delimiter    Delimiter character
+     * @param quote        Quote character
+     * @param schema       Schema of the data. May be null, in which case all values are returned as Text
+     */
+    public MappedCSVRecordReader(int skipNumLines, char delimiter, char quote, Schema schema) {
+        this(skipNumLines, delimiter, quote, schema, MappedCSVScanner.DEFAULT_MAP_SIZE);
+    }
+
+    /**
+     * @param skipNumLines Number of lines to skip at the start of each file
+     * @param delimiter    Delimiter character
+     * @param quote        Quote character
+     * @param schema       Schema of the data. May be null, in which case all values are returned as Text
+     * @param mapSize      Size (in bytes) of the regions of each file to memory-map at once
+     */
+    public MappedCSVRecordReader(int skipNumLines, char delimiter, char quote, Schema schema, int mapSize) {
+        this.skipNumLines = skipNumLines;
+        this.delimiter = delimiter;
+        this.quote = quote;
+        this.mapSize = mapSize;
+        setSchema(schema);
+    }
+
+    private void setSchema(Schema schema) {
+        this.schema = schema;
+        if (schema != null) {
+            columnTypes = schema.getColumnTypes().toArray(new ColumnType[schema.numColumns()]);
+        } else {
+            columnTypes = null;
+        }
+    }
+
+    @Override
+    public void initialize(InputSplit split) throws IOException, InterruptedException {
+        URI[] uris = split.locations();
+        if (uris == null) {
+            throw new UnsupportedOperationException("Unsupported input split: " + split
+                            + ". MappedCSVRecordReader only supports local files");
+        }
+        for (URI uri : uris) {
+            if (!"file".equals(uri.getScheme())) {
+                throw new UnsupportedOperationException("Unsupported location: " + uri
+                                + ". MappedCSVRecordReader only supports local files");
+            }
+        }
+        close();
+        this.inputSplit = split;
+        this.locations = uris;
+        this.splitIndex = -1;
+        this.hasNextRecord = false;
+    }
+
+    @Override
+    public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
+        this.conf = conf;
+        this.skipNumLines = conf.getInt(CSVRecordReader.SKIP_NUM_LINES, skipNumLines);
+        this.delimiter = conf.getChar(CSVRecordReader.DELIMITER, delimiter);
+        this.quote = conf.getChar(CSVRecordReader.QUOTE, quote);
+        initialize(split);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (hasNextRecord) {
+            return true;
+        }
+        if (locations == null) {
+            throw new IllegalStateException("Cannot get next record: record reader has not been initialized");
+        }
+        try {
+            while (true) {
+                if (scanner == null) {
+                    if (splitIndex + 1 >= locations.length) {
+                        return false;
+                    }
+                    splitIndex++;
+                    recordIndex = -1;
+                    scanner = new MappedCSVScanner(new File(locations[splitIndex]), 0, Long.MAX_VALUE, delimiter,
+                                    quote, mapSize);
+                }
+                if (scanner.next()) {
+                    if (++recordIndex >= skipNumLines) {
+                        hasNextRecord = true;
+                        return true;
+                    }
+                } else {
+                    scanner.close();
+                    scanner = null;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading from " + locations[splitIndex], e);
+        }
+    }
+
+    @Override
+    public List<Writable> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No next element found!");
+        }
+        hasNextRecord = false;
+        List<Writable> ret = currentRecord(scanner, columnTypes);
+        invokeListeners(ret);
+        return ret;
+    }
+
+    /**
+     * Read the next records into a {@link ColumnBatch}. Integer, Long and Double columns are parsed directly into
+     * primitive arrays; if any value in such a column cannot be parsed, that column falls back to storing Writables,
+     * as per {@link #next()}. Calling {@link ColumnBatch#toRecords()} on the returned batch gives the same records as
+     * the equivalent calls to {@link #next()}.<br>
+     * A schema must have been provided to use this method.
+     *
+     * @param maxRows Maximum number of records to read
+     * @return Batch with at most maxRows rows (fewer if there are no more records)
+     */
+    public ColumnBatch nextBatch(int maxRows) {
+        if (schema == null) {
+            throw new IllegalStateException("Cannot read batch: no schema was provided");
+        }
+        int nCols = columnTypes.length;
+        ColumnBuilder[] builders = new ColumnBuilder[nCols];
+        for (int i = 0; i < nCols; i++) {
+            builders[i] = new ColumnBuilder(columnTypes[i], Math.max(1, Math.min(maxRows, 1024)));
+        }
+
+        int numRows = 0;
+        while (numRows < maxRows && hasNext()) {
+            hasNextRecord = false;
+            if (scanner.numFields() != nCols) {
+                throw new IllegalStateException("Invalid record " + recordIndex + " in " + locations[splitIndex]
+                                + ": expected " + nCols + " values (schema), got " + scanner.numFields());
+            }
+            for (int i = 0; i < nCols; i++) {
+                builders[i].add(scanner, i);
+            }
+            numRows++;
+        }
+
+        ColumnVector[] columns = new ColumnVector[nCols];
+        for (int i = 0; i < nCols; i++) {
+            columns[i] = builders[i].build(numRows);
+        }
+        return new ColumnBatch(schema, numRows, columns);
+    }
+
+    protected static List<Writable> currentRecord(MappedCSVScanner scanner, ColumnType[] columnTypes) {
+        int n = scanner.numFields();
+        List<Writable> ret = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            ret.add(toWritable(scanner, i, columnTypes == null || i >= columnTypes.length ? null : columnTypes[i]));
+        }
+        return ret;
+    }
+
+    protected static Writable toWritable(MappedCSVScanner scanner, int field, ColumnType type) {
+        if (type != null) {
+            try {
+                switch (type) {
+                    case Integer:
+                        return new IntWritable(scanner.parseInt(field));
+                    case Long:
+                        return new LongWritable(scanner.parseLong(field));
+                    case Double:
+                        return new DoubleWritable(scanner.parseDouble(field));
+                    case Float:
+                        return new FloatWritable((float) scanner.parseDouble(field));
+                    default:
+                        break;
+                }
+            } catch (NumberFormatException e) {
+                //Invalid value: return as Text, as per CSVRecordReader
+            }
+        }
+        return scanner.getText(field);
+    }
+
+    @Override
+    public Record nextRecord() {
+        List<Writable> next = next();
+        RecordMetaData meta = metaData(recordIndex, locations[splitIndex], MappedCSVRecordReader.class);
+        return new org.datavec.api.records.impl.Record(next, meta);
+    }
+
+    /**
+     * @return Metadata for the record with the specified index in its file: a RecordMetaDataLine, or a
+     *         RecordMetaDataIndex if the index is above Integer.MAX_VALUE
+     */
+    protected static RecordMetaData metaData(long recordIndex, URI uri, Class<?> readerClass) {
+        if (recordIndex > Integer.MAX_VALUE) {
+            return new RecordMetaDataIndex(recordIndex, uri, readerClass);
+        }
+        return new RecordMetaDataLine((int) recordIndex, uri, readerClass);
+    }
+
+    /**
+     * @return Index of the record in its file, from metadata created by {@link #metaData(long, URI, Class)}
+     */
+    protected static long recordIndexOf(RecordMetaData rmd) {
+        if (rmd instanceof RecordMetaDataLine) {
+            return ((RecordMetaDataLine) rmd).getLineNumber();
+        } else if (rmd instanceof RecordMetaDataIndex) {
+            return ((RecordMetaDataIndex) rmd).getIndex();
+        }
+        throw new IllegalArgumentException(
+                        "Invalid metadata; expected RecordMetaDataLine or RecordMetaDataIndex instance; got: " + rmd);
+    }
+
+    @Override
+    public Record loadFromMetaData(RecordMetaData recordMetaData) throws IOException {
+        return loadFromMetaData(Collections.singletonList(recordMetaData)).get(0);
+    }
+
+    @Override
+    public List<Record> loadFromMetaData(List<RecordMetaData> recordMetaDatas) throws IOException {
+        //Group the requested record indices by file, then scan each file once
+        Map<URI, TreeMap<Long, List<Writable>>> byUri = new LinkedHashMap<>();
+        for (RecordMetaData rmd : recordMetaDatas) {
+            long idx = recordIndexOf(rmd);
+            URI uri = rmd.getURI();
+            if (!byUri.containsKey(uri)) {
+                byUri.put(uri, new TreeMap<Long, List<Writable>>());
+            }
+            byUri.get(uri).put(idx, null);
+        }
+
+        for (Map.Entry<URI, TreeMap<Long, List<Writable>>> e : byUri.entrySet()) {
+            TreeMap<Long, List<Writable>> records = e.getValue();
+            long last = records.lastKey();
+            try (MappedCSVScanner s = new MappedCSVScanner(new File(e.getKey()), 0, Long.MAX_VALUE, delimiter, quote,
+                            mapSize)) {
+                for (long i = 0; i <= last; i++) {
+                    if (!s.next()) {
+                        throw new IllegalStateException("Could not get record " + last + " from URI " + e.getKey()
+                                        + ": has only " + i + " records");
+                    }
+                    if (records.containsKey(i)) {
+                        records.put(i, currentRecord(s, columnTypes));
+                    }
+                }
+            }
+        }
+
+        List<Record> out = new ArrayList<>(recordMetaDatas.size());
+        for (RecordMetaData rmd : recordMetaDatas) {
+            List<Writable> r = byUri.get(rmd.getURI()).get(recordIndexOf(rmd));
+            out.add(new org.datavec.api.records.impl.Record(r, rmd));
+        }
+        return out;
+    }
+
+    @Override
+    public List<Writable> record(URI uri, DataInputStream dataInputStream) throws IOException {
+        throw new UnsupportedOperationException("Reading CSV data from DataInputStream is not supported by "
+                        + "MappedCSVRecordReader");
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return null;
+    }
+
+    @Override
+    public void reset() {
+        if (inputSplit == null)
+            throw new UnsupportedOperationException("Cannot reset without first initializing");
+        try {
+            initialize(inputSplit);
+        } catch (Exception e) {
+            throw new RuntimeException("Error during MappedCSVRecordReader reset", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (scanner != null) {
+            scanner.close();
+            scanner = null;
+        }
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        this.conf = conf;
+    }
+
+    @Override
+    public Configuration getConf() {
+        return conf;
+    }
+
+    /**
+     * Accumulates the values of one column for {@link #nextBatch(int)}. Integer, Long and Double columns are stored in
+     * primitive arrays until a value cannot be parsed; all other columns are stored as Writables
+     */
+    private static class ColumnBuilder {
+        private final ColumnType type;
+        private int[] ints;
+        private long[] longs;
+        private double[] doubles;
+        private Writable[] writables;
+        private int size;
+
+        private ColumnBuilder(ColumnType type, int capacity) {
+            this.type = type;
+            switch (type) {
+                case Integer:
+                    ints = new int[capacity];
+                    break;
+                case Long:
+                    longs = new long[capacity];
+                    break;
+                case Double:
+                    doubles = new double[capacity];
+                    break;
+                default:
+                    writables = new Writable[capacity];
+            }
+        }
+
+        private void add(MappedCSVScanner scanner, int field) {
+            if (writables == null) {
+                try {
+                    if (ints != null) {
+                        int v = scanner.parseInt(field);
+                        if (size == ints.length)
+                            ints = Arrays.copyOf(ints, 2 * size);
+                        ints[size++] = v;
+                    } else if (longs != null) {
+                        long v = scanner.parseLong(field);
+                        if (size == longs.length)
+                            longs = Arrays.copyOf(longs, 2 * size);
+                        longs[size++] = v;
+                    } else {
+                        double v = scanner.parseDouble(field);
+                        if (size == doubles.length)
+                            doubles = Arrays.copyOf(doubles, 2 * size);
+                        doubles[size++] = v;
+                    }
+                    return;
+                } catch (NumberFormatException e) {
+                    toWritables();
+                }
+            }
+            if (size == writables.length)
+                writables = Arrays.copyOf(writables, 2 * size);
+            writables[size++] = toWritable(scanner, field, type);
+        }
+
+        private void toWritables() {
+            writables = new Writable[Math.max(2 * size, 16)];
+            for (int i = 0; i < size; i++) {
+                if (ints != null) {
+                    writables[i] = new IntWritable(ints[i]);
+                } else if (longs != null) {
+                    writables[i] = new LongWritable(longs[i]);
+                } else {
+                    writables[i] = new DoubleWritable(doubles[i]);
+                }
+            }
+            ints = null;
+            longs = null;
+            doubles = null;
+        }
+
+        private ColumnVector build(int numRows) {
+            if (ints != null) {
+                return new IntColumnVector(Arrays.copyOf(ints, numRows));
+            } else if (longs != null) {
+                return new LongColumnVector(Arrays.copyOf(longs, numRows));
+            } else if (doubles != null) {
+                return new DoubleColumnVector(Arrays.copyOf(doubles, numRows));
+            }
+            return ColumnVector.fromWritables(Arrays.copyOf(writables, numRows));
+        }
+    }
+}
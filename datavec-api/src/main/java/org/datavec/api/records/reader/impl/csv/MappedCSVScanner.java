@@ -0,0 +1,416 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader.impl.csv;
+
+import org.datavec.api.writable.Text;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Scans CSV records directly from a memory-mapped file, without creating a String per line or per value.<br>
+ * The file is mapped in windows of (by default) {@link #DEFAULT_MAP_SIZE} bytes; records that cross the end of a
+ * window are handled by remapping the file, starting at the beginning of that record.<br>
+ * After each call to {@link #next()}, the fields of the current record can be accessed as {@link Text}
+ * ({@link #getText(int)}) or parsed directly from the underlying bytes ({@link #parseInt(int)},
+ * {@link #parseLong(int)}, {@link #parseDouble(int)}).<br>
+ * <br>
+ * Quoting follows RFC 4180: a quoted field may contain delimiters and newlines, and a quote character within a quoted
+ * field is escaped by doubling it. Lines may be terminated by \n, \r\n or \r. The file must be UTF-8 (or ASCII)
+ * encoded, and the delimiter and quote characters must be ASCII characters.<br>
+ * A scanner can optionally be restricted to a byte range of the file: in that case, all records that start before
+ * the end of the range are returned (the last one may extend past the end of the range). The start of the range
+ * must be the start of a record.<br>
+ * Instances are not thread safe.
+ */
+public class MappedCSVScanner implements Closeable {
+
+    public static final int DEFAULT_MAP_SIZE = 64 * 1024 * 1024;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final int MAX_FAST_PATH_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+                    1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final long fileSize;
+    private final long end;
+    private final byte delimiter;
+    private final byte quote;
+    private final int mapSize;
+
+    private MappedByteBuffer buffer;
+    private long bufferOffset; //Offset in the file of position 0 of the buffer
+    private int position; //Position in the buffer of the next record
+    private long recordStart = -1;
+
+    private int numFields;
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private boolean[] fieldQuoted = new boolean[16];
+    private byte[] scratch = new byte[64];
+
+    /**
+     * Scan all records in the specified file
+     *
+     * @param file      File to scan
+     * @param delimiter Delimiter character (ASCII)
+     * @param quote     Quote character (ASCII)
+     */
+    public MappedCSVScanner(File file, char delimiter, char quote) throws IOException {
+        this(file, 0, Long.MAX_VALUE, delimiter, quote, DEFAULT_MAP_SIZE);
+    }
+
+    /**
+     * @param file      File to scan
+     * @param start     Byte offset of the first record to scan. Must be 0 or the start of a record
+     * @param end       Scan the records that start before this byte offset
+     * @param delimiter Delimiter character (ASCII)
+     * @param quote     Quote character (ASCII)
+     * @param mapSize   Size (in bytes) of the regions of the file to map at once
+     */
+    public MappedCSVScanner(File file, long start, long end, char delimiter, char quote, int mapSize)
+                    throws IOException {
+        if (delimiter > 127 || quote > 127) {
+            throw new IllegalArgumentException("Delimiter and quote characters must be ASCII characters: got "
+                            + "delimiter='" + delimiter + "', quote='" + quote + "'");
+        }
+        if (mapSize <= 0) {
+            throw new IllegalArgumentException("Map size must be positive: got " + mapSize);
+        }
+        this.file = new RandomAccessFile(file, "r");
+        this.channel = this.file.getChannel();
+        this.fileSize = channel.size();
+        this.end = Math.min(end, fileSize);
+        this.delimiter = (byte) delimiter;
+        this.quote = (byte) quote;
+        this.mapSize = mapSize;
+        map(Math.min(start, fileSize), mapSize);
+    }
+
+    private void map(long offset, long size) throws IOException {
+        size = Math.min(size, fileSize - offset);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Cannot scan CSV record starting at byte " + offset
+                            + ": record is too long (more than 2GB)");
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+        bufferOffset = offset;
+        position = 0;
+    }
+
+    /**
+     * Scan the next record
+     *
+     * @return True if a record was found; false if there are no more records in the file (or range)
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            long start = bufferOffset + position;
+            if (start >= end) {
+                return false;
+            }
+            int next = scanRecord(position);
+            if (next >= 0) {
+                recordStart = start;
+                position = next;
+                return true;
+            }
+            //Record is not complete in the current region: remap, starting at this record
+            //If the record is longer than an entire region, double the region size
+            long size = (position == 0 ? 2L * buffer.limit() : mapSize);
+            map(start, Math.max(size, mapSize));
+        }
+    }
+
+    /**
+     * Scan a record starting at the given buffer position.
+     *
+     * @return Buffer position of the start of the next record, or -1 if the record is not complete in the buffer
+     */
+    private int scanRecord(int p) {
+        int limit = buffer.limit();
+        boolean atEof = bufferOffset + limit >= fileSize;
+        numFields = 0;
+        int fieldStart = p;
+        boolean inQuotes = false;
+        boolean quoted = false;
+        while (true) {
+            if (p >= limit) {
+                if (!atEof) {
+                    return -1;
+                }
+                addField(fieldStart, p, quoted);
+                return p;
+            }
+            byte b = buffer.get(p);
+            if (b == quote) {
+                //Escaped (doubled) quotes toggle twice; they are unescaped when the value is read
+                quoted = true;
+                inQuotes = !inQuotes;
+            } else if (!inQuotes) {
+                if (b == delimiter) {
+                    addField(fieldStart, p, quoted);
+                    fieldStart = p + 1;
+                    quoted = false;
+                } else if (b == '\n') {
+                    addField(fieldStart, p, quoted);
+                    return p + 1;
+                } else if (b == '\r') {
+                    if (p + 1 >= limit && !atEof) {
+                        return -1;
+                    }
+                    addField(fieldStart, p, quoted);
+                    return (p + 1 < limit && buffer.get(p + 1) == '\n') ? p + 2 : p + 1;
+                }
+            }
+            p++;
+        }
+    }
+
+    private void addField(int start, int end, boolean quoted) {
+        if (numFields == fieldStarts.length) {
+            int newLength = 2 * numFields;
+            int[] newStarts = new int[newLength];
+            int[] newEnds = new int[newLength];
+            boolean[] newQuoted = new boolean[newLength];
+            System.arraycopy(fieldStarts, 0, newStarts, 0, numFields);
+            System.arraycopy(fieldEnds, 0, newEnds, 0, numFields);
+            System.arraycopy(fieldQuoted, 0, newQuoted, 0, numFields);
+            fieldStarts = newStarts;
+            fieldEnds = newEnds;
+            fieldQuoted = newQuoted;
+        }
+        fieldStarts[numFields] = start;
+        fieldEnds[numFields] = end;
+        fieldQuoted[numFields] = quoted;
+        numFields++;
+    }
+
+    /**
+     * @return Byte offset in the file of the start of the current record
+     */
+    public long getRecordStart() {
+        return recordStart;
+    }
+
+    /**
+     * @return Byte offset in the file of the start of the next record (i.e., the end of the current record)
+     */
+    public long getRecordEnd() {
+        return bufferOffset + position;
+    }
+
+    /**
+     * @return Number of fields in the current record
+     */
+    public int numFields() {
+        return numFields;
+    }
+
+    /**
+     * Copy the (unquoted) value of the field into the scratch array
+     *
+     * @return Length of the value
+     */
+    private int copyField(int field) {
+        int start = fieldStarts[field];
+        int length = fieldEnds[field] - start;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, 2 * scratch.length)];
+        }
+        if (!fieldQuoted[field]) {
+            buffer.position(start);
+            buffer.get(scratch, 0, length);
+            return length;
+        }
+
+        int n = 0;
+        boolean inQuotes = false;
+        int end = start + length;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == quote) {
+                if (inQuotes && i + 1 < end && buffer.get(i + 1) == quote) {
+                    scratch[n++] = quote;
+                    i++;
+                } else {
+                    inQuotes = !inQuotes;
+                }
+            } else {
+                scratch[n++] = b;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * @param field Index of the field
+     * @return Value of the field (with quotes removed)
+     */
+    public Text getText(int field) {
+        int length = copyField(field);
+        Text t = new Text();
+        t.set(scratch, 0, length);
+        return t;
+    }
+
+    /**
+     * @param field Index of the field
+     * @return Value of the field (with quotes removed), as a String
+     */
+    public String getString(int field) {
+        int length = copyField(field);
+        return new String(scratch, 0, length, UTF8);
+    }
+
+    /**
+     * Parse the field as an integer, as per {@link Integer#parseInt(String)}
+     *
+     * @param field Index of the field
+     * @return Value of the field
+     * @throws NumberFormatException If the field is not a valid integer
+     */
+    public int parseInt(int field) {
+        long value = parseLong(field);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw numberFormatException(field);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parse the field as a long, as per {@link Long#parseLong(String)}
+     *
+     * @param field Index of the field
+     * @return Value of the field
+     * @throws NumberFormatException If the field is not a valid long
+     */
+    public long parseLong(int field) {
+        if (fieldQuoted[field]) {
+            return Long.parseLong(getString(field));
+        }
+        int p = fieldStarts[field];
+        int end = fieldEnds[field];
+        if (p >= end) {
+            throw numberFormatException(field);
+        }
+
+        boolean negative = false;
+        byte first = buffer.get(p);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++p == end) {
+                throw numberFormatException(field);
+            }
+        }
+
+        //Accumulate negatively, as per Long.parseLong, to handle Long.MIN_VALUE
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multMin = limit / 10;
+        long result = 0;
+        for (; p < end; p++) {
+            int digit = buffer.get(p) - '0';
+            if (digit < 0 || digit > 9 || result < multMin) {
+                throw numberFormatException(field);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw numberFormatException(field);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Parse the field as a double. The result is identical to {@link Double#parseDouble(String)}: simple decimal
+     * values with at most 15 significant digits are parsed directly from the bytes (for these, the result of a single
+     * floating point multiplication or division by a power of ten is exact); all other values (exponents, NaN, etc)
+     * are parsed using Double.parseDouble
+     *
+     * @param field Index of the field
+     * @return Value of the field
+     * @throws NumberFormatException If the field is not a valid double
+     */
+    public double parseDouble(int field) {
+        if (fieldQuoted[field]) {
+            return Double.parseDouble(getString(field));
+        }
+        int p = fieldStarts[field];
+        int end = fieldEnds[field];
+
+        boolean negative = false;
+        if (p < end) {
+            byte first = buffer.get(p);
+            if (first == '-' || first == '+') {
+                negative = first == '-';
+                p++;
+            }
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int fractionDigits = 0;
+        boolean anyDigits = false;
+        boolean seenPoint = false;
+        for (; p < end; p++) {
+            byte b = buffer.get(p);
+            int digit = b - '0';
+            if (digit >= 0 && digit <= 9) {
+                anyDigits = true;
+                if (significantDigits > 0 || digit != 0) {
+                    if (++significantDigits > MAX_FAST_PATH_DIGITS) {
+                        return Double.parseDouble(getString(field));
+                    }
+                }
+                mantissa = 10 * mantissa + digit;
+                if (seenPoint) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                return Double.parseDouble(getString(field));
+            }
+        }
+        if (!anyDigits || fractionDigits >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(getString(field));
+        }
+
+        double value = (double) mantissa;
+        if (fractionDigits > 0) {
+            value /= POWERS_OF_TEN[fractionDigits];
+        }
+        return negative ? -value : value;
+    }
+
+    private NumberFormatException numberFormatException(int field) {
+        return new NumberFormatException("For input string: \"" + getString(field) + "\"");
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        file.close();
+    }
+}
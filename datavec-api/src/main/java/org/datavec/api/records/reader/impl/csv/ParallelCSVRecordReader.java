@@ -0,0 +1,432 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader.impl.csv;
+
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.metadata.RecordMetaDataIndex;
+import org.datavec.api.records.metadata.RecordMetaDataLine;
+import org.datavec.api.split.ChunkedCSVFileSplit;
+import org.datavec.api.split.InputSplit;
+import org.datavec.api.transform.batch.ColumnBatch;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Writable;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A CSV record reader that parses each file using multiple threads.<br>
+ * Each file is divided into chunks aligned to record boundaries (see {@link ChunkedCSVFileSplit}); the chunks are
+ * then parsed concurrently (as per {@link MappedCSVRecordReader}) by a pool of worker threads. Two modes are
+ * supported:
+ * <ul>
+ * <li>Ordered (default): records are returned in the same order as {@link MappedCSVRecordReader} and
+ * {@link CSVRecordReader}. Each chunk is buffered separately, and the chunks are returned in order</li>
+ * <li>Unordered: records are returned in the order they are parsed. Records within one chunk are returned in order,
+ * but records from different chunks (and files) are interleaved. This mode gives the highest throughput, as no worker
+ * has to wait for the consumer to reach its chunk</li>
+ * </ul>
+ * In both modes, the {@link RecordMetaDataLine} of each record (see {@link #nextRecord()}) contains the index of the
+ * record within its file, as per MappedCSVRecordReader. For records with an index above Integer.MAX_VALUE (which
+ * RecordMetaDataLine cannot hold), the metadata is a {@link RecordMetaDataIndex} instead.<br>
+ * <br>
+ * If the InputSplit is a {@link ChunkedCSVFileSplit}, its chunks are used as-is. Otherwise, each file of the split
+ * is divided into chunks of at least {@link #MIN_CHUNK_SIZE} bytes (up to {@link #CHUNKS_PER_THREAD} chunks per
+ * thread).<br>
+ * Memory use is bounded: each worker can buffer at most {@link #QUEUE_CAPACITY} batches of {@link #BATCH_SIZE}
+ * records ahead of the consumer.
+ */
+public class ParallelCSVRecordReader extends MappedCSVRecordReader {
+
+    public final static String NAME_SPACE = ParallelCSVRecordReader.class.getName();
+    public final static String NUM_THREADS = NAME_SPACE + ".numthreads";
+    public final static String ORDERED = NAME_SPACE + ".ordered";
+
+    public static final long MIN_CHUNK_SIZE = 4 * 1024 * 1024;
+    public static final int CHUNKS_PER_THREAD = 4;
+    public static final int BATCH_SIZE = 1024;
+    public static final int QUEUE_CAPACITY = 4;
+
+    protected int numThreads;
+    protected boolean ordered;
+
+    private List<ChunkedCSVFileSplit> fileSplits;
+    private List<int[]> chunks; //(file index, chunk index) for each chunk, in order
+    private ExecutorService executor;
+    private List<BlockingQueue<Batch>> chunkQueues; //Ordered mode: one queue per chunk
+    private BlockingQueue<Batch> sharedQueue; //Unordered mode
+    private int currentChunk;
+    private int chunksRemaining;
+    private Batch currentBatch;
+    private int batchPosition;
+    private URI lastUri;
+    private long lastRecordIndex = -1;
+
+    public ParallelCSVRecordReader() {
+        this(Runtime.getRuntime().availableProcessors(), true);
+    }
+
+    /**
+     * @param numThreads Number of threads to use to parse the files
+     * @param ordered    If true: return the records in order. If false: return the records in the order they are
+     *                   parsed (higher throughput)
+     */
+    public ParallelCSVRecordReader(int numThreads, boolean ordered) {
+        this(0, CSVRecordReader.DEFAULT_DELIMITER, CSVRecordReader.DEFAULT_QUOTE, null, numThreads, ordered);
+    }
+
+    /**
+     * @param skipNumLines Number of lines to skip at the start of each file
+     * @param delimiter    Delimiter character
+     * @param quote        Quote character
+     * @param schema       Schema of the data. May be null, in which case all values are returned as Text
+     * @param numThreads   Number of threads to use to parse the files
+     * @param ordered      If true: return the records in order. If false: return the records in the order they are
+     *                     parsed (higher throughput)
+     */
+    public ParallelCSVRecordReader(int skipNumLines, char delimiter, char quote, Schema schema, int numThreads,
+                    boolean ordered) {
+        super(skipNumLines, delimiter, quote, schema);
+        if (numThreads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive: got " + numThreads);
+        }
+        this.numThreads = numThreads;
+        this.ordered = ordered;
+    }
+
+    @Override
+    public void initialize(InputSplit split) throws IOException, InterruptedException {
+        if (split != inputSplit) {
+            fileSplits = null;
+        }
+        if (split instanceof ChunkedCSVFileSplit && ((ChunkedCSVFileSplit) split).getQuote() != quote) {
+            throw new IllegalArgumentException("Quote character of the split ('"
+                            + ((ChunkedCSVFileSplit) split).getQuote() + "') does not match the quote character of "
+                            + "the record reader ('" + quote + "')");
+        }
+        super.initialize(split);
+        lastUri = null;
+        lastRecordIndex = -1;
+    }
+
+    @Override
+    public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
+        this.numThreads = conf.getInt(NUM_THREADS, numThreads);
+        this.ordered = conf.getBoolean(ORDERED, ordered);
+        super.initialize(conf, split);
+    }
+
+    private void start() throws IOException {
+        if (fileSplits == null) {
+            fileSplits = new ArrayList<>(locations.length);
+            if (inputSplit instanceof ChunkedCSVFileSplit) {
+                fileSplits.add((ChunkedCSVFileSplit) inputSplit);
+            } else {
+                for (URI uri : locations) {
+                    File f = new File(uri);
+                    int numChunks = (int) Math.max(1,
+                                    Math.min((long) CHUNKS_PER_THREAD * numThreads, f.length() / MIN_CHUNK_SIZE));
+                    fileSplits.add(new ChunkedCSVFileSplit(f, numChunks, quote, numThreads));
+                }
+            }
+        }
+
+        chunks = new ArrayList<>();
+        for (int i = 0; i < fileSplits.size(); i++) {
+            for (int j = 0; j < fileSplits.get(i).numChunks(); j++) {
+                chunks.add(new int[] {i, j});
+            }
+        }
+        if (ordered) {
+            chunkQueues = new ArrayList<>(chunks.size());
+            for (int i = 0; i < chunks.size(); i++) {
+                chunkQueues.add(new LinkedBlockingQueue<Batch>(QUEUE_CAPACITY));
+            }
+        } else {
+            sharedQueue = new LinkedBlockingQueue<>(QUEUE_CAPACITY * numThreads);
+        }
+        currentChunk = 0;
+        chunksRemaining = chunks.size();
+
+        executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = Executors.defaultThreadFactory().newThread(r);
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        //Chunks are submitted (and hence started) in order: in ordered mode, the chunk the consumer is waiting on has
+        //always been started, and so can always make progress
+        for (int i = 0; i < chunks.size(); i++) {
+            executor.execute(new ChunkParser(i));
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (currentBatch != null && batchPosition < currentBatch.records.size()) {
+            return true;
+        }
+        if (locations == null) {
+            throw new IllegalStateException("Cannot get next record: record reader has not been initialized");
+        }
+        currentBatch = null;
+        try {
+            if (chunks == null) {
+                start();
+            }
+            while (true) {
+                Batch b;
+                if (ordered) {
+                    if (currentChunk >= chunks.size()) {
+                        break;
+                    }
+                    b = chunkQueues.get(currentChunk).take();
+                    if (b.records == null && b.error == null) {
+                        chunkQueues.set(currentChunk++, null);
+                        continue;
+                    }
+                } else {
+                    if (chunksRemaining == 0) {
+                        break;
+                    }
+                    b = sharedQueue.take();
+                    if (b.records == null && b.error == null) {
+                        chunksRemaining--;
+                        continue;
+                    }
+                }
+                if (b.error != null) {
+                    throw new RuntimeException("Error parsing CSV file " + b.uri, b.error);
+                }
+                currentBatch = b;
+                batchPosition = 0;
+                return true;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error splitting CSV files", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for next record", e);
+        }
+
+        //All chunks have been returned
+        executor.shutdown();
+        return false;
+    }
+
+    @Override
+    public List<Writable> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No next element found!");
+        }
+        List<Writable> ret = currentBatch.records.get(batchPosition);
+        currentBatch.records.set(batchPosition, null);
+        lastUri = currentBatch.uri;
+        lastRecordIndex = currentBatch.firstRecord + batchPosition;
+        batchPosition++;
+        invokeListeners(ret);
+        return ret;
+    }
+
+    /**
+     * Read the next records into a {@link ColumnBatch}, via {@link ColumnBatch#fromRecords(Schema, List)}. A schema
+     * must have been provided to use this method.
+     *
+     * @param maxRows Maximum number of records to read
+     * @return Batch with at most maxRows rows (fewer if there are no more records)
+     */
+    @Override
+    public ColumnBatch nextBatch(int maxRows) {
+        if (schema == null) {
+            throw new IllegalStateException("Cannot read batch: no schema was provided");
+        }
+        List<List<Writable>> records = new ArrayList<>(Math.min(maxRows, BATCH_SIZE));
+        while (records.size() < maxRows && hasNext()) {
+            records.add(next());
+        }
+        return ColumnBatch.fromRecords(schema, records);
+    }
+
+    @Override
+    public Record nextRecord() {
+        List<Writable> next = next();
+        RecordMetaData meta = metaData(lastRecordIndex, lastUri, ParallelCSVRecordReader.class);
+        return new org.datavec.api.records.impl.Record(next, meta);
+    }
+
+    @Override
+    public List<Record> loadFromMetaData(List<RecordMetaData> recordMetaDatas) throws IOException {
+        //Group the requested record indices by file and by chunk, then scan each required chunk once
+        Map<URI, TreeMap<Long, List<Writable>>> byUri = new LinkedHashMap<>();
+        for (RecordMetaData rmd : recordMetaDatas) {
+            long idx = recordIndexOf(rmd);
+            URI uri = rmd.getURI();
+            if (!byUri.containsKey(uri)) {
+                byUri.put(uri, new TreeMap<Long, List<Writable>>());
+            }
+            byUri.get(uri).put(idx, null);
+        }
+
+        for (Map.Entry<URI, TreeMap<Long, List<Writable>>> e : byUri.entrySet()) {
+            ChunkedCSVFileSplit split = splitFor(e.getKey());
+            TreeMap<Long, List<Writable>> records = e.getValue();
+            MappedCSVScanner s = null;
+            int scannerChunk = -1;
+            long scannerRecord = -1; //Index of the next record returned by the scanner
+            try {
+                for (Map.Entry<Long, List<Writable>> r : records.entrySet()) {
+                    long idx = r.getKey();
+                    int chunk = (split == null ? 0 : split.chunkForRecord(idx));
+                    if (chunk != scannerChunk) {
+                        if (s != null) {
+                            s.close();
+                        }
+                        long start = (split == null ? 0 : split.getChunkStart(chunk));
+                        s = new MappedCSVScanner(new File(e.getKey()), start, Long.MAX_VALUE, delimiter, quote,
+                                        mapSize);
+                        scannerChunk = chunk;
+                        scannerRecord = (split == null ? 0 : split.getChunkFirstRecord(chunk));
+                    }
+                    for (; scannerRecord <= idx; scannerRecord++) {
+                        if (!s.next()) {
+                            throw new IllegalStateException("Could not get record " + idx + " from URI " + e.getKey()
+                                            + ": has only " + scannerRecord + " records");
+                        }
+                    }
+                    r.setValue(currentRecord(s, columnTypes));
+                }
+            } finally {
+                if (s != null) {
+                    s.close();
+                }
+            }
+        }
+
+        List<Record> out = new ArrayList<>(recordMetaDatas.size());
+        for (RecordMetaData rmd : recordMetaDatas) {
+            List<Writable> r = byUri.get(rmd.getURI()).get(recordIndexOf(rmd));
+            out.add(new org.datavec.api.records.impl.Record(r, rmd));
+        }
+        return out;
+    }
+
+    private ChunkedCSVFileSplit splitFor(URI uri) {
+        if (fileSplits != null) {
+            for (ChunkedCSVFileSplit s : fileSplits) {
+                if (s.getFile().toURI().equals(uri)) {
+                    return s;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        chunks = null;
+        chunkQueues = null;
+        sharedQueue = null;
+        currentBatch = null;
+        super.close();
+    }
+
+    /**
+     * A batch of consecutive records from one chunk. A batch with null records (and no error) marks the end of a
+     * chunk
+     */
+    private static class Batch {
+        private final URI uri;
+        private final long firstRecord;
+        private final List<List<Writable>> records;
+        private final Throwable error;
+
+        private Batch(URI uri, long firstRecord, List<List<Writable>> records, Throwable error) {
+            this.uri = uri;
+            this.firstRecord = firstRecord;
+            this.records = records;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Parses one chunk, putting the records (in batches) on the queue for that chunk (ordered mode) or the shared
+     * queue (unordered mode)
+     */
+    private class ChunkParser implements Runnable {
+        private final BlockingQueue<Batch> queue;
+        private final ChunkedCSVFileSplit split;
+        private final int chunk;
+        private final URI uri;
+
+        private ChunkParser(int chunkIdx) {
+            int[] c = chunks.get(chunkIdx);
+            this.queue = (ordered ? chunkQueues.get(chunkIdx) : sharedQueue);
+            this.split = fileSplits.get(c[0]);
+            this.chunk = c[1];
+            this.uri = locations[c[0]];
+        }
+
+        @Override
+        public void run() {
+            try {
+                try (MappedCSVScanner s = new MappedCSVScanner(split.getFile(), split.getChunkStart(chunk),
+                                split.getChunkEnd(chunk), delimiter, quote, mapSize)) {
+                    long recordIdx = split.getChunkFirstRecord(chunk);
+                    long batchFirst = -1;
+                    List<List<Writable>> records = new ArrayList<>(BATCH_SIZE);
+                    while (s.next()) {
+                        //Skipped lines are always a prefix of the file: records in a batch have consecutive indices
+                        if (recordIdx >= skipNumLines) {
+                            if (records.isEmpty()) {
+                                batchFirst = recordIdx;
+                            }
+                            records.add(currentRecord(s, columnTypes));
+                            if (records.size() == BATCH_SIZE) {
+                                queue.put(new Batch(uri, batchFirst, records, null));
+                                records = new ArrayList<>(BATCH_SIZE);
+                            }
+                        }
+                        recordIdx++;
+                    }
+                    if (!records.isEmpty()) {
+                        queue.put(new Batch(uri, batchFirst, records, null));
+                    }
+                }
+                queue.put(new Batch(uri, -1, null, null));
+            } catch (InterruptedException e) {
+                //Record reader was closed or reset
+            } catch (Throwable t) {
+                try {
+                    queue.put(new Batch(uri, -1, null, t));
+                } catch (InterruptedException e) {
+                    //Record reader was closed or reset
+                }
+            }
+        }
+    }
+}
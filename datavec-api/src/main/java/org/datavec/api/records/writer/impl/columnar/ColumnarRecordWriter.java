@@ -0,0 +1,170 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.writer.impl.columnar;
+
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.reader.impl.columnar.ColumnChunkStats;
+import org.datavec.api.records.reader.impl.columnar.ColumnarFileFooter;
+import org.datavec.api.records.reader.impl.columnar.ColumnarFormat;
+import org.datavec.api.records.writer.RecordWriter;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.schema.SequenceSchema;
+import org.datavec.api.writable.Writable;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Writes records to a file in the DataVec columnar format (see {@link ColumnarFormat}), to be read by
+ * {@link org.datavec.api.records.reader.impl.columnar.ColumnarRecordReader}.<br>
+ * Records are buffered in memory until a row group (of {@code rowGroupSize} records) is complete; each column of the
+ * row group is then encoded, compressed (optionally) and written. The footer, which includes the {@link Schema}, is
+ * written when the writer is closed: a file is not readable until {@link #close()} has been called.<br>
+ * Appending to an existing file is not supported.
+ */
+public class ColumnarRecordWriter implements RecordWriter {
+
+    public static final int DEFAULT_ROW_GROUP_SIZE = 16384;
+    public static final int DEFAULT_COMPRESSION_LEVEL = Deflater.BEST_SPEED;
+
+    private final File file;
+    private final Schema schema;
+    private final int rowGroupSize;
+    private final int compressionLevel;
+
+    private DataOutputStream out;
+    private long position;
+    private final Writable[][] buffer;
+    private int numBuffered;
+    private final List<ColumnarFileFooter.RowGroup> rowGroups = new ArrayList<>();
+    private Configuration conf;
+
+    /**
+     * @param file   File to write to
+     * @param schema Schema of the records
+     */
+    public ColumnarRecordWriter(File file, Schema schema) throws IOException {
+        this(file, schema, DEFAULT_ROW_GROUP_SIZE, DEFAULT_COMPRESSION_LEVEL);
+    }
+
+    /**
+     * @param file             File to write to
+     * @param schema           Schema of the records
+     * @param rowGroupSize     Number of records per row group. Larger row groups compress better; smaller row groups
+     *                         allow finer-grained skipping of rows when filtering
+     * @param compressionLevel Compression level: 0 (no compression) to 9 (best compression), as per {@link Deflater}
+     */
+    public ColumnarRecordWriter(File file, Schema schema, int rowGroupSize, int compressionLevel)
+                    throws IOException {
+        if (schema instanceof SequenceSchema) {
+            throw new IllegalArgumentException("Cannot write sequence data: columnar format supports only "
+                            + "non-sequence records");
+        }
+        if (rowGroupSize <= 0) {
+            throw new IllegalArgumentException("Row group size must be positive: got " + rowGroupSize);
+        }
+        if (compressionLevel < 0 || compressionLevel > 9) {
+            throw new IllegalArgumentException("Compression level must be between 0 and 9: got " + compressionLevel);
+        }
+        this.file = file;
+        this.schema = schema;
+        this.rowGroupSize = rowGroupSize;
+        this.compressionLevel = compressionLevel;
+        this.buffer = new Writable[schema.numColumns()][rowGroupSize];
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        out.write(ColumnarFormat.MAGIC);
+        position = ColumnarFormat.MAGIC.length;
+    }
+
+    @Override
+    public void write(List<Writable> record) throws IOException {
+        if (out == null) {
+            throw new IllegalStateException("Cannot write record: writer has been closed");
+        }
+        if (record.size() != buffer.length) {
+            throw new IllegalArgumentException("Invalid record: record has " + record.size()
+                            + " values, but schema has " + buffer.length + " columns");
+        }
+        int i = 0;
+        for (Writable w : record) {
+            buffer[i++][numBuffered] = w;
+        }
+        if (++numBuffered == rowGroupSize) {
+            writeRowGroup();
+        }
+    }
+
+    private void writeRowGroup() throws IOException {
+        ColumnarFileFooter.ColumnChunk[] chunks = new ColumnarFileFooter.ColumnChunk[buffer.length];
+        for (int i = 0; i < buffer.length; i++) {
+            ColumnarFormat.EncodedChunk encoded = ColumnarFormat.encode(buffer[i], numBuffered);
+            byte[] raw = encoded.getData();
+            byte[] stored = raw;
+            boolean compressed = false;
+            if (compressionLevel > 0 && raw.length > 0) {
+                byte[] c = ColumnarFormat.compress(raw, compressionLevel);
+                if (c.length < raw.length) {
+                    stored = c;
+                    compressed = true;
+                }
+            }
+            out.write(stored);
+            ColumnChunkStats stats = encoded.getStats();
+            chunks[i] = new ColumnarFileFooter.ColumnChunk(position, stored.length, raw.length, compressed,
+                            encoded.getEncoding(), stats);
+            position += stored.length;
+            Arrays.fill(buffer[i], 0, numBuffered, null);
+        }
+        rowGroups.add(new ColumnarFileFooter.RowGroup(numBuffered, chunks));
+        numBuffered = 0;
+    }
+
+    @Override
+    public void close() {
+        if (out == null) {
+            return;
+        }
+        try {
+            if (numBuffered > 0) {
+                writeRowGroup();
+            }
+            ByteArrayOutputStream footer = new ByteArrayOutputStream();
+            new ColumnarFileFooter(schema, rowGroups).write(new DataOutputStream(footer));
+            footer.writeTo(out);
+            out.writeInt(footer.size());
+            out.write(ColumnarFormat.MAGIC);
+            out.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing columnar file " + file, e);
+        } finally {
+            out = null;
+        }
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        this.conf = conf;
+    }
+
+    @Override
+    public Configuration getConf() {
+        return conf;
+    }
+}
@@ -0,0 +1,323 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.split;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * An InputSplit for a single CSV file, that divides the file into byte ranges ("chunks") that can be read in
+ * parallel: for example, by {@link org.datavec.api.records.reader.impl.csv.ParallelCSVRecordReader}.<br>
+ * Chunk boundaries are aligned to record boundaries: each chunk starts at the beginning of a record, and contains all
+ * records that start before the beginning of the next chunk. Quoted values (as per RFC 4180, i.e., as read by
+ * {@link org.datavec.api.records.reader.impl.csv.MappedCSVScanner}) may contain newlines: the chunk boundaries
+ * account for these. Boundaries are determined as follows:
+ * <ol>
+ * <li>The file is divided into equal-size byte ranges. Each range is scanned in parallel: the number of quote
+ * characters, and the number and location of the line terminators (for both "starting inside quotes" and "starting
+ * outside quotes" cases) are counted</li>
+ * <li>The quote state at the start of each range is then known from the number of quotes in all preceding ranges:
+ * each chunk starts after the first line terminator (outside quotes) in its range</li>
+ * </ol>
+ * The index (within the file) of the first record of each chunk is also determined, so that record readers can
+ * return the correct {@link org.datavec.api.records.metadata.RecordMetaDataLine} for each record, regardless of the
+ * order in which the chunks are read.<br>
+ * Ranges that do not contain a line terminator are merged with the preceding chunk, hence {@link #numChunks()} may be
+ * less than the requested number of chunks.
+ */
+public class ChunkedCSVFileSplit extends BaseInputSplit {
+
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+
+    private final File file;
+    private final char quote;
+    private final long[] chunkStarts; //Length numChunks + 1: last value is the file size
+    private final long[] chunkFirstRecords;
+
+    /**
+     * @param file      CSV file to split
+     * @param numChunks Number of chunks to split the file into
+     */
+    public ChunkedCSVFileSplit(File file, int numChunks) throws IOException {
+        this(file, numChunks, '\"');
+    }
+
+    /**
+     * @param file      CSV file to split
+     * @param numChunks Number of chunks to split the file into
+     * @param quote     Quote character used in the file (ASCII)
+     */
+    public ChunkedCSVFileSplit(File file, int numChunks, char quote) throws IOException {
+        this(file, numChunks, quote, Math.min(numChunks, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * @param file       CSV file to split
+     * @param numChunks  Number of chunks to split the file into
+     * @param quote      Quote character used in the file (ASCII)
+     * @param numThreads Number of threads to use to determine the chunk boundaries
+     */
+    public ChunkedCSVFileSplit(File file, int numChunks, char quote, int numThreads) throws IOException {
+        if (!file.isFile()) {
+            throw new IllegalArgumentException("File does not exist or is not a file: " + file);
+        }
+        if (numChunks <= 0 || numThreads <= 0) {
+            throw new IllegalArgumentException("Number of chunks and number of threads must be positive: got "
+                            + "numChunks=" + numChunks + ", numThreads=" + numThreads);
+        }
+        if (quote > 127) {
+            throw new IllegalArgumentException("Quote character must be an ASCII character: got '" + quote + "'");
+        }
+        this.file = file;
+        this.quote = quote;
+        this.length = file.length();
+        this.uriStrings = Collections.singletonList(file.toURI().toString());
+
+        long size = file.length();
+        int nRanges = (int) Math.max(1, Math.min(numChunks, size));
+        long[] rangeStarts = new long[nRanges + 1];
+        for (int i = 0; i <= nRanges; i++) {
+            rangeStarts[i] = size * i / nRanges;
+        }
+
+        RangeStats[] stats = scanRanges(rangeStarts, numThreads);
+
+        List<Long> starts = new ArrayList<>();
+        List<Long> firstRecords = new ArrayList<>();
+        starts.add(0L);
+        firstRecords.add(0L);
+        boolean inQuotes = false;
+        long terminatorsBefore = 0;
+        for (int i = 0; i < nRanges; i++) {
+            int state = inQuotes ? 1 : 0;
+            RangeStats s = stats[i];
+            if (i > 0 && s.firstBoundary[state] >= 0 && s.firstBoundary[state] < size) {
+                //Record starting at the boundary: all line terminators before this range, plus the first in it
+                starts.add(s.firstBoundary[state]);
+                firstRecords.add(terminatorsBefore + 1);
+            }
+            terminatorsBefore += s.numTerminators[state];
+            if (s.oddQuotes) {
+                inQuotes = !inQuotes;
+            }
+        }
+
+        int n = starts.size();
+        this.chunkStarts = new long[n + 1];
+        this.chunkFirstRecords = new long[n];
+        for (int i = 0; i < n; i++) {
+            chunkStarts[i] = starts.get(i);
+            chunkFirstRecords[i] = firstRecords.get(i);
+        }
+        chunkStarts[n] = size;
+    }
+
+    private RangeStats[] scanRanges(final long[] rangeStarts, int numThreads) throws IOException {
+        int nRanges = rangeStarts.length - 1;
+        RangeStats[] stats = new RangeStats[nRanges];
+        if (numThreads == 1 || nRanges == 1) {
+            for (int i = 0; i < nRanges; i++) {
+                stats[i] = scanRange(rangeStarts[i], rangeStarts[i + 1]);
+            }
+            return stats;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(numThreads, nRanges));
+        try {
+            List<Future<RangeStats>> futures = new ArrayList<>(nRanges);
+            for (int i = 0; i < nRanges; i++) {
+                final int idx = i;
+                futures.add(executor.submit(new Callable<RangeStats>() {
+                    @Override
+                    public RangeStats call() throws Exception {
+                        return scanRange(rangeStarts[idx], rangeStarts[idx + 1]);
+                    }
+                }));
+            }
+            for (int i = 0; i < nRanges; i++) {
+                stats[i] = futures.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while splitting file " + file, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error splitting file " + file, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return stats;
+    }
+
+    /**
+     * Scan the byte range [start, end) of the file. A \r immediately followed by \n is not a line terminator (the \n
+     * is), hence one byte past the end of the range is also read
+     */
+    private RangeStats scanRange(long start, long end) throws IOException {
+        RangeStats stats = new RangeStats();
+        byte q = (byte) quote;
+        boolean inQuotes = false; //Relative to the "starting outside quotes" case
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            FileChannel channel = raf.getChannel();
+            long fileSize = channel.size();
+            long readEnd = Math.min(end + 1, fileSize);
+            ByteBuffer bb = ByteBuffer.allocate((int) Math.min(READ_BUFFER_SIZE, Math.max(1, readEnd - start)));
+            byte[] buf = bb.array();
+            long pos = start;
+            boolean pendingCR = false; //Previous byte was \r (not yet known whether it's a line terminator)
+            while (pos < readEnd) {
+                bb.clear();
+                int n = channel.read(bb, pos);
+                if (n <= 0) {
+                    break;
+                }
+                for (int i = 0; i < n; i++) {
+                    long p = pos + i;
+                    byte b = buf[i];
+                    if (pendingCR) {
+                        pendingCR = false;
+                        if (b != '\n') {
+                            //Previous \r (at p - 1, within the range) is a line terminator
+                            terminator(stats, inQuotes, p);
+                        }
+                    }
+                    if (p >= end) {
+                        break;
+                    }
+                    if (b == q) {
+                        inQuotes = !inQuotes;
+                    } else if (b == '\n') {
+                        terminator(stats, inQuotes, p + 1);
+                    } else if (b == '\r') {
+                        pendingCR = true;
+                    }
+                }
+                pos += n;
+            }
+            if (pendingCR) {
+                //\r as the last byte of the file
+                terminator(stats, inQuotes, fileSize);
+            }
+        }
+        stats.oddQuotes = inQuotes;
+        return stats;
+    }
+
+    private static void terminator(RangeStats stats, boolean inQuotes, long next) {
+        //Outside quotes when starting outside quotes -> state 0; outside quotes when starting inside quotes -> state 1
+        int state = inQuotes ? 1 : 0;
+        stats.numTerminators[state]++;
+        if (stats.firstBoundary[state] < 0) {
+            stats.firstBoundary[state] = next;
+        }
+    }
+
+    private static class RangeStats {
+        //Index 0: assuming the range starts outside of quotes; index 1: assuming it starts inside quotes
+        private final long[] numTerminators = new long[2];
+        private final long[] firstBoundary = {-1, -1};
+        private boolean oddQuotes;
+    }
+
+    /**
+     * @return The file this split is for
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return The quote character used to determine the chunk boundaries
+     */
+    public char getQuote() {
+        return quote;
+    }
+
+    /**
+     * @return Number of chunks
+     */
+    public int numChunks() {
+        return chunkFirstRecords.length;
+    }
+
+    /**
+     * @param chunk Index of the chunk
+     * @return Byte offset of the first record of the chunk
+     */
+    public long getChunkStart(int chunk) {
+        return chunkStarts[chunk];
+    }
+
+    /**
+     * @param chunk Index of the chunk
+     * @return Byte offset of the start of the next chunk (or the file size, for the last chunk)
+     */
+    public long getChunkEnd(int chunk) {
+        return chunkStarts[chunk + 1];
+    }
+
+    /**
+     * @param chunk Index of the chunk
+     * @return Index (within the file) of the first record of the chunk
+     */
+    public long getChunkFirstRecord(int chunk) {
+        return chunkFirstRecords[chunk];
+    }
+
+    /**
+     * @param recordIndex Index of a record within the file
+     * @return Index of the chunk that contains the specified record
+     */
+    public int chunkForRecord(long recordIndex) {
+        int idx = Arrays.binarySearch(chunkFirstRecords, recordIndex);
+        return idx >= 0 ? idx : -(idx + 1) - 1;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public void reset() {
+        //No op
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        throw new UnsupportedOperationException("Not supported");
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        throw new UnsupportedOperationException("Not supported");
+    }
+
+    @Override
+    public String toString() {
+        return "ChunkedCSVFileSplit(file=" + file + ",numChunks=" + numChunks() + ")";
+    }
+}
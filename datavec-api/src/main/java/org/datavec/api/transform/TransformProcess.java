@@ -23,6 +23,9 @@ import org.apache.commons.lang3.ClassUtils;
 import org.datavec.api.transform.analysis.DataAnalysis;
 import org.datavec.api.transform.analysis.columns.ColumnAnalysis;
 import org.datavec.api.transform.analysis.columns.NumericalColumnAnalysis;
+import org.datavec.api.transform.batch.ColumnBatch;
+import org.datavec.api.transform.batch.ColumnarFilter;
+import org.datavec.api.transform.batch.ColumnarTransform;
 import org.datavec.api.transform.condition.Condition;
 import org.datavec.api.transform.filter.ConditionFilter;
 import org.datavec.api.transform.filter.Filter;
@@ -30,6 +33,8 @@ import org.datavec.api.transform.ndarray.NDArrayColumnsMathOpTransform;
 import org.datavec.api.transform.ndarray.NDArrayDistanceTransform;
 import org.datavec.api.transform.ndarray.NDArrayMathFunctionTransform;
 import org.datavec.api.transform.ndarray.NDArrayScalarOpTransform;
+import org.datavec.api.transform.plan.ExecutionPlan;
+import org.datavec.api.transform.plan.ExecutionPlanCompiler;
 import org.datavec.api.transform.rank.CalculateSortedRank;
 import org.datavec.api.transform.reduce.IAssociativeReducer;
 import org.datavec.api.transform.schema.Schema;
@@ -258,6 +263,71 @@ public class TransformProcess implements Serializable {
         return currValues;
     }
 
+    /**
+     * Execute the full sequence of transformations for a batch of examples, in columnar mode.<br>
+     * The output is the same as calling {@link #execute(List)} on each example, excluding examples that are filtered.
+     * See {@link #executeBatch(ColumnBatch)} for details.
+     *
+     * @param input Examples to process
+     * @return Processed examples (not including any filtered examples)
+     */
+    public List<List<Writable>> executeBatch(List<List<Writable>> input) {
+        return executeBatch(ColumnBatch.fromRecords(initialSchema, input)).toRecords();
+    }
+
+    /**
+     * Execute the full sequence of transformations for a batch of examples, in columnar mode.<br>
+     * Transforms that implement {@link ColumnarTransform}, and filters that implement {@link ColumnarFilter}, operate
+     * directly on the primitive column vectors of the batch. Other transforms and filters are executed in row mode.
+     * <b>NOTE:</b> As per {@link #execute(List)}, operations such as ConvertToSequence and ConvertFromSequence cannot
+     * be executed using this method
+     *
+     * @param batch Batch to process. Schema of the batch must match the initial schema of this TransformProcess
+     * @return Processed batch (not including any filtered examples)
+     */
+    public ColumnBatch executeBatch(ColumnBatch batch) {
+        ColumnBatch curr = batch;
+
+        for (DataAction d : actionList) {
+            if (d.getTransform() != null) {
+                Transform t = d.getTransform();
+                if (t instanceof ColumnarTransform) {
+                    curr = ((ColumnarTransform) t).mapColumns(curr);
+                } else {
+                    curr = curr.mapRows(t);
+                }
+            } else if (d.getFilter() != null) {
+                curr = curr.removeRows(curr.removeMask(d.getFilter()));
+            } else if (d.getConvertToSequence() != null) {
+                throw new RuntimeException(
+                        "Cannot execute batch: TransformProcess contains a ConvertToSequence operation");
+            } else if (d.getConvertFromSequence() != null) {
+                throw new RuntimeException(
+                        "Unexpected operation: TransformProcess contains a ConvertFromSequence operation");
+            } else if (d.getSequenceSplit() != null) {
+                throw new RuntimeException(
+                        "Cannot execute batch: TransformProcess contains a SequenceSplit operation");
+            } else {
+                throw new RuntimeException("Unknown or not supported action: " + d);
+            }
+        }
+
+        return curr;
+    }
+
+    /**
+     * Compile this TransformProcess into an optimized {@link ExecutionPlan}: unused input columns are pruned, filters
+     * are executed as early as possible, and consecutive single-column transforms are fused. The plan gives the same
+     * results as {@link #execute(List)} and {@link #executeBatch(List)}.<br>
+     * Only TransformProcesses that contain transforms and filters on (non-sequence) examples can be compiled.
+     * This TransformProcess is not modified.
+     *
+     * @return Optimized execution plan
+     */
+    public ExecutionPlan compile() {
+        return ExecutionPlanCompiler.compile(this);
+    }
+
     /**
      *
      * @param input
@@ -1228,8 +1298,9 @@ public class TransformProcess implements Serializable {
          * The rank of each example (after sorting) will be added in a new Long column. Indexing is done from 0; examples will have
          * values 0 to dataSetSize-1.<br>
          * <p>
-         * Currently, CalculateSortedRank can only be applied on standard (i.e., non-sequence) data
-         * Furthermore, the current implementation can only sort on one column
+         * Currently, CalculateSortedRank can only be applied on standard (i.e., non-sequence) data.
+         * To sort on multiple columns, rank ties differently or rank within groups, use
+         * {@link #calculateSortedRank(CalculateSortedRank)}
          *
          * @param newColumnName Name of the new column (will contain the rank for each example)
          * @param sortOnColumn  Column to sort on
@@ -1247,8 +1318,9 @@ public class TransformProcess implements Serializable {
          * The rank of each example (after sorting) will be added in a new Long column. Indexing is done from 0; examples will have
          * values 0 to dataSetSize-1.<br>
          * <p>
-         * Currently, CalculateSortedRank can only be applied on standard (i.e., non-sequence) data
-         * Furthermore, the current implementation can only sort on one column
+         * Currently, CalculateSortedRank can only be applied on standard (i.e., non-sequence) data.
+         * To sort on multiple columns, rank ties differently or rank within groups, use
+         * {@link #calculateSortedRank(CalculateSortedRank)}
          *
          * @param newColumnName Name of the new column (will contain the rank for each example)
          * @param sortOnColumn  Column to sort on
@@ -1261,6 +1333,17 @@ public class TransformProcess implements Serializable {
             return this;
         }
 
+        /**
+         * CalculateSortedRank: calculate the rank of each example, after sorting examples on one or more columns,
+         * optionally within groups of examples. See {@link CalculateSortedRank} for details.
+         *
+         * @param calculateSortedRank CalculateSortedRank operation to execute
+         */
+        public Builder calculateSortedRank(CalculateSortedRank calculateSortedRank) {
+            actionList.add(new DataAction(calculateSortedRank));
+            return this;
+        }
+
         /**
          * Convert the specified String column to a categorical column. The state names must be provided.
          *
@@ -39,13 +39,7 @@ public class CategoricalAnalysis implements ColumnAnalysis {
     @Override
     public String toString() {
         //Returning the counts from highest to lowest here, which seems like a useful default
-        List<String> keys = new ArrayList<>(mapOfCounts.keySet());
-        Collections.sort(keys, new Comparator<String>() {
-            @Override
-            public int compare(String o1, String o2) {
-                return -Long.compare(mapOfCounts.get(o1), mapOfCounts.get(o2)); //Highest to lowest
-            }
-        });
+        List<String> keys = sortedByCount();
 
         StringBuilder sb = new StringBuilder();
         sb.append("CategoricalAnalysis(CategoryCounts={");
@@ -62,6 +56,33 @@ public class CategoricalAnalysis implements ColumnAnalysis {
         return sb.toString();
     }
 
+    /**
+     * Get the k most frequent categories and their counts, ordered from most to least frequent
+     *
+     * @param k Maximum number of categories to return
+     * @return Map of category to count, in order of decreasing count
+     */
+    public Map<String, Long> getMostFrequent(int k) {
+        Map<String, Long> out = new LinkedHashMap<>();
+        for (String s : sortedByCount()) {
+            if (out.size() >= k)
+                break;
+            out.put(s, mapOfCounts.get(s));
+        }
+        return out;
+    }
+
+    private List<String> sortedByCount() {
+        List<String> keys = new ArrayList<>(mapOfCounts.keySet());
+        Collections.sort(keys, new Comparator<String>() {
+            @Override
+            public int compare(String o1, String o2) {
+                return -Long.compare(mapOfCounts.get(o1), mapOfCounts.get(o2)); //Highest to lowest
+            }
+        });
+        return keys;
+    }
+
     @Override
     public long getCountTotal() {
         Collection<Long> counts = mapOfCounts.values();
@@ -67,7 +67,7 @@ public abstract class NumericalColumnAnalysis implements ColumnAnalysis {
         StringBuilder quantiles = new StringBuilder();
         double[] printReports = new double[]{0.001, 0.01, 0.1, 0.5, 0.9, 0.99, 0.999};
         for (int i = 0; i < printReports.length; i++){
-            quantiles.append(printReports[i] +" -> " + digest.quantile(printReports[i]));
+            quantiles.append(printReports[i] +" -> " + getQuantile(printReports[i]));
             if (i < printReports.length - 1) quantiles.append(",");
         }
         return "mean=" + mean + ",sampleStDev=" + sampleStdev + ",sampleVariance=" + sampleVariance + ",countZero="
@@ -77,6 +77,41 @@ public abstract class NumericalColumnAnalysis implements ColumnAnalysis {
     "]";
     }
 
+    /**
+     * Get the approximate value of the given quantile, as estimated by the column's t-digest
+     *
+     * @param quantile Quantile to get, in range 0 to 1 inclusive
+     * @return Approximate quantile value, or NaN if no digest is available
+     */
+    public double getQuantile(double quantile) {
+        if (quantile < 0.0 || quantile > 1.0)
+            throw new IllegalArgumentException("Invalid quantile: must be in range 0 to 1 inclusive. Got: " + quantile);
+        if (digest == null)
+            return Double.NaN;
+        return digest.quantile(quantile);
+    }
+
+    /**
+     * @return Approximate median (50th percentile), or NaN if no digest is available
+     */
+    public double getMedian() {
+        return getQuantile(0.5);
+    }
+
+    /**
+     * @return Approximate 90th percentile, or NaN if no digest is available
+     */
+    public double getPercentile90() {
+        return getQuantile(0.9);
+    }
+
+    /**
+     * @return Approximate 99th percentile, or NaN if no digest is available
+     */
+    public double getPercentile99() {
+        return getQuantile(0.99);
+    }
+
     public abstract double getMinDouble();
 
     public abstract double getMaxDouble();
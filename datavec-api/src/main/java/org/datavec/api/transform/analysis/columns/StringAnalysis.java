@@ -21,6 +21,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.datavec.api.transform.ColumnType;
 
+import java.util.Map;
+
 /**
  * Analysis for String columns
  *
@@ -38,6 +40,8 @@ public class StringAnalysis implements ColumnAnalysis {
     private long countTotal;
     private double[] histogramBuckets;
     private long[] histogramBucketCounts;
+    private long countUnique;
+    private Map<String, Long> mostFrequent;
 
     private StringAnalysis(Builder builder) {
         this.minLength = builder.minLength;
@@ -48,13 +52,16 @@ public class StringAnalysis implements ColumnAnalysis {
         this.countTotal = builder.countTotal;
         this.histogramBuckets = builder.histogramBuckets;
         this.histogramBucketCounts = builder.histogramBucketCounts;
+        this.countUnique = builder.countUnique;
+        this.mostFrequent = builder.mostFrequent;
     }
 
     @Override
     public String toString() {
         return "StringAnalysis(minLen=" + minLength + ",maxLen=" + maxLength + ",meanLen=" + meanLength
                         + ",sampleStDevLen=" + sampleStdevLength + ",sampleVarianceLen=" + sampleVarianceLength
-                        + ",count=" + countTotal + ")";
+                        + ",count=" + countTotal + (countUnique > 0 ? ",countUnique=" + countUnique : "")
+                        + (mostFrequent != null ? ",mostFrequent=" + mostFrequent : "") + ")";
     }
 
     @Override
@@ -71,6 +78,8 @@ public class StringAnalysis implements ColumnAnalysis {
         private long countTotal;
         private double[] histogramBuckets;
         private long[] histogramBucketCounts;
+        private long countUnique;
+        private Map<String, Long> mostFrequent;
 
         public Builder minLength(int minLength) {
             this.minLength = minLength;
@@ -112,6 +121,23 @@ public class StringAnalysis implements ColumnAnalysis {
             return this;
         }
 
+        /**
+         * @param countUnique Number of unique values in the column. May be an approximate (sketch-based) count
+         */
+        public Builder countUnique(long countUnique) {
+            this.countUnique = countUnique;
+            return this;
+        }
+
+        /**
+         * @param mostFrequent Most frequent values and their counts, ordered from most to least frequent.
+         *                     Counts may be approximate (sketch-based)
+         */
+        public Builder mostFrequent(Map<String, Long> mostFrequent) {
+            this.mostFrequent = mostFrequent;
+            return this;
+        }
+
         public StringAnalysis build() {
             return new StringAnalysis(this);
         }
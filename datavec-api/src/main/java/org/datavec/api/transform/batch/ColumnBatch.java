@@ -0,0 +1,240 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.batch;
+
+import lombok.Getter;
+import org.datavec.api.transform.Transform;
+import org.datavec.api.transform.condition.Condition;
+import org.datavec.api.transform.filter.Filter;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A ColumnBatch is a set of (non-sequence) examples stored column-wise: one {@link ColumnVector} per column of the
+ * schema, each backed by a primitive array where possible.<br>
+ * ColumnBatches are used for columnar execution of a {@link org.datavec.api.transform.TransformProcess}: see
+ * {@link ColumnarTransform}, {@link ColumnarFilter} and {@link ColumnarCondition}. Operations without a columnar
+ * implementation can be executed in row mode via {@link #mapRows(Transform)} and {@link #removeMask(Filter)}
+ */
+public class ColumnBatch implements Serializable {
+
+    @Getter
+    private final Schema schema;
+    @Getter
+    private final int numRows;
+    private final ColumnVector[] columns;
+
+    /**
+     * @param schema  Schema for the batch
+     * @param numRows Number of rows (examples) in the batch
+     * @param columns Column vectors: one per column in the schema, each with numRows values
+     */
+    public ColumnBatch(Schema schema, int numRows, ColumnVector[] columns) {
+        if (columns.length != schema.numColumns()) {
+            throw new IllegalArgumentException("Number of columns (" + columns.length
+                            + ") does not match the number of columns in the schema (" + schema.numColumns() + ")");
+        }
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].size() != numRows) {
+                throw new IllegalArgumentException("Column " + i + " (\"" + schema.getName(i) + "\") has "
+                                + columns[i].size() + " values, expected " + numRows);
+            }
+        }
+        this.schema = schema;
+        this.numRows = numRows;
+        this.columns = columns;
+    }
+
+    /**
+     * Convert the given records to a ColumnBatch
+     *
+     * @param schema  Schema of the records
+     * @param records Records to convert
+     * @return ColumnBatch with the same content as the records
+     */
+    public static ColumnBatch fromRecords(Schema schema, List<List<Writable>> records) {
+        int nCols = schema.numColumns();
+        for (List<Writable> record : records) {
+            if (record.size() != nCols) {
+                throw new IllegalStateException("Cannot create column batch: record length (" + record.size()
+                                + ") does not match expected number of elements (schema: " + nCols + ")");
+            }
+        }
+        ColumnVector[] columns = new ColumnVector[nCols];
+        for (int i = 0; i < nCols; i++) {
+            columns[i] = ColumnVector.fromRecords(records, i);
+        }
+        return new ColumnBatch(schema, records.size(), columns);
+    }
+
+    /**
+     * Convert this batch back to records (one List&lt;Writable&gt; per row)
+     *
+     * @return Records
+     */
+    public List<List<Writable>> toRecords() {
+        List<List<Writable>> out = new ArrayList<>(numRows);
+        for (int i = 0; i < numRows; i++) {
+            out.add(getRow(i));
+        }
+        return out;
+    }
+
+    /**
+     * @param row Row index
+     * @return The specified row, as a List&lt;Writable&gt;
+     */
+    public List<Writable> getRow(int row) {
+        List<Writable> out = new ArrayList<>(columns.length);
+        for (ColumnVector c : columns) {
+            out.add(c.getWritable(row));
+        }
+        return out;
+    }
+
+    /**
+     * @return Number of columns in the batch
+     */
+    public int numColumns() {
+        return columns.length;
+    }
+
+    /**
+     * @param column Index of the column
+     * @return Column vector for the specified column
+     */
+    public ColumnVector getColumn(int column) {
+        return columns[column];
+    }
+
+    /**
+     * @param columnName Name of the column
+     * @return Column vector for the specified column
+     */
+    public ColumnVector getColumn(String columnName) {
+        return columns[schema.getIndexOfColumn(columnName)];
+    }
+
+    /**
+     * @return A copy of the array of column vectors (the column vectors themselves are not copied)
+     */
+    public ColumnVector[] getColumns() {
+        return Arrays.copyOf(columns, columns.length);
+    }
+
+    /**
+     * Return a new batch with the specified column replaced. Other columns are shared (not copied)
+     *
+     * @param column    Index of the column to replace
+     * @param newColumn New column vector
+     * @param newSchema Schema of the returned batch
+     * @return New batch
+     */
+    public ColumnBatch replaceColumn(int column, ColumnVector newColumn, Schema newSchema) {
+        ColumnVector[] newColumns = getColumns();
+        newColumns[column] = newColumn;
+        return new ColumnBatch(newSchema, numRows, newColumns);
+    }
+
+    /**
+     * Return a new batch with the specified rows removed
+     *
+     * @param remove Rows to remove. Length must be equal to {@link #getNumRows()}
+     * @return New batch, without the removed rows
+     */
+    public ColumnBatch removeRows(boolean[] remove) {
+        if (remove.length != numRows) {
+            throw new IllegalArgumentException(
+                            "Invalid mask: length " + remove.length + " does not match number of rows " + numRows);
+        }
+        int numKept = 0;
+        for (boolean b : remove) {
+            if (!b)
+                numKept++;
+        }
+        if (numKept == numRows)
+            return this;
+
+        ColumnVector[] newColumns = new ColumnVector[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            newColumns[i] = columns[i].removeRows(remove, numKept);
+        }
+        return new ColumnBatch(schema, numKept, newColumns);
+    }
+
+    /**
+     * Execute the specified transform in row mode: i.e., by converting this batch to records, applying
+     * {@link Transform#map(List)} to each, and converting the result back to a batch.
+     * This is the fallback for transforms that do not implement {@link ColumnarTransform}
+     *
+     * @param transform Transform to execute
+     * @return Transformed batch
+     */
+    public ColumnBatch mapRows(Transform transform) {
+        List<List<Writable>> out = new ArrayList<>(numRows);
+        for (int i = 0; i < numRows; i++) {
+            out.add(transform.map(getRow(i)));
+        }
+        return fromRecords(transform.transform(schema), out);
+    }
+
+    /**
+     * Evaluate the filter on each row of the batch. If the filter implements {@link ColumnarFilter} it is evaluated
+     * in columnar mode; otherwise it is evaluated in row mode, via {@link Filter#removeExample(List)}
+     *
+     * @param filter Filter to evaluate
+     * @return Mask of the rows to remove: true if the filter removes the example
+     */
+    public boolean[] removeMask(Filter filter) {
+        if (filter instanceof ColumnarFilter) {
+            return ((ColumnarFilter) filter).removeExamples(this);
+        }
+        boolean[] out = new boolean[numRows];
+        for (int i = 0; i < numRows; i++) {
+            out[i] = filter.removeExample(getRow(i));
+        }
+        return out;
+    }
+
+    /**
+     * Evaluate the condition on each row of the batch. If the condition implements {@link ColumnarCondition} it is
+     * evaluated in columnar mode; otherwise it is evaluated in row mode, via {@link Condition#condition(List)}
+     *
+     * @param condition Condition to evaluate
+     * @return Result of the condition, for each row
+     */
+    public boolean[] conditionMask(Condition condition) {
+        if (condition instanceof ColumnarCondition) {
+            return ((ColumnarCondition) condition).conditionColumns(this);
+        }
+        boolean[] out = new boolean[numRows];
+        for (int i = 0; i < numRows; i++) {
+            out[i] = condition.condition(getRow(i));
+        }
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnBatch(numRows=" + numRows + ",columns=" + schema.getColumnNames() + ")";
+    }
+}
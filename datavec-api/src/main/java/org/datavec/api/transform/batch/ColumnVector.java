@@ -0,0 +1,132 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.batch;
+
+import org.datavec.api.writable.DoubleWritable;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.LongWritable;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single column of a {@link ColumnBatch}.<br>
+ * Implementations store the values of the column in primitive arrays where possible (see {@link DoubleColumnVector},
+ * {@link LongColumnVector}, {@link IntColumnVector} and {@link DictionaryColumnVector}), falling back to
+ * {@link WritableColumnVector} for all other values. Conversion to and from {@link Writable}s is lossless: the
+ * Writable type of each value is preserved.
+ */
+public abstract class ColumnVector implements Serializable {
+
+    /**
+     * @return Number of values (rows) in this column
+     */
+    public abstract int size();
+
+    /**
+     * Get the value at the specified row, as a Writable. Note that for primitive column vectors, this allocates a
+     * new Writable object on each call
+     *
+     * @param row Row index
+     * @return Value at the specified row
+     */
+    public abstract Writable getWritable(int row);
+
+    /**
+     * Return a new column vector, with the specified rows removed
+     *
+     * @param remove   Rows to remove: length must equal {@link #size()}
+     * @param numKept  Number of rows that are not removed
+     * @return Column vector with numKept rows
+     */
+    public abstract ColumnVector removeRows(boolean[] remove, int numKept);
+
+    /**
+     * Create a column vector from the given values. The most compact representation able to exactly represent all
+     * values is used: for example, if all values are {@link DoubleWritable}s, a {@link DoubleColumnVector} is returned
+     *
+     * @param values Values for the column vector
+     * @return Column vector
+     */
+    public static ColumnVector fromWritables(Writable[] values) {
+        if (values.length == 0) {
+            return new WritableColumnVector(values);
+        }
+
+        Class<?> c = values[0].getClass();
+        for (int i = 1; i < values.length; i++) {
+            if (values[i].getClass() != c) {
+                return new WritableColumnVector(values);
+            }
+        }
+
+        if (c == DoubleWritable.class) {
+            double[] data = new double[values.length];
+            for (int i = 0; i < values.length; i++)
+                data[i] = ((DoubleWritable) values[i]).get();
+            return new DoubleColumnVector(data);
+        } else if (c == LongWritable.class) {
+            long[] data = new long[values.length];
+            for (int i = 0; i < values.length; i++)
+                data[i] = ((LongWritable) values[i]).get();
+            return new LongColumnVector(data);
+        } else if (c == IntWritable.class) {
+            int[] data = new int[values.length];
+            for (int i = 0; i < values.length; i++)
+                data[i] = ((IntWritable) values[i]).get();
+            return new IntColumnVector(data);
+        } else if (c == Text.class) {
+            int[] codes = new int[values.length];
+            List<String> dictionary = new ArrayList<>();
+            Map<String, Integer> indexes = new HashMap<>();
+            for (int i = 0; i < values.length; i++) {
+                String s = values[i].toString();
+                Integer idx = indexes.get(s);
+                if (idx == null) {
+                    idx = dictionary.size();
+                    dictionary.add(s);
+                    indexes.put(s, idx);
+                }
+                codes[i] = idx;
+            }
+            return new DictionaryColumnVector(codes, dictionary);
+        }
+
+        return new WritableColumnVector(values);
+    }
+
+    /**
+     * Create a column vector from the specified column of each record
+     *
+     * @param records Records to extract the column from
+     * @param column  Index of the column
+     * @return Column vector
+     */
+    public static ColumnVector fromRecords(List<List<Writable>> records, int column) {
+        Writable[] values = new Writable[records.size()];
+        int i = 0;
+        for (List<Writable> record : records) {
+            values[i++] = record.get(column);
+        }
+        return fromWritables(values);
+    }
+}
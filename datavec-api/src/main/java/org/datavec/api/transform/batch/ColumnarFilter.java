@@ -0,0 +1,36 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.batch;
+
+import org.datavec.api.transform.filter.Filter;
+
+/**
+ * A {@link Filter} that can be evaluated directly on a {@link ColumnBatch}, without converting the batch to
+ * individual records
+ */
+public interface ColumnarFilter extends Filter {
+
+    /**
+     * Evaluate the filter for each row of the batch. The output must be the same as the output of
+     * {@link Filter#removeExample(java.util.List)} applied to each row of the batch
+     *
+     * @param batch Batch to filter
+     * @return Mask of examples to remove: true to remove the example, false to keep it
+     */
+    boolean[] removeExamples(ColumnBatch batch);
+
+}
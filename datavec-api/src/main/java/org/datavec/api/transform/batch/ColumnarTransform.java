@@ -0,0 +1,38 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.batch;
+
+import org.datavec.api.transform.Transform;
+
+/**
+ * A {@link Transform} that can be executed directly on a {@link ColumnBatch}, without converting the batch to
+ * individual records.<br>
+ * Transforms that do not implement this interface are executed in row mode (see {@link ColumnBatch#mapRows(Transform)})
+ * by {@link org.datavec.api.transform.TransformProcess#executeBatch(ColumnBatch)}
+ */
+public interface ColumnarTransform extends Transform {
+
+    /**
+     * Transform a batch of (non-sequence) examples. The output must be the same as the output of
+     * {@link Transform#map(java.util.List)} applied to each row of the batch
+     *
+     * @param batch Batch to transform. Schema of the batch must match the input schema of the transform
+     * @return Transformed batch
+     */
+    ColumnBatch mapColumns(ColumnBatch batch);
+
+}
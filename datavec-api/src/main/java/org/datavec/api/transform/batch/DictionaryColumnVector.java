@@ -0,0 +1,66 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+
+import java.util.List;
+
+/**
+ * A dictionary encoded {@link ColumnVector} for String and Categorical columns: each row stores an index into the
+ * dictionary of distinct values. All values are {@link Text}s
+ */
+@AllArgsConstructor
+public class DictionaryColumnVector extends ColumnVector {
+
+    @Getter
+    private final int[] codes;
+    @Getter
+    private final List<String> dictionary;
+
+    @Override
+    public int size() {
+        return codes.length;
+    }
+
+    @Override
+    public Writable getWritable(int row) {
+        return new Text(dictionary.get(codes[row]));
+    }
+
+    /**
+     * @param row Row index
+     * @return The (decoded) String value at the specified row
+     */
+    public String getString(int row) {
+        return dictionary.get(codes[row]);
+    }
+
+    @Override
+    public ColumnVector removeRows(boolean[] remove, int numKept) {
+        int[] out = new int[numKept];
+        int j = 0;
+        for (int i = 0; i < codes.length; i++) {
+            if (!remove[i])
+                out[j++] = codes[i];
+        }
+        return new DictionaryColumnVector(out, dictionary);
+    }
+}
@@ -0,0 +1,53 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.datavec.api.writable.LongWritable;
+import org.datavec.api.writable.Writable;
+
+/**
+ * A {@link ColumnVector} backed by a long[]: all values are {@link LongWritable}s
+ */
+@AllArgsConstructor
+public class LongColumnVector extends ColumnVector {
+
+    @Getter
+    private final long[] data;
+
+    @Override
+    public int size() {
+        return data.length;
+    }
+
+    @Override
+    public Writable getWritable(int row) {
+        return new LongWritable(data[row]);
+    }
+
+    @Override
+    public ColumnVector removeRows(boolean[] remove, int numKept) {
+        long[] out = new long[numKept];
+        int j = 0;
+        for (int i = 0; i < data.length; i++) {
+            if (!remove[i])
+                out[j++] = data[i];
+        }
+        return new LongColumnVector(out);
+    }
+}
@@ -0,0 +1,54 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.datavec.api.writable.Writable;
+
+/**
+ * A {@link ColumnVector} that stores the Writable values directly. Used for column types without a primitive
+ * representation (NDArray, Bytes, etc), and for columns with mixed Writable types (for example, containing
+ * {@link org.datavec.api.writable.NullWritable} values)
+ */
+@AllArgsConstructor
+public class WritableColumnVector extends ColumnVector {
+
+    @Getter
+    private final Writable[] data;
+
+    @Override
+    public int size() {
+        return data.length;
+    }
+
+    @Override
+    public Writable getWritable(int row) {
+        return data[row];
+    }
+
+    @Override
+    public ColumnVector removeRows(boolean[] remove, int numKept) {
+        Writable[] out = new Writable[numKept];
+        int j = 0;
+        for (int i = 0; i < data.length; i++) {
+            if (!remove[i])
+                out[j++] = data[i];
+        }
+        return new WritableColumnVector(out);
+    }
+}
@@ -17,6 +17,9 @@
 package org.datavec.api.transform.condition;
 
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.datavec.api.transform.batch.ColumnBatch;
+import org.datavec.api.transform.batch.ColumnarCondition;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.Writable;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
@@ -33,7 +36,7 @@ import java.util.List;
  * @author Alex Black
  */
 @EqualsAndHashCode
-public class BooleanCondition implements Condition {
+public class BooleanCondition implements ColumnarCondition {
 
     /**
      * The output column name
@@ -83,7 +86,9 @@ public class BooleanCondition implements Condition {
         AND, OR, NOT, XOR
     }
 
+    @Getter
     private final Type type;
+    @Getter
     private final Condition[] conditions;
 
     public BooleanCondition(@JsonProperty("type") Type type, @JsonProperty("conditions") Condition... conditions) {
@@ -130,6 +135,46 @@ public class BooleanCondition implements Condition {
         }
     }
 
+    /**
+     * Evaluate the condition on a batch. Note that unlike {@link #condition(List)}, all sub-conditions are evaluated
+     * for all rows (i.e., there is no short-circuiting of AND/OR conditions)
+     */
+    @Override
+    public boolean[] conditionColumns(ColumnBatch batch) {
+        boolean[] out;
+        switch (type) {
+            case AND:
+                out = batch.conditionMask(conditions[0]);
+                for (int c = 1; c < conditions.length; c++) {
+                    boolean[] thisCond = batch.conditionMask(conditions[c]);
+                    for (int i = 0; i < out.length; i++)
+                        out[i] &= thisCond[i];
+                }
+                return out;
+            case OR:
+                out = batch.conditionMask(conditions[0]);
+                for (int c = 1; c < conditions.length; c++) {
+                    boolean[] thisCond = batch.conditionMask(conditions[c]);
+                    for (int i = 0; i < out.length; i++)
+                        out[i] |= thisCond[i];
+                }
+                return out;
+            case NOT:
+                out = batch.conditionMask(conditions[0]);
+                for (int i = 0; i < out.length; i++)
+                    out[i] = !out[i];
+                return out;
+            case XOR:
+                out = batch.conditionMask(conditions[0]);
+                boolean[] second = batch.conditionMask(conditions[1]);
+                for (int i = 0; i < out.length; i++)
+                    out[i] ^= second[i];
+                return out;
+            default:
+                throw new RuntimeException("Unknown condition type: " + type);
+        }
+    }
+
     /**
      * Condition on arbitrary input
      *
@@ -17,6 +17,9 @@
 package org.datavec.api.transform.condition.column;
 
 import lombok.EqualsAndHashCode;
+import org.datavec.api.transform.batch.ColumnBatch;
+import org.datavec.api.transform.batch.ColumnVector;
+import org.datavec.api.transform.batch.ColumnarCondition;
 import org.datavec.api.transform.condition.SequenceConditionMode;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.Writable;
@@ -31,7 +34,7 @@ import java.util.List;
  */
 @JsonIgnoreProperties({"columnIdx", "schema", "sequenceMode"})
 @EqualsAndHashCode(exclude = {"columnIdx", "schema", "sequenceMode"})
-public abstract class BaseColumnCondition implements ColumnCondition {
+public abstract class BaseColumnCondition implements ColumnCondition, ColumnarCondition {
 
     protected final String columnName;
     protected int columnIdx = -1;
@@ -74,6 +77,27 @@ public abstract class BaseColumnCondition implements ColumnCondition {
         return columnCondition(list.get(columnIdx));
     }
 
+    @Override
+    public boolean[] conditionColumns(ColumnBatch batch) {
+        return columnConditionVector(batch.getColumn(columnIdx));
+    }
+
+    /**
+     * Evaluate the condition on all values of the column. The default implementation applies
+     * {@link #columnCondition(Writable)} to each value; subclasses should override this to operate directly on the
+     * primitive arrays of the column vector, where possible
+     *
+     * @param column Column to evaluate the condition on
+     * @return Result of the condition for each value
+     */
+    protected boolean[] columnConditionVector(ColumnVector column) {
+        boolean[] out = new boolean[column.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = columnCondition(column.getWritable(i));
+        }
+        return out;
+    }
+
     @Override
     public boolean conditionSequence(List<List<Writable>> list) {
         switch (sequenceMode) {
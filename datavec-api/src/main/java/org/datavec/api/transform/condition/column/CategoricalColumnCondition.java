@@ -18,11 +18,14 @@ package org.datavec.api.transform.condition.column;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.datavec.api.transform.batch.ColumnVector;
+import org.datavec.api.transform.batch.DictionaryColumnVector;
 import org.datavec.api.transform.condition.ConditionOp;
 import org.datavec.api.transform.condition.SequenceConditionMode;
 import org.datavec.api.writable.Writable;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -119,6 +122,25 @@ public class CategoricalColumnCondition extends BaseColumnCondition {
         return op.apply(writable.toString(), value, set);
     }
 
+    @Override
+    protected boolean[] columnConditionVector(ColumnVector column) {
+        if (!(column instanceof DictionaryColumnVector))
+            return super.columnConditionVector(column);
+        //Evaluate the condition once per distinct value
+        DictionaryColumnVector dict = (DictionaryColumnVector) column;
+        List<String> dictionary = dict.getDictionary();
+        boolean[] dictResult = new boolean[dictionary.size()];
+        for (int i = 0; i < dictResult.length; i++) {
+            dictResult[i] = op.apply(dictionary.get(i), value, set);
+        }
+        int[] codes = dict.getCodes();
+        boolean[] out = new boolean[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            out[i] = dictResult[codes[i]];
+        }
+        return out;
+    }
+
     @Override
     public String toString() {
         return "CategoricalColumnCondition(columnName=\"" + columnName + "\"," + op + ","
@@ -18,6 +18,8 @@ package org.datavec.api.transform.condition.column;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.datavec.api.transform.batch.ColumnVector;
+import org.datavec.api.transform.batch.DoubleColumnVector;
 import org.datavec.api.transform.condition.ConditionOp;
 import org.datavec.api.transform.condition.SequenceConditionMode;
 import org.datavec.api.writable.Writable;
@@ -117,6 +119,19 @@ public class DoubleColumnCondition extends BaseColumnCondition {
         return op.apply(writable.toDouble(), (value == null ? Double.NaN : value), set);
     }
 
+    @Override
+    protected boolean[] columnConditionVector(ColumnVector column) {
+        if (!(column instanceof DoubleColumnVector))
+            return super.columnConditionVector(column);
+        double[] data = ((DoubleColumnVector) column).getData();
+        double v = (value == null ? Double.NaN : value);
+        boolean[] out = new boolean[data.length];
+        for (int i = 0; i < data.length; i++) {
+            out[i] = op.apply(data[i], v, set);
+        }
+        return out;
+    }
+
     @Override
     public String toString() {
         return "DoubleColumnCondition(columnName=\"" + columnName + "\"," + op + ","
@@ -18,6 +18,8 @@ package org.datavec.api.transform.condition.column;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.datavec.api.transform.batch.ColumnVector;
+import org.datavec.api.transform.batch.IntColumnVector;
 import org.datavec.api.transform.condition.ConditionOp;
 import org.datavec.api.transform.condition.SequenceConditionMode;
 import org.datavec.api.writable.Writable;
@@ -136,6 +138,19 @@ public class IntegerColumnCondition extends BaseColumnCondition {
         }
     }
 
+    @Override
+    protected boolean[] columnConditionVector(ColumnVector column) {
+        if (!(column instanceof IntColumnVector))
+            return super.columnConditionVector(column);
+        int[] data = ((IntColumnVector) column).getData();
+        int v = (value == null ? 0 : value);
+        boolean[] out = new boolean[data.length];
+        for (int i = 0; i < data.length; i++) {
+            out[i] = op.apply(data[i], v, set);
+        }
+        return out;
+    }
+
     @Override
     public String toString() {
         return "IntegerColumnCondition(columnName=\"" + columnName + "\"," + op + ","
@@ -18,6 +18,8 @@ package org.datavec.api.transform.condition.column;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.datavec.api.transform.batch.ColumnVector;
+import org.datavec.api.transform.batch.LongColumnVector;
 import org.datavec.api.transform.condition.ConditionOp;
 import org.datavec.api.transform.condition.SequenceConditionMode;
 import org.datavec.api.writable.Writable;
@@ -115,6 +117,19 @@ public class LongColumnCondition extends BaseColumnCondition {
         return op.apply(writable.toLong(), (value == null ? 0 : value), set);
     }
 
+    @Override
+    protected boolean[] columnConditionVector(ColumnVector column) {
+        if (!(column instanceof LongColumnVector))
+            return super.columnConditionVector(column);
+        long[] data = ((LongColumnVector) column).getData();
+        long v = (value == null ? 0 : value);
+        boolean[] out = new boolean[data.length];
+        for (int i = 0; i < data.length; i++) {
+            out[i] = op.apply(data[i], v, set);
+        }
+        return out;
+    }
+
     @Override
     public String toString() {
         return "LongColumnCondition(columnName=\"" + columnName + "\"," + op + ","
@@ -17,6 +17,7 @@
 package org.datavec.api.transform.condition.column;
 
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import org.datavec.api.transform.condition.ConditionOp;
 import org.datavec.api.transform.condition.SequenceConditionMode;
 import org.datavec.api.writable.Writable;
@@ -30,6 +31,7 @@ import java.util.Set;
  * @author Alex Black
  */
 @EqualsAndHashCode(callSuper = true)
+@Getter
 public class StringColumnCondition extends BaseColumnCondition {
 
     private final ConditionOp op;
@@ -18,6 +18,8 @@ package org.datavec.api.transform.filter;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.datavec.api.transform.batch.ColumnBatch;
+import org.datavec.api.transform.batch.ColumnarFilter;
 import org.datavec.api.transform.condition.Condition;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.Writable;
@@ -34,7 +36,7 @@ import java.util.List;
  */
 @EqualsAndHashCode
 @Data
-public class ConditionFilter implements Filter {
+public class ConditionFilter implements ColumnarFilter {
 
     private final Condition condition;
 
@@ -70,6 +72,11 @@ public class ConditionFilter implements Filter {
         return condition.conditionSequence(sequence);
     }
 
+    @Override
+    public boolean[] removeExamples(ColumnBatch batch) {
+        return batch.conditionMask(condition);
+    }
+
     /**
      * Get the output schema for this transformation, given an input schema
      *
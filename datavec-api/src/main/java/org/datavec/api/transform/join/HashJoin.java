@@ -0,0 +1,206 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.join;
+
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * An in-memory hash join: the examples of one side of a {@link Join} (the "build" side - usually the smaller one) are
+ * indexed in a hash map by their join column values. Examples from the other side (the "probe" side) are then joined
+ * one at a time, via {@link #join(List)}, without any grouping or sorting of the probe data.<br>
+ * <br>
+ * If the join type preserves the build side (LeftOuter with a left build side, RightOuter with a right build side, or
+ * FullOuter), the build examples that were not matched by any probe example must also be returned: use
+ * {@link #joinUnmatched(Set)} once all probe examples have been joined. Note that this requires the keys of all
+ * probe examples; when the probe side is distributed (as in Spark) only the join types for which
+ * {@link #preservesBuildSide()} returns false should be executed via a hash join.<br>
+ * HashJoin is Serializable, so it can be used as a Spark broadcast variable. Once constructed it is read-only, and
+ * hence {@link #join(List)} is thread safe.
+ *
+ * @see Join.JoinStrategy
+ */
+public class HashJoin implements Serializable {
+
+    private final Join join;
+    private final boolean buildLeft;
+    private final int[] buildKeyColumns;
+    private final int[] probeKeyColumns;
+    private final Map<List<Writable>, List<List<Writable>>> index;
+
+    /**
+     * @param join         Join to execute
+     * @param buildLeft    If true: the build side (indexed data) is the left data. Otherwise it is the right data
+     * @param buildRecords Examples for the build side
+     */
+    public HashJoin(Join join, boolean buildLeft, Iterable<List<Writable>> buildRecords) {
+        this.join = join;
+        this.buildLeft = buildLeft;
+        int[] leftKeys = join.getLeftSchema().getIndexOfColumns(join.getJoinColumnsLeft());
+        int[] rightKeys = join.getRightSchema().getIndexOfColumns(join.getJoinColumnsRight());
+        this.buildKeyColumns = (buildLeft ? leftKeys : rightKeys);
+        this.probeKeyColumns = (buildLeft ? rightKeys : leftKeys);
+
+        this.index = new HashMap<>();
+        for (List<Writable> record : buildRecords) {
+            List<Writable> key = extractKey(record, buildKeyColumns);
+            List<List<Writable>> list = index.get(key);
+            if (list == null) {
+                list = new ArrayList<>(1);
+                index.put(key, list);
+            }
+            list.add(record);
+        }
+    }
+
+    /**
+     * Returns true if the specified join type returns build examples that have no matching probe example. If so,
+     * {@link #joinUnmatched(Set)} must be used in addition to {@link #join(List)}
+     *
+     * @param joinType  Type of join
+     * @param buildLeft Whether the build side is the left data
+     */
+    public static boolean preservesBuildSide(Join.JoinType joinType, boolean buildLeft) {
+        switch (joinType) {
+            case Inner:
+                return false;
+            case LeftOuter:
+                return buildLeft;
+            case RightOuter:
+                return !buildLeft;
+            case FullOuter:
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * @see #preservesBuildSide(Join.JoinType, boolean)
+     */
+    public boolean preservesBuildSide() {
+        return preservesBuildSide(join.getJoinType(), buildLeft);
+    }
+
+    /**
+     * @return True if the build side of the join is the left data
+     */
+    public boolean isBuildLeft() {
+        return buildLeft;
+    }
+
+    /**
+     * @return Number of distinct keys in the build side
+     */
+    public int numKeys() {
+        return index.size();
+    }
+
+    /**
+     * Extract the join key from an example on the probe side
+     *
+     * @param probeRecord Example from the probe side
+     * @return Values of the join columns
+     */
+    public List<Writable> probeKey(List<Writable> probeRecord) {
+        return extractKey(probeRecord, probeKeyColumns);
+    }
+
+    /**
+     * @param key Join key (see {@link #probeKey(List)})
+     * @return True if the build side contains at least one example with the specified key
+     */
+    public boolean containsKey(List<Writable> key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * Join the specified probe example with all matching build examples. If there are no matching build examples
+     * and the join type preserves the probe side, the probe example is returned joined with NullWritables
+     *
+     * @param probeRecord Example from the probe side
+     * @return Joined examples. May be empty
+     */
+    public List<List<Writable>> join(List<Writable> probeRecord) {
+        List<List<Writable>> matches = index.get(probeKey(probeRecord));
+        if (matches == null) {
+            if (preservesProbeSide()) {
+                return Collections.singletonList(joinPair(null, probeRecord));
+            }
+            return Collections.emptyList();
+        }
+        List<List<Writable>> out = new ArrayList<>(matches.size());
+        for (List<Writable> m : matches) {
+            out.add(joinPair(m, probeRecord));
+        }
+        return out;
+    }
+
+    /**
+     * Return the build examples whose keys are not in the specified set, joined with NullWritables. Returns an empty
+     * list if the join type does not preserve the build side
+     *
+     * @param matchedKeys Keys (see {@link #probeKey(List)}) of all probe examples
+     * @return Unmatched build examples, joined with NullWritables
+     */
+    public List<List<Writable>> joinUnmatched(Set<List<Writable>> matchedKeys) {
+        if (!preservesBuildSide()) {
+            return Collections.emptyList();
+        }
+        List<List<Writable>> out = new ArrayList<>();
+        for (Map.Entry<List<Writable>, List<List<Writable>>> e : index.entrySet()) {
+            if (matchedKeys.contains(e.getKey())) {
+                continue;
+            }
+            for (List<Writable> record : e.getValue()) {
+                out.add(joinPair(record, null));
+            }
+        }
+        return out;
+    }
+
+    private boolean preservesProbeSide() {
+        switch (join.getJoinType()) {
+            case Inner:
+                return false;
+            case LeftOuter:
+                return !buildLeft;
+            case RightOuter:
+                return buildLeft;
+            case FullOuter:
+            default:
+                return true;
+        }
+    }
+
+    private List<Writable> joinPair(List<Writable> buildRecord, List<Writable> probeRecord) {
+        if (buildLeft) {
+            return join.joinExamples(buildRecord, probeRecord);
+        } else {
+            return join.joinExamples(probeRecord, buildRecord);
+        }
+    }
+
+    private static List<Writable> extractKey(List<Writable> record, int[] keyColumns) {
+        List<Writable> key = new ArrayList<>(keyColumns.length);
+        for (int idx : keyColumns) {
+            key.add(record.get(idx));
+        }
+        return key;
+    }
+}
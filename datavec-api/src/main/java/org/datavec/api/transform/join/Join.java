@@ -48,15 +48,42 @@ public class Join implements Serializable {
         Inner, LeftOuter, RightOuter, FullOuter
     };
 
+    /**
+     * Strategy hint for executing the join<br>
+     * Auto: let the executor decide, based on estimates of the size of the left and right data. Note that in Spark,
+     * estimating the sizes runs up to two extra (take) jobs on each side of the join, even if the join is then
+     * executed as a shuffle join<br>
+     * Shuffle: group both sides by key (i.e., a cogroup in Spark). Works for all join types and data sizes. This is
+     * the default<br>
+     * BroadcastLeft: build an in-memory hash index of the left data (see {@link HashJoin}), and stream the right data
+     * through it. The left data must be small enough to fit in memory. In Spark, this is only valid for Inner and
+     * RightOuter joins; other join types fall back to Shuffle<br>
+     * BroadcastRight: as per BroadcastLeft, but with the right data indexed. In Spark, this is only valid for Inner
+     * and LeftOuter joins; other join types fall back to Shuffle
+     */
+    public enum JoinStrategy {
+        Auto, Shuffle, BroadcastLeft, BroadcastRight
+    }
+
     private JoinType joinType;
     private Schema leftSchema;
     private Schema rightSchema;
     private String[] joinColumnsLeft;
     private String[] joinColumnsRight;
+    private JoinStrategy strategy;
 
 
+    /**
+     * @return Strategy hint for executing the join. {@link JoinStrategy#Shuffle} if none was set (for example, for
+     *         a Join deserialized from a format without the strategy)
+     */
+    public JoinStrategy getStrategy() {
+        return (strategy == null ? JoinStrategy.Shuffle : strategy);
+    }
+
     private Join(Builder builder) {
         this.joinType = builder.joinType;
+        this.strategy = builder.strategy;
         this.leftSchema = builder.leftSchema;
         this.rightSchema = builder.rightSchema;
         this.joinColumnsLeft = builder.joinColumnsLeft;
@@ -65,6 +92,8 @@ public class Join implements Serializable {
         //Perform validation: ensure columns are correct, etc
         if (joinType == null)
             throw new IllegalArgumentException("Join type cannot be null");
+        if (strategy == null)
+            throw new IllegalArgumentException("Join strategy cannot be null");
         if (leftSchema == null)
             throw new IllegalArgumentException("Left schema cannot be null");
         if (rightSchema == null)
@@ -102,6 +131,7 @@ public class Join implements Serializable {
         private Schema rightSchema;
         private String[] joinColumnsLeft;
         private String[] joinColumnsRight;
+        private JoinStrategy strategy = JoinStrategy.Shuffle;
 
         public Builder(JoinType type) {
             this.joinType = type;
@@ -169,6 +199,19 @@ public class Join implements Serializable {
             return this;
         }
 
+        /**
+         * Specify the strategy used to execute the join. Default: {@link JoinStrategy#Shuffle}.<br>
+         * Use {@link JoinStrategy#BroadcastLeft} or {@link JoinStrategy#BroadcastRight} when one side is known to be
+         * a small lookup table: this avoids shuffling the (large) other side. Use {@link JoinStrategy#Auto} to let
+         * the executor decide, at the cost of estimating the size of each side first.
+         *
+         * @param strategy Strategy hint for the join
+         */
+        public Builder setStrategy(JoinStrategy strategy) {
+            this.strategy = strategy;
+            return this;
+        }
+
         public Join build() {
             if (leftSchema == null || rightSchema == null)
                 throw new IllegalStateException("Cannot build Join: left and/or right schemas are null");
@@ -223,13 +266,13 @@ public class Join implements Serializable {
             //Complication here: the **key values** should still exist (we have to extract them from second value)
             int nLeft = leftSchema.numColumns();
             List<String> leftNames = leftSchema.getColumnNames();
-            int keysSoFar = 0;
             for (int i = 0; i < nLeft; i++) {
                 String name = leftNames.get(i);
-                if (ArrayUtils.contains(joinColumnsLeft, name)) {
+                int keyIdx = ArrayUtils.indexOf(joinColumnsLeft, name);
+                if (keyIdx >= 0) {
                     //This would normally be where the left key came from...
                     //So let's get the key value from the *right* example
-                    String rightKeyName = joinColumnsRight[keysSoFar];
+                    String rightKeyName = joinColumnsRight[keyIdx];
                     int idxOfRightKey = rightSchema.getIndexOfColumn(rightKeyName);
                     out.add(rightExample.get(idxOfRightKey));
                 } else {
@@ -0,0 +1,188 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.plan;
+
+import lombok.Getter;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.batch.ColumnBatch;
+import org.datavec.api.transform.batch.ColumnVector;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An ExecutionPlan is an optimized, executable form of a (non-sequence) {@link TransformProcess}, as produced by
+ * {@link TransformProcess#compile()}. Executing the plan produces the same output as
+ * {@link TransformProcess#execute(List)} and {@link TransformProcess#executeBatch(List)}, but with less work:
+ * <ul>
+ * <li>Columns of the input that never reach the final schema (i.e., are only transformed and then removed) are
+ * pruned when the input is read, instead of being transformed and later discarded</li>
+ * <li>Filters are moved ahead of transforms that do not affect the columns they depend on, so removed examples
+ * are not transformed</li>
+ * <li>Consecutive single-column transforms are fused into a single pass over each example</li>
+ * </ul>
+ * The optimized plan can be inspected via {@link #getSteps()}, {@link #getPrunedColumns()} and {@link #toString()}.
+ * The plan operates on copies of the original operations: the source TransformProcess is not modified.
+ */
+public class ExecutionPlan implements Serializable {
+
+    @Getter
+    private final Schema initialSchema;
+    @Getter
+    private final TransformProcess optimizedProcess;
+    @Getter
+    private final List<String> prunedColumns;
+    @Getter
+    private final List<PlanStep> steps;
+    private final int[] inputColumns;
+
+    /**
+     * @param initialSchema    Schema of the input data
+     * @param optimizedProcess Optimized TransformProcess. Its initial schema is the initial schema without the
+     *                         pruned columns
+     * @param prunedColumns    Names of the input columns that are pruned
+     * @param steps            Steps to execute
+     */
+    public ExecutionPlan(Schema initialSchema, TransformProcess optimizedProcess, List<String> prunedColumns,
+                    List<PlanStep> steps) {
+        this.initialSchema = initialSchema;
+        this.optimizedProcess = optimizedProcess;
+        this.prunedColumns = Collections.unmodifiableList(new ArrayList<>(prunedColumns));
+        this.steps = Collections.unmodifiableList(new ArrayList<>(steps));
+
+        if (prunedColumns.isEmpty()) {
+            inputColumns = null;
+        } else {
+            List<String> kept = optimizedProcess.getInitialSchema().getColumnNames();
+            inputColumns = new int[kept.size()];
+            for (int i = 0; i < inputColumns.length; i++) {
+                inputColumns[i] = initialSchema.getIndexOfColumn(kept.get(i));
+            }
+        }
+    }
+
+    /**
+     * @return Schema of the output data, after executing the plan
+     */
+    public Schema getFinalSchema() {
+        return optimizedProcess.getFinalSchema();
+    }
+
+    /**
+     * Execute the plan on a single example
+     *
+     * @param input Input example. Must match the initial schema
+     * @return Output example, or null if the example was filtered
+     */
+    public List<Writable> execute(List<Writable> input) {
+        checkNumColumns(input);
+        List<Writable> curr = input;
+        if (inputColumns != null) {
+            curr = new ArrayList<>(inputColumns.length);
+            for (int idx : inputColumns) {
+                curr.add(input.get(idx));
+            }
+        }
+
+        for (PlanStep step : steps) {
+            curr = step.execute(curr);
+            if (curr == null)
+                return null;
+        }
+        return curr;
+    }
+
+    /**
+     * Execute the plan on a batch of examples, in columnar mode
+     *
+     * @param input Input examples. Must match the initial schema
+     * @return Output examples (not including any filtered examples)
+     */
+    public List<List<Writable>> executeBatch(List<List<Writable>> input) {
+        for (List<Writable> record : input) {
+            checkNumColumns(record);
+        }
+        Schema schema = optimizedProcess.getInitialSchema();
+        ColumnVector[] columns = new ColumnVector[schema.numColumns()];
+        for (int i = 0; i < columns.length; i++) {
+            //Pruned columns are never converted to column vectors
+            columns[i] = ColumnVector.fromRecords(input, inputColumns == null ? i : inputColumns[i]);
+        }
+        return executeSteps(new ColumnBatch(schema, input.size(), columns)).toRecords();
+    }
+
+    /**
+     * Execute the plan on a batch of examples, in columnar mode
+     *
+     * @param batch Input batch. Schema of the batch must match the initial schema
+     * @return Output batch (not including any filtered examples)
+     */
+    public ColumnBatch executeBatch(ColumnBatch batch) {
+        if (batch.numColumns() != initialSchema.numColumns()) {
+            throw new IllegalStateException("Cannot execute plan: input batch number of columns (" + batch.numColumns()
+                            + ") does not match expected number of columns (schema: " + initialSchema.numColumns()
+                            + ")");
+        }
+        ColumnBatch curr = batch;
+        if (inputColumns != null) {
+            ColumnVector[] columns = new ColumnVector[inputColumns.length];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = batch.getColumn(inputColumns[i]);
+            }
+            curr = new ColumnBatch(optimizedProcess.getInitialSchema(), batch.getNumRows(), columns);
+        }
+        return executeSteps(curr);
+    }
+
+    private ColumnBatch executeSteps(ColumnBatch batch) {
+        ColumnBatch curr = batch;
+        for (PlanStep step : steps) {
+            curr = step.execute(curr);
+        }
+        return curr;
+    }
+
+    private void checkNumColumns(List<Writable> record) {
+        if (record.size() != initialSchema.numColumns()) {
+            throw new IllegalStateException("Cannot execute plan: input writables list length (" + record.size()
+                            + ") does not match expected number of elements (schema: " + initialSchema.numColumns()
+                            + ")");
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("ExecutionPlan(\n");
+        sb.append("  input: ").append(initialSchema.getColumnNames()).append("\n");
+        if (inputColumns != null) {
+            sb.append("  pruned: ").append(prunedColumns).append(" -> project ").append(Arrays.toString(inputColumns))
+                            .append("\n");
+        }
+        for (int i = 0; i < steps.size(); i++) {
+            sb.append("  ").append(i).append(": ").append(steps.get(i)).append("\n");
+        }
+        sb.append("  output: ").append(getFinalSchema().getColumnNames()).append("\n");
+        sb.append(")");
+        return sb.toString();
+    }
+}
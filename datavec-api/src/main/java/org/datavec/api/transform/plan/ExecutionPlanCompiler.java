@@ -0,0 +1,294 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.plan;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.datavec.api.transform.DataAction;
+import org.datavec.api.transform.Transform;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.condition.BooleanCondition;
+import org.datavec.api.transform.condition.Condition;
+import org.datavec.api.transform.condition.column.BaseColumnCondition;
+import org.datavec.api.transform.filter.ConditionFilter;
+import org.datavec.api.transform.filter.Filter;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.schema.SequenceSchema;
+import org.datavec.api.transform.transform.BaseColumnTransform;
+import org.datavec.api.transform.transform.column.AddConstantColumnTransform;
+import org.datavec.api.transform.transform.column.RemoveAllColumnsExceptForTransform;
+import org.datavec.api.transform.transform.column.RemoveColumnsTransform;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiles a {@link TransformProcess} into an {@link ExecutionPlan}. See {@link ExecutionPlan} for the optimizations
+ * that are applied.<br>
+ * All optimizations are conservative: an operation is only reordered, fused or pruned if the columns it reads are
+ * known. This is the case for single-column transforms ({@link BaseColumnTransform}), column removal, constant
+ * columns and {@link ConditionFilter}s on column conditions. Any other operation acts as a barrier.
+ */
+public class ExecutionPlanCompiler {
+
+    private ExecutionPlanCompiler() {}
+
+    /**
+     * Compile the given TransformProcess. Only TransformProcesses that operate on (non-sequence) examples and contain
+     * only transforms and filters can be compiled
+     *
+     * @param transformProcess TransformProcess to compile. It is not modified
+     * @return Optimized execution plan
+     */
+    public static ExecutionPlan compile(TransformProcess transformProcess) {
+        Schema initialSchema = transformProcess.getInitialSchema();
+        if (initialSchema instanceof SequenceSchema) {
+            throw new IllegalStateException("Cannot compile TransformProcess: initial schema is a sequence schema");
+        }
+        for (DataAction d : transformProcess.getActionList()) {
+            if (d.getTransform() == null && d.getFilter() == null) {
+                throw new IllegalStateException("Cannot compile TransformProcess: only transforms and filters are "
+                                + "supported. Unsupported action: " + d);
+            }
+        }
+
+        //Work on copies of the operations: their input schemas are reset below
+        ArrayList<DataAction> copy = SerializationUtils.clone(new ArrayList<>(transformProcess.getActionList()));
+        List<Object> ops = new ArrayList<>(copy.size());
+        for (DataAction d : copy) {
+            ops.add(d.getTransform() != null ? d.getTransform() : d.getFilter());
+        }
+
+        List<String> pruned = new ArrayList<>();
+        for (String column : initialSchema.getColumnNames()) {
+            if (isPrunable(column, ops)) {
+                pruned.add(column);
+            }
+        }
+        Schema schema = initialSchema;
+        if (!pruned.isEmpty()) {
+            ops = prune(ops, pruned);
+            schema = new TransformProcess.Builder(initialSchema).removeColumns(pruned).build().getFinalSchema();
+        }
+
+        ops = pushDownFilters(ops);
+
+        TransformProcess optimized = new TransformProcess(schema, toActions(ops));
+        if (removeNoOpSteps(ops)) {
+            optimized = new TransformProcess(schema, toActions(ops));
+        }
+
+        return new ExecutionPlan(initialSchema, optimized, pruned, createSteps(optimized));
+    }
+
+    /**
+     * A column can be pruned if it is removed before reaching the final schema, and all operations before its
+     * removal are known not to read it (other than single-column transforms on the column itself)
+     */
+    private static boolean isPrunable(String column, List<Object> ops) {
+        for (Object op : ops) {
+            if (op instanceof Filter) {
+                Set<String> in = inputColumns((Filter) op);
+                if (in == null || in.contains(column)) {
+                    return false;
+                }
+            } else if (isColumnLocal(op)) {
+                //OK: only reads the column it modifies
+            } else if (op instanceof RemoveColumnsTransform) {
+                if (Arrays.asList(((RemoveColumnsTransform) op).getColumnsToRemove()).contains(column)) {
+                    return true;
+                }
+            } else if (op instanceof RemoveAllColumnsExceptForTransform) {
+                if (!Arrays.asList(((RemoveAllColumnsExceptForTransform) op).getColumnsToKeep()).contains(column)) {
+                    return true;
+                }
+            } else if (!(op instanceof AddConstantColumnTransform)) {
+                return false;
+            }
+        }
+        //Column is present in the final schema
+        return false;
+    }
+
+    private static List<Object> prune(List<Object> ops, List<String> pruned) {
+        Set<String> live = new HashSet<>(pruned);
+        List<Object> out = new ArrayList<>(ops.size());
+        for (Object op : ops) {
+            if (live.isEmpty()) {
+                out.add(op);
+            } else if (isColumnLocal(op) && live.contains(((BaseColumnTransform) op).getColumnName())) {
+                //Transform of a pruned column: not required
+            } else if (op instanceof RemoveColumnsTransform) {
+                List<String> toRemove = new ArrayList<>();
+                for (String s : ((RemoveColumnsTransform) op).getColumnsToRemove()) {
+                    if (!live.remove(s)) {
+                        toRemove.add(s);
+                    }
+                }
+                if (!toRemove.isEmpty()) {
+                    out.add(new RemoveColumnsTransform(toRemove.toArray(new String[toRemove.size()])));
+                }
+            } else if (op instanceof RemoveAllColumnsExceptForTransform) {
+                live.clear();
+                out.add(op);
+            } else {
+                out.add(op);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Move each filter ahead of the preceding operations that do not modify or create any of the columns it reads
+     */
+    private static List<Object> pushDownFilters(List<Object> ops) {
+        List<Object> out = new ArrayList<>(ops.size());
+        for (Object op : ops) {
+            int pos = out.size();
+            if (op instanceof Filter) {
+                Set<String> in = inputColumns((Filter) op);
+                if (in != null) {
+                    while (pos > 0 && canMoveFilterBefore(out.get(pos - 1), in)) {
+                        pos--;
+                    }
+                }
+            }
+            out.add(pos, op);
+        }
+        return out;
+    }
+
+    private static boolean canMoveFilterBefore(Object op, Set<String> filterColumns) {
+        if (isColumnLocal(op)) {
+            return !filterColumns.contains(((BaseColumnTransform) op).getColumnName());
+        } else if (op instanceof AddConstantColumnTransform) {
+            return !filterColumns.contains(((AddConstantColumnTransform) op).getNewColumnName());
+        }
+        //The filter's columns are not removed (it reads them later), so they exist before any column removal
+        return op instanceof RemoveColumnsTransform || op instanceof RemoveAllColumnsExceptForTransform;
+    }
+
+    /**
+     * Remove column removal steps that (after pruning) no longer remove any columns
+     *
+     * @return True if any steps were removed
+     */
+    private static boolean removeNoOpSteps(List<Object> ops) {
+        boolean removed = false;
+        for (int i = ops.size() - 1; i >= 0; i--) {
+            Object op = ops.get(i);
+            if (op instanceof RemoveColumnsTransform || op instanceof RemoveAllColumnsExceptForTransform) {
+                Transform t = (Transform) op;
+                if (t.getInputSchema().numColumns() == t.transform(t.getInputSchema()).numColumns()) {
+                    ops.remove(i);
+                    removed = true;
+                }
+            }
+        }
+        return removed;
+    }
+
+    private static List<PlanStep> createSteps(TransformProcess tp) {
+        List<PlanStep> steps = new ArrayList<>();
+        List<BaseColumnTransform> fused = new ArrayList<>();
+        for (DataAction d : tp.getActionList()) {
+            if (isColumnLocal(d.getTransform())) {
+                fused.add((BaseColumnTransform) d.getTransform());
+                continue;
+            }
+            addFused(steps, fused);
+            if (d.getTransform() != null) {
+                steps.add(new TransformStep(d.getTransform()));
+            } else {
+                steps.add(new FilterStep(d.getFilter()));
+            }
+        }
+        addFused(steps, fused);
+        return steps;
+    }
+
+    private static void addFused(List<PlanStep> steps, List<BaseColumnTransform> fused) {
+        if (fused.size() == 1) {
+            steps.add(new TransformStep(fused.get(0)));
+        } else if (fused.size() > 1) {
+            steps.add(new FusedColumnTransformStep(fused));
+        }
+        fused.clear();
+    }
+
+    private static List<DataAction> toActions(List<Object> ops) {
+        List<DataAction> actions = new ArrayList<>(ops.size());
+        for (Object op : ops) {
+            if (op instanceof Transform) {
+                actions.add(new DataAction((Transform) op));
+            } else {
+                actions.add(new DataAction((Filter) op));
+            }
+        }
+        return actions;
+    }
+
+    /**
+     * A transform is column-local if it is a {@link BaseColumnTransform} that uses the default (single column)
+     * implementation of map(List) and transform(Schema): i.e., it reads and modifies only its own column
+     */
+    private static boolean isColumnLocal(Object op) {
+        if (!(op instanceof BaseColumnTransform)) {
+            return false;
+        }
+        try {
+            Class<?> c = op.getClass();
+            return c.getMethod("map", List.class).getDeclaringClass() == BaseColumnTransform.class
+                            && c.getMethod("transform", Schema.class).getDeclaringClass() == BaseColumnTransform.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return Names of the columns the filter reads, or null if unknown
+     */
+    private static Set<String> inputColumns(Filter filter) {
+        if (filter instanceof ConditionFilter) {
+            return inputColumns(((ConditionFilter) filter).getCondition());
+        }
+        return null;
+    }
+
+    /**
+     * @return Names of the columns the condition reads, or null if unknown
+     */
+    public static Set<String> inputColumns(Condition condition) {
+        if (condition instanceof BaseColumnCondition) {
+            return Collections.singleton(((BaseColumnCondition) condition).columnName());
+        } else if (condition instanceof BooleanCondition) {
+            Set<String> out = new HashSet<>();
+            for (Condition c : ((BooleanCondition) condition).getConditions()) {
+                Set<String> in = inputColumns(c);
+                if (in == null) {
+                    return null;
+                }
+                out.addAll(in);
+            }
+            return out;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,80 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.plan;
+
+import lombok.Getter;
+import org.datavec.api.transform.batch.ColumnBatch;
+import org.datavec.api.transform.transform.BaseColumnTransform;
+import org.datavec.api.writable.Writable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A plan step that executes a sequence of consecutive single-column transforms ({@link BaseColumnTransform}s) in one
+ * pass.<br>
+ * When executed one at a time, each BaseColumnTransform copies the entire example to modify a single value. Because
+ * these transforms never change the number or order of columns, the fused step copies the example once and replaces
+ * the values of the affected columns in place.
+ */
+public class FusedColumnTransformStep extends PlanStep {
+
+    @Getter
+    private final List<BaseColumnTransform> transforms;
+    private final int numColumns;
+
+    /**
+     * @param transforms Transforms to fuse, in order of execution. Input schemas must already be set
+     */
+    public FusedColumnTransformStep(List<BaseColumnTransform> transforms) {
+        if (transforms == null || transforms.isEmpty()) {
+            throw new IllegalArgumentException("Cannot create fused step: no transforms provided");
+        }
+        this.transforms = Collections.unmodifiableList(new ArrayList<>(transforms));
+        this.numColumns = transforms.get(0).getInputSchema().numColumns();
+    }
+
+    @Override
+    public List<Writable> execute(List<Writable> input) {
+        if (input.size() != numColumns) {
+            throw new IllegalStateException("Cannot execute fused transforms: input writables list length ("
+                            + input.size() + ") does not match expected number of elements (schema: " + numColumns
+                            + "). Transforms = " + transforms);
+        }
+        List<Writable> out = new ArrayList<>(input);
+        for (BaseColumnTransform t : transforms) {
+            int idx = t.getColumnNumber();
+            out.set(idx, t.map(out.get(idx)));
+        }
+        return out;
+    }
+
+    @Override
+    public ColumnBatch execute(ColumnBatch batch) {
+        ColumnBatch curr = batch;
+        for (BaseColumnTransform t : transforms) {
+            curr = t.mapColumns(curr);
+        }
+        return curr;
+    }
+
+    @Override
+    public String toString() {
+        return "FusedColumnTransform(" + transforms + ")";
+    }
+}
@@ -0,0 +1,46 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.plan;
+
+import org.datavec.api.transform.batch.ColumnBatch;
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A single step of an {@link ExecutionPlan}: a transform, a filter, or a group of fused column transforms
+ */
+public abstract class PlanStep implements Serializable {
+
+    /**
+     * Execute this step on a single example
+     *
+     * @param input Input example
+     * @return Output example, or null if the example was removed by a filter
+     */
+    public abstract List<Writable> execute(List<Writable> input);
+
+    /**
+     * Execute this step on a batch of examples, in columnar mode
+     *
+     * @param batch Input batch
+     * @return Output batch
+     */
+    public abstract ColumnBatch execute(ColumnBatch batch);
+
+}
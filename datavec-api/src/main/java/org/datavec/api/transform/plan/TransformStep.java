@@ -0,0 +1,56 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.plan;
+
+import lombok.Getter;
+import org.datavec.api.transform.Transform;
+import org.datavec.api.transform.batch.ColumnBatch;
+import org.datavec.api.transform.batch.ColumnarTransform;
+import org.datavec.api.writable.Writable;
+
+import java.util.List;
+
+/**
+ * A plan step that executes a single {@link Transform}
+ */
+public class TransformStep extends PlanStep {
+
+    @Getter
+    private final Transform transform;
+
+    public TransformStep(Transform transform) {
+        this.transform = transform;
+    }
+
+    @Override
+    public List<Writable> execute(List<Writable> input) {
+        return transform.map(input);
+    }
+
+    @Override
+    public ColumnBatch execute(ColumnBatch batch) {
+        if (transform instanceof ColumnarTransform) {
+            return ((ColumnarTransform) transform).mapColumns(batch);
+        }
+        return batch.mapRows(transform);
+    }
+
+    @Override
+    public String toString() {
+        return "Transform(" + transform + ")";
+    }
+}
@@ -24,6 +24,7 @@ import org.datavec.api.transform.metadata.LongMetaData;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.schema.SequenceSchema;
 import org.datavec.api.writable.comparator.WritableComparator;
+import org.nd4j.shade.jackson.annotation.JsonCreator;
 import org.nd4j.shade.jackson.annotation.JsonIgnoreProperties;
 import org.nd4j.shade.jackson.annotation.JsonInclude;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
@@ -31,6 +32,7 @@ import org.nd4j.shade.jackson.annotation.JsonTypeInfo;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -39,9 +41,13 @@ import java.util.List;
  * example, according to that column.<br>
  * The rank of each example (after sorting) will be added in a new Long column. Indexing is done from 0; examples will have
  * values 0 to dataSetSize - 1.<br>
+ * Examples may be sorted on multiple columns: examples are compared on the first sort column, then (for equal values)
+ * on the second sort column, and so on. Examples that are equal on all sort columns are ties; how ties are ranked is
+ * determined by the {@link RankType}.<br>
+ * Optionally, ranks can be calculated separately for each group of examples (i.e., rank within group), where groups
+ * are defined by the values of one or more "group by" columns. Ranks start from 0 in each group.<br>
  *
  * Currently, CalculateSortedRank can only be applied on standard (i.e., non-sequence) data.
- * Furthermore, the current implementation can only sort on one column
  *
  * @author Alex Black
  */
@@ -52,10 +58,23 @@ import java.util.List;
 @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.WRAPPER_OBJECT)
 public class CalculateSortedRank implements Serializable, ColumnOp {
 
+    /**
+     * How ties (examples that are equal on all sort columns) are ranked. For example, for sorted values
+     * (1.0, 2.0, 2.0, 3.0) the ranks are:<br>
+     * RowNumber: (0, 1, 2, 3) - each example gets a distinct rank; the order of tied examples is arbitrary<br>
+     * Competition: (0, 1, 1, 3) - tied examples get the same rank; a gap is left after the ties<br>
+     * Dense: (0, 1, 1, 2) - tied examples get the same rank; no gaps
+     */
+    public enum RankType {
+        RowNumber, Competition, Dense
+    }
+
     private final String newColumnName;
-    private final String sortOnColumn;
-    private final WritableComparator comparator;
+    private final String[] sortOnColumns;
+    private final WritableComparator[] comparators;
     private final boolean ascending;
+    private final RankType rankType;
+    private final String[] groupByColumns;
     private Schema inputSchema;
 
 
@@ -76,14 +95,105 @@ public class CalculateSortedRank implements Serializable, ColumnOp {
      * @param comparator       Comparator used to sort examples
      * @param ascending        Whether examples should be ascending or descending, using the comparator
      */
-    public CalculateSortedRank(@JsonProperty("newColumnName") String newColumnName,
-                    @JsonProperty("sortOnColumn") String sortOnColumn,
-                    @JsonProperty("comparator") WritableComparator comparator,
-                    @JsonProperty("ascending") boolean ascending) {
+    public CalculateSortedRank(String newColumnName, String sortOnColumn, WritableComparator comparator,
+                    boolean ascending) {
+        this(newColumnName, new String[] {sortOnColumn}, new WritableComparator[] {comparator}, ascending,
+                        RankType.RowNumber, null);
+    }
+
+    /**
+     *
+     * @param newColumnName    Name of the new column (will contain the rank for each example)
+     * @param sortOnColumns    Names of the columns to sort on, in order of priority
+     * @param comparators      Comparators used to sort examples, one for each sort column
+     * @param ascending        Whether examples should be ascending or descending, using the comparators
+     * @param rankType         How to rank tied examples
+     * @param groupByColumns   Columns defining the groups to calculate ranks within. May be null or empty: calculate
+     *                         ranks over all examples
+     */
+    public CalculateSortedRank(String newColumnName, String[] sortOnColumns, WritableComparator[] comparators,
+                    boolean ascending, RankType rankType, String[] groupByColumns) {
+        if (sortOnColumns == null || sortOnColumns.length == 0)
+            throw new IllegalArgumentException("At least one sort column must be specified");
+        if (comparators == null || comparators.length != sortOnColumns.length)
+            throw new IllegalArgumentException("Number of comparators must match number of sort columns: got "
+                            + (comparators == null ? 0 : comparators.length) + " comparators for "
+                            + sortOnColumns.length + " sort columns");
         this.newColumnName = newColumnName;
-        this.sortOnColumn = sortOnColumn;
-        this.comparator = comparator;
+        this.sortOnColumns = sortOnColumns;
+        this.comparators = comparators;
         this.ascending = ascending;
+        this.rankType = (rankType == null ? RankType.RowNumber : rankType);
+        this.groupByColumns = (groupByColumns == null || groupByColumns.length == 0 ? null : groupByColumns);
+    }
+
+    @JsonCreator
+    private CalculateSortedRank(@JsonProperty("newColumnName") String newColumnName,
+                    @JsonProperty("sortOnColumn") String sortOnColumn,
+                    @JsonProperty("comparator") WritableComparator comparator,
+                    @JsonProperty("sortOnColumns") String[] sortOnColumns,
+                    @JsonProperty("comparators") WritableComparator[] comparators,
+                    @JsonProperty("ascending") boolean ascending, @JsonProperty("rankType") RankType rankType,
+                    @JsonProperty("groupByColumns") String[] groupByColumns) {
+        //sortOnColumn and comparator: for backward compatibility with single sort column format
+        this(newColumnName, sortOnColumns != null ? sortOnColumns : new String[] {sortOnColumn},
+                        comparators != null ? comparators : new WritableComparator[] {comparator}, ascending,
+                        rankType, groupByColumns);
+    }
+
+    /**
+     * @return Name of the first (highest priority) column to sort on
+     */
+    public String getSortOnColumn() {
+        return sortOnColumns[0];
+    }
+
+    /**
+     * @return Comparator for the first (highest priority) column to sort on
+     */
+    public WritableComparator getComparator() {
+        return comparators[0];
+    }
+
+    /**
+     * @return True if ranks are calculated within groups (see {@link #getGroupByColumns()}), false if ranks are
+     *         calculated over all examples
+     */
+    public boolean isGrouped() {
+        return groupByColumns != null;
+    }
+
+    /**
+     * @return Indexes (in the input schema) of the columns to sort on
+     */
+    public int[] sortOnColumnIndexes() {
+        return columnIndexes(sortOnColumns);
+    }
+
+    /**
+     * @return Indexes (in the input schema) of the group by columns. Empty if ranks are not calculated within groups
+     */
+    public int[] groupByColumnIndexes() {
+        return groupByColumns == null ? new int[0] : columnIndexes(groupByColumns);
+    }
+
+    private int[] columnIndexes(String[] columns) {
+        if (inputSchema == null)
+            throw new IllegalStateException("Input schema has not been set");
+        int[] out = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            out[i] = inputSchema.getIndexOfColumn(columns[i]);
+        }
+        return out;
+    }
+
+    /**
+     * Comparator for sorting examples (with the input schema) by the sort columns, in the order (ascending or
+     * descending) specified for this operation. Examples that compare as equal are ties.
+     * Note that the group by columns (if any) are not considered by this comparator.
+     */
+    public SortedRankComparator exampleComparator() {
+        return new SortedRankComparator(sortOnColumnIndexes(), comparators, ascending);
     }
 
     @Override
@@ -157,6 +267,9 @@ public class CalculateSortedRank implements Serializable, ColumnOp {
 
     @Override
     public String toString() {
-        return "CalculateSortedRank(newColumnName=\"" + newColumnName + "\", comparator=" + comparator + ")";
+        return "CalculateSortedRank(newColumnName=\"" + newColumnName + "\", sortOnColumns="
+                        + Arrays.toString(sortOnColumns) + ", comparators=" + Arrays.toString(comparators)
+                        + ", ascending=" + ascending + ", rankType=" + rankType
+                        + (groupByColumns == null ? "" : ", groupByColumns=" + Arrays.toString(groupByColumns)) + ")";
     }
 }
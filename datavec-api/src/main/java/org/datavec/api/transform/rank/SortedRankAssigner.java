@@ -0,0 +1,119 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.rank;
+
+import org.datavec.api.writable.LongWritable;
+import org.datavec.api.writable.Writable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Assigns ranks to examples for a {@link CalculateSortedRank} operation, in a single pass over the examples.<br>
+ * Examples must be provided in sorted order (see {@link CalculateSortedRank#exampleComparator()}). For ranks
+ * calculated within groups, all examples of each group must also be contiguous; the rank is reset to 0 whenever the
+ * group changes.<br>
+ * For distributed execution, where each partition holds a contiguous range of the sorted examples, the offsets
+ * provide the number of examples (and number of distinct sort keys) in all preceding partitions.
+ */
+public class SortedRankAssigner {
+
+    private final CalculateSortedRank.RankType rankType;
+    private final SortedRankComparator comparator;
+    private final int[] groupColumns;
+
+    private List<Writable> previous;
+    private long rowNumber;
+    private long distinctCount;
+    private long rank;
+
+    /**
+     * @param csr CalculateSortedRank operation, with the input schema set
+     */
+    public SortedRankAssigner(CalculateSortedRank csr) {
+        this(csr, 0, 0);
+    }
+
+    /**
+     * @param csr            CalculateSortedRank operation, with the input schema set
+     * @param rowOffset      Number of examples before the first example provided to this assigner
+     * @param distinctOffset Number of distinct sort keys before the first example provided to this assigner. Only
+     *                       used for {@link CalculateSortedRank.RankType#Dense} ranks
+     */
+    public SortedRankAssigner(CalculateSortedRank csr, long rowOffset, long distinctOffset) {
+        this.rankType = csr.getRankType();
+        this.comparator = csr.exampleComparator();
+        this.groupColumns = csr.groupByColumnIndexes();
+        this.rowNumber = rowOffset;
+        this.distinctCount = distinctOffset;
+    }
+
+    /**
+     * Calculate the rank of the next example
+     *
+     * @param example Next example, in sorted order
+     * @return Rank of the example
+     */
+    public long nextRank(List<Writable> example) {
+        boolean tie = false;
+        if (previous != null) {
+            if (sameGroup(previous, example)) {
+                tie = comparator.compare(previous, example) == 0;
+            } else {
+                rowNumber = 0;
+                distinctCount = 0;
+            }
+        }
+
+        switch (rankType) {
+            case Competition:
+                if (!tie)
+                    rank = rowNumber;
+                break;
+            case Dense:
+                if (!tie)
+                    rank = distinctCount++;
+                break;
+            default:
+                rank = rowNumber;
+        }
+        rowNumber++;
+        previous = example;
+        return rank;
+    }
+
+    /**
+     * Calculate the rank of the next example, and append it to a copy of the example
+     *
+     * @param example Next example, in sorted order
+     * @return Copy of the example, with the rank appended
+     */
+    public List<Writable> next(List<Writable> example) {
+        List<Writable> out = new ArrayList<>(example.size() + 1);
+        out.addAll(example);
+        out.add(new LongWritable(nextRank(example)));
+        return out;
+    }
+
+    private boolean sameGroup(List<Writable> o1, List<Writable> o2) {
+        for (int idx : groupColumns) {
+            if (!o1.get(idx).equals(o2.get(idx)))
+                return false;
+        }
+        return true;
+    }
+}
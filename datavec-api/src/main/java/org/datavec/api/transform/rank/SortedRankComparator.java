@@ -0,0 +1,59 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.rank;
+
+import org.datavec.api.writable.Writable;
+import org.datavec.api.writable.comparator.WritableComparator;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Comparator for examples, used to sort examples when executing a {@link CalculateSortedRank} operation: examples are
+ * compared on each of the sort columns in turn, using the comparator for that column, until the examples differ.
+ * For descending order, the result is reversed.
+ */
+public class SortedRankComparator implements Comparator<List<Writable>>, Serializable {
+
+    private final int[] sortColumns;
+    private final WritableComparator[] comparators;
+    private final boolean ascending;
+
+    /**
+     * @param sortColumns Indexes of the columns to sort on, in order of priority
+     * @param comparators Comparator for each sort column
+     * @param ascending   If true: ascending order. Otherwise: descending order
+     */
+    public SortedRankComparator(int[] sortColumns, WritableComparator[] comparators, boolean ascending) {
+        this.sortColumns = sortColumns;
+        this.comparators = comparators;
+        this.ascending = ascending;
+    }
+
+    @Override
+    public int compare(List<Writable> o1, List<Writable> o2) {
+        for (int i = 0; i < sortColumns.length; i++) {
+            int idx = sortColumns[i];
+            int c = comparators[i].compare(o1.get(idx), o2.get(idx));
+            if (c != 0) {
+                return ascending ? c : -c;
+            }
+        }
+        return 0;
+    }
+}
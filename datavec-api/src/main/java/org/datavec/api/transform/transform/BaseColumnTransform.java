@@ -19,6 +19,9 @@ package org.datavec.api.transform.transform;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.datavec.api.transform.ColumnOp;
+import org.datavec.api.transform.batch.ColumnBatch;
+import org.datavec.api.transform.batch.ColumnVector;
+import org.datavec.api.transform.batch.ColumnarTransform;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.Writable;
@@ -36,7 +39,7 @@ import java.util.List;
 @Data
 @JsonIgnoreProperties({"inputSchema", "columnNumber"})
 @NoArgsConstructor
-public abstract class BaseColumnTransform extends BaseTransform implements ColumnOp {
+public abstract class BaseColumnTransform extends BaseTransform implements ColumnOp, ColumnarTransform {
 
     protected String columnName;
     protected int columnNumber = -1;
@@ -99,7 +102,33 @@ public abstract class BaseColumnTransform extends BaseTransform implements Colum
         return out;
     }
 
+    @Override
+    public ColumnBatch mapColumns(ColumnBatch batch) {
+        if (batch.numColumns() != inputSchema.numColumns()) {
+            throw new IllegalStateException("Cannot execute transform: input batch number of columns ("
+                            + batch.numColumns() + ") does not " + "match expected number of elements (schema: "
+                            + inputSchema.numColumns() + "). Transform = " + toString());
+        }
+        ColumnVector newColumn = mapColumn(batch.getColumn(columnNumber));
+        return batch.replaceColumn(columnNumber, newColumn, transform(batch.getSchema()));
+    }
 
+    /**
+     * Map all values of the column. The default implementation applies {@link #map(Writable)} to each value;
+     * subclasses should override this to operate directly on the primitive arrays of the column vector, where
+     * possible
+     *
+     * @param column Column to transform
+     * @return Transformed column
+     */
+    protected ColumnVector mapColumn(ColumnVector column) {
+        int n = column.size();
+        Writable[] out = new Writable[n];
+        for (int i = 0; i < n; i++) {
+            out[i] = map(column.getWritable(i));
+        }
+        return ColumnVector.fromWritables(out);
+    }
 
     /**
      * The output column name
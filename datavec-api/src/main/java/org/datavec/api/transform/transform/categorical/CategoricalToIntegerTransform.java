@@ -17,6 +17,11 @@
 package org.datavec.api.transform.transform.categorical;
 
 import lombok.Data;
+import org.datavec.api.transform.batch.ColumnBatch;
+import org.datavec.api.transform.batch.ColumnVector;
+import org.datavec.api.transform.batch.ColumnarTransform;
+import org.datavec.api.transform.batch.DictionaryColumnVector;
+import org.datavec.api.transform.batch.IntColumnVector;
 import org.datavec.api.transform.metadata.CategoricalMetaData;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.metadata.IntegerMetaData;
@@ -34,7 +39,7 @@ import java.util.*;
  */
 @Data
 @JsonIgnoreProperties({"inputSchema", "columnIdx", "stateNames", "statesMap"})
-public class CategoricalToIntegerTransform extends BaseTransform {
+public class CategoricalToIntegerTransform extends BaseTransform implements ColumnarTransform {
 
     private String columnName;
     private int columnIdx = -1;
@@ -119,6 +124,37 @@ public class CategoricalToIntegerTransform extends BaseTransform {
         return out;
     }
 
+    @Override
+    public ColumnBatch mapColumns(ColumnBatch batch) {
+        if (batch.numColumns() != inputSchema.numColumns()) {
+            throw new IllegalStateException("Cannot execute transform: input batch number of columns ("
+                            + batch.numColumns() + ") does not " + "match expected number of elements (schema: "
+                            + inputSchema.numColumns() + "). Transform = " + toString());
+        }
+        ColumnVector column = batch.getColumn(columnIdx);
+        if (!(column instanceof DictionaryColumnVector)) {
+            return batch.mapRows(this);
+        }
+
+        //Map each distinct value once, then translate the codes
+        DictionaryColumnVector dict = (DictionaryColumnVector) column;
+        List<String> dictionary = dict.getDictionary();
+        int[] dictToClassIdx = new int[dictionary.size()];
+        for (int i = 0; i < dictToClassIdx.length; i++) {
+            Integer classIdx = statesMap.get(dictionary.get(i));
+            if (classIdx == null)
+                throw new RuntimeException("Unknown state (index not found): " + dictionary.get(i));
+            dictToClassIdx[i] = classIdx;
+        }
+
+        int[] codes = dict.getCodes();
+        int[] out = new int[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            out[i] = dictToClassIdx[codes[i]];
+        }
+        return batch.replaceColumn(columnIdx, new IntColumnVector(out), transform(batch.getSchema()));
+    }
+
     /**
      * Transform an object
      * in to another object
@@ -16,6 +16,7 @@
 
 package org.datavec.api.transform.transform.column;
 
+import lombok.Getter;
 import org.datavec.api.transform.ColumnOp;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.schema.Schema;
@@ -39,6 +40,7 @@ import java.util.*;
 public class RemoveAllColumnsExceptForTransform extends BaseTransform implements ColumnOp {
 
     private int[] columnsToKeepIdx;
+    @Getter
     private String[] columnsToKeep;
     private Set<Integer> indicesToKeep;
 
@@ -16,7 +16,11 @@
 
 package org.datavec.api.transform.transform.column;
 
+import lombok.Getter;
 import org.datavec.api.transform.ColumnOp;
+import org.datavec.api.transform.batch.ColumnBatch;
+import org.datavec.api.transform.batch.ColumnVector;
+import org.datavec.api.transform.batch.ColumnarTransform;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.transform.BaseTransform;
@@ -35,9 +39,10 @@ import java.util.*;
  * @author Alex Black
  */
 @JsonIgnoreProperties({"inputSchema", "columnsToRemoveIdx", "indicesToRemove"})
-public class RemoveColumnsTransform extends BaseTransform implements ColumnOp {
+public class RemoveColumnsTransform extends BaseTransform implements ColumnOp, ColumnarTransform {
 
     private int[] columnsToRemoveIdx;
+    @Getter
     private String[] columnsToRemove;
     private Set<Integer> indicesToRemove;
     private String[] leftOverColumns;
@@ -129,6 +134,25 @@ public class RemoveColumnsTransform extends BaseTransform implements ColumnOp {
         return outList;
     }
 
+    @Override
+    public ColumnBatch mapColumns(ColumnBatch batch) {
+        if (batch.numColumns() != inputSchema.numColumns()) {
+            throw new IllegalStateException("Cannot execute transform: input batch number of columns ("
+                            + batch.numColumns() + ") does not " + "match expected number of elements (schema: "
+                            + inputSchema.numColumns() + "). Transform = " + toString());
+        }
+
+        //No data is copied: the remaining column vectors are shared with the input batch
+        ColumnVector[] out = new ColumnVector[batch.numColumns() - columnsToRemove.length];
+        int j = 0;
+        for (int i = 0; i < batch.numColumns(); i++) {
+            if (indicesToRemove.contains(i))
+                continue;
+            out[j++] = batch.getColumn(i);
+        }
+        return new ColumnBatch(transform(batch.getSchema()), batch.getNumRows(), out);
+    }
+
     /**
      * Transform an object
      * in to another object
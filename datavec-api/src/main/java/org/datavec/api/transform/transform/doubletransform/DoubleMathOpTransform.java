@@ -17,6 +17,8 @@
 package org.datavec.api.transform.transform.doubletransform;
 
 import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.batch.ColumnVector;
+import org.datavec.api.transform.batch.DoubleColumnVector;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.metadata.DoubleMetaData;
 import org.datavec.api.transform.transform.BaseColumnTransform;
@@ -98,6 +100,18 @@ public class DoubleMathOpTransform extends BaseColumnTransform {
         return new DoubleWritable(doOp(columnWritable.toDouble()));
     }
 
+    @Override
+    protected ColumnVector mapColumn(ColumnVector column) {
+        if (!(column instanceof DoubleColumnVector))
+            return super.mapColumn(column);
+        double[] in = ((DoubleColumnVector) column).getData();
+        double[] out = new double[in.length];
+        for (int i = 0; i < in.length; i++) {
+            out[i] = doOp(in[i]);
+        }
+        return new DoubleColumnVector(out);
+    }
+
     @Override
     public String toString() {
         return "DoubleMathOpTransform(mathOp=" + mathOp + ",scalar=" + scalar + ")";
@@ -17,6 +17,8 @@
 package org.datavec.api.transform.transform.integer;
 
 import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.batch.ColumnVector;
+import org.datavec.api.transform.batch.IntColumnVector;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.metadata.IntegerMetaData;
 import org.datavec.api.transform.transform.BaseColumnTransform;
@@ -95,6 +97,18 @@ public class IntegerMathOpTransform extends BaseColumnTransform {
         return new IntWritable(doOp(columnWritable.toInt()));
     }
 
+    @Override
+    protected ColumnVector mapColumn(ColumnVector column) {
+        if (!(column instanceof IntColumnVector))
+            return super.mapColumn(column);
+        int[] in = ((IntColumnVector) column).getData();
+        int[] out = new int[in.length];
+        for (int i = 0; i < in.length; i++) {
+            out[i] = doOp(in[i]);
+        }
+        return new IntColumnVector(out);
+    }
+
     @Override
     public String toString() {
         return "IntegerMathOpTransform(mathOp=" + mathOp + ",scalar=" + scalar + ")";
@@ -17,6 +17,8 @@
 package org.datavec.api.transform.transform.longtransform;
 
 import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.batch.ColumnVector;
+import org.datavec.api.transform.batch.LongColumnVector;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.metadata.LongMetaData;
 import org.datavec.api.transform.transform.BaseColumnTransform;
@@ -95,6 +97,18 @@ public class LongMathOpTransform extends BaseColumnTransform {
         return new LongWritable(doOp(columnWritable.toLong()));
     }
 
+    @Override
+    protected ColumnVector mapColumn(ColumnVector column) {
+        if (!(column instanceof LongColumnVector))
+            return super.mapColumn(column);
+        long[] in = ((LongColumnVector) column).getData();
+        long[] out = new long[in.length];
+        for (int i = 0; i < in.length; i++) {
+            out[i] = doOp(in[i]);
+        }
+        return new LongColumnVector(out);
+    }
+
     @Override
     public String toString() {
         return "LongMathOpTransform(mathOp=" + mathOp + ",scalar=" + scalar + ")";
@@ -16,8 +16,10 @@
 
 package org.datavec.api.writable.comparator;
 
+import lombok.EqualsAndHashCode;
 import org.datavec.api.writable.Writable;
 
+@EqualsAndHashCode
 public class IntWritableComparator implements WritableComparator {
     @Override
     public int compare(Writable o1, Writable o2) {
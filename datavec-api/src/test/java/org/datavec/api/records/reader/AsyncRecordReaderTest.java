@@ -0,0 +1,208 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader;
+
+import org.datavec.api.records.Record;
+import org.datavec.api.records.SequenceRecord;
+import org.datavec.api.records.reader.impl.collection.CollectionRecordReader;
+import org.datavec.api.records.reader.impl.collection.CollectionSequenceRecordReader;
+import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.util.ClassPathResource;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Writable;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AsyncRecordReaderTest {
+
+    @Test
+    public void testAsyncRecordReader() throws Exception {
+        List<Record> expected = new ArrayList<>();
+        RecordReader expRR = new CSVRecordReader(0, ',');
+        expRR.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+        while (expRR.hasNext()) {
+            expected.add(expRR.nextRecord());
+        }
+
+        for (int batchSize : new int[] {1, 7, 1000}) {
+            RecordReader underlying = new CSVRecordReader(0, ',');
+            AsyncRecordReader rr = new AsyncRecordReader(underlying, 2, batchSize);
+            rr.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+
+            for (int epoch = 0; epoch < 3; epoch++) {
+                int count = 0;
+                while (rr.hasNext()) {
+                    Record r = rr.nextRecord();
+                    assertEquals(expected.get(count).getRecord(), r.getRecord());
+                    assertEquals(expected.get(count).getMetaData(), r.getMetaData());
+                    count++;
+                }
+                assertEquals(expected.size(), count);
+                assertFalse(rr.hasNext());
+                rr.reset();
+            }
+
+            //Reset part way through an epoch: prefetched records are discarded
+            for (int i = 0; i < 10; i++) {
+                rr.next();
+            }
+            rr.reset();
+            assertEquals(expected.get(0).getRecord(), rr.next());
+
+            AsyncReaderStats stats = rr.getStats();
+            assertEquals(2, stats.getQueueDepth());
+            assertEquals(batchSize, stats.getBatchSize());
+            assertTrue(stats.getBatchesConsumed() > 0);
+            rr.close();
+        }
+    }
+
+    @Test
+    public void testExceptionPropagation() throws Exception {
+        List<List<Writable>> data = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            data.add(Collections.<Writable>singletonList(new IntWritable(i)));
+        }
+        RecordReader failing = new CollectionRecordReader(data) {
+            private int count = 0;
+
+            @Override
+            public List<Writable> next() {
+                if (count++ == 5) {
+                    throw new IllegalStateException("Test exception");
+                }
+                return super.next();
+            }
+        };
+
+        AsyncRecordReader rr = new AsyncRecordReader(failing, 4, 1);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, rr.next().get(0).toInt());
+        }
+        try {
+            rr.hasNext();
+            fail("Expected exception");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertEquals("Test exception", e.getCause().getMessage());
+        }
+        rr.close();
+    }
+
+    @Test
+    public void testBatches() throws Exception {
+        List<List<Writable>> data = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            data.add(Collections.<Writable>singletonList(new IntWritable(i)));
+        }
+        RecordReader batchReader = new CollectionRecordReader(data) {
+            @Override
+            public boolean batchesSupported() {
+                return true;
+            }
+
+            @Override
+            public List<Writable> next(int num) {
+                List<Writable> out = new ArrayList<>();
+                while (out.size() < num && hasNext()) {
+                    out.add(next().get(0));
+                }
+                return out;
+            }
+        };
+
+        AsyncRecordReader rr = new AsyncRecordReader(batchReader, 2, 1);
+        assertTrue(rr.batchesSupported());
+        for (int epoch = 0; epoch < 2; epoch++) {
+            int count = 0;
+            while (rr.hasNext()) {
+                List<Writable> batch = rr.next(4);
+                assertEquals(Math.min(4, data.size() - count), batch.size());
+                for (Writable w : batch) {
+                    assertEquals(count++, w.toInt());
+                }
+            }
+            assertEquals(data.size(), count);
+            rr.reset();
+        }
+
+        //Records and minibatches can only be mixed after a reset, and the minibatch size cannot change
+        rr.next(4);
+        try {
+            rr.next(3);
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            //Expected
+        }
+        try {
+            rr.nextRecord();
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            //Expected
+        }
+        rr.reset();
+        assertEquals(0, rr.next().get(0).toInt());
+        try {
+            rr.next(4);
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            //Expected
+        }
+        rr.close();
+
+        AsyncRecordReader noBatches = new AsyncRecordReader(new CollectionRecordReader(data));
+        assertFalse(noBatches.batchesSupported());
+        try {
+            noBatches.next(4);
+            fail("Expected exception");
+        } catch (UnsupportedOperationException e) {
+            assertTrue(e.getMessage().contains("CollectionRecordReader"));
+        }
+    }
+
+    @Test
+    public void testAsyncSequenceRecordReader() throws Exception {
+        List<List<List<Writable>>> sequences = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            List<List<Writable>> seq = new ArrayList<>();
+            for (int j = 0; j <= i; j++) {
+                seq.add(Collections.<Writable>singletonList(new IntWritable(j)));
+            }
+            sequences.add(seq);
+        }
+
+        AsyncSequenceRecordReader rr =
+                        new AsyncSequenceRecordReader(new CollectionSequenceRecordReader(sequences), 3, 2);
+        for (int epoch = 0; epoch < 2; epoch++) {
+            int count = 0;
+            while (rr.hasNext()) {
+                SequenceRecord r = rr.nextSequence();
+                assertEquals(sequences.get(count), r.getSequenceRecord());
+                count++;
+            }
+            assertEquals(sequences.size(), count);
+            rr.reset();
+        }
+        rr.close();
+    }
+}
@@ -0,0 +1,218 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader.impl;
+
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.reader.impl.columnar.ColumnChunkStats;
+import org.datavec.api.records.reader.impl.columnar.ColumnarRecordReader;
+import org.datavec.api.records.writer.impl.columnar.ColumnarRecordWriter;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.transform.batch.ColumnBatch;
+import org.datavec.api.transform.batch.DictionaryColumnVector;
+import org.datavec.api.transform.batch.IntColumnVector;
+import org.datavec.api.transform.condition.BooleanCondition;
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.condition.column.CategoricalColumnCondition;
+import org.datavec.api.transform.condition.column.DoubleColumnCondition;
+import org.datavec.api.transform.condition.column.IntegerColumnCondition;
+import org.datavec.api.transform.condition.column.NaNColumnCondition;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ColumnarRecordReaderTest {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    private static Schema schema() {
+        return new Schema.Builder().addColumnInteger("id").addColumnLong("long").addColumnDouble("double")
+                        .addColumnCategorical("cat", "a", "b", "c").addColumnString("str").addColumnString("mixed")
+                        .build();
+    }
+
+    private static List<List<Writable>> data(int n) {
+        Random r = new Random(12345);
+        String[] cat = {"a", "b", "c"};
+        List<List<Writable>> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Writable mixed = (i % 3 == 0 ? NullWritable.INSTANCE : new Text("m" + i));
+            out.add(Arrays.<Writable>asList(new IntWritable(i), new LongWritable(r.nextLong()),
+                            new DoubleWritable(r.nextDouble()), new Text(cat[(i / 100) % 3]), new Text("s" + i),
+                            mixed));
+        }
+        return out;
+    }
+
+    private File write(List<List<Writable>> data, int rowGroupSize, int compressionLevel) throws Exception {
+        File f = testDir.newFile();
+        ColumnarRecordWriter writer = new ColumnarRecordWriter(f, schema(), rowGroupSize, compressionLevel);
+        for (List<Writable> record : data) {
+            writer.write(record);
+        }
+        writer.close();
+        return f;
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        List<List<Writable>> data = data(1050);
+        for (int compressionLevel : new int[] {0, 1, 9}) {
+            File f = write(data, 100, compressionLevel);
+
+            ColumnarRecordReader rr = new ColumnarRecordReader();
+            rr.initialize(new FileSplit(f));
+            assertEquals(schema(), rr.getSchema());
+            List<List<Writable>> out = new ArrayList<>();
+            List<RecordMetaData> meta = new ArrayList<>();
+            while (rr.hasNext()) {
+                Record r = rr.nextRecord();
+                out.add(r.getRecord());
+                meta.add(r.getMetaData());
+            }
+            assertEquals(data, out);
+            assertEquals(11, rr.getRowGroupsRead());
+
+            //Writable types are preserved
+            for (int i = 0; i < out.get(0).size(); i++) {
+                assertEquals(data.get(0).get(i).getClass(), out.get(0).get(i).getClass());
+            }
+
+            List<RecordMetaData> subset = Arrays.asList(meta.get(1049), meta.get(3), meta.get(500));
+            List<Record> loaded = rr.loadFromMetaData(subset);
+            assertEquals(data.get(1049), loaded.get(0).getRecord());
+            assertEquals(data.get(3), loaded.get(1).getRecord());
+            assertEquals(data.get(500), loaded.get(2).getRecord());
+
+            rr.reset();
+            int count = 0;
+            while (rr.hasNext()) {
+                rr.next();
+                count++;
+            }
+            assertEquals(1050, count);
+            rr.close();
+        }
+    }
+
+    @Test
+    public void testProjectionAndFilter() throws Exception {
+        List<List<Writable>> data = data(1000);
+        File f = write(data, 100, 1);
+
+        //Filter on the (sorted) id column: only 2 of the 10 row groups can match
+        ColumnarRecordReader rr = new ColumnarRecordReader(Arrays.asList("str", "id"),
+                        new IntegerColumnCondition("id", ConditionOp.InSet, new HashSet<>(Arrays.asList(150, 920))));
+        rr.initialize(new FileSplit(f));
+        assertEquals(Arrays.asList("str", "id"), rr.getSchema().getColumnNames());
+        List<List<Writable>> out = new ArrayList<>();
+        while (rr.hasNext()) {
+            out.add(rr.next());
+        }
+        List<List<Writable>> expected = new ArrayList<>();
+        expected.add(Arrays.<Writable>asList(new Text("s150"), new IntWritable(150)));
+        expected.add(Arrays.<Writable>asList(new Text("s920"), new IntWritable(920)));
+        assertEquals(expected, out);
+        assertEquals(2, rr.getRowGroupsRead());
+        assertEquals(8, rr.getRowGroupsSkipped());
+
+        //AND of conditions: "cat" is "b" for ids 100-199, 400-499 and 700-799; only 700-799 satisfy id >= 650
+        rr = new ColumnarRecordReader(Collections.singletonList("id"),
+                        new BooleanCondition(BooleanCondition.Type.AND,
+                                        new CategoricalColumnCondition("cat", ConditionOp.Equal, "b"),
+                                        new IntegerColumnCondition("id", ConditionOp.GreaterOrEqual, 650)));
+        rr.initialize(new FileSplit(f));
+        int count = 0;
+        while (rr.hasNext()) {
+            assertEquals(700 + count, rr.next().get(0).toInt());
+            count++;
+        }
+        assertEquals(100, count);
+        assertEquals(1, rr.getRowGroupsRead());
+
+        //Condition without usable statistics: all row groups are read, rows filtered
+        rr = new ColumnarRecordReader(null, new NaNColumnCondition("double"));
+        rr.initialize(new FileSplit(f));
+        assertFalse(rr.hasNext());
+        assertEquals(10, rr.getRowGroupsRead());
+
+        //Statistics on double columns
+        rr = new ColumnarRecordReader(null, new DoubleColumnCondition("double", ConditionOp.GreaterThan, 2.0));
+        rr.initialize(new FileSplit(f));
+        assertFalse(rr.hasNext());
+        assertEquals(0, rr.getRowGroupsRead());
+    }
+
+    @Test
+    public void testNextBatch() throws Exception {
+        List<List<Writable>> data = data(250);
+        File f = write(data, 100, 1);
+
+        ColumnarRecordReader rr = new ColumnarRecordReader(Arrays.asList("id", "cat", "mixed"), null);
+        rr.initialize(new FileSplit(f));
+        List<List<Writable>> out = new ArrayList<>();
+        int numBatches = 0;
+        ColumnBatch batch;
+        while ((batch = rr.nextBatch()) != null) {
+            assertTrue(batch.getColumn(0) instanceof IntColumnVector);
+            assertTrue(batch.getColumn(1) instanceof DictionaryColumnVector);
+            out.addAll(batch.toRecords());
+            numBatches++;
+        }
+        assertEquals(3, numBatches);
+        assertEquals(250, out.size());
+        for (int i = 0; i < 250; i++) {
+            List<Writable> d = data.get(i);
+            assertEquals(Arrays.asList(d.get(0), d.get(3), d.get(5)), out.get(i));
+        }
+    }
+
+    @Test
+    public void testStatsMatchConditionOp() {
+        //0.0 == -0.0 for ConditionOp, so the statistics must not prune either way
+        ColumnChunkStats zeros = ColumnChunkStats.ofDouble(0.0, 0.0);
+        assertTrue(zeros.mightMatch(ConditionOp.Equal, -0.0, null));
+        assertFalse(zeros.mightMatch(ConditionOp.NotEqual, -0.0, null));
+        assertTrue(zeros.mightMatch(ConditionOp.InSet, null, Collections.singleton(-0.0)));
+        assertTrue(zeros.mightMatch(ConditionOp.NotInSet, null, Collections.singleton(0.0)));
+        assertTrue(ColumnChunkStats.ofDouble(-0.0, 1.0).mightMatch(ConditionOp.LessOrEqual, 0.0, null));
+        assertFalse(ColumnChunkStats.ofDouble(-0.0, 1.0).mightMatch(ConditionOp.LessThan, 0.0, null));
+        assertFalse(ColumnChunkStats.ofDouble(2.0, 2.0).mightMatch(ConditionOp.NotInSet, null,
+                        new HashSet<>(Arrays.asList(1.0, 2.0))));
+
+        //Long statistics above 2^53 are compared as longs
+        long big = (1L << 53) + 1;
+        ColumnChunkStats longs = ColumnChunkStats.ofLong(big, big);
+        assertFalse(longs.mightMatch(ConditionOp.Equal, big - 1, null));
+        assertTrue(longs.mightMatch(ConditionOp.Equal, big, null));
+        assertTrue(longs.mightMatch(ConditionOp.NotEqual, big - 1, null));
+        assertFalse(longs.mightMatch(ConditionOp.NotEqual, big, null));
+        assertTrue(longs.mightMatch(ConditionOp.GreaterThan, big - 1, null));
+        assertFalse(longs.mightMatch(ConditionOp.NotInSet, null, Collections.singleton(big)));
+        assertTrue(longs.mightMatch(ConditionOp.NotInSet, null, Collections.singleton(big - 1)));
+        //...and compared as doubles, like DoubleColumnCondition, for double values
+        assertTrue(longs.mightMatch(ConditionOp.Equal, (double) (big - 1), null));
+    }
+}
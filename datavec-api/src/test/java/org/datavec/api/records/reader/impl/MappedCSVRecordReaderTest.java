@@ -0,0 +1,184 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader.impl;
+
+import org.apache.commons.io.FileUtils;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.metadata.RecordMetaDataIndex;
+import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
+import org.datavec.api.records.reader.impl.csv.MappedCSVRecordReader;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.transform.batch.ColumnBatch;
+import org.datavec.api.transform.batch.DoubleColumnVector;
+import org.datavec.api.transform.batch.IntColumnVector;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.util.ClassPathResource;
+import org.datavec.api.writable.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class MappedCSVRecordReaderTest {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    @Test
+    public void testMatchesCSVRecordReader() throws Exception {
+        File f = new ClassPathResource("iris.dat").getFile();
+
+        //Small map sizes: records cross the boundaries of the mapped regions
+        for (int mapSize : new int[] {7, 64, 1024 * 1024}) {
+            CSVRecordReader expRR = new CSVRecordReader(10, ',');
+            expRR.initialize(new FileSplit(f));
+            MappedCSVRecordReader rr = new MappedCSVRecordReader(10, ',', '"', null, mapSize);
+            rr.initialize(new FileSplit(f));
+
+            int count = 0;
+            while (expRR.hasNext()) {
+                assertTrue(rr.hasNext());
+                assertEquals(expRR.next(), rr.next());
+                count++;
+            }
+            assertFalse(rr.hasNext());
+            assertEquals(140, count);
+
+            rr.reset();
+            count = 0;
+            while (rr.hasNext()) {
+                rr.next();
+                count++;
+            }
+            assertEquals(140, count);
+        }
+    }
+
+    @Test
+    public void testSchemaParsing() throws Exception {
+        File f = testDir.newFile("data.csv");
+        FileUtils.writeStringToFile(f, "id,value,label,count\n"
+                        + "0,1.5,\"a,b\",10000000000\n"
+                        + "-12,-2.25e3,\"multi\nline \"\"quoted\"\"\",-5\r\n"
+                        + "+7,.5,c,0\r"
+                        + "x,1e-3,,1\n"
+                        + "2147483648,1,d,2");
+
+        Schema schema = new Schema.Builder().addColumnInteger("id").addColumnDouble("value")
+                        .addColumnString("label").addColumnLong("count").build();
+        MappedCSVRecordReader rr = new MappedCSVRecordReader(1, ',', '"', schema);
+        rr.initialize(new FileSplit(f));
+
+        List<List<Writable>> exp = new ArrayList<>();
+        exp.add(Arrays.<Writable>asList(new IntWritable(0), new DoubleWritable(1.5), new Text("a,b"),
+                        new LongWritable(10000000000L)));
+        exp.add(Arrays.<Writable>asList(new IntWritable(-12), new DoubleWritable(-2250), new Text("multi\nline \"quoted\""),
+                        new LongWritable(-5)));
+        exp.add(Arrays.<Writable>asList(new IntWritable(7), new DoubleWritable(0.5), new Text("c"),
+                        new LongWritable(0)));
+        exp.add(Arrays.<Writable>asList(new Text("x"), new DoubleWritable(0.001), new Text(""),
+                        new LongWritable(1)));
+        exp.add(Arrays.<Writable>asList(new Text("2147483648"), new DoubleWritable(1), new Text("d"),
+                        new LongWritable(2)));
+
+        List<List<Writable>> act = new ArrayList<>();
+        while (rr.hasNext()) {
+            act.add(rr.next());
+        }
+        assertEquals(exp, act);
+    }
+
+    @Test
+    public void testParseDouble() throws Exception {
+        Random r = new Random(12345);
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            double d = (r.nextDouble() - 0.5) * Math.pow(10, r.nextInt(20) - 10);
+            values.add(String.valueOf(d));
+            values.add(String.format(Locale.ENGLISH, "%." + r.nextInt(12) + "f", d));
+        }
+        values.addAll(Arrays.asList("0", "-0", "0.1", "123456789012345", "1234567890123456789",
+                        "0.000000000000000000000001", "1e10", "-1.5E-7", "Infinity", "1.", ".5"));
+
+        File f = testDir.newFile("doubles.csv");
+        FileUtils.writeLines(f, values);
+
+        Schema schema = new Schema.Builder().addColumnDouble("value").build();
+        MappedCSVRecordReader rr = new MappedCSVRecordReader(0, ',', '"', schema);
+        rr.initialize(new FileSplit(f));
+        for (String s : values) {
+            assertEquals(s, new DoubleWritable(Double.parseDouble(s)), rr.next().get(0));
+        }
+        assertFalse(rr.hasNext());
+    }
+
+    @Test
+    public void testNextBatch() throws Exception {
+        File f = new ClassPathResource("iris.dat").getFile();
+        Schema schema = new Schema.Builder().addColumnsDouble("a", "b", "c", "d").addColumnInteger("label").build();
+
+        MappedCSVRecordReader rr = new MappedCSVRecordReader(0, ',', '"', schema);
+        rr.initialize(new FileSplit(f));
+        List<List<Writable>> exp = new ArrayList<>();
+        while (rr.hasNext()) {
+            exp.add(rr.next());
+        }
+
+        rr.reset();
+        List<List<Writable>> act = new ArrayList<>();
+        while (rr.hasNext()) {
+            ColumnBatch b = rr.nextBatch(64);
+            assertTrue(b.getColumn(0) instanceof DoubleColumnVector);
+            assertTrue(b.getColumn(4) instanceof IntColumnVector);
+            act.addAll(b.toRecords());
+        }
+        assertEquals(150, act.size());
+        assertEquals(exp, act);
+    }
+
+    @Test
+    public void testMeta() throws Exception {
+        MappedCSVRecordReader rr = new MappedCSVRecordReader(0, ',');
+        rr.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+
+        List<List<Writable>> records = new ArrayList<>();
+        List<RecordMetaData> meta = new ArrayList<>();
+        while (rr.hasNext()) {
+            Record r = rr.nextRecord();
+            records.add(r.getRecord());
+            meta.add(r.getMetaData());
+        }
+        assertEquals(150, records.size());
+
+        List<RecordMetaData> subset = Arrays.asList(meta.get(100), meta.get(3), meta.get(149), meta.get(0));
+        List<Record> fromMeta = rr.loadFromMetaData(subset);
+        assertEquals(4, fromMeta.size());
+        assertEquals(records.get(100), fromMeta.get(0).getRecord());
+        assertEquals(records.get(3), fromMeta.get(1).getRecord());
+        assertEquals(records.get(149), fromMeta.get(2).getRecord());
+        assertEquals(records.get(0), fromMeta.get(3).getRecord());
+
+        //Metadata for indices above Integer.MAX_VALUE is a RecordMetaDataIndex, which is also accepted
+        RecordMetaData asIndex = new RecordMetaDataIndex(42, meta.get(42).getURI(), MappedCSVRecordReader.class);
+        assertEquals(records.get(42), rr.loadFromMetaData(asIndex).getRecord());
+    }
+}
@@ -0,0 +1,242 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.reader.impl;
+
+import org.apache.commons.io.FileUtils;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.metadata.RecordMetaDataIndex;
+import org.datavec.api.records.metadata.RecordMetaDataLine;
+import org.datavec.api.records.reader.impl.csv.MappedCSVRecordReader;
+import org.datavec.api.records.reader.impl.csv.MappedCSVScanner;
+import org.datavec.api.records.reader.impl.csv.ParallelCSVRecordReader;
+import org.datavec.api.split.ChunkedCSVFileSplit;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.writable.Writable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ParallelCSVRecordReaderTest {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    /**
+     * CSV file with quoted newlines, quoted quotes, empty lines and a mix of line terminators
+     */
+    private File createFile(int numRecords) throws Exception {
+        Random r = new Random(12345);
+        String[] terminators = {"\n", "\r\n", "\r"};
+        StringBuilder sb = new StringBuilder("header,a,b\n");
+        for (int i = 0; i < numRecords; i++) {
+            sb.append(i).append(',');
+            switch (r.nextInt(4)) {
+                case 0:
+                    sb.append("\"multi\nline\r\n\"\"value\"\"\"");
+                    break;
+                case 1:
+                    sb.append("\"a,b\"");
+                    break;
+                case 2:
+                    sb.append("\"\n\"");
+                    break;
+                default:
+                    sb.append(r.nextDouble());
+            }
+            sb.append(',').append(r.nextInt(100));
+            sb.append(terminators[r.nextInt(terminators.length)]);
+        }
+        File f = testDir.newFile();
+        FileUtils.writeStringToFile(f, sb.toString(), "UTF-8");
+        return f;
+    }
+
+    @Test
+    public void testChunkBoundaries() throws Exception {
+        File f = createFile(500);
+
+        //Start offset of each record, as per a sequential scan
+        List<Long> recordStarts = new ArrayList<>();
+        try (MappedCSVScanner s = new MappedCSVScanner(f, ',', '"')) {
+            while (s.next()) {
+                recordStarts.add(s.getRecordStart());
+            }
+        }
+
+        for (int numChunks : new int[] {1, 2, 7, 64, 1000}) {
+            ChunkedCSVFileSplit split = new ChunkedCSVFileSplit(f, numChunks, '"', 4);
+            assertTrue(split.numChunks() <= numChunks);
+            assertEquals(0, split.getChunkStart(0));
+            assertEquals(f.length(), split.getChunkEnd(split.numChunks() - 1));
+            for (int i = 0; i < split.numChunks(); i++) {
+                long firstRecord = split.getChunkFirstRecord(i);
+                assertEquals(recordStarts.get((int) firstRecord).longValue(), split.getChunkStart(i));
+                assertEquals(i, split.chunkForRecord(firstRecord));
+            }
+        }
+    }
+
+    @Test
+    public void testOrderedAndUnordered() throws Exception {
+        File f = createFile(2000);
+
+        List<List<Writable>> expected = new ArrayList<>();
+        MappedCSVRecordReader expRR = new MappedCSVRecordReader(1);
+        expRR.initialize(new FileSplit(f));
+        while (expRR.hasNext()) {
+            expected.add(expRR.next());
+        }
+        assertEquals(2000, expected.size());
+
+        for (boolean ordered : new boolean[] {true, false}) {
+            ParallelCSVRecordReader rr = new ParallelCSVRecordReader(1, ',', '"', null, 4, ordered);
+            rr.initialize(new ChunkedCSVFileSplit(f, 13));
+
+            for (int epoch = 0; epoch < 2; epoch++) {
+                List<List<Writable>> out = new ArrayList<>();
+                List<RecordMetaData> meta = new ArrayList<>();
+                while (rr.hasNext()) {
+                    Record r = rr.nextRecord();
+                    out.add(r.getRecord());
+                    meta.add(r.getMetaData());
+                }
+                assertEquals(expected.size(), out.size());
+
+                Set<Integer> seen = new HashSet<>();
+                for (int i = 0; i < out.size(); i++) {
+                    //Line numbers include the skipped header line
+                    int line = ((RecordMetaDataLine) meta.get(i)).getLineNumber();
+                    assertEquals(f.toURI(), meta.get(i).getURI());
+                    assertEquals(expected.get(line - 1), out.get(i));
+                    assertTrue(seen.add(line));
+                    if (ordered) {
+                        assertEquals(i + 1, line);
+                    }
+                }
+
+                List<Record> loaded = rr.loadFromMetaData(meta);
+                for (int i = 0; i < out.size(); i++) {
+                    assertEquals(out.get(i), loaded.get(i).getRecord());
+                }
+
+                //Metadata for indices above Integer.MAX_VALUE is a RecordMetaDataIndex, which is also accepted
+                RecordMetaDataLine m = (RecordMetaDataLine) meta.get(7);
+                RecordMetaData asIndex = new RecordMetaDataIndex(m.getLineNumber(), m.getURI(), m.getReaderClass());
+                assertEquals(out.get(7), rr.loadFromMetaData(asIndex).getRecord());
+                rr.reset();
+            }
+            rr.close();
+        }
+    }
+
+    @Test
+    public void testRecordIndicesAboveIntMax() throws Exception {
+        File f = testDir.newFile();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append(i).append(",value").append(i).append("\n");
+        }
+        FileUtils.writeStringToFile(f, sb.toString(), "UTF-8");
+
+        //As if the file started with Integer.MAX_VALUE - 10 records before these ones
+        long offset = Integer.MAX_VALUE - 10L;
+        ParallelCSVRecordReader rr = new ParallelCSVRecordReader(0, ',', '"', null, 2, true);
+        rr.initialize(new OffsetChunkedCSVFileSplit(f, 4, offset));
+
+        List<List<Writable>> out = new ArrayList<>();
+        List<RecordMetaData> meta = new ArrayList<>();
+        while (rr.hasNext()) {
+            Record r = rr.nextRecord();
+            out.add(r.getRecord());
+            meta.add(r.getMetaData());
+        }
+        assertEquals(100, out.size());
+        for (int i = 0; i < out.size(); i++) {
+            assertEquals(i, out.get(i).get(0).toInt());
+            long idx = offset + i;
+            if (idx <= Integer.MAX_VALUE) {
+                assertEquals(idx, ((RecordMetaDataLine) meta.get(i)).getLineNumber());
+            } else {
+                assertEquals(idx, ((RecordMetaDataIndex) meta.get(i)).getIndex());
+            }
+        }
+
+        List<RecordMetaData> toLoad = Arrays.asList(meta.get(99), meta.get(3), meta.get(10), meta.get(11));
+        List<Record> loaded = rr.loadFromMetaData(toLoad);
+        assertEquals(out.get(99), loaded.get(0).getRecord());
+        assertEquals(out.get(3), loaded.get(1).getRecord());
+        assertEquals(out.get(10), loaded.get(2).getRecord());
+        assertEquals(out.get(11), loaded.get(3).getRecord());
+        rr.close();
+    }
+
+    /**
+     * ChunkedCSVFileSplit whose record indices start at the specified offset instead of 0
+     */
+    private static class OffsetChunkedCSVFileSplit extends ChunkedCSVFileSplit {
+        private final long offset;
+
+        private OffsetChunkedCSVFileSplit(File file, int numChunks, long offset) throws Exception {
+            super(file, numChunks);
+            this.offset = offset;
+        }
+
+        @Override
+        public long getChunkFirstRecord(int chunk) {
+            return super.getChunkFirstRecord(chunk) + offset;
+        }
+
+        @Override
+        public int chunkForRecord(long recordIndex) {
+            return super.chunkForRecord(recordIndex - offset);
+        }
+    }
+
+    @Test
+    public void testMultipleFiles() throws Exception {
+        File dir = testDir.newFolder();
+        List<List<Writable>> expected = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            File f = new File(dir, "file" + i + ".csv");
+            StringBuilder sb = new StringBuilder();
+            for (int j = 0; j < 100; j++) {
+                sb.append(i).append(',').append(j).append("\n");
+            }
+            FileUtils.writeStringToFile(f, sb.toString(), "UTF-8");
+        }
+        MappedCSVRecordReader expRR = new MappedCSVRecordReader();
+        expRR.initialize(new FileSplit(dir));
+        while (expRR.hasNext()) {
+            expected.add(expRR.next());
+        }
+
+        ParallelCSVRecordReader rr = new ParallelCSVRecordReader(3, true);
+        rr.initialize(new FileSplit(dir));
+        List<List<Writable>> out = new ArrayList<>();
+        while (rr.hasNext()) {
+            out.add(rr.next());
+        }
+        assertEquals(expected, out);
+        rr.close();
+    }
+}
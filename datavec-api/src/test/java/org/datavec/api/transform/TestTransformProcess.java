@@ -16,6 +16,11 @@
 
 package org.datavec.api.transform;
 
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.condition.column.IntegerColumnCondition;
+import org.datavec.api.transform.plan.ExecutionPlan;
+import org.datavec.api.transform.plan.FilterStep;
+import org.datavec.api.transform.plan.FusedColumnTransformStep;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.transform.nlp.TextToCharacterIndexTransform;
 import org.datavec.api.writable.DoubleWritable;
@@ -27,6 +32,7 @@ import org.junit.Test;
 import java.util.*;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class TestTransformProcess {
 
@@ -50,6 +56,94 @@ public class TestTransformProcess {
         assertEquals(exp, out);
     }
 
+    @Test
+    public void testExecuteBatch(){
+
+        Schema schema = new Schema.Builder()
+                .addColumnsString("str")
+                .addColumnCategorical("cat", "a", "b", "c")
+                .addColumnInteger("int")
+                .addColumnDouble("dbl")
+                .build();
+
+        TransformProcess transformProcess = new TransformProcess.Builder(schema)
+                .doubleMathOp("dbl", MathOp.Multiply, 2.0)
+                .filter(new IntegerColumnCondition("int", ConditionOp.GreaterThan, 5))
+                .appendStringColumnTransform("str", "_x")
+                .categoricalToInteger("cat")
+                .integerMathOp("int", MathOp.Add, 10)
+                .removeColumns("cat")
+                .build();
+
+        List<List<Writable>> in = new ArrayList<>();
+        for( int i=0; i<10; i++ ){
+            in.add(Arrays.<Writable>asList(new Text("s" + i), new Text(String.valueOf((char)('a' + i % 3))),
+                    new IntWritable(i), new DoubleWritable(i)));
+        }
+
+        List<List<Writable>> exp = new ArrayList<>();
+        for(List<Writable> l : in){
+            List<Writable> out = transformProcess.execute(l);
+            if(out != null){
+                exp.add(out);
+            }
+        }
+
+        List<List<Writable>> out = transformProcess.executeBatch(in);
+        assertEquals(6, out.size());
+        assertEquals(exp, out);
+    }
+
+    @Test
+    public void testCompile(){
+
+        Schema schema = new Schema.Builder()
+                .addColumnsString("str", "unused")
+                .addColumnInteger("int")
+                .addColumnDouble("dbl")
+                .build();
+
+        TransformProcess transformProcess = new TransformProcess.Builder(schema)
+                .doubleMathOp("dbl", MathOp.Multiply, 2.0)
+                .appendStringColumnTransform("unused", "_x")
+                .appendStringColumnTransform("str", "_y")
+                .filter(new IntegerColumnCondition("int", ConditionOp.GreaterThan, 5))
+                .integerMathOp("int", MathOp.Add, 10)
+                .removeColumns("unused")
+                .build();
+
+        ExecutionPlan plan = transformProcess.compile();
+
+        //"unused" is pruned, the filter is executed first, and the remaining transforms are fused
+        assertEquals(Collections.singletonList("unused"), plan.getPrunedColumns());
+        assertEquals(2, plan.getSteps().size());
+        assertTrue(plan.getSteps().get(0) instanceof FilterStep);
+        assertTrue(plan.getSteps().get(1) instanceof FusedColumnTransformStep);
+        assertEquals(3, ((FusedColumnTransformStep) plan.getSteps().get(1)).getTransforms().size());
+        assertEquals(transformProcess.getFinalSchema(), plan.getFinalSchema());
+
+        //Original process should be unchanged
+        assertEquals(6, transformProcess.getActionList().size());
+
+        List<List<Writable>> in = new ArrayList<>();
+        for( int i=0; i<10; i++ ){
+            in.add(Arrays.<Writable>asList(new Text("s" + i), new Text("u" + i), new IntWritable(i),
+                    new DoubleWritable(i)));
+        }
+
+        List<List<Writable>> exp = new ArrayList<>();
+        for(List<Writable> l : in){
+            List<Writable> out = transformProcess.execute(l);
+            assertEquals(out, plan.execute(l));
+            if(out != null){
+                exp.add(out);
+            }
+        }
+
+        assertEquals(6, exp.size());
+        assertEquals(exp, plan.executeBatch(in));
+    }
+
     @Test
     public void testExecuteToSequence(){
 
@@ -0,0 +1,138 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.join;
+
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.NullWritable;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestHashJoin {
+
+    private static final Schema LEFT_SCHEMA =
+                    new Schema.Builder().addColumnString("key").addColumnInteger("leftValue").build();
+    private static final Schema RIGHT_SCHEMA =
+                    new Schema.Builder().addColumnInteger("rightValue").addColumnString("key").build();
+
+    private static List<List<Writable>> left() {
+        List<List<Writable>> out = new ArrayList<>();
+        out.add(Arrays.<Writable>asList(new Text("a"), new IntWritable(0)));
+        out.add(Arrays.<Writable>asList(new Text("b"), new IntWritable(1)));
+        out.add(Arrays.<Writable>asList(new Text("b"), new IntWritable(2)));
+        out.add(Arrays.<Writable>asList(new Text("c"), new IntWritable(3)));
+        return out;
+    }
+
+    private static List<List<Writable>> right() {
+        List<List<Writable>> out = new ArrayList<>();
+        out.add(Arrays.<Writable>asList(new IntWritable(10), new Text("b")));
+        out.add(Arrays.<Writable>asList(new IntWritable(11), new Text("c")));
+        out.add(Arrays.<Writable>asList(new IntWritable(12), new Text("c")));
+        out.add(Arrays.<Writable>asList(new IntWritable(13), new Text("d")));
+        return out;
+    }
+
+    private static List<List<Writable>> hashJoin(Join join, boolean buildLeft) {
+        List<List<Writable>> build = (buildLeft ? left() : right());
+        List<List<Writable>> probe = (buildLeft ? right() : left());
+        HashJoin hashJoin = new HashJoin(join, buildLeft, build);
+
+        List<List<Writable>> out = new ArrayList<>();
+        Set<List<Writable>> probeKeys = new HashSet<>();
+        for (List<Writable> p : probe) {
+            out.addAll(hashJoin.join(p));
+            probeKeys.add(hashJoin.probeKey(p));
+        }
+        out.addAll(hashJoin.joinUnmatched(probeKeys));
+
+        Collections.sort(out, new Comparator<List<Writable>>() {
+            @Override
+            public int compare(List<Writable> o1, List<Writable> o2) {
+                return o1.toString().compareTo(o2.toString());
+            }
+        });
+        return out;
+    }
+
+    @Test
+    public void testHashJoinAllTypes() {
+        Writable n = NullWritable.INSTANCE;
+        List<Writable> a = Arrays.<Writable>asList(new Text("a"), new IntWritable(0), n);
+        List<Writable> b1 = Arrays.<Writable>asList(new Text("b"), new IntWritable(1), new IntWritable(10));
+        List<Writable> b2 = Arrays.<Writable>asList(new Text("b"), new IntWritable(2), new IntWritable(10));
+        List<Writable> c1 = Arrays.<Writable>asList(new Text("c"), new IntWritable(3), new IntWritable(11));
+        List<Writable> c2 = Arrays.<Writable>asList(new Text("c"), new IntWritable(3), new IntWritable(12));
+        List<Writable> d = Arrays.<Writable>asList(new Text("d"), n, new IntWritable(13));
+
+        Map<Join.JoinType, List<List<Writable>>> expected = new HashMap<>();
+        expected.put(Join.JoinType.Inner, Arrays.asList(b1, b2, c1, c2));
+        expected.put(Join.JoinType.LeftOuter, Arrays.asList(a, b1, b2, c1, c2));
+        expected.put(Join.JoinType.RightOuter, Arrays.asList(b1, b2, c1, c2, d));
+        expected.put(Join.JoinType.FullOuter, Arrays.asList(a, b1, b2, c1, c2, d));
+
+        for (Join.JoinType jt : Join.JoinType.values()) {
+            Join join = new Join.Builder(jt).setJoinColumns("key").setSchemas(LEFT_SCHEMA, RIGHT_SCHEMA)
+                            .setStrategy(Join.JoinStrategy.BroadcastRight).build();
+            for (boolean buildLeft : new boolean[] {true, false}) {
+                assertEquals(jt + ", buildLeft=" + buildLeft, expected.get(jt), hashJoin(join, buildLeft));
+            }
+        }
+    }
+
+    @Test
+    public void testDefaultStrategy() {
+        Join join = new Join.Builder(Join.JoinType.Inner).setJoinColumns("key").setSchemas(LEFT_SCHEMA, RIGHT_SCHEMA)
+                        .build();
+        assertEquals(Join.JoinStrategy.Shuffle, join.getStrategy());
+
+        join.setStrategy(null);
+        assertEquals(Join.JoinStrategy.Shuffle, join.getStrategy());
+    }
+
+    @Test
+    public void testPreservesBuildSide() {
+        assertFalse(HashJoin.preservesBuildSide(Join.JoinType.Inner, true));
+        assertFalse(HashJoin.preservesBuildSide(Join.JoinType.LeftOuter, false));
+        assertFalse(HashJoin.preservesBuildSide(Join.JoinType.RightOuter, true));
+        assertTrue(HashJoin.preservesBuildSide(Join.JoinType.LeftOuter, true));
+        assertTrue(HashJoin.preservesBuildSide(Join.JoinType.RightOuter, false));
+        assertTrue(HashJoin.preservesBuildSide(Join.JoinType.FullOuter, false));
+    }
+
+    @Test
+    public void testJoinMultipleKeysMissingLeft() {
+        //Left key columns in a different order to the join columns: key values must be taken from the matching
+        //right key column
+        Schema leftSchema = new Schema.Builder().addColumnString("k2").addColumnString("k1").addColumnInteger("v")
+                        .build();
+        Schema rightSchema = new Schema.Builder().addColumnString("k1").addColumnString("k2").build();
+
+        Join join = new Join.Builder(Join.JoinType.RightOuter).setJoinColumns("k1", "k2")
+                        .setSchemas(leftSchema, rightSchema).build();
+
+        List<Writable> out = join.joinExamples(null, Arrays.<Writable>asList(new Text("x1"), new Text("x2")));
+        assertEquals(Arrays.<Writable>asList(new Text("x2"), new Text("x1"), NullWritable.INSTANCE), out);
+    }
+}
@@ -0,0 +1,117 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.rank;
+
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.DoubleWritable;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+import org.datavec.api.writable.comparator.DoubleWritableComparator;
+import org.datavec.api.writable.comparator.TextWritableComparator;
+import org.datavec.api.writable.comparator.WritableComparator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestSortedRankAssigner {
+
+    private static final Schema SCHEMA = new Schema.Builder().addColumnString("group").addColumnDouble("score")
+                    .addColumnString("name").build();
+
+    private static List<List<Writable>> data() {
+        List<List<Writable>> out = new ArrayList<>();
+        out.add(Arrays.<Writable>asList(new Text("a"), new DoubleWritable(3.0), new Text("x")));
+        out.add(Arrays.<Writable>asList(new Text("a"), new DoubleWritable(1.0), new Text("y")));
+        out.add(Arrays.<Writable>asList(new Text("a"), new DoubleWritable(2.0), new Text("z")));
+        out.add(Arrays.<Writable>asList(new Text("a"), new DoubleWritable(2.0), new Text("w")));
+        out.add(Arrays.<Writable>asList(new Text("b"), new DoubleWritable(5.0), new Text("v")));
+        out.add(Arrays.<Writable>asList(new Text("b"), new DoubleWritable(4.0), new Text("u")));
+        return out;
+    }
+
+    private static List<Long> ranks(CalculateSortedRank csr, List<List<Writable>> data) {
+        csr.setInputSchema(SCHEMA);
+        List<List<Writable>> sorted = new ArrayList<>(data);
+        Collections.sort(sorted, csr.exampleComparator());
+        SortedRankAssigner assigner = new SortedRankAssigner(csr);
+        List<Long> out = new ArrayList<>();
+        for (List<Writable> l : sorted) {
+            out.add(assigner.nextRank(l));
+        }
+        return out;
+    }
+
+    @Test
+    public void testRankTypes() {
+        List<List<Writable>> groupA = data().subList(0, 4);
+        String[] sortOn = {"score"};
+        WritableComparator[] comparators = {new DoubleWritableComparator()};
+
+        assertEquals(Arrays.asList(0L, 1L, 2L, 3L), ranks(new CalculateSortedRank("rank", sortOn, comparators, true,
+                        CalculateSortedRank.RankType.RowNumber, null), groupA));
+        assertEquals(Arrays.asList(0L, 1L, 1L, 3L), ranks(new CalculateSortedRank("rank", sortOn, comparators, true,
+                        CalculateSortedRank.RankType.Competition, null), groupA));
+        assertEquals(Arrays.asList(0L, 1L, 1L, 2L), ranks(new CalculateSortedRank("rank", sortOn, comparators, true,
+                        CalculateSortedRank.RankType.Dense, null), groupA));
+    }
+
+    @Test
+    public void testMultiColumnDescending() {
+        CalculateSortedRank csr = new CalculateSortedRank("rank", new String[] {"score", "name"},
+                        new WritableComparator[] {new DoubleWritableComparator(), new TextWritableComparator()},
+                        false, CalculateSortedRank.RankType.Dense, null);
+        csr.setInputSchema(SCHEMA);
+        List<List<Writable>> sorted = new ArrayList<>(data());
+        Collections.sort(sorted, csr.exampleComparator());
+
+        List<String> names = new ArrayList<>();
+        for (List<Writable> l : sorted) {
+            names.add(l.get(2).toString());
+        }
+        assertEquals(Arrays.asList("v", "u", "x", "z", "w", "y"), names);
+        //No ties on (score, name)
+        assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L, 5L), ranks(csr, data()));
+    }
+
+    @Test
+    public void testGroupedWithOffsets() {
+        CalculateSortedRank csr = new CalculateSortedRank("rank", new String[] {"score"},
+                        new WritableComparator[] {new DoubleWritableComparator()}, true,
+                        CalculateSortedRank.RankType.Competition, new String[] {"group"});
+        csr.setInputSchema(SCHEMA);
+
+        //Examples sorted within contiguous groups: ranks reset for each group, and offsets only apply to the first
+        List<List<Writable>> data = data();
+        List<List<Writable>> sorted = Arrays.asList(data.get(1), data.get(2), data.get(3), data.get(0), data.get(5),
+                        data.get(4));
+        SortedRankAssigner assigner = new SortedRankAssigner(csr, 10, 5);
+        List<Long> ranks = new ArrayList<>();
+        for (List<Writable> l : sorted) {
+            ranks.add(assigner.nextRank(l));
+        }
+        assertEquals(Arrays.asList(10L, 11L, 11L, 13L, 0L, 1L), ranks);
+
+        List<Writable> withRank = new SortedRankAssigner(csr).next(data.get(0));
+        assertEquals(4, withRank.size());
+        assertEquals(0L, withRank.get(3).toLong());
+    }
+}
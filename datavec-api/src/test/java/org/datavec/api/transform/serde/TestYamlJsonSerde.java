@@ -58,6 +58,8 @@ import org.datavec.api.transform.transform.time.DeriveColumnsFromTimeTransform;
 import org.datavec.api.transform.transform.time.StringToTimeTransform;
 import org.datavec.api.transform.transform.time.TimeMathOpTransform;
 import org.datavec.api.writable.comparator.DoubleWritableComparator;
+import org.datavec.api.writable.comparator.TextWritableComparator;
+import org.datavec.api.writable.comparator.WritableComparator;
 import org.joda.time.DateTimeFieldType;
 import org.joda.time.DateTimeZone;
 import org.junit.Test;
@@ -402,6 +404,18 @@ public class TestYamlJsonSerde {
 
         assertEquals(rank, yRank);
         assertEquals(rank, jRank);
+
+        CalculateSortedRank rank2 = new CalculateSortedRank("RankCol", new String[] {"SortOnCol", "SortOnCol2"},
+                        new WritableComparator[] {new DoubleWritableComparator(), new TextWritableComparator()},
+                        false, CalculateSortedRank.RankType.Dense, new String[] {"GroupCol"});
+
+        assertEquals(rank2, y.deserializeSortedRank(y.serialize(rank2)));
+        assertEquals(rank2, j.deserializeSortedRank(j.serialize(rank2)));
+
+        //Single sort column format
+        String legacyJson = "{\"CalculateSortedRank\":{\"newColumnName\":\"RankCol\",\"sortOnColumn\":\"SortOnCol\","
+                        + "\"comparator\":{\"DoubleWritableComparator\":{}},\"ascending\":true}}";
+        assertEquals(rank, j.deserializeSortedRank(legacyJson));
     }
 
     @Test
@@ -18,6 +18,7 @@ package org.datavec.api.transform.transform;
 
 import junit.framework.TestCase;
 import org.datavec.api.transform.*;
+import org.datavec.api.transform.batch.ColumnBatch;
 import org.datavec.api.transform.condition.Condition;
 import org.datavec.api.transform.condition.ConditionOp;
 import org.datavec.api.transform.condition.column.IntegerColumnCondition;
@@ -125,6 +126,20 @@ public class TestTransforms {
         assertEquals(2, transform.map(Collections.singletonList((Writable) new Text("two"))).get(0).toInt());
     }
 
+    @Test(expected = IllegalStateException.class)
+    public void testCategoricalToIntegerColumnsWrongNumColumns() {
+        Schema schema = getSchema(ColumnType.Categorical, "zero", "one", "two");
+
+        CategoricalToIntegerTransform transform = new CategoricalToIntegerTransform("column");
+        transform.setInputSchema(schema);
+
+        Schema wide = new Schema.Builder().addColumnCategorical("column", "zero", "one", "two")
+                        .addColumnInteger("other").build();
+        List<List<Writable>> records = new ArrayList<>();
+        records.add(Arrays.<Writable>asList(new Text("one"), new IntWritable(1)));
+        transform.mapColumns(ColumnBatch.fromRecords(wide, records));
+    }
+
     @Test
     public void testCategoricalToOneHotTransform() {
         Schema schema = getSchema(ColumnType.Categorical, "zero", "one", "two");
@@ -0,0 +1,357 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.arrow;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.*;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.batch.*;
+import org.datavec.api.transform.metadata.ColumnMetaData;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.*;
+import org.joda.time.DateTimeZone;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conversion between DataVec and <a href="https://arrow.apache.org/">Apache Arrow</a>: {@link Schema}s to and from
+ * Arrow schemas, and records (List&lt;Writable&gt;) to and from Arrow {@link VectorSchemaRoot} batches.<br>
+ * <br>
+ * Column types are mapped as follows:
+ * <ul>
+ * <li>Integer: 32 bit signed int</li>
+ * <li>Long: 64 bit signed int</li>
+ * <li>Float, Double: single and double precision floating point</li>
+ * <li>String, Categorical: UTF-8</li>
+ * <li>Time: millisecond timestamp</li>
+ * </ul>
+ * Bytes and NDArray columns are not supported. The full DataVec schema (including categorical state names and column
+ * restrictions) is stored as JSON in the custom metadata of the Arrow schema (key {@link #SCHEMA_METADATA_KEY}), so
+ * conversion of a schema to Arrow and back is lossless. When reading Arrow data produced by other tools, the DataVec
+ * schema is inferred from the Arrow types instead: see {@link #toDatavecSchema(org.apache.arrow.vector.types.pojo.Schema)}.<br>
+ * <br>
+ * {@link NullWritable} values are stored as Arrow nulls, and vice versa.
+ */
+public class ArrowConverter {
+
+    /**
+     * Key for the DataVec schema JSON, in the custom metadata of Arrow schemas created by
+     * {@link #toArrowSchema(Schema)}
+     */
+    public static final String SCHEMA_METADATA_KEY = "datavec.schema";
+
+    private ArrowConverter() {}
+
+    /**
+     * Convert a DataVec schema to an Arrow schema. All fields are nullable
+     *
+     * @param schema DataVec schema to convert
+     * @return Equivalent Arrow schema
+     */
+    public static org.apache.arrow.vector.types.pojo.Schema toArrowSchema(Schema schema) {
+        List<Field> fields = new ArrayList<>(schema.numColumns());
+        for (int i = 0; i < schema.numColumns(); i++) {
+            fields.add(new Field(schema.getName(i), FieldType.nullable(toArrowType(schema.getMetaData(i))), null));
+        }
+        return new org.apache.arrow.vector.types.pojo.Schema(fields,
+                        Collections.singletonMap(SCHEMA_METADATA_KEY, schema.toJson()));
+    }
+
+    private static ArrowType toArrowType(ColumnMetaData meta) {
+        switch (meta.getColumnType()) {
+            case Integer:
+                return new ArrowType.Int(32, true);
+            case Long:
+                return new ArrowType.Int(64, true);
+            case Double:
+                return new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE);
+            case Float:
+                return new ArrowType.FloatingPoint(FloatingPointPrecision.SINGLE);
+            case String:
+            case Categorical:
+                return ArrowType.Utf8.INSTANCE;
+            case Time:
+                return new ArrowType.Timestamp(TimeUnit.MILLISECOND, null);
+            default:
+                throw new UnsupportedOperationException("Cannot convert column \"" + meta.getName() + "\" of type "
+                                + meta.getColumnType() + " to Arrow: column type is not supported");
+        }
+    }
+
+    /**
+     * Convert an Arrow schema to a DataVec schema. If the Arrow schema was created by {@link #toArrowSchema(Schema)}
+     * the original DataVec schema is returned. Otherwise the schema is inferred from the Arrow field types:
+     * signed integers of up to 32 bits are Integer columns, 64 bit integers are Long columns, floating point fields
+     * are Float (single precision) or Double columns, booleans are Boolean (i.e., categorical "true"/"false")
+     * columns, timestamps are Time columns and UTF-8 fields are String columns.
+     *
+     * @param arrowSchema Arrow schema to convert
+     * @return DataVec schema
+     */
+    public static Schema toDatavecSchema(org.apache.arrow.vector.types.pojo.Schema arrowSchema) {
+        Map<String, String> metadata = arrowSchema.getCustomMetadata();
+        if (metadata != null && metadata.containsKey(SCHEMA_METADATA_KEY)) {
+            Schema s = Schema.fromJson(metadata.get(SCHEMA_METADATA_KEY));
+            if (s.numColumns() == arrowSchema.getFields().size()) {
+                return s;
+            }
+        }
+
+        Schema.Builder b = new Schema.Builder();
+        for (Field f : arrowSchema.getFields()) {
+            ArrowType t = f.getType();
+            switch (t.getTypeID()) {
+                case Int:
+                    ArrowType.Int it = (ArrowType.Int) t;
+                    if (it.getBitWidth() == 64 || (it.getBitWidth() == 32 && !it.getIsSigned())) {
+                        b.addColumnLong(f.getName());
+                    } else {
+                        b.addColumnInteger(f.getName());
+                    }
+                    break;
+                case FloatingPoint:
+                    if (((ArrowType.FloatingPoint) t).getPrecision() == FloatingPointPrecision.DOUBLE) {
+                        b.addColumnDouble(f.getName());
+                    } else {
+                        b.addColumnFloat(f.getName());
+                    }
+                    break;
+                case Bool:
+                    b.addColumn(ColumnType.Boolean.newColumnMetaData(f.getName()));
+                    break;
+                case Timestamp:
+                    b.addColumnTime(f.getName(), DateTimeZone.UTC);
+                    break;
+                case Utf8:
+                    b.addColumnString(f.getName());
+                    break;
+                default:
+                    throw new UnsupportedOperationException("Cannot convert Arrow field \"" + f.getName()
+                                    + "\" of type " + t + " to DataVec: type is not supported");
+            }
+        }
+        return b.build();
+    }
+
+    /**
+     * Convert the given records to Arrow format. The returned {@link VectorSchemaRoot} must be closed by the caller
+     *
+     * @param allocator Allocator for the Arrow buffers
+     * @param schema    Schema of the records
+     * @param records   Records to convert
+     * @return Arrow vectors containing the records
+     */
+    public static VectorSchemaRoot toArrowColumns(BufferAllocator allocator, Schema schema,
+                    List<List<Writable>> records) {
+        VectorSchemaRoot root = VectorSchemaRoot.create(toArrowSchema(schema), allocator);
+        try {
+            setValues(root, records);
+        } catch (RuntimeException e) {
+            root.close();
+            throw e;
+        }
+        return root;
+    }
+
+    /**
+     * Replace the content of the given {@link VectorSchemaRoot} with the given records. The vectors of the root are
+     * cleared and reallocated: this allows one root to be reused for multiple batches (for example, when writing
+     * Arrow IPC files)
+     *
+     * @param root    Arrow vectors to write the records to
+     * @param records Records to write. Each record must have one value per field of the root
+     */
+    public static void setValues(VectorSchemaRoot root, List<List<Writable>> records) {
+        List<FieldVector> vectors = root.getFieldVectors();
+        for (FieldVector v : vectors) {
+            v.clear();
+            v.allocateNew();
+        }
+        int row = 0;
+        for (List<Writable> record : records) {
+            if (record.size() != vectors.size()) {
+                throw new IllegalStateException("Cannot convert record " + row + ": record length (" + record.size()
+                                + ") does not match expected number of elements (schema: " + vectors.size() + ")");
+            }
+            for (int i = 0; i < vectors.size(); i++) {
+                setValue(vectors.get(i), row, record.get(i));
+            }
+            row++;
+        }
+        for (FieldVector v : vectors) {
+            v.setValueCount(row);
+        }
+        root.setRowCount(row);
+    }
+
+    private static void setValue(FieldVector vector, int row, Writable w) {
+        if (w instanceof NullWritable) {
+            //Arrow vectors are null unless set
+            return;
+        }
+        if (vector instanceof IntVector) {
+            ((IntVector) vector).setSafe(row, w.toInt());
+        } else if (vector instanceof BigIntVector) {
+            ((BigIntVector) vector).setSafe(row, w.toLong());
+        } else if (vector instanceof Float8Vector) {
+            ((Float8Vector) vector).setSafe(row, w.toDouble());
+        } else if (vector instanceof Float4Vector) {
+            ((Float4Vector) vector).setSafe(row, w.toFloat());
+        } else if (vector instanceof VarCharVector) {
+            if (w instanceof Text) {
+                Text t = (Text) w;
+                ((VarCharVector) vector).setSafe(row, t.getBytes(), 0, t.getLength());
+            } else {
+                byte[] bytes = w.toString().getBytes(StandardCharsets.UTF_8);
+                ((VarCharVector) vector).setSafe(row, bytes, 0, bytes.length);
+            }
+        } else if (vector instanceof TimeStampVector) {
+            ((TimeStampVector) vector).setSafe(row, w.toLong());
+        } else if (vector instanceof BitVector) {
+            ((BitVector) vector).setSafe(row, (w instanceof BooleanWritable ? ((BooleanWritable) w).get()
+                            : Boolean.parseBoolean(w.toString())) ? 1 : 0);
+        } else if (vector instanceof SmallIntVector) {
+            ((SmallIntVector) vector).setSafe(row, (short) w.toInt());
+        } else if (vector instanceof TinyIntVector) {
+            ((TinyIntVector) vector).setSafe(row, (byte) w.toInt());
+        } else {
+            throw new UnsupportedOperationException("Unsupported Arrow vector type: " + vector.getClass());
+        }
+    }
+
+    /**
+     * Get the value at the specified row of an Arrow vector, as a Writable. Null values are returned as
+     * {@link NullWritable}
+     *
+     * @param vector Arrow vector
+     * @param row    Row index
+     * @return Value, as a Writable
+     */
+    public static Writable getWritable(FieldVector vector, int row) {
+        if (vector.isNull(row)) {
+            return NullWritable.INSTANCE;
+        }
+        if (vector instanceof IntVector) {
+            return new IntWritable(((IntVector) vector).get(row));
+        } else if (vector instanceof BigIntVector) {
+            return new LongWritable(((BigIntVector) vector).get(row));
+        } else if (vector instanceof Float8Vector) {
+            return new DoubleWritable(((Float8Vector) vector).get(row));
+        } else if (vector instanceof Float4Vector) {
+            return new FloatWritable(((Float4Vector) vector).get(row));
+        } else if (vector instanceof VarCharVector) {
+            return new Text(((VarCharVector) vector).get(row));
+        } else if (vector instanceof TimeStampVector) {
+            return new LongWritable(((TimeStampVector) vector).get(row));
+        } else if (vector instanceof BitVector) {
+            return new Text(((BitVector) vector).get(row) != 0 ? "true" : "false");
+        } else if (vector instanceof SmallIntVector) {
+            return new IntWritable(((SmallIntVector) vector).get(row));
+        } else if (vector instanceof TinyIntVector) {
+            return new IntWritable(((TinyIntVector) vector).get(row));
+        } else if (vector instanceof UInt4Vector) {
+            return new LongWritable(((UInt4Vector) vector).get(row) & 0xFFFFFFFFL);
+        }
+        throw new UnsupportedOperationException("Unsupported Arrow vector type: " + vector.getClass());
+    }
+
+    /**
+     * Create a List&lt;List&lt;Writable&gt;&gt; view of the given Arrow vectors. No values are copied: Writables are
+     * created from the Arrow buffers when accessed. The view is only valid as long as the root is not closed or
+     * modified.
+     *
+     * @param root   Arrow vectors
+     * @param schema DataVec schema of the data (for example, from {@link #toDatavecSchema(org.apache.arrow.vector.types.pojo.Schema)})
+     * @return View of the Arrow data as records
+     */
+    public static ArrowWritableRecordBatch toArrowWritables(VectorSchemaRoot root, Schema schema) {
+        return new ArrowWritableRecordBatch(root.getFieldVectors(), root.getRowCount(), schema);
+    }
+
+    /**
+     * Convert the given Arrow vectors to records. Unlike {@link #toArrowWritables(VectorSchemaRoot, Schema)}, the
+     * returned records do not depend on the Arrow buffers
+     *
+     * @param root Arrow vectors
+     * @return Records
+     */
+    public static List<List<Writable>> toRecords(VectorSchemaRoot root) {
+        List<FieldVector> vectors = root.getFieldVectors();
+        int numRows = root.getRowCount();
+        List<List<Writable>> out = new ArrayList<>(numRows);
+        for (int i = 0; i < numRows; i++) {
+            List<Writable> record = new ArrayList<>(vectors.size());
+            for (FieldVector v : vectors) {
+                record.add(getWritable(v, i));
+            }
+            out.add(record);
+        }
+        return out;
+    }
+
+    /**
+     * Convert the given Arrow vectors to a {@link ColumnBatch}. Integer, long, timestamp and floating point vectors
+     * without null values are copied directly to primitive column vectors, without creating Writables
+     *
+     * @param root   Arrow vectors
+     * @param schema DataVec schema of the data
+     * @return Column batch with the same content as the Arrow vectors
+     */
+    public static ColumnBatch toColumnBatch(VectorSchemaRoot root, Schema schema) {
+        List<FieldVector> vectors = root.getFieldVectors();
+        int numRows = root.getRowCount();
+        ColumnVector[] columns = new ColumnVector[vectors.size()];
+        for (int c = 0; c < columns.length; c++) {
+            FieldVector v = vectors.get(c);
+            if (v.getNullCount() == 0 && v instanceof IntVector) {
+                int[] data = new int[numRows];
+                for (int i = 0; i < numRows; i++) {
+                    data[i] = ((IntVector) v).get(i);
+                }
+                columns[c] = new IntColumnVector(data);
+            } else if (v.getNullCount() == 0 && (v instanceof BigIntVector || v instanceof TimeStampVector)) {
+                long[] data = new long[numRows];
+                for (int i = 0; i < numRows; i++) {
+                    data[i] = (v instanceof BigIntVector ? ((BigIntVector) v).get(i) : ((TimeStampVector) v).get(i));
+                }
+                columns[c] = new LongColumnVector(data);
+            } else if (v.getNullCount() == 0 && v instanceof Float8Vector) {
+                double[] data = new double[numRows];
+                for (int i = 0; i < numRows; i++) {
+                    data[i] = ((Float8Vector) v).get(i);
+                }
+                columns[c] = new DoubleColumnVector(data);
+            } else {
+                Writable[] values = new Writable[numRows];
+                for (int i = 0; i < numRows; i++) {
+                    values[i] = getWritable(v, i);
+                }
+                columns[c] = ColumnVector.fromWritables(values);
+            }
+        }
+        return new ColumnBatch(schema, numRows, columns);
+    }
+}
@@ -0,0 +1,55 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.arrow;
+
+import lombok.Getter;
+import org.apache.arrow.vector.FieldVector;
+import org.datavec.api.writable.Writable;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * A read-only List&lt;Writable&gt; view of a single row of a set of Arrow vectors. Each call to {@link #get(int)}
+ * creates a new Writable from the Arrow buffers (see {@link ArrowConverter#getWritable(FieldVector, int)}); no values
+ * are copied when the view is created.
+ */
+public class ArrowWritableRecord extends AbstractList<Writable> {
+
+    private final List<FieldVector> vectors;
+    @Getter
+    private final int row;
+
+    /**
+     * @param vectors Arrow vectors: one per column
+     * @param row     Index of the row in the vectors
+     */
+    public ArrowWritableRecord(List<FieldVector> vectors, int row) {
+        this.vectors = vectors;
+        this.row = row;
+    }
+
+    @Override
+    public Writable get(int index) {
+        return ArrowConverter.getWritable(vectors.get(index), row);
+    }
+
+    @Override
+    public int size() {
+        return vectors.size();
+    }
+}
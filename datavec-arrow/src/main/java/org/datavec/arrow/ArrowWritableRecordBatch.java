@@ -0,0 +1,89 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.arrow;
+
+import lombok.Getter;
+import org.apache.arrow.vector.FieldVector;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Writable;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * A read-only List&lt;List&lt;Writable&gt;&gt; view over a batch of Arrow vectors, as returned by
+ * {@link ArrowConverter#toArrowWritables(org.apache.arrow.vector.VectorSchemaRoot, Schema)}.<br>
+ * No values are copied when the view is created: each row is an {@link ArrowWritableRecord}, and Writables are created
+ * from the Arrow buffers only when accessed. The view is valid only as long as the underlying vectors are not closed
+ * or modified; copy the records (for example, with {@code new ArrayList<>(record)}) to retain them beyond that.
+ */
+public class ArrowWritableRecordBatch extends AbstractList<List<Writable>> {
+
+    @Getter
+    private final List<FieldVector> vectors;
+    @Getter
+    private final Schema schema;
+    private final int offset;
+    private final int size;
+
+    /**
+     * @param vectors Arrow vectors: one per column of the schema
+     * @param size    Number of rows
+     * @param schema  DataVec schema of the data
+     */
+    public ArrowWritableRecordBatch(List<FieldVector> vectors, int size, Schema schema) {
+        this(vectors, 0, size, schema);
+    }
+
+    /**
+     * @param vectors Arrow vectors: one per column of the schema
+     * @param offset  Index of the first row of the vectors included in this view
+     * @param size    Number of rows
+     * @param schema  DataVec schema of the data
+     */
+    public ArrowWritableRecordBatch(List<FieldVector> vectors, int offset, int size, Schema schema) {
+        if (vectors.size() != schema.numColumns()) {
+            throw new IllegalArgumentException("Number of vectors (" + vectors.size()
+                            + ") does not match the number of columns in the schema (" + schema.numColumns() + ")");
+        }
+        this.vectors = vectors;
+        this.offset = offset;
+        this.size = size;
+        this.schema = schema;
+    }
+
+    @Override
+    public List<Writable> get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return new ArrowWritableRecord(vectors, offset + index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<List<Writable>> subList(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", size: " + size);
+        }
+        return new ArrowWritableRecordBatch(vectors, offset + fromIndex, toIndex - fromIndex, schema);
+    }
+}
@@ -0,0 +1,363 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.arrow.recordreader;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.ipc.ArrowReader;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.metadata.RecordMetaDataIndex;
+import org.datavec.api.records.reader.BaseRecordReader;
+import org.datavec.api.split.InputSplit;
+import org.datavec.api.transform.batch.ColumnBatch;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Writable;
+import org.datavec.arrow.ArrowConverter;
+import org.datavec.arrow.ArrowWritableRecordBatch;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Reads records from files in the Apache Arrow IPC format. Both the random access file format and the streaming
+ * format are supported; the format of each file is detected from its first bytes.<br>
+ * The DataVec schema of the records is taken from the Arrow schema metadata if present (i.e., for files written by
+ * {@link ArrowRecordWriter}), or otherwise inferred from the Arrow schema: see
+ * {@link ArrowConverter#toDatavecSchema(org.apache.arrow.vector.types.pojo.Schema)}.<br>
+ * <br>
+ * Records can be read individually via {@link #next()} (which copies the values of each record out of the Arrow
+ * buffers), or as views over each Arrow record batch without copying via {@link #nextBatch()} and
+ * {@link #nextColumnBatch()}.<br>
+ * The {@link RecordMetaDataIndex} of each record (see {@link #nextRecord()}) contains the index of the record within
+ * its file. Only local files are supported.
+ */
+public class ArrowRecordReader extends BaseRecordReader {
+
+    private static final byte[] FILE_MAGIC = "ARROW1".getBytes(StandardCharsets.UTF_8);
+
+    private Configuration conf;
+    private InputSplit inputSplit;
+    private URI[] locations;
+    private int fileIndex;
+    private Schema schema;
+
+    private BufferAllocator allocator;
+    private InputStream stream;
+    private ArrowReader reader;
+    private ArrowWritableRecordBatch current;
+    private int position;
+    private long batchOffset; //Index (in the file) of the first record of the current batch
+    private long lastRowIndex;
+    private URI lastUri;
+
+    @Override
+    public void initialize(InputSplit split) throws IOException, InterruptedException {
+        URI[] uris = split.locations();
+        for (URI uri : uris) {
+            if (!"file".equals(uri.getScheme())) {
+                throw new UnsupportedOperationException("Unsupported location: " + uri
+                                + ". ArrowRecordReader only supports local files");
+            }
+        }
+        close();
+        this.inputSplit = split;
+        this.locations = uris;
+        this.fileIndex = -1;
+        this.lastUri = null;
+        this.schema = null;
+        this.allocator = new RootAllocator(Long.MAX_VALUE);
+        if (uris.length > 0) {
+            openFile(0);
+            fileIndex = 0;
+        }
+    }
+
+    @Override
+    public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
+        this.conf = conf;
+        initialize(split);
+    }
+
+    /**
+     * @return Schema of the records. Available after initialization
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    private static boolean isFileFormat(File f) throws IOException {
+        byte[] magic = new byte[FILE_MAGIC.length];
+        try (DataInputStream in = new DataInputStream(new FileInputStream(f))) {
+            in.readFully(magic);
+        } catch (EOFException e) {
+            return false;
+        }
+        return Arrays.equals(magic, FILE_MAGIC);
+    }
+
+    private ArrowReader open(File f) throws IOException {
+        if (isFileFormat(f)) {
+            FileInputStream in = new FileInputStream(f);
+            stream = in;
+            return new ArrowFileReader(in.getChannel(), allocator);
+        } else {
+            stream = new BufferedInputStream(new FileInputStream(f));
+            return new ArrowStreamReader(stream, allocator);
+        }
+    }
+
+    private void openFile(int idx) throws IOException {
+        closeFile();
+        reader = open(new File(locations[idx]));
+        Schema s = ArrowConverter.toDatavecSchema(reader.getVectorSchemaRoot().getSchema());
+        if (schema == null) {
+            schema = s;
+        } else if (!schema.sameTypes(s)) {
+            throw new IllegalStateException("Schema of file " + locations[idx]
+                            + " does not match schema of previous files: expected " + schema + ", got " + s);
+        }
+        current = null;
+        position = 0;
+        batchOffset = 0;
+    }
+
+    private void closeFile() throws IOException {
+        current = null;
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (current != null && position < current.size()) {
+            return true;
+        }
+        if (locations == null) {
+            throw new IllegalStateException("Cannot get next record: record reader has not been initialized");
+        }
+        try {
+            while (true) {
+                if (reader == null) {
+                    if (fileIndex + 1 >= locations.length) {
+                        current = null;
+                        return false;
+                    }
+                    openFile(++fileIndex);
+                }
+                if (current != null) {
+                    batchOffset += current.size();
+                }
+                if (!reader.loadNextBatch()) {
+                    closeFile();
+                    continue;
+                }
+                current = ArrowConverter.toArrowWritables(reader.getVectorSchemaRoot(), schema);
+                position = 0;
+                if (current.size() > 0) {
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading Arrow file " + locations[fileIndex], e);
+        }
+    }
+
+    @Override
+    public List<Writable> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No next element found!");
+        }
+        List<Writable> ret = new ArrayList<>(current.get(position));
+        lastRowIndex = batchOffset + position;
+        lastUri = locations[fileIndex];
+        position++;
+        invokeListeners(ret);
+        return ret;
+    }
+
+    /**
+     * Return the remaining records of the current Arrow record batch, as a view over the Arrow vectors (see
+     * {@link ArrowWritableRecordBatch}). No values are copied: the returned batch is only valid until the next call
+     * to any of the next methods, or {@link #close()}
+     *
+     * @return Batch of records, or null if there are no more records
+     */
+    public ArrowWritableRecordBatch nextBatch() {
+        if (!hasNext()) {
+            return null;
+        }
+        ArrowWritableRecordBatch ret = current;
+        if (position > 0) {
+            ret = (ArrowWritableRecordBatch) current.subList(position, current.size());
+        }
+        lastRowIndex = batchOffset + current.size() - 1;
+        lastUri = locations[fileIndex];
+        position = current.size();
+        return ret;
+    }
+
+    /**
+     * Return the remaining records of the current Arrow record batch as a {@link ColumnBatch}. Numerical columns
+     * without missing values are copied directly to primitive column vectors, without creating Writables: see
+     * {@link ArrowConverter#toColumnBatch(VectorSchemaRoot, Schema)}
+     *
+     * @return Batch of records, or null if there are no more records
+     */
+    public ColumnBatch nextColumnBatch() {
+        if (!hasNext()) {
+            return null;
+        }
+        int start = position;
+        ColumnBatch batch;
+        try {
+            batch = ArrowConverter.toColumnBatch(reader.getVectorSchemaRoot(), schema);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading Arrow file " + locations[fileIndex], e);
+        }
+        nextBatch();
+        if (start > 0) {
+            boolean[] remove = new boolean[batch.getNumRows()];
+            Arrays.fill(remove, 0, start, true);
+            batch = batch.removeRows(remove);
+        }
+        return batch;
+    }
+
+    @Override
+    public Record nextRecord() {
+        List<Writable> next = next();
+        return new org.datavec.api.records.impl.Record(next,
+                        new RecordMetaDataIndex(lastRowIndex, lastUri, ArrowRecordReader.class));
+    }
+
+    @Override
+    public Record loadFromMetaData(RecordMetaData recordMetaData) throws IOException {
+        return loadFromMetaData(Collections.singletonList(recordMetaData)).get(0);
+    }
+
+    @Override
+    public List<Record> loadFromMetaData(List<RecordMetaData> recordMetaDatas) throws IOException {
+        //Group by file, so each file is read at most once
+        Map<URI, TreeMap<Long, List<Writable>>> byUri = new LinkedHashMap<>();
+        for (RecordMetaData rmd : recordMetaDatas) {
+            if (!(rmd instanceof RecordMetaDataIndex)) {
+                throw new IllegalArgumentException("Invalid metadata; expected RecordMetaDataIndex instance; got: "
+                                + rmd);
+            }
+            if (!byUri.containsKey(rmd.getURI())) {
+                byUri.put(rmd.getURI(), new TreeMap<Long, List<Writable>>());
+            }
+            byUri.get(rmd.getURI()).put(((RecordMetaDataIndex) rmd).getIndex(), null);
+        }
+
+        for (Map.Entry<URI, TreeMap<Long, List<Writable>>> e : byUri.entrySet()) {
+            File f = new File(e.getKey());
+            boolean fileFormat = isFileFormat(f);
+            try (BufferAllocator a = new RootAllocator(Long.MAX_VALUE);
+                            FileInputStream fis = new FileInputStream(f);
+                            ArrowReader r = fileFormat ? new ArrowFileReader(fis.getChannel(), a)
+                                            : new ArrowStreamReader(new BufferedInputStream(fis), a)) {
+                Schema s = ArrowConverter.toDatavecSchema(r.getVectorSchemaRoot().getSchema());
+                long offset = 0;
+                Iterator<Map.Entry<Long, List<Writable>>> iter = e.getValue().entrySet().iterator();
+                Map.Entry<Long, List<Writable>> next = iter.next();
+                while (next != null && r.loadNextBatch()) {
+                    ArrowWritableRecordBatch batch = ArrowConverter.toArrowWritables(r.getVectorSchemaRoot(), s);
+                    while (next != null && next.getKey() < offset + batch.size()) {
+                        if (next.getKey() < 0) {
+                            break;
+                        }
+                        next.setValue(new ArrayList<>(batch.get((int) (next.getKey() - offset))));
+                        next = (iter.hasNext() ? iter.next() : null);
+                    }
+                    offset += batch.size();
+                }
+                if (next != null) {
+                    throw new IllegalArgumentException("Invalid record index " + next.getKey() + " for file "
+                                    + e.getKey() + " with " + offset + " records");
+                }
+            }
+        }
+
+        List<Record> out = new ArrayList<>(recordMetaDatas.size());
+        for (RecordMetaData rmd : recordMetaDatas) {
+            List<Writable> r = byUri.get(rmd.getURI()).get(((RecordMetaDataIndex) rmd).getIndex());
+            out.add(new org.datavec.api.records.impl.Record(r, rmd));
+        }
+        return out;
+    }
+
+    @Override
+    public List<Writable> record(URI uri, DataInputStream dataInputStream) throws IOException {
+        try (BufferAllocator a = new RootAllocator(Long.MAX_VALUE);
+                        ArrowStreamReader r = new ArrowStreamReader(dataInputStream, a)) {
+            if (!r.loadNextBatch() || r.getVectorSchemaRoot().getRowCount() == 0) {
+                throw new IllegalStateException("No records found in Arrow stream for URI " + uri);
+            }
+            Schema s = ArrowConverter.toDatavecSchema(r.getVectorSchemaRoot().getSchema());
+            return new ArrayList<>(ArrowConverter.toArrowWritables(r.getVectorSchemaRoot(), s).get(0));
+        }
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return null;
+    }
+
+    @Override
+    public void reset() {
+        if (inputSplit == null)
+            throw new UnsupportedOperationException("Cannot reset without first initializing");
+        try {
+            initialize(inputSplit);
+        } catch (Exception e) {
+            throw new RuntimeException("Error during ArrowRecordReader reset", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeFile();
+        if (allocator != null) {
+            allocator.close();
+            allocator = null;
+        }
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        this.conf = conf;
+    }
+
+    @Override
+    public Configuration getConf() {
+        return conf;
+    }
+}
@@ -0,0 +1,187 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.arrow.recordreader;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.ipc.ArrowWriter;
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.writer.RecordWriter;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Writable;
+import org.datavec.arrow.ArrowConverter;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes records in the Apache Arrow IPC format: either the random access file format (when writing to a
+ * {@link File}) or the streaming format (when writing to an {@link OutputStream}). Both formats can be read by
+ * {@link ArrowRecordReader}, and by other Arrow implementations (pyarrow, etc).<br>
+ * Records are buffered, and written as one Arrow record batch per {@code batchSize} records; the Arrow vectors are
+ * reused between batches. The DataVec schema is stored in the Arrow schema metadata: see
+ * {@link ArrowConverter#toArrowSchema(Schema)}.<br>
+ * Note that the output is not complete until {@link #close()} is called.
+ */
+public class ArrowRecordWriter implements RecordWriter {
+
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+
+    private final Schema schema;
+    private final int batchSize;
+    private final OutputStream out;
+    private final BufferAllocator allocator;
+    private final VectorSchemaRoot root;
+    private final ArrowWriter writer;
+    private final List<List<Writable>> buffer;
+    private Configuration conf;
+    private boolean closed;
+
+    /**
+     * Write records to the specified file, in the Arrow file format, with the default batch size
+     *
+     * @param file   File to write
+     * @param schema Schema of the records
+     */
+    public ArrowRecordWriter(File file, Schema schema) throws IOException {
+        this(file, schema, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Write records to the specified file, in the Arrow file format
+     *
+     * @param file      File to write
+     * @param schema    Schema of the records
+     * @param batchSize Number of records in each Arrow record batch
+     */
+    public ArrowRecordWriter(File file, Schema schema, int batchSize) throws IOException {
+        this(new FileOutputStream(file), schema, batchSize, true);
+    }
+
+    /**
+     * Write records to the specified output stream, in the Arrow streaming format. The stream is closed when this
+     * writer is closed
+     *
+     * @param out       Output stream to write to
+     * @param schema    Schema of the records
+     * @param batchSize Number of records in each Arrow record batch
+     */
+    public ArrowRecordWriter(OutputStream out, Schema schema, int batchSize) throws IOException {
+        this(out, schema, batchSize, false);
+    }
+
+    private ArrowRecordWriter(OutputStream out, Schema schema, int batchSize, boolean fileFormat) throws IOException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: got " + batchSize);
+        }
+        this.schema = schema;
+        this.batchSize = batchSize;
+        this.out = out;
+        this.allocator = new RootAllocator(Long.MAX_VALUE);
+        this.root = VectorSchemaRoot.create(ArrowConverter.toArrowSchema(schema), allocator);
+        DictionaryProvider provider = new DictionaryProvider.MapDictionaryProvider();
+        if (fileFormat) {
+            this.writer = new ArrowFileWriter(root, provider, ((FileOutputStream) out).getChannel());
+        } else {
+            this.writer = new ArrowStreamWriter(root, provider, out);
+        }
+        this.buffer = new ArrayList<>(batchSize);
+        writer.start();
+    }
+
+    /**
+     * @return Schema of the records being written
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    @Override
+    public void write(List<Writable> record) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Cannot write record: writer has been closed");
+        }
+        if (record.size() != schema.numColumns()) {
+            throw new IllegalStateException("Cannot write record: record length (" + record.size()
+                            + ") does not match expected number of elements (schema: " + schema.numColumns() + ")");
+        }
+        buffer.add(record);
+        if (buffer.size() >= batchSize) {
+            writeBatch();
+        }
+    }
+
+    /**
+     * Write all of the given records. This is equivalent to calling {@link #write(List)} for each record
+     *
+     * @param records Records to write
+     */
+    public void writeBatch(List<List<Writable>> records) throws IOException {
+        for (List<Writable> record : records) {
+            write(record);
+        }
+    }
+
+    private void writeBatch() throws IOException {
+        ArrowConverter.setValues(root, buffer);
+        writer.writeBatch();
+        buffer.clear();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (!buffer.isEmpty()) {
+                writeBatch();
+            }
+            writer.end();
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing Arrow data", e);
+        } finally {
+            writer.close();
+            root.close();
+            allocator.close();
+            try {
+                out.close();
+            } catch (IOException e) {
+                //Ignore
+            }
+        }
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        this.conf = conf;
+    }
+
+    @Override
+    public Configuration getConf() {
+        return conf;
+    }
+}
@@ -0,0 +1,218 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.arrow;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.transform.batch.ColumnBatch;
+import org.datavec.api.transform.batch.IntColumnVector;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.*;
+import org.datavec.arrow.recordreader.ArrowRecordReader;
+import org.datavec.arrow.recordreader.ArrowRecordWriter;
+import org.joda.time.DateTimeZone;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ArrowConverterTest {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    private static Schema schema() {
+        return new Schema.Builder().addColumnInteger("int").addColumnLong("long").addColumnDouble("double")
+                        .addColumnFloat("float").addColumnCategorical("cat", "a", "b").addColumnString("str")
+                        .addColumnTime("time", DateTimeZone.UTC).build();
+    }
+
+    private static List<List<Writable>> data(int n) {
+        List<List<Writable>> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Writable str = (i % 5 == 0 ? NullWritable.INSTANCE : new Text("s" + i));
+            out.add(Arrays.<Writable>asList(new IntWritable(i), new LongWritable(1000L * i),
+                            new DoubleWritable(i / 2.0), new FloatWritable(i / 4.0f), new Text(i % 2 == 0 ? "a" : "b"),
+                            str, new LongWritable(1500000000000L + i)));
+        }
+        return out;
+    }
+
+    /**
+     * Data with nulls in every column, at a different row for each column
+     */
+    private static List<List<Writable>> dataWithNulls(int n) {
+        List<List<Writable>> out = new ArrayList<>();
+        for (List<Writable> record : data(n)) {
+            out.add(new ArrayList<>(record));
+        }
+        for (int i = 0; i < n; i++) {
+            List<Writable> record = out.get(i);
+            for (int c = 0; c < record.size(); c++) {
+                if (i % record.size() == c) {
+                    record.set(c, NullWritable.INSTANCE);
+                }
+            }
+        }
+        return out;
+    }
+
+    @Test
+    public void testSchemaConversion() {
+        Schema schema = schema();
+        org.apache.arrow.vector.types.pojo.Schema arrowSchema = ArrowConverter.toArrowSchema(schema);
+        assertEquals(schema.numColumns(), arrowSchema.getFields().size());
+        assertEquals(schema, ArrowConverter.toDatavecSchema(arrowSchema));
+
+        //Without the DataVec metadata: schema is inferred from the Arrow types
+        org.apache.arrow.vector.types.pojo.Schema noMeta =
+                        new org.apache.arrow.vector.types.pojo.Schema(arrowSchema.getFields());
+        Schema inferred = ArrowConverter.toDatavecSchema(noMeta);
+        assertEquals(schema.getColumnNames(), inferred.getColumnNames());
+        assertEquals(schema.getType(0), inferred.getType(0));
+        assertEquals(schema.getType(1), inferred.getType(1));
+        assertEquals(schema.getType(2), inferred.getType(2));
+        assertEquals(schema.getType(3), inferred.getType(3));
+        assertEquals(schema.getType(6), inferred.getType(6));
+    }
+
+    @Test
+    public void testRecordConversion() {
+        Schema schema = schema();
+        List<List<Writable>> data = data(100);
+        try (BufferAllocator allocator = new RootAllocator(Long.MAX_VALUE);
+                        VectorSchemaRoot root = ArrowConverter.toArrowColumns(allocator, schema, data)) {
+            assertEquals(100, root.getRowCount());
+            assertEquals(data, ArrowConverter.toArrowWritables(root, schema));
+            assertEquals(data, ArrowConverter.toRecords(root));
+
+            ColumnBatch batch = ArrowConverter.toColumnBatch(root, schema);
+            assertTrue(batch.getColumn("int") instanceof IntColumnVector);
+            assertEquals(data, batch.toRecords());
+
+            //Reuse the vectors for another batch
+            List<List<Writable>> data2 = data(10);
+            ArrowConverter.setValues(root, data2);
+            assertEquals(data2, ArrowConverter.toArrowWritables(root, schema));
+        }
+    }
+
+    @Test
+    public void testNullRoundTrip() throws Exception {
+        Schema schema = schema();
+        List<List<Writable>> data = dataWithNulls(100);
+        try (BufferAllocator allocator = new RootAllocator(Long.MAX_VALUE);
+                        VectorSchemaRoot root = ArrowConverter.toArrowColumns(allocator, schema, data)) {
+            for (int c = 0; c < schema.numColumns(); c++) {
+                assertTrue(root.getFieldVectors().get(c).isNull(c));
+                assertFalse(root.getFieldVectors().get(c).isNull(c + 1));
+            }
+            assertEquals(data, ArrowConverter.toArrowWritables(root, schema));
+            assertEquals(data, ArrowConverter.toRecords(root));
+            assertEquals(data, ArrowConverter.toColumnBatch(root, schema).toRecords());
+
+            //Reusing the vectors: values must replace the nulls of the previous batch, and vice versa
+            List<List<Writable>> noNulls = data(100);
+            ArrowConverter.setValues(root, noNulls);
+            assertEquals(noNulls, ArrowConverter.toArrowWritables(root, schema));
+            ArrowConverter.setValues(root, data);
+            assertEquals(data, ArrowConverter.toArrowWritables(root, schema));
+        }
+
+        File file = testDir.newFile();
+        ArrowRecordWriter writer = new ArrowRecordWriter(file, schema, 32);
+        writer.writeBatch(data);
+        writer.close();
+
+        ArrowRecordReader rr = new ArrowRecordReader();
+        rr.initialize(new FileSplit(file));
+        List<List<Writable>> out = new ArrayList<>();
+        while (rr.hasNext()) {
+            out.add(rr.next());
+        }
+        assertEquals(data, out);
+
+        rr.reset();
+        List<List<Writable>> batched = new ArrayList<>();
+        ColumnBatch batch;
+        while ((batch = rr.nextColumnBatch()) != null) {
+            batched.addAll(batch.toRecords());
+        }
+        assertEquals(data, batched);
+        rr.close();
+    }
+
+    @Test
+    public void testReadWrite() throws Exception {
+        Schema schema = schema();
+        List<List<Writable>> data = data(1000);
+
+        File file = testDir.newFile();
+        ArrowRecordWriter fileWriter = new ArrowRecordWriter(file, schema, 128);
+        fileWriter.writeBatch(data);
+        fileWriter.close();
+
+        File stream = testDir.newFile();
+        ArrowRecordWriter streamWriter = new ArrowRecordWriter(new FileOutputStream(stream), schema, 300);
+        streamWriter.writeBatch(data);
+        streamWriter.close();
+
+        for (File f : new File[] {file, stream}) {
+            ArrowRecordReader rr = new ArrowRecordReader();
+            rr.initialize(new FileSplit(f));
+            assertEquals(schema, rr.getSchema());
+
+            List<List<Writable>> out = new ArrayList<>();
+            List<RecordMetaData> meta = new ArrayList<>();
+            while (rr.hasNext()) {
+                Record r = rr.nextRecord();
+                out.add(r.getRecord());
+                meta.add(r.getMetaData());
+            }
+            assertEquals(data, out);
+
+            List<Record> loaded = rr.loadFromMetaData(Arrays.asList(meta.get(999), meta.get(0), meta.get(500)));
+            assertEquals(data.get(999), loaded.get(0).getRecord());
+            assertEquals(data.get(0), loaded.get(1).getRecord());
+            assertEquals(data.get(500), loaded.get(2).getRecord());
+
+            rr.reset();
+            List<List<Writable>> batched = new ArrayList<>();
+            rr.next();
+            batched.add(data.get(0));
+            ArrowWritableRecordBatch batch;
+            while ((batch = rr.nextBatch()) != null) {
+                for (List<Writable> record : batch) {
+                    batched.add(new ArrayList<>(record));
+                }
+            }
+            assertEquals(data, batched);
+            rr.close();
+        }
+    }
+}
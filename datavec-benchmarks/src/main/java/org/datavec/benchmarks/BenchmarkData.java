@@ -0,0 +1,106 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.benchmarks;
+
+import org.datavec.api.writable.DoubleWritable;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.LongWritable;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic data for the benchmarks. All data is generated locally, with a fixed seed
+ */
+public class BenchmarkData {
+
+    public static final long SEED = 12345;
+
+    private BenchmarkData() {}
+
+    /**
+     * Write a CSV file with numeric values: an integer ID column followed by (numColumns - 1) double columns
+     *
+     * @param numLines   Number of lines to write
+     * @param numColumns Number of columns per line
+     * @return Temporary file, deleted on exit
+     */
+    public static File writeCsv(int numLines, int numColumns) throws IOException {
+        File f = File.createTempFile("datavec-benchmark", ".csv");
+        f.deleteOnExit();
+        Random r = new Random(SEED);
+        try (BufferedWriter w = new BufferedWriter(new FileWriter(f))) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < numLines; i++) {
+                sb.setLength(0);
+                sb.append(i);
+                for (int j = 1; j < numColumns; j++) {
+                    sb.append(',').append(r.nextDouble());
+                }
+                w.write(sb.toString());
+                w.newLine();
+            }
+        }
+        return f;
+    }
+
+    /**
+     * @param numRecords Number of records
+     * @param numColumns Number of columns per record
+     * @return Records containing random {@link DoubleWritable}s
+     */
+    public static List<List<Writable>> doubleRecords(int numRecords, int numColumns) {
+        Random r = new Random(SEED);
+        List<List<Writable>> out = new ArrayList<>(numRecords);
+        for (int i = 0; i < numRecords; i++) {
+            List<Writable> record = new ArrayList<>(numColumns);
+            for (int j = 0; j < numColumns; j++) {
+                record.add(new DoubleWritable(r.nextDouble()));
+            }
+            out.add(record);
+        }
+        return out;
+    }
+
+    /**
+     * @param numRecords Number of records
+     * @return Records with mixed column types: an integer ID, a categorical (Text) value with 20 possible states,
+     *         three doubles and a long timestamp
+     */
+    public static List<List<Writable>> mixedRecords(int numRecords) {
+        Random r = new Random(SEED);
+        List<List<Writable>> out = new ArrayList<>(numRecords);
+        for (int i = 0; i < numRecords; i++) {
+            List<Writable> record = new ArrayList<>(6);
+            record.add(new IntWritable(i));
+            record.add(new Text("state" + r.nextInt(20)));
+            record.add(new DoubleWritable(r.nextDouble()));
+            record.add(new DoubleWritable(r.nextGaussian()));
+            record.add(new DoubleWritable(r.nextDouble() * 1000));
+            record.add(new LongWritable(1483228800000L + r.nextInt(Integer.MAX_VALUE)));
+            out.add(record);
+        }
+        return out;
+    }
+}
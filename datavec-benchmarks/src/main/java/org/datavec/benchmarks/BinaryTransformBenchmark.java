@@ -0,0 +1,102 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.benchmarks;
+
+import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.spark.transform.BinaryTransformServer;
+import org.datavec.spark.transform.CSVSparkTransform;
+import org.datavec.spark.transform.client.BinaryTransformClient;
+import org.datavec.spark.transform.model.BatchCSVRecord;
+import org.datavec.spark.transform.model.SingleCSVRecord;
+import org.datavec.spark.transform.service.BinaryTransformProtocol;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip latency of a CSV batch sent to a {@link BinaryTransformServer} by a {@link BinaryTransformClient}, over
+ * the loopback interface: encoding, transforming the batch to an array on the server, and decoding the response.
+ * The server is started in the benchmark JVM, with the same handler as the CSV transform server's binary port.<br>
+ * Results are sampled per request: JMH reports the latency percentiles (p0.50, p0.99 etc.) for each configuration.
+ * Note that client and server share the machine (and the JVM), so results depend on the environment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BinaryTransformBenchmark {
+
+    @Param({"100"})
+    public int numRows;
+
+    @Param({"10"})
+    public int numColumns;
+
+    private BinaryTransformServer server;
+    private BinaryTransformClient client;
+    private BatchCSVRecord batch;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Schema.Builder sb = new Schema.Builder();
+        for (int i = 0; i < numColumns; i++) {
+            sb.addColumnDouble("c" + i);
+        }
+        Schema schema = sb.build();
+        TransformProcess tp = new TransformProcess.Builder(schema).doubleMathOp("c0", MathOp.Multiply, 2.0).build();
+        final CSVSparkTransform transform = new CSVSparkTransform(tp);
+
+        server = new BinaryTransformServer(0, new BinaryTransformServer.Handler() {
+            @Override
+            public byte[] handle(byte type, byte[] payload) throws Exception {
+                return transform.toArrayBinary(BinaryTransformProtocol.decodeCSVBatch(payload));
+            }
+        });
+        client = new BinaryTransformClient("localhost", server.getPort());
+
+        Random r = new Random(BenchmarkData.SEED);
+        List<SingleCSVRecord> records = new ArrayList<>(numRows);
+        for (int i = 0; i < numRows; i++) {
+            List<String> values = new ArrayList<>(numColumns);
+            for (int j = 0; j < numColumns; j++) {
+                values.add(String.valueOf(r.nextDouble()));
+            }
+            records.add(new SingleCSVRecord(values));
+        }
+        batch = new BatchCSVRecord(records);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        server.stop();
+    }
+
+    @Benchmark
+    public INDArray roundTrip() throws IOException {
+        return client.transformArray(batch);
+    }
+}
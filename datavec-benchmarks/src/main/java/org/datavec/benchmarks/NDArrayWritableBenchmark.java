@@ -0,0 +1,66 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.benchmarks;
+
+import org.datavec.api.writable.NDArrayWritable;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization and deserialization throughput of {@link NDArrayWritable}, via
+ * {@link NDArrayWritable#write(DataOutput)} and {@link NDArrayWritable#readFields(DataInput)}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NDArrayWritableBenchmark {
+
+    @Param({"100", "10000"})
+    public int length;
+
+    private NDArrayWritable writable;
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Nd4j.getRandom().setSeed(BenchmarkData.SEED);
+        writable = new NDArrayWritable(Nd4j.rand(1, length));
+        serialized = write();
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(baos);
+        writable.write(dos);
+        dos.flush();
+        return baos.toByteArray();
+    }
+
+    @Benchmark
+    public NDArrayWritable read() throws IOException {
+        NDArrayWritable w = new NDArrayWritable();
+        w.readFields(new DataInputStream(new ByteArrayInputStream(serialized)));
+        return w;
+    }
+}
@@ -0,0 +1,76 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.benchmarks;
+
+import org.datavec.image.loader.NativeImageLoader;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link NativeImageLoader#asMatrix(java.io.InputStream)}: decoding a synthetic encoded image, and
+ * resizing it to 224x224x3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NativeImageLoaderBenchmark {
+
+    @Param({"png", "jpg"})
+    public String format;
+
+    @Param({"256", "1024"})
+    public int size;
+
+    private NativeImageLoader loader;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        loader = new NativeImageLoader(224, 224, 3);
+
+        //Smooth gradient plus noise: compresses roughly like a natural image
+        Random r = new Random(BenchmarkData.SEED);
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_3BYTE_BGR);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int red = (255 * x / size + r.nextInt(16)) & 0xFF;
+                int green = (255 * y / size + r.nextInt(16)) & 0xFF;
+                int blue = (red + green) / 2;
+                image.setRGB(x, y, (red << 16) | (green << 8) | blue);
+            }
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(image, format, baos);
+        encoded = baos.toByteArray();
+    }
+
+    @Benchmark
+    public INDArray asMatrix() throws IOException {
+        return loader.asMatrix(new ByteArrayInputStream(encoded));
+    }
+}
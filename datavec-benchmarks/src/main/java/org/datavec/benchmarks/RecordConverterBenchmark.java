@@ -0,0 +1,55 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.benchmarks;
+
+import org.datavec.api.util.ndarray.RecordConverter;
+import org.datavec.api.writable.Writable;
+import org.openjdk.jmh.annotations.*;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link RecordConverter#toMatrix(List)}: converting a minibatch of numeric records to a matrix
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RecordConverterBenchmark {
+
+    public static final int NUM_RECORDS = 1000;
+
+    @Param({"10", "100"})
+    public int numColumns;
+
+    private List<List<Writable>> records;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        records = BenchmarkData.doubleRecords(NUM_RECORDS, numColumns);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_RECORDS)
+    public INDArray toMatrix() {
+        return RecordConverter.toMatrix(records);
+    }
+}
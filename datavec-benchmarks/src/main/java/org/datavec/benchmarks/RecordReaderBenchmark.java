@@ -0,0 +1,146 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.benchmarks;
+
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.records.reader.impl.columnar.ColumnarRecordReader;
+import org.datavec.api.records.reader.impl.LineRecordReader;
+import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
+import org.datavec.api.records.reader.impl.csv.MappedCSVRecordReader;
+import org.datavec.api.records.writer.impl.columnar.ColumnarRecordWriter;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.transform.batch.ColumnBatch;
+import org.datavec.api.transform.schema.Schema;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing throughput of {@link CSVRecordReader}, {@link LineRecordReader} and {@link MappedCSVRecordReader}, reading a
+ * synthetic numeric CSV file; and of {@link ColumnarRecordReader}, reading the same data from a columnar file
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RecordReaderBenchmark {
+
+    public static final int NUM_LINES = 100000;
+
+    @Param({"10", "100"})
+    public int numColumns;
+
+    private File csvFile;
+    private File columnarFile;
+    private Schema schema;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        csvFile = BenchmarkData.writeCsv(NUM_LINES, numColumns);
+        Schema.Builder b = new Schema.Builder().addColumnInteger("id");
+        for (int i = 1; i < numColumns; i++) {
+            b.addColumnDouble("d" + i);
+        }
+        schema = b.build();
+
+        columnarFile = File.createTempFile("datavec-benchmark", ".dvcf");
+        MappedCSVRecordReader rr = new MappedCSVRecordReader(0, ',', '"', schema);
+        rr.initialize(new FileSplit(csvFile));
+        ColumnarRecordWriter writer = new ColumnarRecordWriter(columnarFile, schema);
+        while (rr.hasNext()) {
+            writer.write(rr.next());
+        }
+        writer.close();
+        rr.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        csvFile.delete();
+        columnarFile.delete();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_LINES)
+    public void csvRecordReader(Blackhole bh) throws Exception {
+        readAll(new CSVRecordReader(), bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_LINES)
+    public void lineRecordReader(Blackhole bh) throws Exception {
+        readAll(new LineRecordReader(), bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_LINES)
+    public void mappedCSVRecordReader(Blackhole bh) throws Exception {
+        readAll(new MappedCSVRecordReader(), bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_LINES)
+    public void mappedCSVRecordReaderWithSchema(Blackhole bh) throws Exception {
+        readAll(new MappedCSVRecordReader(0, ',', '"', schema), bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_LINES)
+    public void mappedCSVRecordReaderBatch(Blackhole bh) throws Exception {
+        MappedCSVRecordReader rr = new MappedCSVRecordReader(0, ',', '"', schema);
+        rr.initialize(new FileSplit(csvFile));
+        while (rr.hasNext()) {
+            bh.consume(rr.nextBatch(1024));
+        }
+        rr.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_LINES)
+    public void columnarRecordReader(Blackhole bh) throws Exception {
+        ColumnarRecordReader rr = new ColumnarRecordReader();
+        rr.initialize(new FileSplit(columnarFile));
+        while (rr.hasNext()) {
+            bh.consume(rr.next());
+        }
+        rr.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_LINES)
+    public void columnarRecordReaderBatch(Blackhole bh) throws Exception {
+        ColumnarRecordReader rr = new ColumnarRecordReader();
+        rr.initialize(new FileSplit(columnarFile));
+        ColumnBatch batch;
+        while ((batch = rr.nextBatch()) != null) {
+            bh.consume(batch);
+        }
+        rr.close();
+    }
+
+    private void readAll(RecordReader rr, Blackhole bh) throws Exception {
+        rr.initialize(new FileSplit(csvFile));
+        while (rr.hasNext()) {
+            bh.consume(rr.next());
+        }
+        rr.close();
+    }
+}
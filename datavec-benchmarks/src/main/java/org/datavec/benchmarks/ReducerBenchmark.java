@@ -0,0 +1,84 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.benchmarks;
+
+import org.datavec.api.transform.ReduceOp;
+import org.datavec.api.transform.ops.IAggregableReduceOp;
+import org.datavec.api.transform.reduce.Reducer;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link Reducer#aggregableReducer()}: records are grouped by key, and each record is accumulated into
+ * the aggregable reducer for its key
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReducerBenchmark {
+
+    public static final int NUM_RECORDS = 100000;
+
+    @Param({"10", "10000"})
+    public int numKeys;
+
+    private Reducer reducer;
+    private List<List<Writable>> records;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Schema schema = new Schema.Builder().addColumnString("key").addColumnsDouble("d0", "d1", "d2")
+                        .addColumnInteger("i0").build();
+        reducer = new Reducer.Builder(ReduceOp.Sum).keyColumns("key").meanColumns("d1").stdevColumns("d2")
+                        .countUniqueColumns("i0").build();
+        reducer.setInputSchema(schema);
+
+        Random r = new Random(BenchmarkData.SEED);
+        records = new ArrayList<>(NUM_RECORDS);
+        for (int i = 0; i < NUM_RECORDS; i++) {
+            records.add(Arrays.<Writable>asList(new Text("key" + r.nextInt(numKeys)),
+                            new DoubleWritable(r.nextDouble()), new DoubleWritable(r.nextDouble()),
+                            new DoubleWritable(r.nextGaussian()), new IntWritable(r.nextInt(100))));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_RECORDS)
+    public void aggregableReducer(Blackhole bh) {
+        Map<String, IAggregableReduceOp<List<Writable>, List<Writable>>> reducers = new HashMap<>();
+        for (List<Writable> record : records) {
+            String key = record.get(0).toString();
+            IAggregableReduceOp<List<Writable>, List<Writable>> op = reducers.get(key);
+            if (op == null) {
+                op = reducer.aggregableReducer();
+                reducers.put(key, op);
+            }
+            op.accept(record);
+        }
+        for (IAggregableReduceOp<List<Writable>, List<Writable>> op : reducers.values()) {
+            bh.consume(op.get());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.benchmarks;
+
+import org.apache.spark.SparkConf;
+import org.apache.spark.serializer.*;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.serialization.DataVecKryoRegistrator;
+import org.datavec.spark.transform.utils.SparkUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import scala.reflect.ClassTag;
+import scala.reflect.ClassTag$;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of serializing and deserializing records (List&lt;Writable&gt;) with the Spark serializers, as done when
+ * shuffling or persisting serialized RDDs:
+ * <ul>
+ * <li>java: Spark's default JavaSerializer</li>
+ * <li>kryo: KryoSerializer with the writable classes registered via
+ * {@link SparkUtils#registerKryoClasses(SparkConf)}, but default serializers</li>
+ * <li>kryoDataVec: KryoSerializer with the {@link DataVecKryoRegistrator}</li>
+ * </ul>
+ * The serialized size per record for each serializer is reported as the bytesPerRecord secondary result of the write
+ * benchmarks (a JMH auxiliary counter).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SparkSerializerBenchmark {
+
+    public static final int NUM_RECORDS = 10000;
+    private static final ClassTag<Object> TAG = ClassTag$.MODULE$.apply(Object.class);
+
+    @Param({"java", "kryo", "kryoDataVec"})
+    public String serializer;
+
+    @Param({"double", "mixed"})
+    public String data;
+
+    private SerializerInstance instance;
+    private List<List<Writable>> records;
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SparkConf conf = new SparkConf();
+        switch (serializer) {
+            case "java":
+                instance = new JavaSerializer(conf).newInstance();
+                break;
+            case "kryo":
+                SparkUtils.registerKryoClasses(conf);
+                instance = new KryoSerializer(conf).newInstance();
+                break;
+            case "kryoDataVec":
+                SparkUtils.registerKryoRegistrator(conf);
+                instance = new KryoSerializer(conf).newInstance();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown serializer: " + serializer);
+        }
+        records = ("double".equals(data) ? BenchmarkData.doubleRecords(NUM_RECORDS, 10)
+                        : BenchmarkData.mixedRecords(NUM_RECORDS));
+        serialized = serialize();
+    }
+
+    /**
+     * Serialized size per record, reported by JMH alongside the results of the write benchmarks
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SerializedSize {
+        public double bytesPerRecord;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_RECORDS)
+    public byte[] write(SerializedSize size) {
+        byte[] out = serialize();
+        size.bytesPerRecord = out.length / (double) NUM_RECORDS;
+        return out;
+    }
+
+    private byte[] serialize() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        SerializationStream stream = instance.serializeStream(baos);
+        for (List<Writable> record : records) {
+            stream.writeObject(record, TAG);
+        }
+        stream.close();
+        return baos.toByteArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_RECORDS)
+    public void read(Blackhole bh) {
+        DeserializationStream stream = instance.deserializeStream(new ByteArrayInputStream(serialized));
+        for (int i = 0; i < NUM_RECORDS; i++) {
+            bh.consume(stream.readObject(TAG));
+        }
+        stream.close();
+    }
+}
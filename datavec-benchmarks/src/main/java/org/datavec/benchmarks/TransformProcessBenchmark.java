@@ -0,0 +1,139 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.benchmarks;
+
+import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.plan.ExecutionPlan;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.transform.time.DeriveColumnsFromTimeTransform;
+import org.datavec.api.writable.*;
+import org.joda.time.DateTimeFieldType;
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link TransformProcess#execute(List)} (and the equivalent compiled {@link ExecutionPlan}) over
+ * representative pipelines:
+ * <ul>
+ * <li>oneHot: categorical to one-hot conversion</li>
+ * <li>mathOps: scalar and column-wise math ops on numerical columns</li>
+ * <li>timeParsing: parsing string timestamps and deriving columns from them</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TransformProcessBenchmark {
+
+    public static final int NUM_RECORDS = 10000;
+    private static final String TIME_FORMAT = "yyyy-MM-dd HH:mm:ss";
+
+    @Param({"oneHot", "mathOps", "timeParsing"})
+    public String pipeline;
+
+    private TransformProcess transformProcess;
+    private ExecutionPlan plan;
+    private List<List<Writable>> records;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random r = new Random(BenchmarkData.SEED);
+        records = new ArrayList<>(NUM_RECORDS);
+        switch (pipeline) {
+            case "oneHot":
+                String[] states = new String[20];
+                for (int i = 0; i < states.length; i++) {
+                    states[i] = "state" + i;
+                }
+                Schema s1 = new Schema.Builder().addColumnCategorical("cat", states).addColumnDouble("value")
+                                .build();
+                transformProcess = new TransformProcess.Builder(s1).categoricalToOneHot("cat").build();
+                for (int i = 0; i < NUM_RECORDS; i++) {
+                    records.add(Arrays.<Writable>asList(new Text(states[r.nextInt(states.length)]),
+                                    new DoubleWritable(r.nextDouble())));
+                }
+                break;
+            case "mathOps":
+                Schema s2 = new Schema.Builder().addColumnsDouble("d0", "d1", "d2").addColumnInteger("i0")
+                                .addColumnLong("l0").build();
+                transformProcess = new TransformProcess.Builder(s2).doubleMathOp("d0", MathOp.Multiply, 2.0)
+                                .doubleMathOp("d1", MathOp.Add, 1.0).integerMathOp("i0", MathOp.Modulus, 7)
+                                .longMathOp("l0", MathOp.Subtract, 100L)
+                                .doubleColumnsMathOp("sum", MathOp.Add, "d0", "d1", "d2").build();
+                for (int i = 0; i < NUM_RECORDS; i++) {
+                    records.add(Arrays.<Writable>asList(new DoubleWritable(r.nextDouble()),
+                                    new DoubleWritable(r.nextDouble()), new DoubleWritable(r.nextDouble()),
+                                    new IntWritable(r.nextInt()), new LongWritable(r.nextLong())));
+                }
+                break;
+            case "timeParsing":
+                Schema s3 = new Schema.Builder().addColumnString("time").addColumnDouble("value").build();
+                transformProcess = new TransformProcess.Builder(s3)
+                                .stringToTimeTransform("time", TIME_FORMAT, DateTimeZone.UTC)
+                                .transform(new DeriveColumnsFromTimeTransform.Builder("time")
+                                                .addIntegerDerivedColumn("hour", DateTimeFieldType.hourOfDay())
+                                                .addIntegerDerivedColumn("dayOfWeek", DateTimeFieldType.dayOfWeek())
+                                                .build())
+                                .build();
+                DateTimeFormatter f = DateTimeFormat.forPattern(TIME_FORMAT).withZone(DateTimeZone.UTC);
+                long start = 1483228800000L; //2017-01-01
+                for (int i = 0; i < NUM_RECORDS; i++) {
+                    long t = start + (long) (r.nextDouble() * 365 * 24 * 3600 * 1000L);
+                    records.add(Arrays.<Writable>asList(new Text(f.print(t)), new DoubleWritable(r.nextDouble())));
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown pipeline: " + pipeline);
+        }
+        plan = transformProcess.compile();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_RECORDS)
+    public void execute(Blackhole bh) {
+        for (List<Writable> record : records) {
+            bh.consume(transformProcess.execute(record));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_RECORDS)
+    public void executeCompiled(Blackhole bh) {
+        for (List<Writable> record : records) {
+            bh.consume(plan.execute(record));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_RECORDS)
+    public void executeBatch(Blackhole bh) {
+        bh.consume(transformProcess.executeBatch(records));
+    }
+}
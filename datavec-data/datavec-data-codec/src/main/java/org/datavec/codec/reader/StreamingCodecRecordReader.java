@@ -0,0 +1,293 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.codec.reader;
+
+import org.bytedeco.javacv.FFmpegFrameGrabber;
+import org.bytedeco.javacv.Frame;
+import org.bytedeco.javacv.OpenCVFrameConverter;
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.SequenceRecord;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.metadata.RecordMetaDataIndex;
+import org.datavec.api.util.ndarray.RecordConverter;
+import org.datavec.api.writable.NDArrayWritable;
+import org.datavec.api.writable.Writable;
+import org.datavec.image.loader.NativeImageLoader;
+import org.datavec.image.transform.FusedImageTransform;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A streaming alternative to the {@link NativeCodecRecordReader}, for videos too long to be loaded in memory.
+ * Instead of one sequence per video, each sequence is a fixed-length clip of {@link #CLIP_LENGTH} frames: frames are
+ * decoded lazily with JavaCV and FFmpeg, one clip at a time, and the video stays open from one clip to the next.
+ * <p>
+ * Frames are sampled every {@link #FRAME_STRIDE} frames, or every {@link #TIME_SLICE} seconds if specified, starting
+ * at {@link #START_FRAME} (the reader seeks to that frame) and ending after {@link #TOTAL_FRAMES} frames or
+ * {@link #VIDEO_DURATION} seconds, if specified. The skipped frames are decoded (as required by the codec) but not
+ * converted. Trailing frames that do not fill a complete clip are dropped.
+ * <p>
+ * Each frame is converted and scaled in place from the frame buffer of the grabber into a clip buffer reused from
+ * one clip to the next. Each step of a sequence is a single {@link NDArrayWritable} of shape [channels, rows, cols],
+ * or [1, channels * rows * cols] if {@link #RAVEL} is set. With {@link #next(int)}, clips are returned as a single
+ * 5-D array of shape [minibatch, channels, clipLength, rows, cols]. The metadata of a clip is a
+ * {@link RecordMetaDataIndex}, whose index is the number of the first frame of the clip.
+ */
+public class StreamingCodecRecordReader extends BaseCodecRecordReader {
+
+    public final static String CLIP_LENGTH = NAME_SPACE + ".cliplength";
+    public final static String FRAME_STRIDE = NAME_SPACE + ".stride";
+    public final static String CHANNELS = NAME_SPACE + ".channels";
+
+    protected int clipLength = 16;
+    protected int frameStride = 1;
+    protected int channels = 3;
+
+    private OpenCVFrameConverter.ToMat converter;
+    private NativeImageLoader imageLoader;
+    private INDArray clip;
+    private Stream stream;
+    private boolean clipReady;
+
+    @Override
+    public void setConf(Configuration conf) {
+        super.setConf(conf);
+        clipLength = conf.getInt(CLIP_LENGTH, 16);
+        frameStride = conf.getInt(FRAME_STRIDE, 1);
+        channels = conf.getInt(CHANNELS, 3);
+        if (clipLength < 1 || frameStride < 1) {
+            throw new IllegalArgumentException(
+                            "Invalid clip length or frame stride: " + clipLength + ", " + frameStride);
+        }
+        converter = new OpenCVFrameConverter.ToMat();
+        imageLoader = new NativeImageLoader(rows, cols, channels, new FusedImageTransform());
+        clip = null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (!clipReady) {
+                if (stream == null) {
+                    if (!super.hasNext()) {
+                        return false;
+                    }
+                    File file = nextFile();
+                    invokeListeners(file);
+                    stream = new Stream(new FFmpegFrameGrabber(file), file.toURI(), startFrame);
+                }
+                clipReady = stream.read(getClip());
+                if (!clipReady) {
+                    closeStream();
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return true;
+    }
+
+    @Override
+    public List<List<Writable>> sequenceRecord() {
+        return nextSequence().getSequenceRecord();
+    }
+
+    @Override
+    public SequenceRecord nextSequence() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more clips");
+        }
+        clipReady = false;
+        return new org.datavec.api.records.impl.SequenceRecord(toSequence(clip),
+                        new RecordMetaDataIndex(stream.clipStart, stream.uri, StreamingCodecRecordReader.class));
+    }
+
+    @Override
+    public boolean batchesSupported() {
+        return true;
+    }
+
+    @Override
+    public List<Writable> next(int num) {
+        INDArray features = Nd4j.createUninitialized(new int[] {num, channels, clipLength, rows, cols}, 'c');
+        int cnt = 0;
+        while (cnt < num && hasNext()) {
+            features.tensorAlongDimension(cnt++, 1, 2, 3, 4).assign(clip.permute(1, 0, 2, 3));
+            clipReady = false;
+        }
+        if (cnt == 0) {
+            throw new NoSuchElementException("No more clips");
+        } else if (cnt < num) {
+            features = features.get(NDArrayIndex.interval(0, cnt), NDArrayIndex.all(), NDArrayIndex.all(),
+                            NDArrayIndex.all(), NDArrayIndex.all()).dup();
+        }
+        return RecordConverter.toRecord(features);
+    }
+
+    /**
+     * Loads the first clip of the video, starting at {@link #START_FRAME}.
+     */
+    @Override
+    protected List<List<Writable>> loadData(File file, InputStream inputStream) throws IOException {
+        return loadClip(inputStream != null ? new FFmpegFrameGrabber(inputStream) : new FFmpegFrameGrabber(file),
+                        null, startFrame);
+    }
+
+    @Override
+    public List<SequenceRecord> loadSequenceFromMetaData(List<RecordMetaData> recordMetaDatas) throws IOException {
+        List<SequenceRecord> out = new ArrayList<>();
+        for (RecordMetaData meta : recordMetaDatas) {
+            if (!(meta instanceof RecordMetaDataIndex)) {
+                throw new IllegalArgumentException("Invalid metadata: expected RecordMetaDataIndex, got "
+                                + (meta == null ? null : meta.getClass().getName()));
+            }
+            int frame = (int) ((RecordMetaDataIndex) meta).getIndex();
+            File file = new File(meta.getURI());
+            out.add(new org.datavec.api.records.impl.SequenceRecord(
+                            loadClip(new FFmpegFrameGrabber(file), file.toURI(), frame), meta));
+        }
+        return out;
+    }
+
+    private List<List<Writable>> loadClip(FFmpegFrameGrabber grabber, URI uri, int frame) throws IOException {
+        INDArray buffer = Nd4j.create(clipLength, channels, rows, cols);
+        try (Stream s = new Stream(grabber, uri, frame)) {
+            if (!s.read(buffer)) {
+                throw new IOException("Not enough frames for a clip starting at frame " + frame);
+            }
+        }
+        return toSequence(buffer);
+    }
+
+    private List<List<Writable>> toSequence(INDArray buffer) {
+        List<List<Writable>> sequence = new ArrayList<>(clipLength);
+        for (int i = 0; i < clipLength; i++) {
+            INDArray frame = buffer.tensorAlongDimension(i, 1, 2, 3).dup();
+            if (ravel) {
+                frame = frame.reshape(1, frame.length());
+            }
+            sequence.add(Collections.<Writable>singletonList(new NDArrayWritable(frame)));
+        }
+        return sequence;
+    }
+
+    private INDArray getClip() {
+        if (clip == null) {
+            clip = Nd4j.create(clipLength, channels, rows, cols);
+        }
+        return clip;
+    }
+
+    private void closeStream() throws IOException {
+        if (stream != null) {
+            Stream s = stream;
+            stream = null;
+            clipReady = false;
+            s.close();
+        }
+    }
+
+    @Override
+    public void reset() {
+        try {
+            closeStream();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        super.reset();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeStream();
+        super.close();
+    }
+
+    /**
+     * An open video, with the position of the grabber and the frames still to skip before the next sampled frame.
+     */
+    private class Stream implements AutoCloseable {
+        private final FFmpegFrameGrabber grabber;
+        private final URI uri;
+        private final int stride;
+        private final int end;
+        private int position;
+        private int skip;
+        private int clipStart;
+
+        private Stream(FFmpegFrameGrabber grabber, URI uri, int frame) throws IOException {
+            this.grabber = grabber;
+            this.uri = uri;
+            try {
+                grabber.start();
+                if (frame != 0) {
+                    grabber.setFrameNumber(frame);
+                }
+            } catch (IOException e) {
+                grabber.release();
+                throw e;
+            }
+            double frameRate = grabber.getFrameRate();
+            stride = framesPerSecond > 0 ? Math.max(1, (int) Math.round(framesPerSecond * frameRate)) : frameStride;
+            if (numFrames >= 1) {
+                end = startFrame + numFrames;
+            } else if (videoLength > 0) {
+                end = (int) Math.round(videoLength * frameRate);
+            } else {
+                end = Integer.MAX_VALUE;
+            }
+            position = frame;
+        }
+
+        /** Decodes the next clip into the given buffer of shape [clipLength, channels, rows, cols]. */
+        private boolean read(INDArray buffer) throws IOException {
+            for (int i = 0; i < clipLength; i++) {
+                for (; skip > 0; skip--, position++) {
+                    if (position >= end || grabber.grabFrame(false, true, false, false) == null) {
+                        return false;
+                    }
+                }
+                Frame frame = position < end ? grabber.grabImage() : null;
+                if (frame == null) {
+                    return false;
+                }
+                if (i == 0) {
+                    clipStart = position;
+                }
+                imageLoader.asMatrixView(converter.convert(frame), buffer.tensorAlongDimension(i, 1, 2, 3));
+                position++;
+                skip = stride - 1;
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            grabber.release();
+        }
+    }
+}
@@ -19,13 +19,16 @@ package org.datavec.codec.reader;
 import org.datavec.api.conf.Configuration;
 import org.datavec.api.records.SequenceRecord;
 import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.metadata.RecordMetaDataIndex;
 import org.datavec.api.records.reader.SequenceRecordReader;
 import org.datavec.api.split.FileSplit;
 import org.datavec.api.util.ClassPathResource;
 import org.datavec.api.writable.ArrayWritable;
+import org.datavec.api.writable.NDArrayWritable;
 import org.datavec.api.writable.Writable;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
 
 import java.io.DataInputStream;
 import java.io.File;
@@ -33,7 +36,9 @@ import java.io.FileInputStream;
 import java.util.Iterator;
 import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -205,4 +210,72 @@ public class CodecReaderTest {
 
         assertEquals(expected, actual);
     }
+
+    private static Configuration streamingConf() {
+        Configuration conf = new Configuration();
+        conf.set(StreamingCodecRecordReader.START_FRAME, "160");
+        conf.set(StreamingCodecRecordReader.TOTAL_FRAMES, "500");
+        conf.set(StreamingCodecRecordReader.ROWS, "80");
+        conf.set(StreamingCodecRecordReader.COLUMNS, "46");
+        conf.set(StreamingCodecRecordReader.CLIP_LENGTH, "16");
+        conf.set(StreamingCodecRecordReader.FRAME_STRIDE, "2");
+        return conf;
+    }
+
+    @Ignore
+    @Test
+    public void testStreamingCodecReader() throws Exception {
+        File file = new ClassPathResource("fire_lowres.mp4").getFile();
+        SequenceRecordReader reader = new StreamingCodecRecordReader();
+        reader.initialize(streamingConf(), new FileSplit(file));
+
+        //500 frames, sampled every 2 frames: 250 frames, so 15 complete clips of 16 frames
+        int count = 0;
+        while (reader.hasNext()) {
+            SequenceRecord seqR = reader.nextSequence();
+            List<List<Writable>> record = seqR.getSequenceRecord();
+            assertEquals(16, record.size());
+            INDArray frame = ((NDArrayWritable) record.get(0).get(0)).get();
+            assertArrayEquals(new int[] {3, 80, 46}, frame.shape());
+
+            RecordMetaData meta = seqR.getMetaData();
+            assertTrue(meta.getURI().toString().endsWith("fire_lowres.mp4"));
+            assertEquals(160 + count * 32, ((RecordMetaDataIndex) meta).getIndex());
+            assertEquals(seqR, reader.loadSequenceFromMetaData(meta));
+            count++;
+        }
+        assertEquals(15, count);
+
+        reader.reset();
+        assertTrue(reader.hasNext());
+        assertEquals(160, ((RecordMetaDataIndex) reader.nextSequence().getMetaData()).getIndex());
+        reader.close();
+    }
+
+    @Ignore
+    @Test
+    public void testStreamingCodecReaderBatch() throws Exception {
+        File file = new ClassPathResource("fire_lowres.mp4").getFile();
+        SequenceRecordReader reader = new StreamingCodecRecordReader();
+        reader.initialize(streamingConf(), new FileSplit(file));
+        List<List<Writable>> first = reader.sequenceRecord();
+        List<List<Writable>> second = reader.sequenceRecord();
+
+        reader.reset();
+        assertTrue(reader.batchesSupported());
+        List<Writable> batch = reader.next(10);
+        assertEquals(1, batch.size());
+        INDArray features = ((NDArrayWritable) batch.get(0)).get();
+        assertArrayEquals(new int[] {10, 3, 16, 80, 46}, features.shape());
+        for (int i = 0; i < 16; i++) {
+            assertEquals(((NDArrayWritable) first.get(i).get(0)).get(), features.tensorAlongDimension(i, 1, 3, 4));
+            assertEquals(((NDArrayWritable) second.get(i).get(0)).get(),
+                            features.tensorAlongDimension(16 + i, 1, 3, 4));
+        }
+
+        //Only 5 of the 15 clips remaining
+        features = ((NDArrayWritable) reader.next(10).get(0)).get();
+        assertArrayEquals(new int[] {5, 3, 16, 80, 46}, features.shape());
+        assertFalse(reader.hasNext());
+    }
 }
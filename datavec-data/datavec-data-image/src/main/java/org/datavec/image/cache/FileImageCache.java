@@ -0,0 +1,180 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.image.cache;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@link ImageCache} stored on local disk, in a memory-mapped file of fixed size records (one per image).
+ * <p>
+ * The cache directory contains two files: the image data ({@link #DATA_FILE}) and an index mapping each key to its
+ * record ({@link #INDEX_FILE}). Both are persistent: a FileImageCache opened on an existing directory (with the same
+ * record size) reuses the images cached previously. Entries are never evicted; use a new (or empty) directory to
+ * clear the cache.
+ * <p>
+ * The data file is mapped in segments of up to 256MB, so the cache size is limited only by the available disk space.
+ * Note that index entries are only guaranteed to be written to disk once the cache is closed.
+ */
+public class FileImageCache implements ImageCache {
+
+    public static final String DATA_FILE = "images.bin";
+    public static final String INDEX_FILE = "index.bin";
+    private static final long MAX_SEGMENT_BYTES = 256L << 20;
+
+    private final int recordSize;
+    private final int recordsPerSegment;
+    private final RandomAccessFile dataFile;
+    private final FileChannel channel;
+    private final DataOutputStream indexOut;
+    private final Map<String, Integer> index = new HashMap<>();
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private int numRecords;
+
+    /**
+     * @param directory  Directory for the cache files. Created if it does not exist
+     * @param recordSize Size of each image, in bytes: height * width * channels
+     * @throws IOException If the cache files cannot be opened, or were created with a different record size
+     */
+    public FileImageCache(File directory, int recordSize) throws IOException {
+        if (recordSize <= 0)
+            throw new IllegalArgumentException("Record size must be positive, got " + recordSize);
+        if (!directory.exists() && !directory.mkdirs())
+            throw new IOException("Could not create cache directory: " + directory);
+        this.recordSize = recordSize;
+        this.recordsPerSegment = (int) Math.max(1, MAX_SEGMENT_BYTES / recordSize);
+
+        File indexFile = new File(directory, INDEX_FILE);
+        boolean newIndex = !indexFile.exists() || indexFile.length() == 0;
+        if (!newIndex) {
+            readIndex(indexFile);
+        }
+        indexOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile, true)));
+        if (newIndex) {
+            indexOut.writeInt(recordSize);
+            indexOut.flush();
+        }
+
+        dataFile = new RandomAccessFile(new File(directory, DATA_FILE), "rw");
+        channel = dataFile.getChannel();
+    }
+
+    private void readIndex(File indexFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            int size = in.readInt();
+            if (size != recordSize) {
+                throw new IOException("Image cache in " + indexFile.getParent() + " has record size " + size
+                                + ", expected " + recordSize + ". Use a different directory for different image sizes");
+            }
+            while (true) {
+                int record;
+                String key;
+                try {
+                    record = in.readInt();
+                    key = in.readUTF();
+                } catch (EOFException e) {
+                    //End of index (or an entry that was only partially written)
+                    break;
+                }
+                index.put(key, record);
+                numRecords = Math.max(numRecords, record + 1);
+            }
+        }
+    }
+
+    @Override
+    public int getRecordSize() {
+        return recordSize;
+    }
+
+    @Override
+    public boolean get(String key, byte[] out) throws IOException {
+        checkLength(out);
+        ByteBuffer buffer;
+        synchronized (this) {
+            Integer record = index.get(key);
+            if (record == null)
+                return false;
+            buffer = recordBuffer(record);
+        }
+        buffer.get(out);
+        return true;
+    }
+
+    @Override
+    public synchronized void put(String key, byte[] data) throws IOException {
+        checkLength(data);
+        if (index.containsKey(key))
+            return;
+        int record = numRecords++;
+        recordBuffer(record).put(data);
+        indexOut.writeInt(record);
+        indexOut.writeUTF(key);
+        index.put(key, record);
+    }
+
+    @Override
+    public synchronized boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * @return Number of images in the cache
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        segments.clear();
+        indexOut.close();
+        channel.close();
+        dataFile.close();
+    }
+
+    private void checkLength(byte[] data) {
+        if (data.length != recordSize)
+            throw new IllegalArgumentException("Invalid array length: got " + data.length + ", expected " + recordSize);
+    }
+
+    /**
+     * @return A buffer positioned at the start of the record, with the limit at the end of the record. Must be called
+     * while holding the lock on this object
+     */
+    private ByteBuffer recordBuffer(int record) throws IOException {
+        int segment = record / recordsPerSegment;
+        while (segments.size() <= segment) {
+            long position = (long) segments.size() * recordsPerSegment * recordSize;
+            segments.add(channel.map(FileChannel.MapMode.READ_WRITE, position, (long) recordsPerSegment * recordSize));
+        }
+        ByteBuffer buffer = segments.get(segment).duplicate();
+        int offset = (record % recordsPerSegment) * recordSize;
+        buffer.position(offset);
+        buffer.limit(offset + recordSize);
+        return buffer;
+    }
+}
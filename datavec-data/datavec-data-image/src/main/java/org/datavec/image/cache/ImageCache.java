@@ -0,0 +1,58 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.image.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A cache of decoded images, used by {@link org.datavec.image.recordreader.BaseImageRecordReader} to avoid reading and
+ * decoding the same image files every epoch.
+ * <p>
+ * Each entry is a fixed size array of bytes: a decoded (and scaled) 8-bit image, in the interleaved
+ * [height, width, channels] layout used by OpenCV. Implementations must be safe for use by multiple threads.
+ */
+public interface ImageCache extends Closeable {
+
+    /**
+     * @return Size (in bytes) of each cached image
+     */
+    int getRecordSize();
+
+    /**
+     * Get the cached image for the given key
+     *
+     * @param key Key of the image
+     * @param out Array to copy the image into. Length must equal {@link #getRecordSize()}
+     * @return True if the image was found in the cache (and copied into out), false otherwise
+     */
+    boolean get(String key, byte[] out) throws IOException;
+
+    /**
+     * Add an image to the cache. Adding an image for a key that is already present has no effect
+     *
+     * @param key  Key of the image
+     * @param data Image to add. Length must equal {@link #getRecordSize()}
+     */
+    void put(String key, byte[] data) throws IOException;
+
+    /**
+     * @param key Key of the image
+     * @return True if the cache contains an image for the given key
+     */
+    boolean contains(String key);
+}
@@ -0,0 +1,151 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.image.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An in-memory {@link ImageCache} holding the most recently used images, up to a maximum size in bytes.
+ * Images can be held either on the Java heap, or off-heap (in direct buffers) to reduce garbage collection overhead.
+ * <p>
+ * An LruImageCache can be used on its own, or as a faster tier in front of another cache (usually a
+ * {@link FileImageCache}): images not found in memory are then looked up in the backing cache, and new images are
+ * added to both.
+ */
+public class LruImageCache implements ImageCache {
+
+    private final ImageCache backing;
+    private final int recordSize;
+    private final long maxBytes;
+    private final boolean offHeap;
+    private final LinkedHashMap<String, ByteBuffer> map = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes;
+
+    /**
+     * Create an in-memory only cache
+     *
+     * @param recordSize Size of each image, in bytes: height * width * channels
+     * @param maxBytes   Maximum total size of the cached images, in bytes
+     * @param offHeap    If true: store the images in direct (off-heap) buffers. Otherwise, store them on the heap
+     */
+    public LruImageCache(int recordSize, long maxBytes, boolean offHeap) {
+        this(null, recordSize, maxBytes, offHeap);
+    }
+
+    /**
+     * Create an in-memory cache in front of another cache
+     *
+     * @param backing  Backing cache, for images not held in memory
+     * @param maxBytes Maximum total size of the images held in memory, in bytes
+     * @param offHeap  If true: store the images in direct (off-heap) buffers. Otherwise, store them on the heap
+     */
+    public LruImageCache(ImageCache backing, long maxBytes, boolean offHeap) {
+        this(backing, backing.getRecordSize(), maxBytes, offHeap);
+    }
+
+    private LruImageCache(ImageCache backing, int recordSize, long maxBytes, boolean offHeap) {
+        if (recordSize <= 0)
+            throw new IllegalArgumentException("Record size must be positive, got " + recordSize);
+        this.backing = backing;
+        this.recordSize = recordSize;
+        this.maxBytes = maxBytes;
+        this.offHeap = offHeap;
+    }
+
+    @Override
+    public int getRecordSize() {
+        return recordSize;
+    }
+
+    @Override
+    public boolean get(String key, byte[] out) throws IOException {
+        checkLength(out);
+        ByteBuffer buffer;
+        synchronized (this) {
+            buffer = map.get(key);
+        }
+        if (buffer != null) {
+            buffer.duplicate().get(out);
+            return true;
+        }
+        if (backing != null && backing.get(key, out)) {
+            add(key, out);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void put(String key, byte[] data) throws IOException {
+        checkLength(data);
+        add(key, data);
+        if (backing != null)
+            backing.put(key, data);
+    }
+
+    @Override
+    public boolean contains(String key) {
+        synchronized (this) {
+            if (map.containsKey(key))
+                return true;
+        }
+        return backing != null && backing.contains(key);
+    }
+
+    /**
+     * @return Number of images currently held in memory
+     */
+    public synchronized int size() {
+        return map.size();
+    }
+
+    private void checkLength(byte[] data) {
+        if (data.length != recordSize)
+            throw new IllegalArgumentException("Invalid array length: got " + data.length + ", expected " + recordSize);
+    }
+
+    private synchronized void add(String key, byte[] data) {
+        if (recordSize > maxBytes || map.containsKey(key))
+            return;
+        ByteBuffer buffer = offHeap ? ByteBuffer.allocateDirect(recordSize) : ByteBuffer.allocate(recordSize);
+        buffer.put(data);
+        buffer.flip();
+        map.put(key, buffer);
+        currentBytes += recordSize;
+
+        Iterator<Map.Entry<String, ByteBuffer>> iter = map.entrySet().iterator();
+        while (currentBytes > maxBytes && iter.hasNext()) {
+            iter.next();
+            iter.remove();
+            currentBytes -= recordSize;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            map.clear();
+            currentBytes = 0;
+        }
+        if (backing != null)
+            backing.close();
+    }
+}
@@ -24,6 +24,7 @@ import org.bytedeco.javacv.Frame;
 import org.bytedeco.javacv.OpenCVFrameConverter;
 import org.datavec.image.data.Image;
 import org.datavec.image.data.ImageWritable;
+import org.datavec.image.transform.FusedImageTransform;
 import org.datavec.image.transform.ImageTransform;
 import org.nd4j.linalg.api.concurrency.AffinityManager;
 import org.nd4j.linalg.api.memory.pointers.PagedPointer;
@@ -205,15 +206,7 @@ public class NativeImageLoader extends BaseImageLoader {
     @Override
     public INDArray asMatrix(InputStream is) throws IOException {
         byte[] bytes = IOUtils.toByteArray(is);
-        Mat image = imdecode(new Mat(bytes), CV_LOAD_IMAGE_ANYDEPTH | CV_LOAD_IMAGE_ANYCOLOR);
-        if (image == null || image.empty()) {
-            PIX pix = pixReadMem(bytes, bytes.length);
-            if (pix == null) {
-                throw new IOException("Could not decode image from input stream");
-            }
-            image = convert(pix);
-            pixDestroy(pix);
-        }
+        Mat image = decode(bytes);
         INDArray a = asMatrix(image);
         image.deallocate();
         return a;
@@ -229,15 +222,7 @@ public class NativeImageLoader extends BaseImageLoader {
     @Override
     public Image asImageMatrix(InputStream is) throws IOException {
         byte[] bytes = IOUtils.toByteArray(is);
-        Mat image = imdecode(new Mat(bytes), CV_LOAD_IMAGE_ANYDEPTH | CV_LOAD_IMAGE_ANYCOLOR);
-        if (image == null || image.empty()) {
-            PIX pix = pixReadMem(bytes, bytes.length);
-            if (pix == null) {
-                throw new IOException("Could not decode image from input stream");
-            }
-            image = convert(pix);
-            pixDestroy(pix);
-        }
+        Mat image = decode(bytes);
         INDArray a = asMatrix(image);
         Image i = new Image(a, image.channels(), image.rows(), image.cols());
 
@@ -400,6 +385,36 @@ public class NativeImageLoader extends BaseImageLoader {
 
     public void asMatrixView(InputStream is, INDArray view) throws IOException {
         byte[] bytes = IOUtils.toByteArray(is);
+        Mat image = decode(bytes);
+        if (image == null)
+            throw new RuntimeException();
+        asMatrixView(image, view);
+        image.deallocate();
+    }
+
+    /**
+     * Decode the given image file, without applying any transform, scaling or channel conversion.
+     * Unlike the other methods of this class, this method is safe to call from multiple threads concurrently.
+     * The returned Mat should be deallocated once it is no longer required.
+     *
+     * @param f the image file to decode
+     * @return the decoded image
+     * @throws IOException if the file cannot be read or decoded
+     */
+    public Mat decode(File f) throws IOException {
+        try (BufferedInputStream bis = new BufferedInputStream(new FileInputStream(f))) {
+            return decode(IOUtils.toByteArray(bis));
+        }
+    }
+
+    /**
+     * Decode the given encoded image (the content of an image file), as per {@link #decode(File)}
+     *
+     * @param bytes the encoded image
+     * @return the decoded image
+     * @throws IOException if the image cannot be decoded
+     */
+    public Mat decode(byte[] bytes) throws IOException {
         Mat image = imdecode(new Mat(bytes), CV_LOAD_IMAGE_ANYDEPTH | CV_LOAD_IMAGE_ANYCOLOR);
         if (image == null || image.empty()) {
             PIX pix = pixReadMem(bytes, bytes.length);
@@ -409,10 +424,7 @@ public class NativeImageLoader extends BaseImageLoader {
             image = convert(pix);
             pixDestroy(pix);
         }
-        if (image == null)
-            throw new RuntimeException();
-        asMatrixView(image, view);
-        image.deallocate();
+        return image;
     }
 
     public void asMatrixView(File f, INDArray view) throws IOException {
@@ -436,47 +448,83 @@ public class NativeImageLoader extends BaseImageLoader {
     }
 
     protected INDArray transformImage(Mat image, INDArray ret) throws IOException {
+        if (imageTransform instanceof FusedImageTransform) {
+            return transformImageFused((FusedImageTransform) imageTransform, image, ret);
+        }
         if (imageTransform != null && converter != null) {
             ImageWritable writable = new ImageWritable(converter.convert(image));
             writable = imageTransform.transform(writable);
             image = converter.convert(writable.getFrame());
         }
+        Mat converted = convertAndScale(image);
+
+        if (ret == null) {
+            int rows = converted.rows();
+            int cols = converted.cols();
+            int channels = converted.channels();
+            ret = Nd4j.create(channels, rows, cols);
+        }
+        fillNDArray(converted, ret);
+
+        converted.data(); // dummy call to make sure it does not get deallocated prematurely
+        if (converted != image) {
+            converted.deallocate();
+        }
+        return ret;
+    }
+
+    /**
+     * Transform the image with a single warp: the transforms, center cropping (if enabled) and scaling to the
+     * expected height and width are composed into one affine transformation. The image is converted in scratch Mats
+     * owned by the transform, and written directly into the output array.
+     */
+    protected INDArray transformImageFused(FusedImageTransform transform, Mat image, INDArray ret)
+                    throws IOException {
+        int[] size = {image.rows(), image.cols()};
+        double[] matrix = new double[6];
+        transform.compose(size, matrix);
+        if (centerCropIfNeeded) {
+            //Same crop as centerCropIfNeeded()
+            int diff = Math.abs(size[1] - size[0]) / 2;
+            if (size[1] > size[0]) {
+                size[1] -= diff;
+                FusedImageTransform.concatenate(matrix, new double[] {1, 0, -diff, 0, 1, 0});
+            } else if (size[0] > size[1]) {
+                size[0] -= diff;
+                FusedImageTransform.concatenate(matrix, new double[] {1, 0, 0, 0, 1, -diff});
+            }
+        }
+        if (height > 0 && width > 0 && (size[0] != height || size[1] != width)) {
+            double[] scaling = new double[6];
+            FusedImageTransform.scaling(scaling, size[0], size[1], height, width);
+            FusedImageTransform.concatenate(matrix, scaling);
+            size[0] = height;
+            size[1] = width;
+        }
+
+        Mat converted = transform.apply(image, matrix, size[0], size[1], channels);
+        if (ret == null) {
+            ret = Nd4j.create(converted.channels(), converted.rows(), converted.cols());
+        }
+        fillNDArray(converted, ret);
+        return ret;
+    }
+
+    /**
+     * Convert the image to the expected number of channels, then center crop (if enabled) and scale it to the
+     * expected height and width. These are the steps applied by the asMatrix methods after the image transform, if any.
+     * This method does not modify the input image, and is safe to call from multiple threads concurrently.
+     *
+     * @param image the image to convert
+     * @return the converted image: either the input image itself (if no conversion was required) or a new image,
+     *         that should be deallocated once no longer required
+     * @throws IOException if the image cannot be converted to the expected number of channels
+     */
+    public Mat convertAndScale(Mat image) throws IOException {
         Mat image2 = null, image3 = null, image4 = null;
 
         if (channels > 0 && image.channels() != channels) {
-            int code = -1;
-            switch (image.channels()) {
-                case 1:
-                    switch (channels) {
-                        case 3:
-                            code = CV_GRAY2BGR;
-                            break;
-                        case 4:
-                            code = CV_GRAY2RGBA;
-                            break;
-                    }
-                    break;
-                case 3:
-                    switch (channels) {
-                        case 1:
-                            code = CV_BGR2GRAY;
-                            break;
-                        case 4:
-                            code = CV_BGR2RGBA;
-                            break;
-                    }
-                    break;
-                case 4:
-                    switch (channels) {
-                        case 1:
-                            code = CV_RGBA2GRAY;
-                            break;
-                        case 3:
-                            code = CV_RGBA2BGR;
-                            break;
-                    }
-                    break;
-            }
+            int code = getChannelConversionCode(image.channels(), channels);
             if (code < 0) {
                 throw new IOException("Cannot convert from " + image.channels() + " to " + channels + " channels.");
             }
@@ -499,25 +547,48 @@ public class NativeImageLoader extends BaseImageLoader {
             image4 = null;
         }
 
-        if (ret == null) {
-            int rows = image.rows();
-            int cols = image.cols();
-            int channels = image.channels();
-            ret = Nd4j.create(channels, rows, cols);
-        }
-        fillNDArray(image, ret);
-
-        image.data(); // dummy call to make sure it does not get deallocated prematurely
-        if (image2 != null) {
+        if (image2 != null && image2 != image) {
             image2.deallocate();
         }
-        if (image3 != null) {
+        if (image3 != null && image3 != image) {
             image3.deallocate();
         }
-        if (image4 != null) {
-            image4.deallocate();
+        return image;
+    }
+
+    /**
+     * @param fromChannels number of channels of the input image
+     * @param toChannels   number of channels of the output image
+     * @return the code to use with cvtColor() for the conversion, or -1 if the conversion is not supported
+     */
+    public static int getChannelConversionCode(int fromChannels, int toChannels) {
+        switch (fromChannels) {
+            case 1:
+                switch (toChannels) {
+                    case 3:
+                        return CV_GRAY2BGR;
+                    case 4:
+                        return CV_GRAY2RGBA;
+                }
+                break;
+            case 3:
+                switch (toChannels) {
+                    case 1:
+                        return CV_BGR2GRAY;
+                    case 4:
+                        return CV_BGR2RGBA;
+                }
+                break;
+            case 4:
+                switch (toChannels) {
+                    case 1:
+                        return CV_RGBA2GRAY;
+                    case 3:
+                        return CV_RGBA2BGR;
+                }
+                break;
         }
-        return ret;
+        return -1;
     }
 
     // TODO build flexibility on where to crop the image
@@ -561,15 +632,7 @@ public class NativeImageLoader extends BaseImageLoader {
     public ImageWritable asWritable(File f) throws IOException {
         try (BufferedInputStream bis = new BufferedInputStream(new FileInputStream(f))) {
             byte[] bytes = IOUtils.toByteArray(bis);
-            Mat image = imdecode(new Mat(bytes), CV_LOAD_IMAGE_ANYDEPTH | CV_LOAD_IMAGE_ANYCOLOR);
-            if (image == null || image.empty()) {
-                PIX pix = pixReadMem(bytes, bytes.length);
-                if (pix == null) {
-                    throw new IOException("Could not decode image from input stream");
-                }
-                image = convert(pix);
-                pixDestroy(pix);
-            }
+            Mat image = decode(bytes);
 
             ImageWritable writable = new ImageWritable(converter.convert(image));
             return writable;
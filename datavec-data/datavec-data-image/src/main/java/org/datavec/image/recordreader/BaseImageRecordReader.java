@@ -30,6 +30,7 @@ import org.datavec.api.util.ndarray.RecordConverter;
 import org.datavec.api.writable.IntWritable;
 import org.datavec.api.writable.NDArrayWritable;
 import org.datavec.api.writable.Writable;
+import org.datavec.image.cache.ImageCache;
 import org.datavec.image.loader.BaseImageLoader;
 import org.datavec.image.loader.ImageLoader;
 import org.datavec.image.loader.NativeImageLoader;
@@ -41,6 +42,10 @@ import org.nd4j.linalg.factory.Nd4j;
 import java.io.*;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.bytedeco.javacpp.opencv_core.*;
 
 /**
  * Base class for the image record reader
@@ -65,12 +70,16 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
     protected Map<String, String> fileNameMap = new LinkedHashMap<>();
     protected String pattern; // Pattern to split and segment file name, pass in regex
     protected int patternPosition = 0;
+    protected int decodeThreads = 1;
+    protected transient ExecutorService decodeExecutor;
+    protected transient ImageCache imageCache;
 
     public final static String HEIGHT = NAME_SPACE + ".height";
     public final static String WIDTH = NAME_SPACE + ".width";
     public final static String CHANNELS = NAME_SPACE + ".channels";
     public final static String CROP_IMAGE = NAME_SPACE + ".cropimage";
     public final static String IMAGE_LOADER = NAME_SPACE + ".imageloader";
+    public final static String DECODE_THREADS = NAME_SPACE + ".decodethreads";
 
     public BaseImageRecordReader() {}
 
@@ -142,6 +151,7 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
         this.width = conf.getInt(WIDTH, width);
         this.channels = conf.getInt(CHANNELS, channels);
         this.cropImage = conf.getBoolean(CROP_IMAGE, cropImage);
+        setDecodeThreads(conf.getInt(DECODE_THREADS, decodeThreads));
         if ("imageio".equals(conf.get(IMAGE_LOADER))) {
             this.imageLoader = new ImageLoader(height, width, channels, cropImage);
         } else {
@@ -193,7 +203,15 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
                 return next();
             try {
                 invokeListeners(image);
-                INDArray row = imageLoader.asMatrix(image);
+                INDArray row;
+                if (imageCache != null && imageLoader instanceof NativeImageLoader) {
+                    NativeImageLoader loader = (NativeImageLoader) imageLoader;
+                    Mat mat = decode(loader, image);
+                    row = loader.asMatrix(mat);
+                    mat.deallocate();
+                } else {
+                    row = imageLoader.asMatrix(image);
+                }
                 Nd4j.getAffinityManager().ensureLocation(row, AffinityManager.Location.DEVICE);
                 ret = RecordConverter.toRecord(row);
                 if (appendLabel || writeLabel){
@@ -262,17 +280,14 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
             cnt++;
         }
 
-        INDArray features = Nd4j.createUninitialized(new int[] {cnt, channels, height, width}, 'c');
+        final INDArray features = Nd4j.createUninitialized(new int[] {cnt, channels, height, width}, 'c');
         Nd4j.getAffinityManager().tagLocation(features, AffinityManager.Location.HOST);
-        for (int i = 0; i < cnt; i++) {
-            try {
-                ((NativeImageLoader) imageLoader).asMatrixView(currBatch.get(i),
-                                features.tensorAlongDimension(i, 1, 2, 3));
-            } catch (Exception e) {
-                System.out.println("Image file failed during load: " + currBatch.get(i).getAbsolutePath());
-                throw new RuntimeException(e);
+        loadImages(currBatch, new ImageTask() {
+            @Override
+            public void apply(int index, Mat image) throws IOException {
+                ((NativeImageLoader) imageLoader).asMatrixView(image, features.tensorAlongDimension(index, 1, 2, 3));
             }
-        }
+        });
         Nd4j.getAffinityManager().ensureLocation(features, AffinityManager.Location.DEVICE);
 
 
@@ -308,9 +323,265 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
         return ret;
     }
 
-    @Override
-    public void close() throws IOException {
+    /**
+     * Task applied to each decoded image of a minibatch: see {@link #loadImages(List, ImageTask)}
+     */
+    protected interface ImageTask {
+        /**
+         * @param index Index of the image in the minibatch
+         * @param image The decoded image, before any transform or scaling. Deallocated once this method returns
+         */
+        void apply(int index, Mat image) throws IOException;
+    }
+
+    /**
+     * Source of the images of a minibatch: see {@link #loadImages(int, ImageSource, ImageTask)}
+     */
+    protected interface ImageSource {
+        /**
+         * @param index Index of the image in the minibatch
+         * @return The decoded image. Deallocated once the {@link ImageTask} has been applied
+         */
+        Mat decode(int index) throws IOException;
+
+        /**
+         * @param index Index of the image in the minibatch
+         * @return Path of the image, for error messages
+         */
+        String getPath(int index);
+    }
+
+    /**
+     * Decode each of the given image files with the {@link NativeImageLoader}, and apply the task to each decoded
+     * image. If the number of decode threads is greater than 1 (see {@link #setDecodeThreads(int)}), the images
+     * are decoded in parallel, and the task is also applied in parallel when no {@link ImageTransform} is set.
+     * Image transforms are stateful (random number generator, and the parameters used by
+     * {@link ImageTransform#query(float...)}), so when one is set, the task is applied to the images one at a time,
+     * in minibatch order: the output is then the same as with a single thread, for a given transform seed.
+     *
+     * @param files Image files to load
+     * @param task  Task to apply to each decoded image
+     */
+    protected void loadImages(final List<File> files, final ImageTask task) {
+        final NativeImageLoader loader = (NativeImageLoader) imageLoader;
+        loadImages(files.size(), new ImageSource() {
+            @Override
+            public Mat decode(int index) throws IOException {
+                return BaseImageRecordReader.this.decode(loader, files.get(index));
+            }
+
+            @Override
+            public String getPath(int index) {
+                return files.get(index).getAbsolutePath();
+            }
+        }, task);
+    }
+
+    /**
+     * Decode each image of the source, and apply the task to each decoded image: as per
+     * {@link #loadImages(List, ImageTask)}, but for images not (necessarily) stored in their own files
+     *
+     * @param count  Number of images to load
+     * @param source Source of the images
+     * @param task   Task to apply to each decoded image
+     */
+    protected void loadImages(final int count, final ImageSource source, final ImageTask task) {
+        if (decodeThreads <= 1 || count <= 1) {
+            for (int i = 0; i < count; i++) {
+                Mat image = null;
+                try {
+                    image = source.decode(i);
+                    task.apply(i, image);
+                } catch (Exception e) {
+                    System.out.println("Image file failed during load: " + source.getPath(i));
+                    throw new RuntimeException(e);
+                } finally {
+                    if (image != null)
+                        image.deallocate();
+                }
+            }
+            return;
+        }
+
+        final boolean ordered = imageTransform != null;
+        final int[] turn = new int[1]; //Index of the next image to apply the task to, when ordered
+        List<Future<Void>> futures = new ArrayList<>(count);
+        ExecutorService executor = getDecodeExecutor();
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    Mat image = null;
+                    try {
+                        image = source.decode(index);
+                        if (ordered)
+                            awaitTurn(turn, index);
+                        task.apply(index, image);
+                    } finally {
+                        if (ordered) {
+                            //Always pass the turn on (even on failure), otherwise later images would wait forever
+                            awaitTurn(turn, index);
+                            synchronized (turn) {
+                                turn[0]++;
+                                turn.notifyAll();
+                            }
+                        }
+                        if (image != null)
+                            image.deallocate();
+                    }
+                    return null;
+                }
+            }));
+        }
+
+        RuntimeException exception = null;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (ExecutionException e) {
+                if (exception == null) {
+                    System.out.println("Image file failed during load: " + source.getPath(i));
+                    exception = new RuntimeException(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        if (exception != null)
+            throw exception;
+    }
 
+    /**
+     * Decode the given image file. If an {@link ImageCache} is set, the image is first looked up in the cache: cached
+     * images are stored (and returned) already converted to the output number of channels and scaled to the output
+     * height and width. On a cache miss, the image is decoded, converted, scaled and added to the cache.
+     *
+     * @param loader Loader to use to decode the image
+     * @param file   Image file
+     * @return The decoded image. Should be deallocated once no longer required
+     */
+    protected Mat decode(NativeImageLoader loader, File file) throws IOException {
+        ImageCache cache = imageCache;
+        if (cache == null)
+            return loader.decode(file);
+
+        if (height <= 0 || width <= 0 || channels <= 0 || cache.getRecordSize() != height * width * channels) {
+            throw new IllegalStateException("Image cache record size (" + cache.getRecordSize()
+                            + ") does not match the output image size: height=" + height + ", width=" + width
+                            + ", channels=" + channels);
+        }
+        String key = file.getAbsolutePath() + "|" + file.length() + "|" + file.lastModified();
+        byte[] bytes = new byte[cache.getRecordSize()];
+        if (cache.get(key, bytes)) {
+            Mat image = new Mat(height, width, CV_8UC(channels));
+            image.data().put(bytes);
+            return image;
+        }
+
+        Mat decoded = loader.decode(file);
+        Mat image = loader.convertAndScale(decoded);
+        if (image != decoded)
+            decoded.deallocate();
+        if (image.depth() == CV_8U && image.rows() == height && image.cols() == width
+                        && image.channels() == channels) {
+            //Images with other depths (16 bit, etc) are not cached
+            if (!image.isContinuous()) {
+                Mat continuous = image.clone();
+                image.deallocate();
+                image = continuous;
+            }
+            image.data().get(bytes);
+            cache.put(key, bytes);
+        }
+        return image;
+    }
+
+    private static void awaitTurn(int[] turn, int index) {
+        boolean interrupted = false;
+        synchronized (turn) {
+            while (turn[0] < index) {
+                try {
+                    turn.wait();
+                } catch (InterruptedException e) {
+                    //Earlier images always pass the turn on, so keep waiting to avoid blocking the later images
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    protected synchronized ExecutorService getDecodeExecutor() {
+        if (decodeExecutor == null) {
+            decodeExecutor = Executors.newFixedThreadPool(decodeThreads, new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "ImageRecordReader-decode-" + count.getAndIncrement());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        return decodeExecutor;
+    }
+
+    /**
+     * Set the number of threads used to decode (and, when no {@link ImageTransform} is set, scale) the images of a
+     * minibatch in {@link #next(int)}. Defaults to 1: images are loaded on the calling thread.
+     * Can also be set via the {@link #DECODE_THREADS} configuration key.
+     *
+     * @param decodeThreads Number of threads to use
+     */
+    public synchronized void setDecodeThreads(int decodeThreads) {
+        if (decodeThreads <= 0)
+            throw new IllegalArgumentException("Number of decode threads must be positive, got " + decodeThreads);
+        if (decodeExecutor != null && decodeThreads != this.decodeThreads) {
+            decodeExecutor.shutdown();
+            decodeExecutor = null;
+        }
+        this.decodeThreads = decodeThreads;
+    }
+
+    /**
+     * @return Number of threads used to decode the images of a minibatch: see {@link #setDecodeThreads(int)}
+     */
+    public int getDecodeThreads() {
+        return decodeThreads;
+    }
+
+    /**
+     * Set a cache for the decoded images, to avoid reading and decoding the same files every epoch.
+     * Images are cached after conversion to the output number of channels and scaling to the output height and width,
+     * but before the {@link ImageTransform} (if any): randomized transforms are still applied every epoch.
+     * Note that when a cache is used, the image transform is applied to the scaled image rather than to the
+     * full size image.
+     * <p>
+     * The record size of the cache must be height * width * channels. The cache is not closed by this record reader.
+     *
+     * @param imageCache Cache to use, or null to disable caching
+     */
+    public void setImageCache(ImageCache imageCache) {
+        this.imageCache = imageCache;
+    }
+
+    /**
+     * @return The image cache, or null if images are not cached: see {@link #setImageCache(ImageCache)}
+     */
+    public ImageCache getImageCache() {
+        return imageCache;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (decodeExecutor != null) {
+            decodeExecutor.shutdown();
+            decodeExecutor = null;
+        }
     }
 
     @Override
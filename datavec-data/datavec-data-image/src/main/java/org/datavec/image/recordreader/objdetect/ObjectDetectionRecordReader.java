@@ -21,6 +21,7 @@ import org.datavec.api.split.InputSplit;
 import org.datavec.api.util.files.FileFromPathIterator;
 import org.datavec.api.writable.NDArrayWritable;
 import org.datavec.api.writable.Writable;
+import org.datavec.image.cache.ImageCache;
 import org.datavec.image.data.Image;
 import org.datavec.image.loader.NativeImageLoader;
 import org.datavec.image.recordreader.BaseImageRecordReader;
@@ -41,6 +42,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.*;
 
+import static org.bytedeco.javacpp.opencv_core.Mat;
 import static org.nd4j.linalg.indexing.NDArrayIndex.all;
 import static org.nd4j.linalg.indexing.NDArrayIndex.point;
 
@@ -105,6 +107,15 @@ public class ObjectDetectionRecordReader extends BaseImageRecordReader {
         return next(1);
     }
 
+    /**
+     * Not supported: labels are computed from the original image size, which is not available for cached images
+     */
+    @Override
+    public void setImageCache(ImageCache imageCache) {
+        if (imageCache != null)
+            throw new UnsupportedOperationException("Image caching is not supported for object detection");
+    }
+
     @Override
     public void initialize(InputSplit split) throws IOException {
         if (imageLoader == null) {
@@ -141,7 +152,7 @@ public class ObjectDetectionRecordReader extends BaseImageRecordReader {
     @Override
     public List<Writable> next(int num) {
         List<File> files = new ArrayList<>(num);
-        List<List<ImageObject>> objects = new ArrayList<>(num);
+        final List<List<ImageObject>> objects = new ArrayList<>(num);
 
         for (int i = 0; i < num && hasNext(); i++) {
             File f = iter.next();
@@ -155,35 +166,78 @@ public class ObjectDetectionRecordReader extends BaseImageRecordReader {
 
         int nClasses = labels.size();
 
-        INDArray outImg = Nd4j.create(files.size(), channels, height, width);
-        INDArray outLabel = Nd4j.create(files.size(), 4 + nClasses, gridH, gridW);
+        final INDArray outImg = Nd4j.create(files.size(), channels, height, width);
+        final INDArray outLabel = Nd4j.create(files.size(), 4 + nClasses, gridH, gridW);
 
-        int exampleNum = 0;
-        for (int i = 0; i < files.size(); i++) {
-            File imageFile = files.get(i);
-            this.currentFile = imageFile;
-            try {
+        if (imageLoader instanceof NativeImageLoader) {
+            //Decode (and possibly transform) the images of the minibatch in parallel, directly into outImg
+            for (File imageFile : files) {
                 this.invokeListeners(imageFile);
-                Image image = this.imageLoader.asImageMatrix(imageFile);
-                this.currentImage = image;
-                Nd4j.getAffinityManager().ensureLocation(image.getImage(), AffinityManager.Location.DEVICE);
-
-                outImg.put(new INDArrayIndex[]{point(exampleNum), all(), all(), all()}, image.getImage());
-
-                List<ImageObject> objectsThisImg = objects.get(exampleNum);
-
-                label(image, objectsThisImg, outLabel, exampleNum);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
             }
+            final Image[] images = new Image[files.size()];
+            loadImages(files, new ImageTask() {
+                @Override
+                public void apply(int index, Mat image) throws IOException {
+                    INDArray view = outImg.tensorAlongDimension(index, 1, 2, 3);
+                    Image img = new Image(view, image.channels(), image.rows(), image.cols());
+                    ((NativeImageLoader) imageLoader).asMatrixView(image, view);
+                    label(img, objects.get(index), outLabel, index);
+                    images[index] = img;
+                }
+            });
+            Nd4j.getAffinityManager().ensureLocation(outImg, AffinityManager.Location.DEVICE);
+            if (images.length > 0) {
+                this.currentFile = files.get(files.size() - 1);
+                this.currentImage = images[images.length - 1];
+            }
+        } else {
+            int exampleNum = 0;
+            for (int i = 0; i < files.size(); i++) {
+                File imageFile = files.get(i);
+                this.currentFile = imageFile;
+                try {
+                    this.invokeListeners(imageFile);
+                    Image image = this.imageLoader.asImageMatrix(imageFile);
+                    this.currentImage = image;
+                    Nd4j.getAffinityManager().ensureLocation(image.getImage(), AffinityManager.Location.DEVICE);
+
+                    outImg.put(new INDArrayIndex[]{point(exampleNum), all(), all(), all()}, image.getImage());
+
+                    List<ImageObject> objectsThisImg = objects.get(exampleNum);
+
+                    label(image, objectsThisImg, outLabel, exampleNum);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
 
-            exampleNum++;
+                exampleNum++;
+            }
         }
 
         return Arrays.<Writable>asList(new NDArrayWritable(outImg), new NDArrayWritable(outLabel));
     }
 
     private void label(Image image, List<ImageObject> objectsThisImg, INDArray outLabel, int exampleNum) {
+        label(image, objectsThisImg, outLabel, exampleNum, labels, imageTransform, height, width, gridH, gridW);
+    }
+
+    /**
+     * Put the labels for the objects of an image into the label array, in the format described in the class
+     * documentation
+     *
+     * @param image          Image (used for its original height and width)
+     * @param objectsThisImg Objects in the image, in the coordinates of the original image
+     * @param outLabel       Label array to put the labels into: shape [minibatch, 4+C, gridH, gridW]
+     * @param exampleNum     Index of the image in the minibatch
+     * @param labels         Names of the object classes
+     * @param imageTransform Transform applied to the image (may be null)
+     * @param height         Height of the output images
+     * @param width          Width of the output images
+     * @param gridH          Grid size along the height dimension
+     * @param gridW          Grid size along the width dimension
+     */
+    public static void label(Image image, List<ImageObject> objectsThisImg, INDArray outLabel, int exampleNum,
+                    List<String> labels, ImageTransform imageTransform, int height, int width, int gridH, int gridW) {
         double oW = image.getOrigW();
         double oH = image.getOrigH();
 
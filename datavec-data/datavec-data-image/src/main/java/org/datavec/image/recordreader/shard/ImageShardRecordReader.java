@@ -0,0 +1,494 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.image.recordreader.shard;
+
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.metadata.RecordMetaDataIndex;
+import org.datavec.api.split.InputSplit;
+import org.datavec.api.util.ndarray.RecordConverter;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.NDArrayWritable;
+import org.datavec.api.writable.Writable;
+import org.datavec.api.writable.WritableFactory;
+import org.datavec.image.cache.ImageCache;
+import org.datavec.image.data.Image;
+import org.datavec.image.loader.NativeImageLoader;
+import org.datavec.image.recordreader.BaseImageRecordReader;
+import org.datavec.image.recordreader.objdetect.ImageObject;
+import org.datavec.image.recordreader.objdetect.ObjectDetectionRecordReader;
+import org.datavec.image.transform.ImageTransform;
+import org.nd4j.linalg.api.concurrency.AffinityManager;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.*;
+import java.net.URI;
+import java.util.*;
+
+import static org.bytedeco.javacpp.opencv_core.Mat;
+import static org.datavec.image.recordreader.shard.ImageShardWriter.*;
+
+/**
+ * A record reader for image shards written by {@link ImageShardWriter}. Each shard is read sequentially, which is
+ * much faster than reading the same images from individual files.
+ * <p>
+ * The input split should contain the shard files (other files in the split are ignored): for example,
+ * {@code new FileSplit(shardDirectory)}. Shards are read in name order, i.e., the order in which they were written.
+ * Images are scaled and transformed as per {@link BaseImageRecordReader}.
+ * The output format depends on the labels in the shards:
+ * <ul>
+ * <li>Labels from a {@link org.datavec.api.io.labels.PathLabelGenerator}: as per
+ * {@link org.datavec.image.recordreader.ImageRecordReader}</li>
+ * <li>Objects from an {@link org.datavec.image.recordreader.objdetect.ImageObjectLabelProvider}: as per
+ * {@link ObjectDetectionRecordReader}. The grid size must then be provided in the constructor</li>
+ * </ul>
+ * Records can optionally be shuffled (see {@link #setShuffle(int, long)}): the order of the shards is shuffled
+ * every epoch, and the records are shuffled within an in-memory buffer, while still reading each shard sequentially.
+ */
+public class ImageShardRecordReader extends BaseImageRecordReader {
+
+    private final int gridH;
+    private final int gridW;
+    private int shuffleBufferSize = 0;
+    private Random rng;
+
+    private List<File> shards;
+    private int[] shardSizes;
+    private List<Integer> shardOrder;
+    private int nextShard;
+    private int currentShard;
+    private int shardRecord;
+    private DataInputStream shardIn;
+    private final List<ShardRecord> buffer = new ArrayList<>();
+    private ShardRecord peeked;
+    private ShardRecord current;
+
+    /** Loads images with given height, width, and channels, with the labels stored in the shards (if any) */
+    public ImageShardRecordReader(int height, int width, int channels) {
+        this(height, width, channels, null);
+    }
+
+    /** Loads images with given height, width, and channels, with the labels stored in the shards (if any) */
+    public ImageShardRecordReader(int height, int width, int channels, ImageTransform imageTransform) {
+        this(height, width, channels, 0, 0, imageTransform);
+    }
+
+    /**
+     * Loads images with given height, width, and channels, from shards containing objects for object detection.
+     * When imageTransform != null, object is removed if new center is outside of transformed image bounds.
+     *
+     * @param gridH          Grid/quantization size (along height dimension) - Y axis
+     * @param gridW          Grid/quantization size (along width dimension) - X axis
+     * @param imageTransform ImageTransform - used to transform image and coordinates
+     */
+    public ImageShardRecordReader(int height, int width, int channels, int gridH, int gridW,
+                    ImageTransform imageTransform) {
+        super(height, width, channels, null, imageTransform);
+        this.gridH = gridH;
+        this.gridW = gridW;
+    }
+
+    /**
+     * Shuffle the records: the order of the shards is shuffled at the start of each epoch, and records are returned
+     * in random order from a buffer of the given size. Larger buffers give more random orders, but use more memory:
+     * the buffer holds the encoded images.
+     *
+     * @param shuffleBufferSize Number of records in the shuffle buffer. 0 or 1: only shuffle the order of the shards
+     * @param seed              Seed for the random number generator
+     */
+    public void setShuffle(int shuffleBufferSize, long seed) {
+        if (shuffleBufferSize < 0)
+            throw new IllegalArgumentException("Shuffle buffer size must be >= 0, got " + shuffleBufferSize);
+        this.shuffleBufferSize = shuffleBufferSize;
+        this.rng = new Random(seed);
+    }
+
+    @Override
+    public void initialize(InputSplit split) throws IOException {
+        if (imageLoader == null) {
+            imageLoader = new NativeImageLoader(height, width, channels, imageTransform);
+        }
+        if (!(imageLoader instanceof NativeImageLoader)) {
+            throw new UnsupportedOperationException("Image shards can only be read with a NativeImageLoader");
+        }
+        inputSplit = split;
+        shards = new ArrayList<>();
+        URI[] locations = split.locations();
+        if (locations != null) {
+            for (URI location : locations) {
+                File f = new File(location);
+                if (!f.isDirectory() && f.getName().endsWith("." + SHARD_EXTENSION))
+                    shards.add(f);
+            }
+        }
+        if (shards.isEmpty())
+            throw new IllegalArgumentException("No shard files found in the split.");
+        //Without shuffling, shards are read in the order they were written
+        Collections.sort(shards);
+
+        //Labels are sorted, for consistent label assignment irrespective of the shard order
+        Set<String> labelSet = new TreeSet<>();
+        shardSizes = new int[shards.size()];
+        for (int i = 0; i < shards.size(); i++) {
+            try (RandomAccessFile raf = new RandomAccessFile(shards.get(i), "r")) {
+                raf.seek(readIndexOffset(raf, shards.get(i)));
+                shardSizes[i] = raf.readInt();
+                raf.seek(raf.getFilePointer() + 8L * shardSizes[i]);
+                int numLabels = raf.readInt();
+                for (int j = 0; j < numLabels; j++) {
+                    labelSet.add(raf.readUTF());
+                }
+            }
+        }
+        if (!writeLabel) {
+            labels = new ArrayList<>(labelSet);
+        }
+        startEpoch();
+    }
+
+    /**
+     * Not supported: images in shards are not stored in their own files
+     */
+    @Override
+    public void setImageCache(ImageCache imageCache) {
+        if (imageCache != null)
+            throw new UnsupportedOperationException("Image caching is not supported for image shards");
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (shards == null)
+            throw new IllegalStateException("Record reader has not been initialized");
+        if (peeked == null) {
+            try {
+                peeked = nextShardRecord();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return peeked != null;
+    }
+
+    private ShardRecord take() {
+        if (!hasNext())
+            throw new NoSuchElementException("No more elements");
+        ShardRecord r = peeked;
+        peeked = null;
+        current = r;
+        currentFile = new File(r.path);
+        invokeListeners(r.path);
+        return r;
+    }
+
+    @Override
+    public List<Writable> next() {
+        try {
+            return toRecord(take());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public boolean batchesSupported() {
+        return true;
+    }
+
+    @Override
+    public List<Writable> next(int num) {
+        final List<ShardRecord> batch = new ArrayList<>(num);
+        while (batch.size() < num && hasNext()) {
+            batch.add(take());
+        }
+        if (batch.isEmpty())
+            throw new NoSuchElementException("No more elements");
+        int n = batch.size();
+        byte labelType = batch.get(0).labelType;
+        for (ShardRecord r : batch) {
+            if (r.labelType != labelType)
+                throw new IllegalStateException("Cannot combine images with different label types in a minibatch");
+        }
+        if (labelType == LABEL_OBJECTS)
+            checkGrid();
+
+        final NativeImageLoader loader = (NativeImageLoader) imageLoader;
+        final INDArray features = Nd4j.createUninitialized(new int[] {n, channels, height, width}, 'c');
+        Nd4j.getAffinityManager().tagLocation(features, AffinityManager.Location.HOST);
+        final INDArray outLabel = labelType == LABEL_OBJECTS ? Nd4j.create(n, 4 + labels.size(), gridH, gridW) : null;
+        loadImages(n, new ImageSource() {
+            @Override
+            public Mat decode(int index) throws IOException {
+                return loader.decode(batch.get(index).image);
+            }
+
+            @Override
+            public String getPath(int index) {
+                return batch.get(index).path;
+            }
+        }, new ImageTask() {
+            @Override
+            public void apply(int index, Mat image) throws IOException {
+                INDArray view = features.tensorAlongDimension(index, 1, 2, 3);
+                Image img = new Image(view, image.channels(), image.rows(), image.cols());
+                loader.asMatrixView(image, view);
+                if (outLabel != null)
+                    label(img, batch.get(index).objects, outLabel, index);
+            }
+        });
+        Nd4j.getAffinityManager().ensureLocation(features, AffinityManager.Location.DEVICE);
+
+        List<Writable> ret = RecordConverter.toRecord(features);
+        if (labelType == LABEL_OBJECTS) {
+            ret.add(new NDArrayWritable(outLabel));
+        } else if (labelType == LABEL_CLASS) {
+            INDArray classes = Nd4j.create(n, labels.size(), 'c');
+            for (int i = 0; i < n; i++) {
+                classes.putScalar(i, labels.indexOf(batch.get(i).label), 1.0f);
+            }
+            ret.add(new NDArrayWritable(classes));
+        } else if (labelType == LABEL_WRITABLE) {
+            INDArray values;
+            if (batch.get(0).writable instanceof NDArrayWritable) {
+                INDArray[] arr = new INDArray[n];
+                for (int i = 0; i < n; i++) {
+                    arr[i] = ((NDArrayWritable) batch.get(i).writable).get();
+                }
+                values = Nd4j.concat(0, arr);
+            } else {
+                values = Nd4j.create(n, 1);
+                for (int i = 0; i < n; i++) {
+                    values.putScalar(i, 0, batch.get(i).writable.toDouble());
+                }
+            }
+            ret.add(new NDArrayWritable(values));
+        }
+        return ret;
+    }
+
+    private List<Writable> toRecord(ShardRecord r) throws IOException {
+        NativeImageLoader loader = (NativeImageLoader) imageLoader;
+        Mat image = loader.decode(r.image);
+        try {
+            if (r.labelType == LABEL_OBJECTS) {
+                checkGrid();
+                INDArray features = Nd4j.create(1, channels, height, width);
+                INDArray outLabel = Nd4j.create(1, 4 + labels.size(), gridH, gridW);
+                INDArray view = features.tensorAlongDimension(0, 1, 2, 3);
+                Image img = new Image(view, image.channels(), image.rows(), image.cols());
+                loader.asMatrixView(image, view);
+                label(img, r.objects, outLabel, 0);
+                return Arrays.<Writable>asList(new NDArrayWritable(features), new NDArrayWritable(outLabel));
+            }
+
+            INDArray row = loader.asMatrix(image);
+            Nd4j.getAffinityManager().ensureLocation(row, AffinityManager.Location.DEVICE);
+            List<Writable> ret = RecordConverter.toRecord(row);
+            if (r.labelType == LABEL_CLASS) {
+                ret.add(new IntWritable(labels.indexOf(r.label)));
+            } else if (r.labelType == LABEL_WRITABLE) {
+                ret.add(r.writable);
+            }
+            return ret;
+        } finally {
+            image.deallocate();
+        }
+    }
+
+    private void label(Image image, List<ImageObject> objects, INDArray outLabel, int exampleNum) {
+        ObjectDetectionRecordReader.label(image, objects, outLabel, exampleNum, labels, imageTransform, height,
+                        width, gridH, gridW);
+    }
+
+    private void checkGrid() {
+        if (gridH <= 0 || gridW <= 0) {
+            throw new IllegalStateException("Shards contain objects for object detection: grid size must be "
+                            + "provided in the constructor");
+        }
+    }
+
+    @Override
+    public Record nextRecord() {
+        List<Writable> list = next();
+        URI uri = shards.get(current.shard).toURI();
+        return new org.datavec.api.records.impl.Record(list,
+                        new RecordMetaDataIndex(current.index, uri, ImageShardRecordReader.class));
+    }
+
+    @Override
+    public List<Record> loadFromMetaData(List<RecordMetaData> recordMetaDatas) throws IOException {
+        List<Record> out = new ArrayList<>();
+        for (RecordMetaData meta : recordMetaDatas) {
+            if (!(meta instanceof RecordMetaDataIndex)) {
+                throw new IllegalArgumentException("Invalid metadata: expected RecordMetaDataIndex, got "
+                                + (meta == null ? null : meta.getClass().getSimpleName()));
+            }
+            File f = new File(meta.getURI());
+            int index = (int) ((RecordMetaDataIndex) meta).getIndex();
+            ShardRecord r;
+            try (RandomAccessFile raf = new RandomAccessFile(f, "r")) {
+                raf.seek(readIndexOffset(raf, f));
+                int numRecords = raf.readInt();
+                if (index < 0 || index >= numRecords)
+                    throw new IllegalArgumentException("Invalid index " + index + " for shard " + f);
+                raf.seek(raf.getFilePointer() + 8L * index);
+                raf.seek(raf.readLong());
+                byte[] bytes = new byte[raf.readInt()];
+                raf.readFully(bytes);
+                r = parse(bytes, -1, index);
+            }
+            out.add(new org.datavec.api.records.impl.Record(toRecord(r), meta));
+        }
+        return out;
+    }
+
+    @Override
+    public void reset() {
+        if (shards == null)
+            throw new UnsupportedOperationException("Cannot reset without first initializing");
+        closeShard();
+        startEpoch();
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        closeShard();
+    }
+
+    private void startEpoch() {
+        shardOrder = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            shardOrder.add(i);
+        }
+        if (rng != null)
+            Collections.shuffle(shardOrder, rng);
+        nextShard = 0;
+        buffer.clear();
+        peeked = null;
+    }
+
+    private ShardRecord nextShardRecord() throws IOException {
+        if (rng == null || shuffleBufferSize <= 1)
+            return readRecord();
+        while (buffer.size() < shuffleBufferSize) {
+            ShardRecord r = readRecord();
+            if (r == null)
+                break;
+            buffer.add(r);
+        }
+        if (buffer.isEmpty())
+            return null;
+        //Swap the selected record with the last one, to remove it in constant time
+        int i = rng.nextInt(buffer.size());
+        ShardRecord r = buffer.get(i);
+        buffer.set(i, buffer.get(buffer.size() - 1));
+        buffer.remove(buffer.size() - 1);
+        return r;
+    }
+
+    private ShardRecord readRecord() throws IOException {
+        while (shardIn == null || shardRecord >= shardSizes[currentShard]) {
+            closeShard();
+            if (nextShard >= shardOrder.size())
+                return null;
+            currentShard = shardOrder.get(nextShard++);
+            shardRecord = 0;
+            File f = shards.get(currentShard);
+            shardIn = new DataInputStream(new BufferedInputStream(new FileInputStream(f), 1 << 20));
+            checkHeader(shardIn.readInt(), shardIn.readInt(), f);
+        }
+        byte[] bytes = new byte[shardIn.readInt()];
+        shardIn.readFully(bytes);
+        return parse(bytes, currentShard, shardRecord++);
+    }
+
+    private void closeShard() {
+        if (shardIn != null) {
+            try {
+                shardIn.close();
+            } catch (IOException e) {
+                //Ignore
+            }
+            shardIn = null;
+        }
+    }
+
+    private static long readIndexOffset(RandomAccessFile raf, File f) throws IOException {
+        if (raf.length() < 24)
+            throw new IOException("Invalid shard file (too short): " + f);
+        checkHeader(raf.readInt(), raf.readInt(), f);
+        raf.seek(raf.length() - 12);
+        long indexOffset = raf.readLong();
+        if (raf.readInt() != MAGIC)
+            throw new IOException("Invalid shard file (incomplete, or not closed after writing): " + f);
+        return indexOffset;
+    }
+
+    private static void checkHeader(int magic, int version, File f) throws IOException {
+        if (magic != MAGIC)
+            throw new IOException("Not a shard file: " + f);
+        if (version != VERSION)
+            throw new IOException("Unsupported shard file version " + version + " (expected " + VERSION + "): " + f);
+    }
+
+    private static ShardRecord parse(byte[] bytes, int shard, int index) throws IOException {
+        DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bytes));
+        ShardRecord r = new ShardRecord();
+        r.shard = shard;
+        r.index = index;
+        r.path = dis.readUTF();
+        r.labelType = dis.readByte();
+        switch (r.labelType) {
+            case LABEL_NONE:
+                break;
+            case LABEL_CLASS:
+                r.label = dis.readUTF();
+                break;
+            case LABEL_WRITABLE:
+                r.writable = WritableFactory.getInstance().readWithType(dis);
+                break;
+            case LABEL_OBJECTS:
+                int numObjects = dis.readInt();
+                r.objects = new ArrayList<>(numObjects);
+                for (int i = 0; i < numObjects; i++) {
+                    int x1 = dis.readInt();
+                    int y1 = dis.readInt();
+                    int x2 = dis.readInt();
+                    int y2 = dis.readInt();
+                    r.objects.add(new ImageObject(x1, y1, x2, y2, dis.readUTF()));
+                }
+                break;
+            default:
+                throw new IOException("Invalid label type in shard record: " + r.labelType);
+        }
+        r.image = new byte[dis.readInt()];
+        dis.readFully(r.image);
+        return r;
+    }
+
+    private static class ShardRecord {
+        private int shard;
+        private int index;
+        private String path;
+        private byte labelType;
+        private String label;
+        private Writable writable;
+        private List<ImageObject> objects;
+        private byte[] image;
+    }
+}
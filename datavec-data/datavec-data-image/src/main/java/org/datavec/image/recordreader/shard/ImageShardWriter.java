@@ -0,0 +1,233 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.image.recordreader.shard;
+
+import org.apache.commons.io.FileUtils;
+import org.datavec.api.io.labels.PathLabelGenerator;
+import org.datavec.api.split.InputSplit;
+import org.datavec.api.writable.WritableFactory;
+import org.datavec.image.recordreader.objdetect.ImageObject;
+import org.datavec.image.recordreader.objdetect.ImageObjectLabelProvider;
+
+import java.io.*;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Packs image files and their labels into a small number of large shard files, to be read sequentially by an
+ * {@link ImageShardRecordReader}. Reading a few large files is much faster than reading millions of small ones,
+ * for which the time is usually dominated by file system metadata operations and random I/O.
+ * <p>
+ * Images are stored in their original encoded format (JPEG, PNG, etc), so shards are about the same size as the
+ * original files. Labels are either provided by a {@link PathLabelGenerator} (classification or regression), or by an
+ * {@link ImageObjectLabelProvider} (object detection). A new shard is started once the current one exceeds the maximum
+ * shard size.
+ * <p>
+ * Shard file format: a header ({@link #MAGIC}, {@link #VERSION}), followed by the records, each prefixed by its length
+ * in bytes. The records are followed by an index (number of records, offset of each record, and names of the label
+ * classes in the shard), then by a footer: the offset of the index, and {@link #MAGIC}.
+ */
+public class ImageShardWriter implements Closeable {
+
+    public static final String SHARD_EXTENSION = "shard";
+    public static final long DEFAULT_MAX_SHARD_BYTES = 256L << 20;
+    public static final int MAGIC = 0x44564953;
+    public static final int VERSION = 1;
+
+    public static final byte LABEL_NONE = 0;
+    public static final byte LABEL_CLASS = 1;
+    public static final byte LABEL_WRITABLE = 2;
+    public static final byte LABEL_OBJECTS = 3;
+
+    private final File directory;
+    private final PathLabelGenerator labelGenerator;
+    private final ImageObjectLabelProvider labelProvider;
+    private final long maxShardBytes;
+
+    private DataOutputStream out;
+    private long shardBytes;
+    private List<Long> offsets = new ArrayList<>();
+    private Set<String> shardLabels = new TreeSet<>();
+    private int numShards;
+    private long numRecords;
+
+    /**
+     * @param directory      Directory to write the shards to
+     * @param labelGenerator Label generator for the images, or null for no labels
+     */
+    public ImageShardWriter(File directory, PathLabelGenerator labelGenerator) {
+        this(directory, labelGenerator, null, DEFAULT_MAX_SHARD_BYTES);
+    }
+
+    /**
+     * @param directory      Directory to write the shards to
+     * @param labelGenerator Label generator for the images, or null for no labels
+     * @param maxShardBytes  Maximum size of each shard, in bytes (except for shards containing a single larger image)
+     */
+    public ImageShardWriter(File directory, PathLabelGenerator labelGenerator, long maxShardBytes) {
+        this(directory, labelGenerator, null, maxShardBytes);
+    }
+
+    /**
+     * @param directory     Directory to write the shards to
+     * @param labelProvider Provider for the objects in each image
+     */
+    public ImageShardWriter(File directory, ImageObjectLabelProvider labelProvider) {
+        this(directory, null, labelProvider, DEFAULT_MAX_SHARD_BYTES);
+    }
+
+    /**
+     * @param directory     Directory to write the shards to
+     * @param labelProvider Provider for the objects in each image
+     * @param maxShardBytes Maximum size of each shard, in bytes (except for shards containing a single larger image)
+     */
+    public ImageShardWriter(File directory, ImageObjectLabelProvider labelProvider, long maxShardBytes) {
+        this(directory, null, labelProvider, maxShardBytes);
+    }
+
+    private ImageShardWriter(File directory, PathLabelGenerator labelGenerator,
+                    ImageObjectLabelProvider labelProvider, long maxShardBytes) {
+        if (maxShardBytes <= 0)
+            throw new IllegalArgumentException("Maximum shard size must be positive, got " + maxShardBytes);
+        this.directory = directory;
+        this.labelGenerator = labelGenerator;
+        this.labelProvider = labelProvider;
+        this.maxShardBytes = maxShardBytes;
+    }
+
+    /**
+     * Write all images in the given split. Directories are skipped
+     *
+     * @param split Split containing the images to write
+     */
+    public void write(InputSplit split) throws IOException {
+        Iterator<URI> iter = split.locationsIterator();
+        while (iter.hasNext()) {
+            File f = new File(iter.next());
+            if (!f.isDirectory())
+                write(f);
+        }
+    }
+
+    /**
+     * Write the given image, with its label(s)
+     *
+     * @param imageFile Image to write
+     */
+    public void write(File imageFile) throws IOException {
+        byte[] image = FileUtils.readFileToByteArray(imageFile);
+        String path = imageFile.getPath();
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(image.length + 256);
+        DataOutputStream dos = new DataOutputStream(baos);
+        dos.writeUTF(path);
+        if (labelProvider != null) {
+            List<ImageObject> objects = labelProvider.getImageObjectsForPath(path);
+            dos.writeByte(LABEL_OBJECTS);
+            dos.writeInt(objects.size());
+            for (ImageObject io : objects) {
+                dos.writeInt(io.getX1());
+                dos.writeInt(io.getY1());
+                dos.writeInt(io.getX2());
+                dos.writeInt(io.getY2());
+                dos.writeUTF(io.getLabel());
+                shardLabels.add(io.getLabel());
+            }
+        } else if (labelGenerator != null && labelGenerator.inferLabelClasses()) {
+            String label = labelGenerator.getLabelForPath(path).toString();
+            dos.writeByte(LABEL_CLASS);
+            dos.writeUTF(label);
+            shardLabels.add(label);
+        } else if (labelGenerator != null) {
+            dos.writeByte(LABEL_WRITABLE);
+            WritableFactory.getInstance().writeWithType(labelGenerator.getLabelForPath(path), dos);
+        } else {
+            dos.writeByte(LABEL_NONE);
+        }
+        dos.writeInt(image.length);
+        dos.write(image);
+        dos.flush();
+
+        if (out != null && shardBytes + baos.size() + 4 > maxShardBytes) {
+            finishShard();
+        }
+        if (out == null) {
+            startShard();
+        }
+        offsets.add(shardBytes);
+        out.writeInt(baos.size());
+        baos.writeTo(out);
+        shardBytes += 4 + baos.size();
+        numRecords++;
+    }
+
+    private void startShard() throws IOException {
+        if (!directory.exists() && !directory.mkdirs())
+            throw new IOException("Could not create directory: " + directory);
+        File f = new File(directory, String.format("shard-%05d.%s", numShards, SHARD_EXTENSION));
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f), 1 << 20));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        shardBytes = 8;
+        numShards++;
+    }
+
+    private void finishShard() throws IOException {
+        long indexOffset = shardBytes;
+        out.writeInt(offsets.size());
+        for (Long l : offsets) {
+            out.writeLong(l);
+        }
+        out.writeInt(shardLabels.size());
+        for (String s : shardLabels) {
+            out.writeUTF(s);
+        }
+        out.writeLong(indexOffset);
+        out.writeInt(MAGIC);
+        out.close();
+        out = null;
+        offsets = new ArrayList<>();
+        shardLabels = new TreeSet<>();
+    }
+
+    /**
+     * @return Number of shards written so far
+     */
+    public int getNumShards() {
+        return numShards;
+    }
+
+    /**
+     * @return Number of images written so far
+     */
+    public long getNumRecords() {
+        return numRecords;
+    }
+
+    /**
+     * Finish writing the current shard. Must be called, otherwise the last shard will not be readable
+     */
+    @Override
+    public void close() throws IOException {
+        if (out != null)
+            finishShard();
+    }
+}
@@ -0,0 +1,39 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.image.transform;
+
+import java.util.Random;
+
+/**
+ * An {@link ImageTransform} that can be expressed as an affine transformation of the pixel coordinates.
+ * A sequence of such transforms can be fused into a single warp: see {@link FusedImageTransform}.
+ *
+ * @see FusedImageTransform
+ */
+public interface AffineImageTransform extends ImageTransform {
+
+    /**
+     * Sample the parameters of the transform for an image of the given size, as {@link #transform(
+     * org.datavec.image.data.ImageWritable, Random)} would, and return them as an affine transformation instead of
+     * transforming the image. {@link #query(float...)} then uses the sampled parameters.
+     *
+     * @param size   height and width of the input image, replaced by the height and width of the output image
+     * @param random object to use (or null for deterministic)
+     * @param matrix 2x3 matrix (row major) mapping the input pixel coordinates to the output pixel coordinates
+     */
+    void affine(int[] size, Random random, double[] matrix);
+}
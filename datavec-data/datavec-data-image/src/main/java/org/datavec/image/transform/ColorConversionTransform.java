@@ -97,4 +97,11 @@ public class ColorConversionTransform extends BaseImageTransform {
     public float[] query(float... coordinates) {
         return coordinates;
     }
+
+    /**
+     * @return the color conversion code
+     */
+    public int getConversionCode() {
+        return conversionCode;
+    }
 }
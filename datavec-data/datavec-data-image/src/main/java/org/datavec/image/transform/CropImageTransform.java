@@ -31,7 +31,7 @@ import static org.bytedeco.javacpp.opencv_core.Rect;
  * @author saudet
  */
 @JsonInclude(JsonInclude.Include.NON_NULL)
-public class CropImageTransform extends BaseImageTransform<Mat> {
+public class CropImageTransform extends BaseImageTransform<Mat> implements AffineImageTransform {
 
     private int cropTop;
     private int cropLeft;
@@ -89,18 +89,29 @@ public class CropImageTransform extends BaseImageTransform<Mat> {
             return null;
         }
         Mat mat = converter.convert(image.getFrame());
+        int[] size = {mat.rows(), mat.cols()};
+        sample(size, random);
+        Mat result = mat.apply(new Rect(x, y, size[1], size[0]));
+
+        return new ImageWritable(converter.convert(result));
+    }
+
+    @Override
+    public void affine(int[] size, Random random, double[] matrix) {
+        sample(size, random);
+        FusedImageTransform.set(matrix, 1, 0, -x, 0, 1, -y);
+    }
+
+    private void sample(int[] size, Random random) {
         int top = random != null ? random.nextInt(cropTop + 1) : cropTop;
         int left = random != null ? random.nextInt(cropLeft + 1) : cropLeft;
         int bottom = random != null ? random.nextInt(cropBottom + 1) : cropBottom;
         int right = random != null ? random.nextInt(cropRight + 1) : cropRight;
 
-        y = Math.min(top, mat.rows() - 1);
-        x = Math.min(left, mat.cols() - 1);
-        int h = Math.max(1, mat.rows() - bottom - y);
-        int w = Math.max(1, mat.cols() - right - x);
-        Mat result = mat.apply(new Rect(x, y, w, h));
-
-        return new ImageWritable(converter.convert(result));
+        y = Math.min(top, size[0] - 1);
+        x = Math.min(left, size[1] - 1);
+        size[0] = Math.max(1, size[0] - bottom - y);
+        size[1] = Math.max(1, size[1] - right - x);
     }
 
     @Override
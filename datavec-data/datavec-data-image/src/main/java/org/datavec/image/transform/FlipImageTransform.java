@@ -30,7 +30,7 @@ import static org.bytedeco.javacpp.opencv_core.flip;
  * @author saudet
  */
 @JsonInclude(JsonInclude.Include.NON_NULL)
-public class FlipImageTransform extends BaseImageTransform<Mat> {
+public class FlipImageTransform extends BaseImageTransform<Mat> implements AffineImageTransform {
 
     /**
      * the deterministic flip mode
@@ -97,6 +97,24 @@ public class FlipImageTransform extends BaseImageTransform<Mat> {
         return new ImageWritable(converter.convert(result));
     }
 
+    @Override
+    public void affine(int[] size, Random random, double[] matrix) {
+        h = size[0];
+        w = size[1];
+        mode = random != null ? random.nextInt(4) - 2 : flipMode;
+
+        double sx = 1, sy = 1;
+        if (mode == 0) {
+            sy = -1;
+        } else if (mode > 0) {
+            sx = -1;
+        } else if (mode == -1) {
+            sx = -1;
+            sy = -1;
+        }
+        FusedImageTransform.set(matrix, sx, 0, sx < 0 ? w - 1 : 0, 0, sy, sy < 0 ? h - 1 : 0);
+    }
+
     @Override
     public float[] query(float... coordinates) {
         float[] transformed = new float[coordinates.length];
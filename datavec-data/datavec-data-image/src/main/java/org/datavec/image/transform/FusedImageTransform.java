@@ -0,0 +1,241 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.image.transform;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.bytedeco.javacpp.indexer.DoubleIndexer;
+import org.bytedeco.javacv.OpenCVFrameConverter;
+import org.datavec.image.data.ImageWritable;
+import org.datavec.image.loader.NativeImageLoader;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.bytedeco.javacpp.opencv_core.*;
+import static org.bytedeco.javacpp.opencv_imgproc.*;
+
+/**
+ * Executes a sequence of transforms as a single operation: the geometric transforms ({@link AffineImageTransform}s:
+ * crop, resize, scale, flip and rotate) are composed into one affine transformation, applied with a single call to
+ * {@link org.bytedeco.javacpp.opencv_imgproc#warpAffine(Mat, Mat, Mat, Size, int, int, Scalar)}, followed by the
+ * {@link ColorConversionTransform}s (if any). Intermediate images are never created.
+ * <p>
+ * When used as the transform of a {@link NativeImageLoader}, the scaling (and center cropping) to the output size is
+ * also fused into the warp, the output is written directly into the INDArray, and the images are stored in scratch
+ * Mats that are reused from one image to the next (one set per thread).
+ * <p>
+ * The output is close to, but not exactly the same as, the output of the equivalent {@link PipelineImageTransform}:
+ * pixels are interpolated once rather than once per transform, color conversions are applied after the geometric
+ * transforms, and a crop followed by a rotation samples pixels from outside the crop window instead of filling them
+ * with the border value.
+ */
+@Accessors(fluent = true)
+public class FusedImageTransform extends BaseImageTransform<Mat> {
+
+    private final ImageTransform[] transforms;
+
+    @Getter
+    @Setter
+    private int interMode = INTER_LINEAR;
+    @Getter
+    @Setter
+    private int borderMode = BORDER_CONSTANT;
+    @Getter
+    @Setter
+    private Scalar borderValue = Scalar.ZERO;
+
+    private transient ThreadLocal<Scratch> scratch;
+
+    /** Calls {@code this(null, transforms)}. */
+    public FusedImageTransform(ImageTransform... transforms) {
+        this(null, transforms);
+    }
+
+    /**
+     * Constructs an instance of the ImageTransform.
+     *
+     * @param random     object to use for all transforms (or null to use the random object of each transform)
+     * @param transforms transforms to fuse: {@link AffineImageTransform}s or {@link ColorConversionTransform}s
+     */
+    public FusedImageTransform(Random random, ImageTransform... transforms) {
+        super(random);
+        for (ImageTransform t : transforms) {
+            if (!(t instanceof AffineImageTransform) && !(t instanceof ColorConversionTransform)) {
+                throw new IllegalArgumentException("Cannot fuse transform of type " + t.getClass().getSimpleName()
+                                + ": only AffineImageTransform and ColorConversionTransform are supported");
+            }
+        }
+        this.transforms = transforms.clone();
+        this.converter = new OpenCVFrameConverter.ToMat();
+    }
+
+    @Override
+    public ImageWritable transform(ImageWritable image, Random random) {
+        if (image == null) {
+            return null;
+        }
+        Mat mat = converter.convert(image.getFrame());
+        int[] size = {mat.rows(), mat.cols()};
+        double[] matrix = new double[6];
+        compose(size, random, matrix);
+        try {
+            Mat result = apply(mat, matrix, size[0], size[1], 0);
+            return new ImageWritable(converter.convert(result.clone()));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Sample the parameters of all the geometric transforms for an image of the given size (using the random
+     * object of this transform, if any), and compose them into a single affine transformation
+     *
+     * @param size   height and width of the input image, replaced by the height and width of the output image
+     * @param matrix 2x3 matrix (row major) mapping the input pixel coordinates to the output pixel coordinates
+     */
+    public void compose(int[] size, double[] matrix) {
+        compose(size, random, matrix);
+    }
+
+    private void compose(int[] size, Random random, double[] matrix) {
+        set(matrix, 1, 0, 0, 0, 1, 0);
+        double[] m = new double[6];
+        for (ImageTransform t : transforms) {
+            if (t instanceof AffineImageTransform) {
+                Random r = random;
+                if (r == null && t instanceof BaseImageTransform) {
+                    r = ((BaseImageTransform) t).random;
+                }
+                ((AffineImageTransform) t).affine(size, r, m);
+                concatenate(matrix, m);
+            }
+        }
+    }
+
+    /**
+     * Warp the image with the given affine transformation, then apply the color conversions, and finally convert the
+     * image to the given number of channels. The output is a scratch Mat, owned by this transform: it remains valid
+     * until the next call to this method on the same thread, and must not be deallocated.
+     *
+     * @param image    image to transform
+     * @param matrix   2x3 affine transformation, for example as returned by {@link #compose(int[], double[])}
+     * @param height   height of the output image
+     * @param width    width of the output image
+     * @param channels number of channels of the output image, or 0 to keep the number of channels
+     * @return the transformed image
+     * @throws IOException if the image cannot be converted to the requested number of channels
+     */
+    public Mat apply(Mat image, double[] matrix, int height, int width, int channels) throws IOException {
+        Scratch s = getScratch();
+        for (int i = 0; i < 6; i++) {
+            s.matrixIdx.put(i / 3, i % 3, matrix[i]);
+        }
+        s.size.height(height).width(width);
+        warpAffine(image, s.warped, s.matrix, s.size, interMode, borderMode, borderValue);
+
+        Mat out = s.warped;
+        int next = 0;
+        for (ImageTransform t : transforms) {
+            if (t instanceof ColorConversionTransform) {
+                cvtColor(out, s.converted[next], ((ColorConversionTransform) t).getConversionCode());
+                out = s.converted[next];
+                next = 1 - next;
+            }
+        }
+        if (channels > 0 && out.channels() != channels) {
+            int code = NativeImageLoader.getChannelConversionCode(out.channels(), channels);
+            if (code < 0) {
+                throw new IOException("Cannot convert from " + out.channels() + " to " + channels + " channels.");
+            }
+            cvtColor(out, s.converted[next], code);
+            out = s.converted[next];
+        }
+        return out;
+    }
+
+    private synchronized Scratch getScratch() {
+        if (scratch == null) {
+            scratch = new ThreadLocal<Scratch>() {
+                @Override
+                protected Scratch initialValue() {
+                    return new Scratch();
+                }
+            };
+        }
+        return scratch.get();
+    }
+
+    @Override
+    public float[] query(float... coordinates) {
+        for (ImageTransform t : transforms) {
+            if (t instanceof AffineImageTransform) {
+                coordinates = t.query(coordinates);
+            }
+        }
+        return coordinates;
+    }
+
+    /**
+     * Set the values of a 2x3 affine matrix (row major)
+     */
+    public static void set(double[] matrix, double m00, double m01, double m02, double m10, double m11, double m12) {
+        matrix[0] = m00;
+        matrix[1] = m01;
+        matrix[2] = m02;
+        matrix[3] = m10;
+        matrix[4] = m11;
+        matrix[5] = m12;
+    }
+
+    /**
+     * Set the matrix to a scaling from the source size to the destination size. As with
+     * {@link org.bytedeco.javacpp.opencv_imgproc#resize(Mat, Mat, Size)}, pixel centers are aligned
+     */
+    public static void scaling(double[] matrix, int srcHeight, int srcWidth, int dstHeight, int dstWidth) {
+        double sx = (double) dstWidth / srcWidth;
+        double sy = (double) dstHeight / srcHeight;
+        set(matrix, sx, 0, 0.5 * sx - 0.5, 0, sy, 0.5 * sy - 0.5);
+    }
+
+    /**
+     * Compose two affine transformations: the result (stored in the first matrix) applies the first transformation,
+     * then the second one
+     */
+    public static void concatenate(double[] matrix, double[] next) {
+        double m0 = next[0] * matrix[0] + next[1] * matrix[3];
+        double m1 = next[0] * matrix[1] + next[1] * matrix[4];
+        double m2 = next[0] * matrix[2] + next[1] * matrix[5] + next[2];
+        double m3 = next[3] * matrix[0] + next[4] * matrix[3];
+        double m4 = next[3] * matrix[1] + next[4] * matrix[4];
+        double m5 = next[3] * matrix[2] + next[4] * matrix[5] + next[5];
+        set(matrix, m0, m1, m2, m3, m4, m5);
+    }
+
+    /**
+     * Per-thread Mats, reused from one image to the next: OpenCV only reallocates the data of an output Mat when its
+     * size or type changes
+     */
+    private static class Scratch {
+        private final Mat matrix = new Mat(2, 3, CV_64F);
+        private final DoubleIndexer matrixIdx = matrix.createIndexer();
+        private final Size size = new Size();
+        private final Mat warped = new Mat();
+        private final Mat[] converted = {new Mat(), new Mat()};
+    }
+}
@@ -35,7 +35,7 @@ import static org.bytedeco.javacpp.opencv_imgproc.*;
  * @author raver119@gmail.com
  */
 @JsonInclude(JsonInclude.Include.NON_NULL)
-public class ResizeImageTransform extends BaseImageTransform<Mat> {
+public class ResizeImageTransform extends BaseImageTransform<Mat> implements AffineImageTransform {
 
     private int newHeight;
     private int newWidth;
@@ -89,6 +89,15 @@ public class ResizeImageTransform extends BaseImageTransform<Mat> {
         return new ImageWritable(converter.convert(result));
     }
 
+    @Override
+    public void affine(int[] size, Random random, double[] matrix) {
+        srch = size[0];
+        srcw = size[1];
+        size[0] = newHeight;
+        size[1] = newWidth;
+        FusedImageTransform.scaling(matrix, srch, srcw, newHeight, newWidth);
+    }
+
     @Override
     public float[] query(float... coordinates) {
         float[] transformed = new float[coordinates.length];
@@ -19,6 +19,7 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 import org.bytedeco.javacpp.FloatPointer;
+import org.bytedeco.javacpp.indexer.DoubleIndexer;
 import org.bytedeco.javacpp.opencv_core;
 import org.bytedeco.javacv.OpenCVFrameConverter;
 import org.datavec.image.data.ImageWritable;
@@ -42,7 +43,7 @@ import static org.bytedeco.javacpp.opencv_imgproc.*;
 @Accessors(fluent = true)
 @JsonIgnoreProperties({"interMode", "borderMode", "borderValue", "converter"})
 @JsonInclude(JsonInclude.Include.NON_NULL)
-public class RotateImageTransform extends BaseImageTransform<Mat> {
+public class RotateImageTransform extends BaseImageTransform<Mat> implements AffineImageTransform {
 
     private float centerx;
     private float centery;
@@ -108,17 +109,50 @@ public class RotateImageTransform extends BaseImageTransform<Mat> {
             return null;
         }
         Mat mat = converter.convert(image.getFrame());
-        float cy = mat.rows() / 2 + centery * (random != null ? 2 * random.nextFloat() - 1 : 1);
-        float cx = mat.cols() / 2 + centerx * (random != null ? 2 * random.nextFloat() - 1 : 1);
-        float a = angle * (random != null ? 2 * random.nextFloat() - 1 : 1);
-        float s = 1 + scale * (random != null ? 2 * random.nextFloat() - 1 : 1);
+        float[] p = sample(mat.rows(), mat.cols(), random);
 
         Mat result = new Mat();
-        M = getRotationMatrix2D(new Point2f(cx, cy), a, s);
+        M = getRotationMatrix2D(new Point2f(p[0], p[1]), p[2], p[3]);
         warpAffine(mat, result, M, mat.size(), interMode, borderMode, borderValue);
         return new ImageWritable(converter.convert(result));
     }
 
+    /**
+     * Note that when fused, the interMode, borderMode and borderValue of the {@link FusedImageTransform} are used
+     */
+    @Override
+    public void affine(int[] size, Random random, double[] matrix) {
+        float[] p = sample(size[0], size[1], random);
+
+        //Same matrix as getRotationMatrix2D()
+        double radians = Math.toRadians(p[2]);
+        double alpha = Math.cos(radians) * p[3];
+        double beta = Math.sin(radians) * p[3];
+        FusedImageTransform.set(matrix, alpha, beta, (1 - alpha) * p[0] - beta * p[1], -beta, alpha,
+                        beta * p[0] + (1 - alpha) * p[1]);
+
+        //Keep the matrix for query()
+        if (M == null || M.rows() != 2 || M.cols() != 3 || M.type() != CV_64F) {
+            M = new Mat(2, 3, CV_64F);
+        }
+        DoubleIndexer idx = M.createIndexer();
+        for (int i = 0; i < 6; i++) {
+            idx.put(i / 3, i % 3, matrix[i]);
+        }
+        idx.release();
+    }
+
+    /**
+     * @return center x, center y, angle and scale of the rotation
+     */
+    private float[] sample(int rows, int cols, Random random) {
+        float cy = rows / 2 + centery * (random != null ? 2 * random.nextFloat() - 1 : 1);
+        float cx = cols / 2 + centerx * (random != null ? 2 * random.nextFloat() - 1 : 1);
+        float a = angle * (random != null ? 2 * random.nextFloat() - 1 : 1);
+        float s = 1 + scale * (random != null ? 2 * random.nextFloat() - 1 : 1);
+        return new float[] {cx, cy, a, s};
+    }
+
     @Override
     public float[] query(float... coordinates) {
         Mat src = new Mat(1, coordinates.length / 2, CV_32FC2, new FloatPointer(coordinates));
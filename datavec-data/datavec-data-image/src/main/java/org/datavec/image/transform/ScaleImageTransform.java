@@ -33,7 +33,7 @@ import static org.bytedeco.javacpp.opencv_imgproc.resize;
  * @author saudet
  */
 @JsonInclude(JsonInclude.Include.NON_NULL)
-public class ScaleImageTransform extends BaseImageTransform<Mat> {
+public class ScaleImageTransform extends BaseImageTransform<Mat> implements AffineImageTransform {
 
     private float dx;
     private float dy;
@@ -76,16 +76,28 @@ public class ScaleImageTransform extends BaseImageTransform<Mat> {
             return null;
         }
         Mat mat = converter.convert(image.getFrame());
-        srch = mat.rows();
-        srcw = mat.cols();
-        h = Math.round(mat.rows() + dy * (random != null ? 2 * random.nextFloat() - 1 : 1));
-        w = Math.round(mat.cols() + dx * (random != null ? 2 * random.nextFloat() - 1 : 1));
+        sample(mat.rows(), mat.cols(), random);
 
         Mat result = new Mat();
         resize(mat, result, new Size(w, h));
         return new ImageWritable(converter.convert(result));
     }
 
+    @Override
+    public void affine(int[] size, Random random, double[] matrix) {
+        sample(size[0], size[1], random);
+        size[0] = h;
+        size[1] = w;
+        FusedImageTransform.scaling(matrix, srch, srcw, h, w);
+    }
+
+    private void sample(int rows, int cols, Random random) {
+        srch = rows;
+        srcw = cols;
+        h = Math.round(rows + dy * (random != null ? 2 * random.nextFloat() - 1 : 1));
+        w = Math.round(cols + dx * (random != null ? 2 * random.nextFloat() - 1 : 1));
+    }
+
     @Override
     public float[] query(float... coordinates) {
         float[] transformed = new float[coordinates.length];
@@ -0,0 +1,110 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.image.cache;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class TestImageCache {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    @Test
+    public void testFileImageCache() throws Exception {
+        File dir = testDir.newFolder();
+        byte[] out = new byte[12];
+
+        try (FileImageCache cache = new FileImageCache(dir, 12)) {
+            assertFalse(cache.get("a", out));
+            cache.put("a", record(12, 1));
+            cache.put("b", record(12, 2));
+            assertTrue(cache.contains("a"));
+            assertFalse(cache.contains("c"));
+            assertEquals(2, cache.size());
+            assertTrue(cache.get("b", out));
+            assertArrayEquals(record(12, 2), out);
+        }
+
+        //Cached images should be available after reopening the cache
+        try (FileImageCache cache = new FileImageCache(dir, 12)) {
+            assertEquals(2, cache.size());
+            assertTrue(cache.get("a", out));
+            assertArrayEquals(record(12, 1), out);
+            cache.put("c", record(12, 3));
+            assertTrue(cache.get("c", out));
+            assertArrayEquals(record(12, 3), out);
+        }
+
+        try {
+            new FileImageCache(dir, 24);
+            fail("Expected exception");
+        } catch (IOException e) {
+            //Expected: record size does not match
+        }
+    }
+
+    @Test
+    public void testLruImageCache() throws Exception {
+        for (boolean offHeap : new boolean[] {false, true}) {
+            byte[] out = new byte[10];
+            LruImageCache cache = new LruImageCache(10, 30, offHeap);
+            cache.put("a", record(10, 1));
+            cache.put("b", record(10, 2));
+            cache.put("c", record(10, 3));
+            assertTrue(cache.get("a", out));
+            assertArrayEquals(record(10, 1), out);
+
+            //"b" is now the least recently used image
+            cache.put("d", record(10, 4));
+            assertEquals(3, cache.size());
+            assertFalse(cache.contains("b"));
+            assertTrue(cache.contains("a"));
+            assertTrue(cache.get("d", out));
+            assertArrayEquals(record(10, 4), out);
+            cache.close();
+        }
+    }
+
+    @Test
+    public void testLruImageCacheWithBacking() throws Exception {
+        byte[] out = new byte[10];
+        try (LruImageCache cache = new LruImageCache(new FileImageCache(testDir.newFolder(), 10), 10, true)) {
+            cache.put("a", record(10, 1));
+            cache.put("b", record(10, 2));
+            assertEquals(1, cache.size());
+
+            //Evicted from memory, but still in the backing cache
+            assertTrue(cache.get("a", out));
+            assertArrayEquals(record(10, 1), out);
+            assertTrue(cache.contains("b"));
+        }
+    }
+
+    private static byte[] record(int length, int value) {
+        byte[] b = new byte[length];
+        Arrays.fill(b, (byte) value);
+        return b;
+    }
+}
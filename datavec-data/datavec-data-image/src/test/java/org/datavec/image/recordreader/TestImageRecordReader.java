@@ -27,7 +27,12 @@ import org.datavec.api.util.ClassPathResource;
 import org.datavec.api.writable.DoubleWritable;
 import org.datavec.api.writable.NDArrayWritable;
 import org.datavec.api.writable.Writable;
+import org.datavec.image.cache.FileImageCache;
+import org.datavec.image.cache.LruImageCache;
+import org.datavec.image.transform.RotateImageTransform;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.nd4j.linalg.factory.Nd4j;
 
 import java.io.File;
@@ -45,6 +50,9 @@ import static org.junit.Assert.*;
  */
 public class TestImageRecordReader {
 
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
     @Test(expected = IllegalArgumentException.class)
     public void testEmptySplit() throws IOException {
         InputSplit data = new CollectionInputSplit(new ArrayList<URI>());
@@ -213,6 +221,69 @@ public class TestImageRecordReader {
         assertEquals(l2, b2.get(1));
     }
 
+    @Test
+    public void testParallelDecode() throws Exception {
+        File rootDir = new ClassPathResource("/testimages/").getFile();
+
+        for (boolean withTransform : new boolean[] {false, true}) {
+            List<List<Writable>> expected = new ArrayList<>();
+            ImageRecordReader rr = new ImageRecordReader(28, 28, 3, new ParentPathLabelGenerator(),
+                            withTransform ? new RotateImageTransform(new Random(12345), 45) : null);
+            rr.initialize(new FileSplit(rootDir));
+            while (rr.hasNext()) {
+                expected.add(rr.next(4));
+            }
+
+            ImageRecordReader rrParallel = new ImageRecordReader(28, 28, 3, new ParentPathLabelGenerator(),
+                            withTransform ? new RotateImageTransform(new Random(12345), 45) : null);
+            rrParallel.setDecodeThreads(3);
+            rrParallel.initialize(new FileSplit(rootDir));
+            List<List<Writable>> actual = new ArrayList<>();
+            while (rrParallel.hasNext()) {
+                actual.add(rrParallel.next(4));
+            }
+            rrParallel.close();
+
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testImageCache() throws Exception {
+        File rootDir = new ClassPathResource("/testimages/").getFile();
+
+        List<List<Writable>> expected = new ArrayList<>();
+        ImageRecordReader rr = new ImageRecordReader(28, 28, 3, new ParentPathLabelGenerator());
+        rr.initialize(new FileSplit(rootDir));
+        while (rr.hasNext()) {
+            expected.add(rr.next());
+        }
+
+        LruImageCache cache = new LruImageCache(new FileImageCache(testDir.newFolder(), 28 * 28 * 3), 1 << 20, true);
+        for (int threads : new int[] {1, 3}) {
+            ImageRecordReader rrCached = new ImageRecordReader(28, 28, 3, new ParentPathLabelGenerator());
+            rrCached.setImageCache(cache);
+            rrCached.setDecodeThreads(threads);
+            rrCached.initialize(new FileSplit(rootDir));
+            //Second epoch: images are read from the cache
+            for (int epoch = 0; epoch < 2; epoch++) {
+                List<List<Writable>> actual = new ArrayList<>();
+                while (rrCached.hasNext()) {
+                    actual.add(rrCached.next());
+                }
+                assertEquals(expected, actual);
+
+                rrCached.reset();
+                List<Writable> batch = rrCached.next(expected.size());
+                assertEquals(expected.size(), ((NDArrayWritable) batch.get(0)).get().size(0));
+                rrCached.reset();
+            }
+            rrCached.close();
+        }
+        assertEquals(expected.size(), cache.size());
+        cache.close();
+    }
+
     private static class TestRegressionLabelGen implements PathLabelGenerator {
 
         @Override
@@ -0,0 +1,193 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.image.recordreader;
+
+import org.datavec.api.io.labels.ParentPathLabelGenerator;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.util.ClassPathResource;
+import org.datavec.api.writable.NDArrayWritable;
+import org.datavec.api.writable.Writable;
+import org.datavec.image.recordreader.objdetect.ImageObject;
+import org.datavec.image.recordreader.objdetect.ImageObjectLabelProvider;
+import org.datavec.image.recordreader.objdetect.ObjectDetectionRecordReader;
+import org.datavec.image.recordreader.shard.ImageShardRecordReader;
+import org.datavec.image.recordreader.shard.ImageShardWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.net.URI;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestImageShardRecordReader {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    @Test
+    public void testClassification() throws Exception {
+        File rootDir = new ClassPathResource("/testimages/").getFile();
+        File shardDir = testDir.newFolder();
+
+        //Small shards: two or three images per shard
+        try (ImageShardWriter writer = new ImageShardWriter(shardDir, new ParentPathLabelGenerator(), 3000)) {
+            writer.write(new FileSplit(rootDir));
+            assertEquals(6, writer.getNumRecords());
+            assertTrue(writer.getNumShards() > 1);
+        }
+
+        ImageRecordReader rr = new ImageRecordReader(28, 28, 3, new ParentPathLabelGenerator());
+        rr.initialize(new FileSplit(rootDir));
+        ImageShardRecordReader srr = new ImageShardRecordReader(28, 28, 3);
+        srr.initialize(new FileSplit(shardDir));
+        assertEquals(rr.getLabels(), srr.getLabels());
+
+        List<List<Writable>> expected = new ArrayList<>();
+        while (rr.hasNext()) {
+            expected.add(rr.next());
+        }
+        for (int epoch = 0; epoch < 2; epoch++) {
+            List<List<Writable>> actual = new ArrayList<>();
+            while (srr.hasNext()) {
+                actual.add(srr.next());
+            }
+            assertEquals(expected, actual);
+            srr.reset();
+        }
+
+        rr.reset();
+        srr.setDecodeThreads(3);
+        assertEquals(rr.next(4), srr.next(4));
+        assertEquals(rr.next(4), srr.next(4));
+        assertFalse(srr.hasNext());
+        srr.close();
+    }
+
+    @Test
+    public void testShuffle() throws Exception {
+        File rootDir = new ClassPathResource("/testimages/").getFile();
+        File shardDir = testDir.newFolder();
+        try (ImageShardWriter writer = new ImageShardWriter(shardDir, new ParentPathLabelGenerator(), 3000)) {
+            writer.write(new FileSplit(rootDir));
+        }
+
+        Set<String> expected = new HashSet<>();
+        ImageRecordReader rr = new ImageRecordReader(28, 28, 3, new ParentPathLabelGenerator());
+        rr.initialize(new FileSplit(rootDir));
+        while (rr.hasNext()) {
+            rr.next();
+            expected.add(rr.getCurrentFile().getPath());
+        }
+
+        ImageShardRecordReader srr = new ImageShardRecordReader(28, 28, 3);
+        srr.setShuffle(3, 12345);
+        srr.initialize(new FileSplit(shardDir));
+        for (int epoch = 0; epoch < 3; epoch++) {
+            //Each image should be returned exactly once per epoch
+            List<String> paths = new ArrayList<>();
+            while (srr.hasNext()) {
+                List<Writable> next = srr.next();
+                assertEquals(2, next.size());
+                paths.add(srr.getCurrentFile().getPath());
+            }
+            assertEquals(expected.size(), paths.size());
+            assertEquals(expected, new HashSet<>(paths));
+            srr.reset();
+        }
+    }
+
+    @Test
+    public void testObjectDetection() throws Exception {
+        ImageObjectLabelProvider lp = new TestLabelProvider();
+        File dir = new ClassPathResource("objdetect/000012.jpg").getFile().getParentFile();
+        File shardDir = testDir.newFolder();
+        try (ImageShardWriter writer = new ImageShardWriter(shardDir, lp)) {
+            writer.write(new FileSplit(dir));
+            assertEquals(1, writer.getNumShards());
+        }
+
+        ObjectDetectionRecordReader rr = new ObjectDetectionRecordReader(32, 32, 3, 10, 13, lp);
+        rr.initialize(new FileSplit(dir));
+        ImageShardRecordReader srr = new ImageShardRecordReader(32, 32, 3, 10, 13, null);
+        srr.initialize(new FileSplit(shardDir));
+        assertEquals(Arrays.asList("car", "cat"), srr.getLabels());
+
+        while (rr.hasNext()) {
+            assertTrue(srr.hasNext());
+            assertEquals(rr.next(), srr.next());
+        }
+        assertFalse(srr.hasNext());
+
+        rr.reset();
+        srr.reset();
+        List<Writable> exp = rr.next(2);
+        List<Writable> act = srr.next(2);
+        assertEquals(exp, act);
+        assertEquals(2, ((NDArrayWritable) act.get(1)).get().size(0));
+    }
+
+    @Test
+    public void testMetaData() throws Exception {
+        File rootDir = new ClassPathResource("/testimages/").getFile();
+        File shardDir = testDir.newFolder();
+        try (ImageShardWriter writer = new ImageShardWriter(shardDir, new ParentPathLabelGenerator(), 3000)) {
+            writer.write(new FileSplit(rootDir));
+        }
+
+        ImageShardRecordReader srr = new ImageShardRecordReader(28, 28, 3);
+        srr.initialize(new FileSplit(shardDir));
+        List<List<Writable>> out = new ArrayList<>();
+        List<RecordMetaData> meta = new ArrayList<>();
+        while (srr.hasNext()) {
+            Record r = srr.nextRecord();
+            out.add(r.getRecord());
+            meta.add(r.getMetaData());
+        }
+
+        List<Record> fromMeta = srr.loadFromMetaData(meta);
+        assertEquals(out.size(), fromMeta.size());
+        for (int i = 0; i < out.size(); i++) {
+            assertEquals(out.get(i), fromMeta.get(i).getRecord());
+            assertEquals(meta.get(i), fromMeta.get(i).getMetaData());
+        }
+    }
+
+    private static class TestLabelProvider implements ImageObjectLabelProvider {
+
+        @Override
+        public List<ImageObject> getImageObjectsForPath(URI uri) {
+            return getImageObjectsForPath(uri.getPath());
+        }
+
+        @Override
+        public List<ImageObject> getImageObjectsForPath(String path) {
+            if (path.endsWith("000012.jpg")) {
+                return Collections.singletonList(new ImageObject(156, 97, 351, 270, "car"));
+            } else if (path.endsWith("000019.jpg")) {
+                return Arrays.asList(new ImageObject(11, 113, 266, 259, "cat"),
+                                new ImageObject(231, 88, 483, 256, "cat"));
+            } else {
+                throw new RuntimeException();
+            }
+        }
+    }
+}
@@ -29,6 +29,7 @@ import org.datavec.image.recordreader.objdetect.ImageObjectLabelProvider;
 import org.datavec.image.recordreader.objdetect.ObjectDetectionRecordReader;
 import org.datavec.image.transform.ImageTransform;
 import org.datavec.image.transform.ResizeImageTransform;
+import org.datavec.image.transform.RotateImageTransform;
 import org.junit.Test;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
@@ -42,6 +43,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -171,6 +173,28 @@ public class TestObjectDetectionRecordReader {
         }
     }
 
+    @Test
+    public void testParallelDecode() throws Exception {
+        ImageObjectLabelProvider lp = new TestImageObjectDetectionLabelProvider();
+        String path = new ClassPathResource("objdetect/000012.jpg").getFile().getParent();
+
+        for (boolean withTransform : new boolean[] {false, true}) {
+            ObjectDetectionRecordReader rr = new ObjectDetectionRecordReader(32, 32, 3, 10, 13, lp,
+                            withTransform ? new RotateImageTransform(new Random(12345), 10) : null);
+            rr.initialize(new FileSplit(new File(path)));
+            List<Writable> expected = rr.next(2);
+
+            ObjectDetectionRecordReader rrParallel = new ObjectDetectionRecordReader(32, 32, 3, 10, 13, lp,
+                            withTransform ? new RotateImageTransform(new Random(12345), 10) : null);
+            rrParallel.setDecodeThreads(2);
+            rrParallel.initialize(new FileSplit(new File(path)));
+            List<Writable> actual = rrParallel.next(2);
+            rrParallel.close();
+
+            assertEquals(expected, actual);
+        }
+    }
+
     //2 images: 000012.jpg and 000019.jpg
     private static class TestImageObjectDetectionLabelProvider implements ImageObjectLabelProvider {
 
@@ -25,6 +25,10 @@ import org.datavec.image.data.ImageWritable;
 import org.datavec.image.loader.NativeImageLoader;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.ops.transforms.Transforms;
 
 import java.awt.*;
 import java.util.LinkedList;
@@ -396,6 +400,63 @@ public class TestImageTransform {
         assertEquals(0, transformed[1], 0);
     }
 
+    @Test
+    public void testFusedImageTransform() throws Exception {
+        //Smooth image, so that the differences due to interpolation are small
+        int height = 150, width = 200;
+        Mat img = new Mat(height, width, CV_8UC3);
+        UByteIndexer idx = img.createIndexer();
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                idx.put(i, j, 0, 255 * i / height);
+                idx.put(i, j, 1, 255 * j / width);
+                idx.put(i, j, 2, 255 * (i + j) / (height + width));
+            }
+        }
+
+        ImageTransform[] transforms = {new CropImageTransform(10, 20, 5, 15), new FlipImageTransform(1),
+                        new ResizeImageTransform(80, 60), new ColorConversionTransform(COLOR_BGR2YCrCb)};
+        for (boolean crop : new boolean[] {false, true}) {
+            INDArray expected = makeLoader(crop, new PipelineImageTransform(transforms)).asMatrix(img);
+            NativeImageLoader loader = makeLoader(crop, new FusedImageTransform(transforms));
+            INDArray actual = loader.asMatrix(img);
+            assertArrayEquals(expected.shape(), actual.shape());
+            assertEquals(0, Transforms.abs(expected.sub(actual)).meanNumber().doubleValue(), 2.0);
+
+            //Output written directly into a view of a larger array
+            INDArray out = Nd4j.create(2, 1, 32, 48);
+            loader.asMatrixView(img, out.tensorAlongDimension(1, 1, 2, 3));
+            assertEquals(actual, out.get(NDArrayIndex.interval(1, 2), NDArrayIndex.all(), NDArrayIndex.all(),
+                            NDArrayIndex.all()));
+        }
+
+        ImageWritable writable = new ImageWritable(converter.convert(img));
+        RotateImageTransform rotate = new RotateImageTransform(0, 0, 30, 0);
+        FusedImageTransform fused = new FusedImageTransform(new RotateImageTransform(0, 0, 30, 0));
+        Mat expected = converter.convert(rotate.transform(writable).getFrame());
+        Mat actual = converter.convert(fused.transform(writable).getFrame());
+        assertEquals(expected.rows(), actual.rows());
+        assertEquals(expected.cols(), actual.cols());
+        assertTrue(norm(expected, actual, NORM_L1, new Mat()) / expected.total() / 3 < 1.0);
+        float[] coordinates = {10, 20, 100, 50};
+        assertArrayEquals(rotate.query(coordinates), fused.query(coordinates), 1e-3f);
+
+        try {
+            new FusedImageTransform(new EqualizeHistTransform());
+            fail("Expected exception");
+        } catch (IllegalArgumentException e) {
+            //Expected
+        }
+    }
+
+    private static NativeImageLoader makeLoader(boolean centerCrop, final ImageTransform transform) {
+        return new NativeImageLoader(32, 48, 1, centerCrop) {
+            {
+                imageTransform = transform;
+            }
+        };
+    }
+
     public static ImageWritable makeRandomImage(int height, int width, int channels) {
         if (height <= 0) {
             height = rng.nextInt() % 100 + 200;
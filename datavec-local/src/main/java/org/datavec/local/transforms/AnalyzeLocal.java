@@ -0,0 +1,407 @@
+package org.datavec.local.transforms;
+
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.records.reader.SequenceRecordReader;
+import org.datavec.api.transform.analysis.DataAnalysis;
+import org.datavec.api.transform.analysis.SequenceDataAnalysis;
+import org.datavec.api.transform.analysis.columns.ColumnAnalysis;
+import org.datavec.api.transform.metadata.ColumnMetaData;
+import org.datavec.api.transform.quality.DataQualityAnalysis;
+import org.datavec.api.transform.quality.columns.ColumnQuality;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Writable;
+import org.datavec.local.transforms.analysis.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Analyze data on the local machine, without Spark: the local equivalent of {@code AnalyzeSpark}.<br>
+ * Data is read from a {@link RecordReader} or {@link SequenceRecordReader} in a single pass. Records are read on the
+ * calling thread, and analyzed in batches by a set of worker threads; each worker keeps its own mergeable counters
+ * (see {@link org.datavec.local.transforms.analysis.AnalysisCounter}), which are merged once all data has been read.
+ * Memory use is bounded regardless of the size of the data set: the counters store summary statistics and sketches,
+ * not values. Because the range of each column is not known until all data has been read, histograms are calculated
+ * from per-value counts where a column has few distinct values (in which case they are exact), or otherwise estimated
+ * from a t-digest sketch: see {@link HistogramCounter}.
+ */
+public class AnalyzeLocal {
+
+    public static final int DEFAULT_HISTOGRAM_BUCKETS = 30;
+    private static final int BATCH_SIZE = 256;
+
+    private AnalyzeLocal() {}
+
+    /**
+     * Analyze the data from the record reader, using all cores of the local machine
+     *
+     * @param schema Schema of the data
+     * @param reader Record reader to read the data from
+     * @return Analysis of the data
+     */
+    public static DataAnalysis analyze(Schema schema, RecordReader reader) {
+        return analyze(schema, reader, DEFAULT_HISTOGRAM_BUCKETS);
+    }
+
+    /**
+     * Analyze the data from the record reader, using all cores of the local machine
+     *
+     * @param schema              Schema of the data
+     * @param reader              Record reader to read the data from
+     * @param maxHistogramBuckets Number of histogram buckets
+     * @return Analysis of the data
+     */
+    public static DataAnalysis analyze(Schema schema, RecordReader reader, int maxHistogramBuckets) {
+        return analyze(schema, reader, maxHistogramBuckets, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Analyze the data from the record reader
+     *
+     * @param schema              Schema of the data
+     * @param reader              Record reader to read the data from
+     * @param maxHistogramBuckets Number of histogram buckets
+     * @param numThreads          Number of threads to use for the analysis
+     * @return Analysis of the data
+     */
+    public static DataAnalysis analyze(Schema schema, RecordReader reader, int maxHistogramBuckets, int numThreads) {
+        AnalysisState state = aggregate(records(reader), numThreads, () -> new AnalysisState(schema, false),
+                        AnalysisState::addRecord, AnalysisState::merge);
+        return new DataAnalysis(schema, state.toColumnAnalysis(maxHistogramBuckets));
+    }
+
+    /**
+     * Analyze the sequence data from the record reader, using all cores of the local machine
+     *
+     * @param schema Schema of the data
+     * @param reader Sequence record reader to read the data from
+     * @return Analysis of the data
+     */
+    public static SequenceDataAnalysis analyzeSequence(Schema schema, SequenceRecordReader reader) {
+        return analyzeSequence(schema, reader, DEFAULT_HISTOGRAM_BUCKETS);
+    }
+
+    /**
+     * Analyze the sequence data from the record reader, using all cores of the local machine
+     *
+     * @param schema              Schema of the data
+     * @param reader              Sequence record reader to read the data from
+     * @param maxHistogramBuckets Number of histogram buckets
+     * @return Analysis of the data
+     */
+    public static SequenceDataAnalysis analyzeSequence(Schema schema, SequenceRecordReader reader,
+                    int maxHistogramBuckets) {
+        return analyzeSequence(schema, reader, maxHistogramBuckets, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Analyze the sequence data from the record reader. The column analysis is calculated over all time steps of all
+     * sequences
+     *
+     * @param schema              Schema of the data
+     * @param reader              Sequence record reader to read the data from
+     * @param maxHistogramBuckets Number of histogram buckets
+     * @param numThreads          Number of threads to use for the analysis
+     * @return Analysis of the data
+     */
+    public static SequenceDataAnalysis analyzeSequence(Schema schema, SequenceRecordReader reader,
+                    int maxHistogramBuckets, int numThreads) {
+        AnalysisState state = aggregate(sequences(reader), numThreads, () -> new AnalysisState(schema, true),
+                        AnalysisState::addSequence, AnalysisState::merge);
+        return new SequenceDataAnalysis(schema, state.toColumnAnalysis(maxHistogramBuckets),
+                        state.lengths.toAnalysis(maxHistogramBuckets));
+    }
+
+    /**
+     * Analyze the quality of the data from the record reader, using all cores of the local machine
+     *
+     * @param schema Schema of the data
+     * @param reader Record reader to read the data from
+     * @return Quality analysis of the data
+     */
+    public static DataQualityAnalysis analyzeQuality(Schema schema, RecordReader reader) {
+        return analyzeQuality(schema, reader, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Analyze the quality of the data from the record reader
+     *
+     * @param schema     Schema of the data
+     * @param reader     Record reader to read the data from
+     * @param numThreads Number of threads to use for the analysis
+     * @return Quality analysis of the data
+     */
+    public static DataQualityAnalysis analyzeQuality(Schema schema, RecordReader reader, int numThreads) {
+        QualityState state = aggregate(records(reader), numThreads, () -> new QualityState(schema),
+                        QualityState::addRecord, QualityState::merge);
+        return new DataQualityAnalysis(schema, state.toColumnQuality());
+    }
+
+    /**
+     * Analyze the quality of the sequence data from the record reader, using all cores of the local machine
+     *
+     * @param schema Schema of the data
+     * @param reader Sequence record reader to read the data from
+     * @return Quality analysis of the data, over all time steps of all sequences
+     */
+    public static DataQualityAnalysis analyzeQualitySequence(Schema schema, SequenceRecordReader reader) {
+        return analyzeQualitySequence(schema, reader, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Analyze the quality of the sequence data from the record reader
+     *
+     * @param schema     Schema of the data
+     * @param reader     Sequence record reader to read the data from
+     * @param numThreads Number of threads to use for the analysis
+     * @return Quality analysis of the data, over all time steps of all sequences
+     */
+    public static DataQualityAnalysis analyzeQualitySequence(Schema schema, SequenceRecordReader reader,
+                    int numThreads) {
+        QualityState state = aggregate(sequences(reader), numThreads, () -> new QualityState(schema),
+                        (s, sequence) -> {
+                            for (List<Writable> step : sequence) {
+                                s.addRecord(step);
+                            }
+                        }, QualityState::merge);
+        return new DataQualityAnalysis(schema, state.toColumnQuality());
+    }
+
+    private static Iterator<List<Writable>> records(RecordReader reader) {
+        return new Iterator<List<Writable>>() {
+            @Override
+            public boolean hasNext() {
+                return reader.hasNext();
+            }
+
+            @Override
+            public List<Writable> next() {
+                return reader.next();
+            }
+        };
+    }
+
+    private static Iterator<List<List<Writable>>> sequences(SequenceRecordReader reader) {
+        return new Iterator<List<List<Writable>>>() {
+            @Override
+            public boolean hasNext() {
+                return reader.hasNext();
+            }
+
+            @Override
+            public List<List<Writable>> next() {
+                return reader.sequenceRecord();
+            }
+        };
+    }
+
+    /**
+     * Aggregate the values of the iterator into a single state object. Values are read on the calling thread, and
+     * added in batches to a separate state per worker thread; the per-thread states are merged at the end
+     */
+    private static <T, S> S aggregate(Iterator<T> iter, int numThreads, Supplier<S> init, BiConsumer<S, T> add,
+                    BinaryOperator<S> merge) {
+        if (numThreads <= 1) {
+            S state = init.get();
+            while (iter.hasNext()) {
+                add.accept(state, iter.next());
+            }
+            return state;
+        }
+
+        final List<T> end = new ArrayList<>(0);
+        BlockingQueue<List<T>> queue = new ArrayBlockingQueue<>(2 * numThreads);
+        ExecutorService exec = Executors.newFixedThreadPool(numThreads, r -> {
+            Thread t = new Thread(r, "AnalyzeLocal");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<S>> futures = new ArrayList<>(numThreads);
+            for (int i = 0; i < numThreads; i++) {
+                futures.add(exec.submit(() -> {
+                    S state = init.get();
+                    List<T> batch;
+                    while ((batch = queue.take()) != end) {
+                        for (T t : batch) {
+                            add.accept(state, t);
+                        }
+                    }
+                    return state;
+                }));
+            }
+
+            List<T> batch = new ArrayList<>(BATCH_SIZE);
+            while (iter.hasNext()) {
+                batch.add(iter.next());
+                if (batch.size() >= BATCH_SIZE) {
+                    put(queue, batch, futures);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                put(queue, batch, futures);
+            }
+            for (int i = 0; i < numThreads; i++) {
+                put(queue, end, futures);
+            }
+
+            S out = null;
+            for (Future<S> f : futures) {
+                S s = f.get();
+                out = (out == null ? s : merge.apply(out, s));
+            }
+            return out;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during analysis", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error during analysis", e.getCause());
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    private static <T, S> void put(BlockingQueue<List<T>> queue, List<T> batch, List<Future<S>> workers)
+                    throws InterruptedException, ExecutionException {
+        while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            //Queue is full: check that the workers are still running
+            for (Future<S> f : workers) {
+                if (f.isDone()) {
+                    f.get();
+                    throw new IllegalStateException("Analysis worker thread terminated unexpectedly");
+                }
+            }
+        }
+    }
+
+    private static void checkLength(Schema schema, List<Writable> record) {
+        if (record.size() != schema.numColumns()) {
+            throw new IllegalStateException("Writables list and number of columns in schema do not match ("
+                            + record.size() + " vs " + schema.numColumns() + ")");
+        }
+    }
+
+    private static class AnalysisState {
+        private final Schema schema;
+        private final AnalysisCounter[] counters;
+        private final SequenceLengthAnalysisCounter lengths;
+
+        private AnalysisState(Schema schema, boolean sequence) {
+            this.schema = schema;
+            this.counters = new AnalysisCounter[schema.numColumns()];
+            for (int i = 0; i < counters.length; i++) {
+                ColumnMetaData meta = schema.getMetaData(i);
+                switch (meta.getColumnType()) {
+                    case String:
+                        counters[i] = new StringAnalysisCounter();
+                        break;
+                    case Integer:
+                    case Long:
+                    case Double:
+                    case Float:
+                    case Time:
+                        counters[i] = new NumericalAnalysisCounter(meta.getColumnType());
+                        break;
+                    case Categorical:
+                        counters[i] = new CategoricalAnalysisCounter();
+                        break;
+                    case Bytes:
+                        counters[i] = new BytesAnalysisCounter();
+                        break;
+                    case NDArray:
+                        counters[i] = new NDArrayAnalysisCounter();
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown column type: " + meta.getColumnType());
+                }
+            }
+            this.lengths = (sequence ? new SequenceLengthAnalysisCounter() : null);
+        }
+
+        private void addRecord(List<Writable> record) {
+            checkLength(schema, record);
+            int i = 0;
+            for (Writable w : record) {
+                counters[i++].add(w);
+            }
+        }
+
+        private void addSequence(List<List<Writable>> sequence) {
+            for (List<Writable> step : sequence) {
+                addRecord(step);
+            }
+            lengths.add(sequence.size());
+        }
+
+        @SuppressWarnings("unchecked")
+        private AnalysisState merge(AnalysisState other) {
+            for (int i = 0; i < counters.length; i++) {
+                counters[i].merge(other.counters[i]);
+            }
+            if (lengths != null) {
+                lengths.merge(other.lengths);
+            }
+            return this;
+        }
+
+        private List<ColumnAnalysis> toColumnAnalysis(int nBins) {
+            List<ColumnAnalysis> out = new ArrayList<>(counters.length);
+            for (AnalysisCounter c : counters) {
+                if (c instanceof NumericalAnalysisCounter) {
+                    out.add(((NumericalAnalysisCounter) c).toAnalysis(nBins));
+                } else if (c instanceof StringAnalysisCounter) {
+                    out.add(((StringAnalysisCounter) c).toAnalysis(nBins));
+                } else if (c instanceof CategoricalAnalysisCounter) {
+                    out.add(((CategoricalAnalysisCounter) c).toAnalysis());
+                } else if (c instanceof BytesAnalysisCounter) {
+                    out.add(((BytesAnalysisCounter) c).toAnalysis());
+                } else {
+                    out.add(((NDArrayAnalysisCounter) c).toAnalysis(nBins));
+                }
+            }
+            return out;
+        }
+    }
+
+    private static class QualityState {
+        private final Schema schema;
+        private final QualityAnalysisCounter[] counters;
+
+        private QualityState(Schema schema) {
+            this.schema = schema;
+            this.counters = new QualityAnalysisCounter[schema.numColumns()];
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] = new QualityAnalysisCounter(schema.getMetaData(i));
+            }
+        }
+
+        private void addRecord(List<Writable> record) {
+            checkLength(schema, record);
+            int i = 0;
+            for (Writable w : record) {
+                counters[i++].add(w);
+            }
+        }
+
+        private QualityState merge(QualityState other) {
+            for (int i = 0; i < counters.length; i++) {
+                counters[i].merge(other.counters[i]);
+            }
+            return this;
+        }
+
+        private List<ColumnQuality> toColumnQuality() {
+            List<ColumnQuality> out = new ArrayList<>(counters.length);
+            for (QualityAnalysisCounter c : counters) {
+                out.add(c.toColumnQuality());
+            }
+            return out;
+        }
+    }
+}
@@ -0,0 +1,480 @@
+package org.datavec.local.transforms;
+
+import org.datavec.api.transform.DataAction;
+import org.datavec.api.transform.Transform;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.filter.Filter;
+import org.datavec.api.transform.join.HashJoin;
+import org.datavec.api.transform.join.Join;
+import org.datavec.api.transform.ops.IAggregableReduceOp;
+import org.datavec.api.transform.rank.CalculateSortedRank;
+import org.datavec.api.transform.rank.SortedRankAssigner;
+import org.datavec.api.transform.rank.SortedRankComparator;
+import org.datavec.api.transform.reduce.IAssociativeReducer;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.schema.SequenceSchema;
+import org.datavec.api.transform.sequence.ConvertToSequence;
+import org.datavec.api.transform.sequence.SequenceSplit;
+import org.datavec.api.writable.Writable;
+import org.nd4j.linalg.primitives.Pair;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * Execute a datavec
+ * transform process
+ * on in memory data, using
+ * all cores of the local machine.<br>
+ * The input is partitioned by a fork/join pool (via parallel streams): transforms and filters are applied
+ * independently per partition, whereas reductions, conversion to sequences, sorted rank calculations and joins
+ * use mergeable per-partition state, similar to the shuffle boundaries of the Spark executor.<br>
+ * The output is the same (up to ordering of examples/sequences across keys) as the output of
+ * {@code SparkTransformExecutor} for the same TransformProcess
+ */
+public class LocalTransformExecutor {
+
+    private LocalTransformExecutor() {
+    }
+
+    /**
+     * Execute the specified TransformProcess with the given input data, using the common fork/join pool<br>
+     * Note: this method can only be used if the TransformProcess returns non-sequence data. For TransformProcesses
+     * that return a sequence, use {@link #executeToSequence(List, TransformProcess)}
+     *
+     * @param inputWritables   Input data to process
+     * @param transformProcess TransformProcess to execute
+     * @return Processed data
+     */
+    public static List<List<Writable>> execute(List<List<Writable>> inputWritables,
+                    TransformProcess transformProcess) {
+        return execute(inputWritables, transformProcess, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Execute the specified TransformProcess with the given input data, using the specified fork/join pool<br>
+     * Note: this method can only be used if the TransformProcess returns non-sequence data. For TransformProcesses
+     * that return a sequence, use {@link #executeToSequence(List, TransformProcess, ForkJoinPool)}
+     *
+     * @param inputWritables   Input data to process
+     * @param transformProcess TransformProcess to execute
+     * @param pool             Pool to execute the transform process on
+     * @return Processed data
+     */
+    public static List<List<Writable>> execute(List<List<Writable>> inputWritables,
+                    TransformProcess transformProcess, ForkJoinPool pool) {
+        if (transformProcess.getFinalSchema() instanceof SequenceSchema) {
+            throw new IllegalStateException("Cannot return sequence data with this method");
+        }
+
+        return execute(inputWritables, null, transformProcess, pool).getFirst();
+    }
+
+    /**
+     * Execute the specified TransformProcess with the given input data, using the common fork/join pool<br>
+     * Note: this method can only be used if the TransformProcess
+     * starts with non-sequential data,
+     * but returns <it>sequence</it>
+     * data (after grouping or converting to a sequence as one of the steps)
+     *
+     * @param inputWritables   Input data to process
+     * @param transformProcess TransformProcess to execute
+     * @return Processed (sequence) data
+     */
+    public static List<List<List<Writable>>> executeToSequence(List<List<Writable>> inputWritables,
+                    TransformProcess transformProcess) {
+        return executeToSequence(inputWritables, transformProcess, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Execute the specified TransformProcess with the given input data, using the specified fork/join pool<br>
+     * Note: this method can only be used if the TransformProcess
+     * starts with non-sequential data,
+     * but returns <it>sequence</it>
+     * data (after grouping or converting to a sequence as one of the steps)
+     *
+     * @param inputWritables   Input data to process
+     * @param transformProcess TransformProcess to execute
+     * @param pool             Pool to execute the transform process on
+     * @return Processed (sequence) data
+     */
+    public static List<List<List<Writable>>> executeToSequence(List<List<Writable>> inputWritables,
+                    TransformProcess transformProcess, ForkJoinPool pool) {
+        if (!(transformProcess.getFinalSchema() instanceof SequenceSchema)) {
+            throw new IllegalStateException("Cannot return non-sequence data with this method");
+        }
+
+        return execute(inputWritables, null, transformProcess, pool).getSecond();
+    }
+
+    /**
+     * Execute the specified TransformProcess with the given <i>sequence</i> input data, using the common
+     * fork/join pool<br>
+     * Note: this method can only be used if the TransformProcess starts with sequence data, but returns <i>non-sequential</i>
+     * data (after reducing or converting sequential data to individual examples)
+     *
+     * @param inputSequence    Input sequence data to process
+     * @param transformProcess TransformProcess to execute
+     * @return Processed (non-sequential) data
+     */
+    public static List<List<Writable>> executeSequenceToSeparate(List<List<List<Writable>>> inputSequence,
+                    TransformProcess transformProcess) {
+        return executeSequenceToSeparate(inputSequence, transformProcess, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Execute the specified TransformProcess with the given <i>sequence</i> input data, using the specified
+     * fork/join pool<br>
+     * Note: this method can only be used if the TransformProcess starts with sequence data, but returns <i>non-sequential</i>
+     * data (after reducing or converting sequential data to individual examples)
+     *
+     * @param inputSequence    Input sequence data to process
+     * @param transformProcess TransformProcess to execute
+     * @param pool             Pool to execute the transform process on
+     * @return Processed (non-sequential) data
+     */
+    public static List<List<Writable>> executeSequenceToSeparate(List<List<List<Writable>>> inputSequence,
+                    TransformProcess transformProcess, ForkJoinPool pool) {
+        if (transformProcess.getFinalSchema() instanceof SequenceSchema) {
+            throw new IllegalStateException("Cannot return sequence data with this method");
+        }
+
+        return execute(null, inputSequence, transformProcess, pool).getFirst();
+    }
+
+    /**
+     * Execute the specified TransformProcess with the given <i>sequence</i> input data, using the common
+     * fork/join pool<br>
+     * Note: this method can only be used if the TransformProcess starts with sequence data, and also returns sequence data
+     *
+     * @param inputSequence    Input sequence data to process
+     * @param transformProcess TransformProcess to execute
+     * @return Processed (sequence) data
+     */
+    public static List<List<List<Writable>>> executeSequenceToSequence(List<List<List<Writable>>> inputSequence,
+                    TransformProcess transformProcess) {
+        return executeSequenceToSequence(inputSequence, transformProcess, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Execute the specified TransformProcess with the given <i>sequence</i> input data, using the specified
+     * fork/join pool<br>
+     * Note: this method can only be used if the TransformProcess starts with sequence data, and also returns sequence data
+     *
+     * @param inputSequence    Input sequence data to process
+     * @param transformProcess TransformProcess to execute
+     * @param pool             Pool to execute the transform process on
+     * @return Processed (sequence) data
+     */
+    public static List<List<List<Writable>>> executeSequenceToSequence(List<List<List<Writable>>> inputSequence,
+                    TransformProcess transformProcess, ForkJoinPool pool) {
+        if (!(transformProcess.getFinalSchema() instanceof SequenceSchema)) {
+            throw new IllegalStateException("Cannot return non-sequence data with this method");
+        }
+
+        return execute(null, inputSequence, transformProcess, pool).getSecond();
+    }
+
+    /**
+     * Execute a join on the specified data, using the common fork/join pool
+     *
+     * @param join  Join to execute
+     * @param left  Left data for join
+     * @param right Right data for join
+     * @return Joined data
+     */
+    public static List<List<Writable>> executeJoin(Join join, List<List<Writable>> left,
+                    List<List<Writable>> right) {
+        return executeJoin(join, left, right, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Execute a join on the specified data, using the specified fork/join pool.<br>
+     * Unless the join strategy is {@link Join.JoinStrategy#Shuffle} (the default), the join is executed as a
+     * {@link HashJoin}: the smaller side for {@link Join.JoinStrategy#Auto}, or the side specified by
+     * {@link Join.JoinStrategy#BroadcastLeft} / {@link Join.JoinStrategy#BroadcastRight}, is indexed by key, and the
+     * other side is joined against the index in parallel. With the Shuffle strategy, both sides are grouped by key,
+     * and each key is joined independently
+     *
+     * @param join  Join to execute
+     * @param left  Left data for join
+     * @param right Right data for join
+     * @param pool  Pool to execute the join on
+     * @return Joined data
+     */
+    public static List<List<Writable>> executeJoin(Join join, List<List<Writable>> left,
+                    List<List<Writable>> right, ForkJoinPool pool) {
+        Join.JoinStrategy strategy = join.getStrategy();
+        if (strategy != Join.JoinStrategy.Shuffle) {
+            boolean buildLeft;
+            if (strategy == Join.JoinStrategy.Auto) {
+                buildLeft = left.size() < right.size();
+            } else {
+                buildLeft = (strategy == Join.JoinStrategy.BroadcastLeft);
+            }
+            return pool.submit(() -> executeHashJoin(join, buildLeft, left, right)).join();
+        }
+
+        int[] leftColumnIndexes = join.getLeftSchema().getIndexOfColumns(join.getJoinColumnsLeft());
+        int[] rightColumnIndexes = join.getRightSchema().getIndexOfColumns(join.getJoinColumnsRight());
+
+        return pool.submit(() -> {
+            //Equivalent of the Spark cogroup: group both sides by key, then join each key independently
+            Map<List<Writable>, List<List<Writable>>> leftByKey =
+                            left.parallelStream().collect(Collectors.groupingByConcurrent(
+                                            r -> extractKey(r, leftColumnIndexes)));
+            Map<List<Writable>, List<List<Writable>>> rightByKey =
+                            right.parallelStream().collect(Collectors.groupingByConcurrent(
+                                            r -> extractKey(r, rightColumnIndexes)));
+
+            Set<List<Writable>> allKeys = new HashSet<>(leftByKey.keySet());
+            allKeys.addAll(rightByKey.keySet());
+
+            return allKeys.parallelStream()
+                            .flatMap(k -> joinGroup(join,
+                                            leftByKey.getOrDefault(k, Collections.emptyList()),
+                                            rightByKey.getOrDefault(k, Collections.emptyList())).stream())
+                            .collect(Collectors.toList());
+        }).join();
+    }
+
+    private static List<List<Writable>> executeHashJoin(Join join, boolean buildLeft, List<List<Writable>> left,
+                    List<List<Writable>> right) {
+        HashJoin hashJoin = new HashJoin(join, buildLeft, buildLeft ? left : right);
+        List<List<Writable>> probe = (buildLeft ? right : left);
+
+        List<List<Writable>> out = probe.parallelStream().flatMap(r -> hashJoin.join(r).stream())
+                        .collect(Collectors.toCollection(ArrayList::new));
+        if (hashJoin.preservesBuildSide()) {
+            Set<List<Writable>> probeKeys = probe.parallelStream().map(hashJoin::probeKey)
+                            .collect(Collectors.toSet());
+            out.addAll(hashJoin.joinUnmatched(probeKeys));
+        }
+        return out;
+    }
+
+    private static Pair<List<List<Writable>>, List<List<List<Writable>>>> execute(
+                    List<List<Writable>> inputWritables, List<List<List<Writable>>> inputSequence,
+                    TransformProcess sequence, ForkJoinPool pool) {
+        if (inputWritables != null) {
+            if (!inputWritables.isEmpty() && inputWritables.get(0).size() != sequence.getInitialSchema().numColumns()) {
+                throw new IllegalStateException("Input data number of columns (" + inputWritables.get(0).size()
+                                + ") does not match the number of columns for the transform process ("
+                                + sequence.getInitialSchema().numColumns() + ")");
+            }
+        } else {
+            if (!inputSequence.isEmpty() && inputSequence.get(0).size() > 0
+                            && inputSequence.get(0).get(0).size() != sequence.getInitialSchema().numColumns()) {
+                throw new IllegalStateException("Input sequence data number of columns ("
+                                + inputSequence.get(0).get(0).size()
+                                + ") does not match the number of columns for the transform process ("
+                                + sequence.getInitialSchema().numColumns() + ")");
+            }
+        }
+
+        return pool.submit(() -> executeActions(inputWritables, inputSequence, sequence.getActionList())).join();
+    }
+
+    private static Pair<List<List<Writable>>, List<List<List<Writable>>>> executeActions(
+                    List<List<Writable>> inputWritables, List<List<List<Writable>>> inputSequence,
+                    List<DataAction> dataActions) {
+        List<List<Writable>> currentWritables = inputWritables;
+        List<List<List<Writable>>> currentSequence = inputSequence;
+
+        for (DataAction d : dataActions) {
+            if (d.getTransform() != null) {
+                Transform t = d.getTransform();
+                if (currentWritables != null) {
+                    currentWritables = currentWritables.parallelStream().map(t::map).collect(Collectors.toList());
+                } else {
+                    currentSequence = currentSequence.parallelStream().map(t::mapSequence)
+                                    .collect(Collectors.toList());
+                }
+            } else if (d.getFilter() != null) {
+                //Filter
+                Filter f = d.getFilter();
+                if (currentWritables != null) {
+                    currentWritables = currentWritables.parallelStream().filter(r -> !f.removeExample(r))
+                                    .collect(Collectors.toList());
+                } else {
+                    currentSequence = currentSequence.parallelStream().filter(s -> !f.removeSequence(s))
+                                    .collect(Collectors.toList());
+                }
+            } else if (d.getConvertToSequence() != null) {
+                //Convert to a sequence...
+                final ConvertToSequence cts = d.getConvertToSequence();
+
+                if (cts.isSingleStepSequencesMode()) {
+                    //Edge case: create a sequence from each example, by treating each value as a sequence of length 1
+                    currentSequence = currentWritables.parallelStream().map(Collections::singletonList)
+                                    .collect(Collectors.toList());
+                } else {
+                    //Standard case: group by key, then sort each group
+                    Schema schema = cts.getInputSchema();
+                    int[] colIdxs = schema.getIndexOfColumns(cts.getKeyColumns());
+                    Map<List<Writable>, List<List<Writable>>> grouped = currentWritables.parallelStream()
+                                    .collect(Collectors.groupingByConcurrent(r -> extractKey(r, colIdxs)));
+
+                    currentSequence = grouped.values().parallelStream().map(group -> {
+                        List<List<Writable>> seq = new ArrayList<>(group);
+                        Collections.sort(seq, cts.getComparator());
+                        return seq;
+                    }).collect(Collectors.toList());
+                }
+                currentWritables = null;
+            } else if (d.getConvertFromSequence() != null) {
+                //Convert from sequence...
+                if (currentSequence == null) {
+                    throw new IllegalStateException(
+                                    "Cannot execute ConvertFromSequence operation: current sequence is null");
+                }
+
+                currentWritables = currentSequence.parallelStream().flatMap(List::stream)
+                                .collect(Collectors.toList());
+                currentSequence = null;
+            } else if (d.getSequenceSplit() != null) {
+                SequenceSplit sequenceSplit = d.getSequenceSplit();
+                if (currentSequence == null)
+                    throw new IllegalStateException("Error during execution of SequenceSplit: currentSequence is null");
+                currentSequence = currentSequence.parallelStream().flatMap(s -> sequenceSplit.split(s).stream())
+                                .collect(Collectors.toList());
+            } else if (d.getReducer() != null) {
+                final IAssociativeReducer reducer = d.getReducer();
+
+                if (currentWritables == null)
+                    throw new IllegalStateException("Error during execution of reduction: current writables are null. "
+                                    + "Trying to execute a reduce operation on a sequence?");
+
+                //Each worker accumulates into its own reduce op per key; partial results are merged via combine
+                Collector<List<Writable>, IAggregableReduceOp<List<Writable>, List<Writable>>, List<Writable>> reduceCollector =
+                                Collector.of(reducer::aggregableReducer, IAggregableReduceOp::accept, (a, b) -> {
+                                    a.combine(b);
+                                    return a;
+                                }, IAggregableReduceOp::get);
+
+                Map<String, List<Writable>> reduced = currentWritables.parallelStream()
+                                .collect(Collectors.groupingBy(reducerKeyFunction(reducer), reduceCollector));
+                currentWritables = new ArrayList<>(reduced.values());
+            } else if (d.getCalculateSortedRank() != null) {
+                CalculateSortedRank csr = d.getCalculateSortedRank();
+
+                if (currentWritables == null) {
+                    throw new IllegalStateException(
+                                    "Error during execution of CalculateSortedRank: current writables are null. "
+                                                    + "Trying to execute a CalculateSortedRank operation on a sequence? (not currently supported)");
+                }
+
+                SortedRankComparator comparator = csr.exampleComparator();
+                Collection<List<List<Writable>>> groups;
+                if (csr.isGrouped()) {
+                    int[] groupIdxs = csr.groupByColumnIndexes();
+                    groups = currentWritables.parallelStream().collect(Collectors.groupingByConcurrent(
+                                    r -> Arrays.stream(groupIdxs).mapToObj(r::get).collect(Collectors.toList())))
+                                    .values();
+                } else {
+                    groups = Collections.singletonList(currentWritables);
+                }
+
+                currentWritables = groups.parallelStream().flatMap(group -> {
+                    @SuppressWarnings("unchecked")
+                    List<Writable>[] sorted = group.toArray(new List[group.size()]);
+                    Arrays.parallelSort(sorted, comparator);
+                    SortedRankAssigner assigner = new SortedRankAssigner(csr);
+                    return Arrays.stream(sorted).map(assigner::next);
+                }).collect(Collectors.toList());
+            } else {
+                throw new RuntimeException("Unknown/not implemented action: " + d);
+            }
+        }
+
+        return new Pair<>(currentWritables, currentSequence);
+    }
+
+    private static Function<List<Writable>, String> reducerKeyFunction(IAssociativeReducer reducer) {
+        //Same key format as used for reductions in Spark (MapToPairForReducerFunction)
+        List<String> keyColumns = reducer.getKeyColumns();
+        int[] keyIdxs = reducer.getInputSchema().getIndexOfColumns(keyColumns);
+        return writables -> {
+            if (keyIdxs.length == 1)
+                return writables.get(keyIdxs[0]).toString();
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < keyIdxs.length; i++) {
+                if (i > 0)
+                    sb.append("_");
+                sb.append(writables.get(keyIdxs[i]).toString());
+            }
+            return sb.toString();
+        };
+    }
+
+    private static List<Writable> extractKey(List<Writable> writables, int[] columnIndexes) {
+        if (columnIndexes.length == 1)
+            return Collections.singletonList(writables.get(columnIndexes[0]));
+        List<Writable> keyValues = new ArrayList<>(columnIndexes.length);
+        for (int idx : columnIndexes) {
+            keyValues.add(writables.get(idx));
+        }
+        return keyValues;
+    }
+
+    private static List<List<Writable>> joinGroup(Join join, List<List<Writable>> leftList,
+                    List<List<Writable>> rightList) {
+        List<List<Writable>> ret = new ArrayList<>();
+        switch (join.getJoinType()) {
+            case Inner:
+                //Return records where key columns appear in BOTH
+                for (List<Writable> jvl : leftList) {
+                    for (List<Writable> jvr : rightList) {
+                        ret.add(join.joinExamples(jvl, jvr));
+                    }
+                }
+                break;
+            case LeftOuter:
+                //Return all records from left, even if no corresponding right value (NullWritable in that case)
+                for (List<Writable> jvl : leftList) {
+                    if (rightList.isEmpty()) {
+                        ret.add(join.joinExamples(jvl, null));
+                    } else {
+                        for (List<Writable> jvr : rightList) {
+                            ret.add(join.joinExamples(jvl, jvr));
+                        }
+                    }
+                }
+                break;
+            case RightOuter:
+                //Return all records from right, even if no corresponding left value (NullWritable in that case)
+                for (List<Writable> jvr : rightList) {
+                    if (leftList.isEmpty()) {
+                        ret.add(join.joinExamples(null, jvr));
+                    } else {
+                        for (List<Writable> jvl : leftList) {
+                            ret.add(join.joinExamples(jvl, jvr));
+                        }
+                    }
+                }
+                break;
+            case FullOuter:
+                //Return all records, even if no corresponding left/right value (NullWritable in that case)
+                if (leftList.isEmpty()) {
+                    for (List<Writable> jvr : rightList) {
+                        ret.add(join.joinExamples(null, jvr));
+                    }
+                } else if (rightList.isEmpty()) {
+                    for (List<Writable> jvl : leftList) {
+                        ret.add(join.joinExamples(jvl, null));
+                    }
+                } else {
+                    for (List<Writable> jvl : leftList) {
+                        for (List<Writable> jvr : rightList) {
+                            ret.add(join.joinExamples(jvl, jvr));
+                        }
+                    }
+                }
+                break;
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,30 @@
+package org.datavec.local.transforms.analysis;
+
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+
+/**
+ * A mergeable counter for the analysis of a single column, used by {@link org.datavec.local.transforms.AnalyzeLocal}.
+ * Each thread adds values to its own counter; the per-thread counters are then merged.
+ *
+ * @param <T> Type of the counter
+ */
+public interface AnalysisCounter<T extends AnalysisCounter<T>> extends Serializable {
+
+    /**
+     * Add a value to this counter
+     *
+     * @param writable Value to add
+     * @return This counter
+     */
+    T add(Writable writable);
+
+    /**
+     * Merge the other counter into this counter
+     *
+     * @param other Counter to merge
+     * @return This counter
+     */
+    T merge(T other);
+}
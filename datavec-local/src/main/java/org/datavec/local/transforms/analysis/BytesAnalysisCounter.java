@@ -0,0 +1,31 @@
+package org.datavec.local.transforms.analysis;
+
+import org.datavec.api.transform.analysis.columns.BytesAnalysis;
+import org.datavec.api.writable.Writable;
+
+/**
+ * A counter for the analysis of Bytes columns: only the number of values is counted
+ */
+public class BytesAnalysisCounter implements AnalysisCounter<BytesAnalysisCounter> {
+
+    private long countTotal;
+
+    @Override
+    public BytesAnalysisCounter add(Writable writable) {
+        countTotal++;
+        return this;
+    }
+
+    @Override
+    public BytesAnalysisCounter merge(BytesAnalysisCounter other) {
+        countTotal += other.countTotal;
+        return this;
+    }
+
+    /**
+     * @return Analysis for the column
+     */
+    public BytesAnalysis toAnalysis() {
+        return new BytesAnalysis.Builder().countTotal(countTotal).build();
+    }
+}
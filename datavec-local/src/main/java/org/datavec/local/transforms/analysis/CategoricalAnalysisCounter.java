@@ -0,0 +1,51 @@
+package org.datavec.local.transforms.analysis;
+
+import org.datavec.api.transform.analysis.columns.CategoricalAnalysis;
+import org.datavec.api.writable.Writable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A counter for the analysis of Categorical columns: the number of occurrences of each category
+ */
+public class CategoricalAnalysisCounter implements AnalysisCounter<CategoricalAnalysisCounter> {
+
+    private final Map<String, long[]> counts = new HashMap<>();
+
+    @Override
+    public CategoricalAnalysisCounter add(Writable writable) {
+        String value = writable.toString();
+        long[] c = counts.get(value);
+        if (c == null) {
+            counts.put(value, new long[] {1});
+        } else {
+            c[0]++;
+        }
+        return this;
+    }
+
+    @Override
+    public CategoricalAnalysisCounter merge(CategoricalAnalysisCounter other) {
+        for (Map.Entry<String, long[]> e : other.counts.entrySet()) {
+            long[] c = counts.get(e.getKey());
+            if (c == null) {
+                counts.put(e.getKey(), new long[] {e.getValue()[0]});
+            } else {
+                c[0] += e.getValue()[0];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return Analysis for the column
+     */
+    public CategoricalAnalysis toAnalysis() {
+        Map<String, Long> out = new HashMap<>();
+        for (Map.Entry<String, long[]> e : counts.entrySet()) {
+            out.put(e.getKey(), e.getValue()[0]);
+        }
+        return new CategoricalAnalysis(out);
+    }
+}
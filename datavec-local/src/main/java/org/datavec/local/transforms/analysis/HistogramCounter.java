@@ -0,0 +1,171 @@
+package org.datavec.local.transforms.analysis;
+
+import com.tdunning.math.stats.TDigest;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A mergeable counter for building a histogram in a single pass, without knowing the range of the values in advance.
+ * <br>
+ * The exact count of each distinct value is kept while the number of distinct values is at most
+ * {@code maxDistinctValues}: histograms of such columns (integer columns with a small range, for example) are exact,
+ * and identical to a histogram calculated in a second pass over the data once the minimum and maximum are known.
+ * Beyond that, the exact counts are discarded and the histogram is estimated from a {@link TDigest} sketch of the
+ * values. Either way, memory use is bounded regardless of the number of values.<br>
+ * Bins are defined as for the Spark histogram counters: {@code nBins} equal width bins between the minimum and maximum
+ * value, with the last bin including the maximum value.
+ */
+public class HistogramCounter implements Serializable {
+
+    public static final int DEFAULT_MAX_DISTINCT_VALUES = 4096;
+    public static final double DEFAULT_COMPRESSION = 100;
+
+    private final int maxDistinctValues;
+    private Map<Double, long[]> exactCounts = new HashMap<>();
+    private TDigest digest;
+    private long count;
+
+    public HistogramCounter() {
+        this(DEFAULT_MAX_DISTINCT_VALUES);
+    }
+
+    /**
+     * @param maxDistinctValues Maximum number of distinct values for which exact counts are kept
+     */
+    public HistogramCounter(int maxDistinctValues) {
+        this.maxDistinctValues = maxDistinctValues;
+        this.digest = TDigest.createDigest(DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Add a value to the histogram
+     *
+     * @param value Value to add
+     */
+    public void add(double value) {
+        count++;
+        digest.add(value);
+        if (exactCounts != null) {
+            long[] c = exactCounts.get(value);
+            if (c == null) {
+                if (exactCounts.size() >= maxDistinctValues) {
+                    exactCounts = null;
+                    return;
+                }
+                exactCounts.put(value, new long[] {1});
+            } else {
+                c[0]++;
+            }
+        }
+    }
+
+    /**
+     * Merge the other histogram counter into this one
+     *
+     * @param other Counter to merge
+     * @return This counter
+     */
+    public HistogramCounter merge(HistogramCounter other) {
+        count += other.count;
+        digest.add(other.digest);
+        if (exactCounts != null && other.exactCounts != null) {
+            for (Map.Entry<Double, long[]> e : other.exactCounts.entrySet()) {
+                long[] c = exactCounts.get(e.getKey());
+                if (c == null) {
+                    exactCounts.put(e.getKey(), new long[] {e.getValue()[0]});
+                } else {
+                    c[0] += e.getValue()[0];
+                }
+            }
+            if (exactCounts.size() > maxDistinctValues) {
+                exactCounts = null;
+            }
+        } else {
+            exactCounts = null;
+        }
+        return this;
+    }
+
+    /**
+     * @return Sketch of the distribution of all values added to this counter
+     */
+    public TDigest getDigest() {
+        return digest;
+    }
+
+    /**
+     * @return Number of values added to this counter
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return True if the histogram counts are exact; false if they are estimated from the t-digest sketch
+     */
+    public boolean isExact() {
+        return exactCounts != null;
+    }
+
+    /**
+     * Get the bin edges for the histogram
+     *
+     * @param min   Minimum value
+     * @param max   Maximum value
+     * @param nBins Number of bins
+     * @return Bin edges: length nBins+1
+     */
+    public static double[] getBins(double min, double max, int nBins) {
+        double[] bins = new double[nBins + 1];
+        double step = (max - min) / nBins;
+        for (int i = 0; i < bins.length; i++) {
+            if (i == bins.length - 1)
+                bins[i] = max;
+            else
+                bins[i] = min + i * step;
+        }
+        return bins;
+    }
+
+    /**
+     * Get the histogram counts, for the given bins
+     *
+     * @param bins Bin edges, as returned by {@link #getBins(double, double, int)}
+     * @return Count for each bin
+     */
+    public long[] getCounts(double[] bins) {
+        int nBins = bins.length - 1;
+        long[] counts = new long[nBins];
+        if (count == 0) {
+            return counts;
+        }
+        if (exactCounts != null) {
+            for (Map.Entry<Double, long[]> e : exactCounts.entrySet()) {
+                counts[binIndex(bins, e.getKey())] += e.getValue()[0];
+            }
+            return counts;
+        }
+
+        //Estimate from the sketch: count of values below each bin edge
+        long prev = 0;
+        for (int i = 0; i < nBins; i++) {
+            long cumulative = (i == nBins - 1 ? count : Math.round(count * digest.cdf(bins[i + 1])));
+            cumulative = Math.max(prev, Math.min(count, cumulative));
+            counts[i] = cumulative - prev;
+            prev = cumulative;
+        }
+        return counts;
+    }
+
+    private static int binIndex(double[] bins, double d) {
+        int nBins = bins.length - 1;
+        for (int i = 0; i < nBins; i++) {
+            if (d >= bins[i] && d < bins[i + 1]) {
+                return i;
+            }
+        }
+        return nBins - 1;
+    }
+}
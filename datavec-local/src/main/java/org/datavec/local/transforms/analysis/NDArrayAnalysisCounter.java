@@ -0,0 +1,80 @@
+package org.datavec.local.transforms.analysis;
+
+import org.datavec.api.transform.analysis.columns.NDArrayAnalysis;
+import org.datavec.api.writable.NDArrayWritable;
+import org.datavec.api.writable.Writable;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A counter for the analysis of NDArray columns. The histogram is calculated over all values of all arrays
+ */
+public class NDArrayAnalysisCounter implements AnalysisCounter<NDArrayAnalysisCounter> {
+
+    private final HistogramCounter histogram = new HistogramCounter();
+    private long countTotal;
+    private long countNull;
+    private long minLength = Long.MAX_VALUE;
+    private long maxLength = -1;
+    private long totalNDArrayValues;
+    private Map<Integer, Long> countsByRank = new HashMap<>();
+    private double minValue = Double.MAX_VALUE;
+    private double maxValue = -Double.MAX_VALUE;
+
+    @Override
+    public NDArrayAnalysisCounter add(Writable writable) {
+        INDArray arr = ((NDArrayWritable) writable).get();
+        countTotal++;
+        if (arr == null) {
+            countNull++;
+            return this;
+        }
+        int length = arr.length();
+        minLength = Math.min(minLength, length);
+        maxLength = Math.max(maxLength, length);
+        Long c = countsByRank.get(arr.rank());
+        countsByRank.put(arr.rank(), c == null ? 1L : c + 1);
+        totalNDArrayValues += length;
+        for (int i = 0; i < length; i++) {
+            double d = arr.getDouble(i);
+            minValue = Math.min(minValue, d);
+            maxValue = Math.max(maxValue, d);
+            histogram.add(d);
+        }
+        return this;
+    }
+
+    @Override
+    public NDArrayAnalysisCounter merge(NDArrayAnalysisCounter other) {
+        countTotal += other.countTotal;
+        countNull += other.countNull;
+        minLength = Math.min(minLength, other.minLength);
+        maxLength = Math.max(maxLength, other.maxLength);
+        totalNDArrayValues += other.totalNDArrayValues;
+        for (Map.Entry<Integer, Long> e : other.countsByRank.entrySet()) {
+            Long c = countsByRank.get(e.getKey());
+            countsByRank.put(e.getKey(), c == null ? e.getValue() : c + e.getValue());
+        }
+        minValue = Math.min(minValue, other.minValue);
+        maxValue = Math.max(maxValue, other.maxValue);
+        histogram.merge(other.histogram);
+        return this;
+    }
+
+    /**
+     * Create the analysis for the column
+     *
+     * @param nBins Number of histogram bins
+     * @return Analysis, including the histogram of array values
+     */
+    public NDArrayAnalysis toAnalysis(int nBins) {
+        double[] bins = (histogram.getCount() == 0 ? HistogramCounter.getBins(0, 0, nBins)
+                        : HistogramCounter.getBins(minValue, maxValue, nBins));
+        return NDArrayAnalysis.Builder().countTotal(countTotal).countNull(countNull).minLength(minLength)
+                        .maxLength(maxLength).totalNDArrayValues(totalNDArrayValues).countsByRank(countsByRank)
+                        .minValue(minValue).maxValue(maxValue).histogramBuckets(bins)
+                        .histogramBucketCounts(histogram.getCounts(bins)).build();
+    }
+}
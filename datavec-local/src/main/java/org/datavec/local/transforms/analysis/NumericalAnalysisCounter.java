@@ -0,0 +1,216 @@
+package org.datavec.local.transforms.analysis;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.analysis.columns.*;
+import org.datavec.api.writable.NullWritable;
+import org.datavec.api.writable.Writable;
+
+/**
+ * A counter for the analysis of Integer, Long, Double and Time columns. Integer, Long and Time values are handled as
+ * longs, so the minimum and maximum values (and the counts of those values) are exact for all integer columns.
+ * NaN values in Double columns are counted, but are otherwise excluded from the analysis.
+ * {@link NullWritable} values are ignored.
+ */
+public class NumericalAnalysisCounter implements AnalysisCounter<NumericalAnalysisCounter> {
+
+    private final ColumnType columnType;
+    private final boolean integral;
+    private final StatCounter counter = new StatCounter();
+    private final HistogramCounter histogram = new HistogramCounter();
+    private long countZero;
+    private long countPositive;
+    private long countNegative;
+    private long countNaN;
+    private long countMinValue;
+    private long countMaxValue;
+    private long minLong = Long.MAX_VALUE;
+    private long maxLong = Long.MIN_VALUE;
+    private double minDouble = Double.POSITIVE_INFINITY;
+    private double maxDouble = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param columnType Type of the column: one of Integer, Long, Double or Time
+     */
+    public NumericalAnalysisCounter(ColumnType columnType) {
+        switch (columnType) {
+            case Integer:
+            case Long:
+            case Time:
+                integral = true;
+                break;
+            case Double:
+            case Float:
+                integral = false;
+                break;
+            default:
+                throw new IllegalArgumentException("Not a numerical column type: " + columnType);
+        }
+        this.columnType = columnType;
+    }
+
+    @Override
+    public NumericalAnalysisCounter add(Writable writable) {
+        if (writable instanceof NullWritable) {
+            return this;
+        }
+        if (integral) {
+            long value = writable.toLong();
+            if (value < minLong) {
+                minLong = value;
+                countMinValue = 1;
+            } else if (value == minLong) {
+                countMinValue++;
+            }
+            if (value > maxLong) {
+                maxLong = value;
+                countMaxValue = 1;
+            } else if (value == maxLong) {
+                countMaxValue++;
+            }
+            addCommon(value);
+        } else {
+            double value = writable.toDouble();
+            if (Double.isNaN(value)) {
+                countNaN++;
+                return this;
+            }
+            if (value < minDouble) {
+                minDouble = value;
+                countMinValue = 1;
+            } else if (value == minDouble) {
+                countMinValue++;
+            }
+            if (value > maxDouble) {
+                maxDouble = value;
+                countMaxValue = 1;
+            } else if (value == maxDouble) {
+                countMaxValue++;
+            }
+            addCommon(value);
+        }
+        return this;
+    }
+
+    private void addCommon(double value) {
+        if (value == 0) {
+            countZero++;
+        }
+        if (value >= 0) {
+            countPositive++;
+        } else {
+            countNegative++;
+        }
+        counter.add(value);
+        histogram.add(value);
+    }
+
+    @Override
+    public NumericalAnalysisCounter merge(NumericalAnalysisCounter other) {
+        if (integral) {
+            countMinValue = mergeCount(minLong == other.minLong, minLong > other.minLong, countMinValue,
+                            other.countMinValue);
+            countMaxValue = mergeCount(maxLong == other.maxLong, maxLong < other.maxLong, countMaxValue,
+                            other.countMaxValue);
+            minLong = Math.min(minLong, other.minLong);
+            maxLong = Math.max(maxLong, other.maxLong);
+        } else {
+            countMinValue = mergeCount(minDouble == other.minDouble, minDouble > other.minDouble, countMinValue,
+                            other.countMinValue);
+            countMaxValue = mergeCount(maxDouble == other.maxDouble, maxDouble < other.maxDouble, countMaxValue,
+                            other.countMaxValue);
+            minDouble = Math.min(minDouble, other.minDouble);
+            maxDouble = Math.max(maxDouble, other.maxDouble);
+        }
+        countZero += other.countZero;
+        countPositive += other.countPositive;
+        countNegative += other.countNegative;
+        countNaN += other.countNaN;
+        counter.merge(other.counter);
+        histogram.merge(other.histogram);
+        return this;
+    }
+
+    private static long mergeCount(boolean equal, boolean otherWins, long count, long otherCount) {
+        if (equal) {
+            return count + otherCount;
+        }
+        return otherWins ? otherCount : count;
+    }
+
+    /**
+     * @return Minimum value, as a double (NaN if no values have been added)
+     */
+    public double getMinDouble() {
+        if (counter.getCount() == 0) {
+            return Double.NaN;
+        }
+        return integral ? minLong : minDouble;
+    }
+
+    /**
+     * @return Maximum value, as a double (NaN if no values have been added)
+     */
+    public double getMaxDouble() {
+        if (counter.getCount() == 0) {
+            return Double.NaN;
+        }
+        return integral ? maxLong : maxDouble;
+    }
+
+    public long getCountTotal() {
+        return counter.getCount();
+    }
+
+    public long getCountNaN() {
+        return countNaN;
+    }
+
+    /**
+     * Create the analysis for the column
+     *
+     * @param nBins Number of histogram bins
+     * @return Analysis, including the histogram
+     */
+    public ColumnAnalysis toAnalysis(int nBins) {
+        double[] bins;
+        long[] counts;
+        if (counter.getCount() == 0) {
+            bins = HistogramCounter.getBins(0, 0, nBins);
+            counts = new long[nBins];
+        } else {
+            bins = HistogramCounter.getBins(getMinDouble(), getMaxDouble(), nBins);
+            counts = histogram.getCounts(bins);
+        }
+
+        NumericalColumnAnalysis.Builder<?> b;
+        switch (columnType) {
+            case Integer:
+                b = new IntegerAnalysis.Builder().min((int) minLong).max((int) maxLong);
+                break;
+            case Long:
+                b = new LongAnalysis.Builder().min(minLong).max(maxLong);
+                break;
+            case Time:
+                b = new TimeAnalysis.Builder().min(minLong).max(maxLong);
+                break;
+            default:
+                b = new DoubleAnalysis.Builder().min(minDouble).max(maxDouble).countNaN(countNaN);
+                break;
+        }
+        b.mean(counter.getMean()).sampleStdev(counter.getSampleStdev()).sampleVariance(counter.getSampleVariance())
+                        .countZero(countZero).countNegative(countNegative).countPositive(countPositive)
+                        .countMinValue(countMinValue).countMaxValue(countMaxValue).countTotal(counter.getCount())
+                        .digest(histogram.getDigest()).histogramBuckets(bins).histogramBucketCounts(counts);
+
+        switch (columnType) {
+            case Integer:
+                return ((IntegerAnalysis.Builder) b).build();
+            case Long:
+                return ((LongAnalysis.Builder) b).build();
+            case Time:
+                return ((TimeAnalysis.Builder) b).build();
+            default:
+                return ((DoubleAnalysis.Builder) b).build();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package org.datavec.local.transforms.analysis;
+
+import com.clearspring.analytics.stream.cardinality.CardinalityMergeException;
+import com.clearspring.analytics.stream.cardinality.HyperLogLogPlus;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.metadata.ColumnMetaData;
+import org.datavec.api.transform.quality.columns.*;
+import org.datavec.api.writable.*;
+
+import java.util.regex.Pattern;
+
+/**
+ * A mergeable counter for the quality analysis of a single column. Values are counted as valid or invalid according to
+ * the column metadata, or as missing ({@link NullWritable}, or an empty {@link Text} value for non-String columns).
+ * Type specific counts (for example: the number of values that are not integers, for Integer columns) are calculated
+ * in the same way as for the Spark quality analysis
+ */
+public class QualityAnalysisCounter implements AnalysisCounter<QualityAnalysisCounter> {
+
+    private static final Pattern ALPHABETIC = Pattern.compile("[a-zA-Z]+");
+    private static final Pattern NUMERICAL = Pattern.compile("\\d+");
+    private static final Pattern WORD = Pattern.compile("\\w+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ColumnMetaData meta;
+    private final ColumnType columnType;
+    private long countValid;
+    private long countInvalid;
+    private long countMissing;
+    private long countTotal;
+    //Integer and Long: count non-integer; Double and Float: count non-real
+    private long countWrongType;
+    private long countNaN;
+    private long countInfinite;
+    private long countEmptyString;
+    private long countAlphabetic;
+    private long countNumerical;
+    private long countWordCharacter;
+    private long countWhitespace;
+    private HyperLogLogPlus hll;
+
+    /**
+     * @param meta Metadata for the column
+     */
+    public QualityAnalysisCounter(ColumnMetaData meta) {
+        this.meta = meta;
+        this.columnType = meta.getColumnType();
+        switch (columnType) {
+            case String:
+                hll = new StringQuality().getHll();
+                break;
+            case Integer:
+            case Long:
+            case Double:
+            case Float:
+            case Categorical:
+            case Time:
+            case Bytes:
+                break;
+            default:
+                throw new UnsupportedOperationException("Quality analysis is not supported for column \""
+                                + meta.getName() + "\" of type " + columnType);
+        }
+    }
+
+    @Override
+    public QualityAnalysisCounter add(Writable writable) {
+        countTotal++;
+        if (columnType == ColumnType.String) {
+            addString(writable);
+            return this;
+        }
+
+        if (meta.isValid(writable))
+            countValid++;
+        else if (writable instanceof NullWritable
+                        || writable instanceof Text && (writable.toString() == null || writable.toString().isEmpty()))
+            countMissing++;
+        else
+            countInvalid++;
+
+        switch (columnType) {
+            case Integer:
+                if (!(writable instanceof IntWritable)) {
+                    try {
+                        Integer.parseInt(writable.toString());
+                    } catch (NumberFormatException e) {
+                        countWrongType++;
+                    }
+                }
+                break;
+            case Long:
+                if (!(writable instanceof LongWritable || writable instanceof IntWritable)) {
+                    try {
+                        Long.parseLong(writable.toString());
+                    } catch (NumberFormatException e) {
+                        countWrongType++;
+                    }
+                }
+                break;
+            case Double:
+            case Float:
+                double d;
+                if (writable instanceof DoubleWritable || writable instanceof FloatWritable) {
+                    d = writable.toDouble();
+                } else {
+                    try {
+                        d = Double.parseDouble(writable.toString());
+                    } catch (NumberFormatException e) {
+                        countWrongType++;
+                        break;
+                    }
+                }
+                if (Double.isNaN(d))
+                    countNaN++;
+                if (Double.isInfinite(d))
+                    countInfinite++;
+                break;
+            default:
+                break;
+        }
+        return this;
+    }
+
+    private void addString(Writable writable) {
+        String str = writable.toString();
+        if (writable instanceof NullWritable)
+            countMissing++;
+        else if (meta.isValid(writable))
+            countValid++;
+        else
+            countInvalid++;
+
+        if (str == null || str.isEmpty()) {
+            countEmptyString++;
+        } else {
+            if (ALPHABETIC.matcher(str).matches())
+                countAlphabetic++;
+            if (NUMERICAL.matcher(str).matches())
+                countNumerical++;
+            if (WORD.matcher(str).matches())
+                countWordCharacter++;
+            if (WHITESPACE.matcher(str).matches())
+                countWhitespace++;
+        }
+        hll.offer(str);
+    }
+
+    @Override
+    public QualityAnalysisCounter merge(QualityAnalysisCounter other) {
+        countValid += other.countValid;
+        countInvalid += other.countInvalid;
+        countMissing += other.countMissing;
+        countTotal += other.countTotal;
+        countWrongType += other.countWrongType;
+        countNaN += other.countNaN;
+        countInfinite += other.countInfinite;
+        countEmptyString += other.countEmptyString;
+        countAlphabetic += other.countAlphabetic;
+        countNumerical += other.countNumerical;
+        countWordCharacter += other.countWordCharacter;
+        countWhitespace += other.countWhitespace;
+        if (hll != null) {
+            try {
+                hll.addAll(other.hll);
+            } catch (CardinalityMergeException e) {
+                throw new RuntimeException("Error merging cardinality estimates for column \"" + meta.getName() + "\"",
+                                e);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return Quality of the column
+     */
+    public ColumnQuality toColumnQuality() {
+        switch (columnType) {
+            case String:
+                return new StringQuality(countValid, countInvalid, countMissing, countTotal, countEmptyString,
+                                countAlphabetic, countNumerical, countWordCharacter, countWhitespace, hll);
+            case Integer:
+                return new IntegerQuality(countValid, countInvalid, countMissing, countTotal, countWrongType);
+            case Long:
+                return new LongQuality(countValid, countInvalid, countMissing, countTotal, countWrongType);
+            case Double:
+            case Float:
+                return new DoubleQuality(countValid, countInvalid, countMissing, countTotal, countWrongType, countNaN,
+                                countInfinite);
+            case Categorical:
+                return new CategoricalQuality(countValid, countInvalid, countMissing, countTotal);
+            case Time:
+                return new TimeQuality(countValid, countInvalid, countMissing, countTotal);
+            default:
+                return new BytesQuality(countValid, countInvalid, countMissing, countTotal);
+        }
+    }
+}
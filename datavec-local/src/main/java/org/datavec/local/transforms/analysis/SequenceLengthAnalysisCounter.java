@@ -0,0 +1,62 @@
+package org.datavec.local.transforms.analysis;
+
+import org.datavec.api.transform.analysis.sequence.SequenceLengthAnalysis;
+
+import java.io.Serializable;
+
+/**
+ * A mergeable counter for the analysis of sequence lengths
+ */
+public class SequenceLengthAnalysisCounter implements Serializable {
+
+    private final StatCounter counter = new StatCounter();
+    private final HistogramCounter histogram = new HistogramCounter();
+    private long countZeroLength;
+    private long countOneLength;
+
+    /**
+     * @param length Length of a sequence
+     * @return This counter
+     */
+    public SequenceLengthAnalysisCounter add(int length) {
+        if (length == 0)
+            countZeroLength++;
+        else if (length == 1)
+            countOneLength++;
+        counter.add(length);
+        histogram.add(length);
+        return this;
+    }
+
+    public SequenceLengthAnalysisCounter merge(SequenceLengthAnalysisCounter other) {
+        countZeroLength += other.countZeroLength;
+        countOneLength += other.countOneLength;
+        counter.merge(other.counter);
+        histogram.merge(other.histogram);
+        return this;
+    }
+
+    /**
+     * Create the sequence length analysis. As for the Spark analysis, the number of histogram bins is the smaller of
+     * maxHistogramBuckets and the difference between the maximum and minimum sequence lengths
+     *
+     * @param maxHistogramBuckets Maximum number of histogram bins
+     * @return Sequence length analysis
+     */
+    public SequenceLengthAnalysis toAnalysis(int maxHistogramBuckets) {
+        int min = (counter.getCount() == 0 ? 0 : (int) counter.getMin());
+        int max = (counter.getCount() == 0 ? 0 : (int) counter.getMax());
+        double[] bins;
+        long[] counts;
+        if (min == max) {
+            bins = new double[] {min};
+            counts = new long[] {counter.getCount()};
+        } else {
+            bins = HistogramCounter.getBins(min, max, Math.min(max - min, maxHistogramBuckets));
+            counts = histogram.getCounts(bins);
+        }
+        return SequenceLengthAnalysis.builder().totalNumSequences(counter.getCount()).minSeqLength(min)
+                        .maxSeqLength(max).countZeroLength(countZeroLength).countOneLength(countOneLength)
+                        .meanLength(counter.getMean()).histogramBuckets(bins).histogramBucketCounts(counts).build();
+    }
+}
@@ -0,0 +1,89 @@
+package org.datavec.local.transforms.analysis;
+
+import java.io.Serializable;
+
+/**
+ * A mergeable counter for the count, mean, variance, minimum and maximum of a set of values, in a single pass.
+ * The mean and variance are calculated with Welford's online algorithm, and merged with the parallel variant of
+ * Chan et al. (the same approach as Spark's {@code StatCounter})
+ */
+public class StatCounter implements Serializable {
+
+    private long count;
+    private double mean;
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Add a value to this counter
+     *
+     * @param value Value to add
+     * @return This counter
+     */
+    public StatCounter add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        return this;
+    }
+
+    /**
+     * Merge the other counter into this counter
+     *
+     * @param other Counter to merge
+     * @return This counter
+     */
+    public StatCounter merge(StatCounter other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            min = other.min;
+            max = other.max;
+            return this;
+        }
+        long n = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / n;
+        m2 += other.m2 + delta * delta * count * other.count / n;
+        count = n;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    public double getSum() {
+        return mean * count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getSampleVariance() {
+        return count <= 1 ? Double.NaN : m2 / (count - 1);
+    }
+
+    public double getSampleStdev() {
+        return Math.sqrt(getSampleVariance());
+    }
+}
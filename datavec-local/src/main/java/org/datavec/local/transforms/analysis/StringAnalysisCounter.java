@@ -0,0 +1,49 @@
+package org.datavec.local.transforms.analysis;
+
+import org.datavec.api.transform.analysis.columns.StringAnalysis;
+import org.datavec.api.writable.NullWritable;
+import org.datavec.api.writable.Writable;
+
+/**
+ * A counter for the analysis of String columns: statistics and histogram of the string lengths.
+ * {@link NullWritable} values are ignored.
+ */
+public class StringAnalysisCounter implements AnalysisCounter<StringAnalysisCounter> {
+
+    private final StatCounter counter = new StatCounter();
+    private final HistogramCounter histogram = new HistogramCounter();
+
+    @Override
+    public StringAnalysisCounter add(Writable writable) {
+        if (writable instanceof NullWritable) {
+            return this;
+        }
+        int length = writable.toString().length();
+        counter.add(length);
+        histogram.add(length);
+        return this;
+    }
+
+    @Override
+    public StringAnalysisCounter merge(StringAnalysisCounter other) {
+        counter.merge(other.counter);
+        histogram.merge(other.histogram);
+        return this;
+    }
+
+    /**
+     * Create the analysis for the column
+     *
+     * @param nBins Number of histogram bins
+     * @return Analysis, including the histogram of string lengths
+     */
+    public StringAnalysis toAnalysis(int nBins) {
+        int min = (counter.getCount() == 0 ? 0 : (int) counter.getMin());
+        int max = (counter.getCount() == 0 ? 0 : (int) counter.getMax());
+        double[] bins = HistogramCounter.getBins(min, max, nBins);
+        return new StringAnalysis.Builder().countTotal(counter.getCount()).minLength(min).maxLength(max)
+                        .meanLength(counter.getMean()).sampleStdevLength(counter.getSampleStdev())
+                        .sampleVarianceLength(counter.getSampleVariance()).histogramBuckets(bins)
+                        .histogramBucketCounts(histogram.getCounts(bins)).build();
+    }
+}
@@ -0,0 +1,120 @@
+package org.datavec.local.transforms;
+
+import org.datavec.api.records.reader.impl.collection.CollectionRecordReader;
+import org.datavec.api.records.reader.impl.collection.CollectionSequenceRecordReader;
+import org.datavec.api.transform.analysis.DataAnalysis;
+import org.datavec.api.transform.analysis.SequenceDataAnalysis;
+import org.datavec.api.transform.analysis.columns.*;
+import org.datavec.api.transform.quality.DataQualityAnalysis;
+import org.datavec.api.transform.quality.columns.DoubleQuality;
+import org.datavec.api.transform.quality.columns.IntegerQuality;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AnalyzeLocalTest {
+
+    private static Schema schema() {
+        return new Schema.Builder().addColumnInteger("int").addColumnDouble("double")
+                        .addColumnCategorical("cat", "a", "b", "c").addColumnString("str").build();
+    }
+
+    private static List<List<Writable>> data(int n) {
+        Random r = new Random(12345);
+        String[] cat = {"a", "b", "c"};
+        List<List<Writable>> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            out.add(Arrays.<Writable>asList(new IntWritable(i % 10 - 2), new DoubleWritable(r.nextGaussian()),
+                            new Text(cat[i % 3]), new Text(i % 2 == 0 ? "ab" : "abcd")));
+        }
+        return out;
+    }
+
+    @Test
+    public void testAnalyze() {
+        List<List<Writable>> data = data(10000);
+        for (int numThreads : new int[] {1, 4}) {
+            DataAnalysis da = AnalyzeLocal.analyze(schema(), new CollectionRecordReader(data), 10, numThreads);
+
+            IntegerAnalysis ia = (IntegerAnalysis) da.getColumnAnalysis("int");
+            assertEquals(-2, ia.getMin());
+            assertEquals(7, ia.getMax());
+            assertEquals(10000, ia.getCountTotal());
+            assertEquals(1000, ia.getCountMinValue());
+            assertEquals(1000, ia.getCountMaxValue());
+            assertEquals(1000, ia.getCountZero());
+            assertEquals(2000, ia.getCountNegative());
+            assertEquals(2.5, ia.getMean(), 1e-9);
+            //Few distinct values: exact histogram
+            assertArrayEquals(new long[] {1000, 1000, 1000, 1000, 1000, 1000, 1000, 1000, 1000, 1000},
+                            ia.getHistogramBucketCounts());
+
+            DoubleAnalysis dbl = (DoubleAnalysis) da.getColumnAnalysis("double");
+            assertEquals(10000, dbl.getCountTotal());
+            assertEquals(0.0, dbl.getMean(), 0.05);
+            assertEquals(1.0, dbl.getSampleStdev(), 0.05);
+            long sum = 0;
+            for (long c : dbl.getHistogramBucketCounts()) {
+                assertTrue(c >= 0);
+                sum += c;
+            }
+            assertEquals(10000, sum);
+
+            CategoricalAnalysis ca = (CategoricalAnalysis) da.getColumnAnalysis("cat");
+            assertEquals(3334L, (long) ca.getMapOfCounts().get("a"));
+            assertEquals(3333L, (long) ca.getMapOfCounts().get("b"));
+
+            StringAnalysis sa = (StringAnalysis) da.getColumnAnalysis("str");
+            assertEquals(2, sa.getMinLength());
+            assertEquals(4, sa.getMaxLength());
+            assertEquals(3.0, sa.getMeanLength(), 1e-9);
+            assertEquals(5000, sa.getHistogramBucketCounts()[0]);
+            assertEquals(5000, sa.getHistogramBucketCounts()[9]);
+        }
+    }
+
+    @Test
+    public void testAnalyzeSequence() {
+        List<List<List<Writable>>> sequences = new ArrayList<>();
+        List<List<Writable>> data = data(100);
+        for (int i = 0; i < 10; i++) {
+            sequences.add(data.subList(0, i + 1));
+        }
+        SequenceDataAnalysis sda =
+                        AnalyzeLocal.analyzeSequence(schema(), new CollectionSequenceRecordReader(sequences), 10, 3);
+        assertEquals(10, sda.getSequenceLengthAnalysis().getTotalNumSequences());
+        assertEquals(1, sda.getSequenceLengthAnalysis().getMinSeqLength());
+        assertEquals(10, sda.getSequenceLengthAnalysis().getMaxSeqLength());
+        assertEquals(1, sda.getSequenceLengthAnalysis().getCountOneLength());
+        assertEquals(55, ((IntegerAnalysis) sda.getColumnAnalysis("int")).getCountTotal());
+    }
+
+    @Test
+    public void testAnalyzeQuality() {
+        Schema schema = new Schema.Builder().addColumnInteger("int", 0, 10).addColumnDouble("double").build();
+        List<List<Writable>> data = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Writable a = (i % 10 == 0 ? NullWritable.INSTANCE : new IntWritable(i % 20));
+            Writable b = (i % 4 == 0 ? new Text("notADouble") : new DoubleWritable(i % 8 == 1 ? Double.NaN : i));
+            data.add(Arrays.asList(a, b));
+        }
+
+        DataQualityAnalysis dqa = AnalyzeLocal.analyzeQuality(schema, new CollectionRecordReader(data), 4);
+        IntegerQuality iq = (IntegerQuality) dqa.getColumnQualityList().get(0);
+        assertEquals(1000, iq.getCountTotal());
+        assertEquals(100, iq.getCountMissing());
+        assertEquals(450, iq.getCountInvalid());
+        assertEquals(450, iq.getCountValid());
+
+        DoubleQuality dq = (DoubleQuality) dqa.getColumnQualityList().get(1);
+        assertEquals(250, dq.getCountNonReal());
+        assertEquals(125, dq.getCountNaN());
+    }
+}
@@ -0,0 +1,276 @@
+package org.datavec.local.transforms;
+
+import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.ReduceOp;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.condition.column.IntegerColumnCondition;
+import org.datavec.api.transform.join.Join;
+import org.datavec.api.transform.rank.CalculateSortedRank;
+import org.datavec.api.transform.reduce.Reducer;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.schema.SequenceSchema;
+import org.datavec.api.transform.sequence.comparator.NumericalColumnComparator;
+import org.datavec.api.writable.*;
+import org.datavec.api.writable.comparator.DoubleWritableComparator;
+import org.datavec.api.writable.comparator.WritableComparator;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+public class LocalTransformExecutorTest {
+
+    @Test
+    public void testExecutionSimple() {
+        Schema schema = new Schema.Builder().addColumnInteger("col0")
+                        .addColumnCategorical("col1", "state0", "state1", "state2").addColumnDouble("col2").build();
+
+        TransformProcess tp = new TransformProcess.Builder(schema).categoricalToInteger("col1")
+                        .doubleMathOp("col2", MathOp.Add, 10.0).build();
+
+        List<List<Writable>> inputData = new ArrayList<>();
+        inputData.add(Arrays.<Writable>asList(new IntWritable(0), new Text("state2"), new DoubleWritable(0.1)));
+        inputData.add(Arrays.<Writable>asList(new IntWritable(1), new Text("state1"), new DoubleWritable(1.1)));
+        inputData.add(Arrays.<Writable>asList(new IntWritable(2), new Text("state0"), new DoubleWritable(2.1)));
+
+        List<List<Writable>> out = LocalTransformExecutor.execute(inputData, tp, new ForkJoinPool(2));
+
+        List<List<Writable>> expected = new ArrayList<>();
+        expected.add(Arrays.<Writable>asList(new IntWritable(0), new IntWritable(2), new DoubleWritable(10.1)));
+        expected.add(Arrays.<Writable>asList(new IntWritable(1), new IntWritable(1), new DoubleWritable(11.1)));
+        expected.add(Arrays.<Writable>asList(new IntWritable(2), new IntWritable(0), new DoubleWritable(12.1)));
+
+        assertEquals(expected, out);
+    }
+
+    @Test
+    public void testFilterAndReduce() {
+        Schema schema = new Schema.Builder().addColumnString("key").addColumnInteger("value").build();
+
+        TransformProcess tp = new TransformProcess.Builder(schema)
+                        .filter(new IntegerColumnCondition("value", ConditionOp.LessThan, 0))
+                        .reduce(new Reducer.Builder(ReduceOp.Sum).keyColumns("key").build()).build();
+
+        List<List<Writable>> inputData = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            inputData.add(Arrays.<Writable>asList(new Text("key" + (i % 3)), new IntWritable(i % 2 == 0 ? i : -i)));
+        }
+
+        List<List<Writable>> out = new ArrayList<>(LocalTransformExecutor.execute(inputData, tp));
+        Collections.sort(out, new Comparator<List<Writable>>() {
+            @Override
+            public int compare(List<Writable> o1, List<Writable> o2) {
+                return o1.get(0).toString().compareTo(o2.get(0).toString());
+            }
+        });
+
+        assertEquals(3, out.size());
+        for (int k = 0; k < 3; k++) {
+            int expSum = 0;
+            for (int i = 0; i < 1000; i += 2) {
+                if (i % 3 == k)
+                    expSum += i;
+            }
+            assertEquals("key" + k, out.get(k).get(0).toString());
+            assertEquals(expSum, out.get(k).get(1).toInt());
+        }
+    }
+
+    @Test
+    public void testConvertToSequence() {
+        Schema schema = new Schema.Builder().addColumnsString("key").addColumnLong("time").build();
+
+        List<List<Writable>> allExamples = new ArrayList<>();
+        allExamples.add(Arrays.<Writable>asList(new Text("k1"), new LongWritable(10)));
+        allExamples.add(Arrays.<Writable>asList(new Text("k2"), new LongWritable(10)));
+        allExamples.add(Arrays.<Writable>asList(new Text("k1"), new LongWritable(-10)));
+        allExamples.add(Arrays.<Writable>asList(new Text("k2"), new LongWritable(5)));
+        allExamples.add(Arrays.<Writable>asList(new Text("k1"), new LongWritable(0)));
+
+        TransformProcess tp = new TransformProcess.Builder(schema)
+                        .convertToSequence("key", new NumericalColumnComparator("time")).build();
+
+        List<List<List<Writable>>> out =
+                        new ArrayList<>(LocalTransformExecutor.executeToSequence(allExamples, tp));
+        assertEquals(2, out.size());
+        Collections.sort(out, new Comparator<List<List<Writable>>>() {
+            @Override
+            public int compare(List<List<Writable>> o1, List<List<Writable>> o2) {
+                return -Integer.compare(o1.size(), o2.size());
+            }
+        });
+
+        List<List<Writable>> seq0 = out.get(0);
+        assertEquals(3, seq0.size());
+        assertEquals(-10, seq0.get(0).get(1).toLong());
+        assertEquals(0, seq0.get(1).get(1).toLong());
+        assertEquals(10, seq0.get(2).get(1).toLong());
+
+        List<List<Writable>> seq1 = out.get(1);
+        assertEquals(2, seq1.size());
+        assertEquals(5, seq1.get(0).get(1).toLong());
+        assertEquals(10, seq1.get(1).get(1).toLong());
+    }
+
+    @Test
+    public void testExecutionSequence() {
+        Schema schema = new SequenceSchema.Builder().addColumnInteger("col0")
+                        .addColumnCategorical("col1", "state0", "state1", "state2").addColumnDouble("col2").build();
+
+        TransformProcess tp = new TransformProcess.Builder(schema).categoricalToInteger("col1")
+                        .doubleMathOp("col2", MathOp.Add, 10.0).build();
+
+        List<List<List<Writable>>> inputSequences = new ArrayList<>();
+        List<List<Writable>> seq1 = new ArrayList<>();
+        seq1.add(Arrays.<Writable>asList(new IntWritable(0), new Text("state2"), new DoubleWritable(0.1)));
+        seq1.add(Arrays.<Writable>asList(new IntWritable(1), new Text("state1"), new DoubleWritable(1.1)));
+        List<List<Writable>> seq2 = new ArrayList<>();
+        seq2.add(Arrays.<Writable>asList(new IntWritable(3), new Text("state0"), new DoubleWritable(3.1)));
+        inputSequences.add(seq1);
+        inputSequences.add(seq2);
+
+        List<List<List<Writable>>> out = LocalTransformExecutor.executeSequenceToSequence(inputSequences, tp);
+
+        List<List<List<Writable>>> expectedSequence = new ArrayList<>();
+        List<List<Writable>> seq1e = new ArrayList<>();
+        seq1e.add(Arrays.<Writable>asList(new IntWritable(0), new IntWritable(2), new DoubleWritable(10.1)));
+        seq1e.add(Arrays.<Writable>asList(new IntWritable(1), new IntWritable(1), new DoubleWritable(11.1)));
+        List<List<Writable>> seq2e = new ArrayList<>();
+        seq2e.add(Arrays.<Writable>asList(new IntWritable(3), new IntWritable(0), new DoubleWritable(13.1)));
+        expectedSequence.add(seq1e);
+        expectedSequence.add(seq2e);
+
+        assertEquals(expectedSequence, out);
+    }
+
+    @Test
+    public void testCalculateSortedRank() {
+        List<List<Writable>> data = new ArrayList<>();
+        data.add(Arrays.asList((Writable) new Text("0"), new DoubleWritable(0.0)));
+        data.add(Arrays.asList((Writable) new Text("3"), new DoubleWritable(0.3)));
+        data.add(Arrays.asList((Writable) new Text("2"), new DoubleWritable(0.2)));
+        data.add(Arrays.asList((Writable) new Text("1"), new DoubleWritable(0.1)));
+
+        Schema schema = new Schema.Builder().addColumnsString("TextCol").addColumnDouble("DoubleCol").build();
+
+        TransformProcess tp = new TransformProcess.Builder(schema)
+                        .calculateSortedRank("rank", "DoubleCol", new DoubleWritableComparator()).build();
+
+        List<List<Writable>> out = LocalTransformExecutor.execute(data, tp);
+        assertEquals(4, out.size());
+        for (List<Writable> example : out) {
+            assertEquals(3, example.size());
+            assertEquals(example.get(0).toInt(), example.get(2).toInt());
+        }
+    }
+
+    @Test
+    public void testCalculateSortedRankGroupedDense() {
+        List<List<Writable>> data = new ArrayList<>();
+        //Group, value, expected rank within group (dense, descending)
+        data.add(Arrays.asList((Writable) new Text("a"), new DoubleWritable(1.0), new IntWritable(2)));
+        data.add(Arrays.asList((Writable) new Text("a"), new DoubleWritable(3.0), new IntWritable(0)));
+        data.add(Arrays.asList((Writable) new Text("a"), new DoubleWritable(2.0), new IntWritable(1)));
+        data.add(Arrays.asList((Writable) new Text("a"), new DoubleWritable(2.0), new IntWritable(1)));
+        data.add(Arrays.asList((Writable) new Text("b"), new DoubleWritable(0.5), new IntWritable(1)));
+        data.add(Arrays.asList((Writable) new Text("b"), new DoubleWritable(7.0), new IntWritable(0)));
+
+        Schema schema = new Schema.Builder().addColumnsString("group").addColumnDouble("value")
+                        .addColumnInteger("expected").build();
+
+        TransformProcess tp = new TransformProcess.Builder(schema).calculateSortedRank(new CalculateSortedRank("rank",
+                        new String[] {"value"}, new WritableComparator[] {new DoubleWritableComparator()}, false,
+                        CalculateSortedRank.RankType.Dense, new String[] {"group"})).build();
+
+        List<List<Writable>> out = LocalTransformExecutor.execute(data, tp);
+        assertEquals(6, out.size());
+        for (List<Writable> example : out) {
+            assertEquals(4, example.size());
+            assertEquals(example.get(2).toInt(), example.get(3).toInt());
+        }
+    }
+
+    @Test
+    public void testJoinLeftOuter() {
+        Schema customerInfoSchema =
+                        new Schema.Builder().addColumnLong("customerID").addColumnString("customerName").build();
+        Schema purchasesSchema = new Schema.Builder().addColumnLong("purchaseID").addColumnLong("customerID")
+                        .addColumnDouble("amount").build();
+
+        List<List<Writable>> infoList = new ArrayList<>();
+        infoList.add(Arrays.<Writable>asList(new LongWritable(12345), new Text("Customer12345")));
+        infoList.add(Arrays.<Writable>asList(new LongWritable(98765), new Text("Customer98765")));
+
+        List<List<Writable>> purchaseList = new ArrayList<>();
+        purchaseList.add(Arrays.<Writable>asList(new LongWritable(1000000), new LongWritable(12345),
+                        new DoubleWritable(10.00)));
+        purchaseList.add(Arrays.<Writable>asList(new LongWritable(1000001), new LongWritable(12345),
+                        new DoubleWritable(20.00)));
+
+        Join join = new Join.Builder(Join.JoinType.LeftOuter).setJoinColumns("customerID")
+                        .setSchemas(customerInfoSchema, purchasesSchema).build();
+
+        List<List<Writable>> joined = new ArrayList<>(LocalTransformExecutor.executeJoin(join, infoList, purchaseList));
+        Collections.sort(joined, new Comparator<List<Writable>>() {
+            @Override
+            public int compare(List<Writable> o1, List<Writable> o2) {
+                int c = Long.compare(o1.get(0).toLong(), o2.get(0).toLong());
+                if (c != 0)
+                    return c;
+                return o1.get(2).toString().compareTo(o2.get(2).toString());
+            }
+        });
+
+        List<List<Writable>> expected = new ArrayList<>();
+        expected.add(Arrays.<Writable>asList(new LongWritable(12345), new Text("Customer12345"),
+                        new LongWritable(1000000), new DoubleWritable(10.00)));
+        expected.add(Arrays.<Writable>asList(new LongWritable(12345), new Text("Customer12345"),
+                        new LongWritable(1000001), new DoubleWritable(20.00)));
+        expected.add(Arrays.<Writable>asList(new LongWritable(98765), new Text("Customer98765"),
+                        NullWritable.INSTANCE, NullWritable.INSTANCE));
+
+        assertEquals(expected, joined);
+    }
+
+    @Test
+    public void testJoinStrategies() {
+        Schema leftSchema = new Schema.Builder().addColumnInteger("key").addColumnString("leftValue").build();
+        Schema rightSchema = new Schema.Builder().addColumnInteger("key").addColumnDouble("rightValue").build();
+
+        List<List<Writable>> left = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            left.add(Arrays.<Writable>asList(new IntWritable(i % 7), new Text("left" + i)));
+        }
+        List<List<Writable>> right = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            right.add(Arrays.<Writable>asList(new IntWritable(3 + i % 10), new DoubleWritable(i)));
+        }
+
+        Comparator<List<Writable>> c = new Comparator<List<Writable>>() {
+            @Override
+            public int compare(List<Writable> o1, List<Writable> o2) {
+                return o1.toString().compareTo(o2.toString());
+            }
+        };
+
+        for (Join.JoinType jt : Join.JoinType.values()) {
+            List<List<Writable>> expected = null;
+            for (Join.JoinStrategy strategy : new Join.JoinStrategy[] {Join.JoinStrategy.Shuffle,
+                            Join.JoinStrategy.Auto, Join.JoinStrategy.BroadcastLeft,
+                            Join.JoinStrategy.BroadcastRight}) {
+                Join join = new Join.Builder(jt).setJoinColumns("key").setSchemas(leftSchema, rightSchema)
+                                .setStrategy(strategy).build();
+                List<List<Writable>> out = new ArrayList<>(LocalTransformExecutor.executeJoin(join, left, right));
+                Collections.sort(out, c);
+                if (expected == null) {
+                    expected = out;
+                } else {
+                    assertEquals(jt + " - " + strategy, expected, out);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package org.datavec.spark.transform.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.datavec.spark.transform.model.BatchCSVRecord;
+import org.datavec.spark.transform.model.BatchImageRecord;
+import org.datavec.spark.transform.service.BinaryTransformProtocol;
+import org.datavec.spark.transform.service.BinaryTransformProtocol.Frame;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.io.*;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Client for the binary (socket) endpoint of the CSV and image transform servers, started with the
+ * {@code --binaryPort} option. Requests and responses use the {@link BinaryTransformProtocol}
+ * rather than JSON, and arrays are returned in the ND4J binary format rather than base 64.
+ * <p>
+ * Connections are pooled: up to {@code maxConnections} connections are kept open and reused
+ * between calls, and the client is safe to use from multiple threads. Multiple batches may be
+ * pipelined on one connection via {@link #transformArrays(List)}.
+ */
+@Slf4j
+public class BinaryTransformClient implements Closeable {
+
+    private final String host;
+    private final int port;
+    private final BlockingQueue<Connection> pool;
+    private final ExecutorService writer = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "BinaryTransformClient-writer");
+            t.setDaemon(true);
+            return t;
+        }
+    });
+    private volatile boolean closed = false;
+
+    /**
+     * Create a client with a pool of up to 4 connections
+     *
+     * @param host Host of the transform server
+     * @param port Binary port of the transform server
+     */
+    public BinaryTransformClient(String host, int port) {
+        this(host, port, 4);
+    }
+
+    /**
+     * @param host           Host of the transform server
+     * @param port           Binary port of the transform server
+     * @param maxConnections Maximum number of idle connections to keep open
+     */
+    public BinaryTransformClient(String host, int port, int maxConnections) {
+        if (maxConnections <= 0)
+            throw new IllegalArgumentException("maxConnections must be > 0, got " + maxConnections);
+        this.host = host;
+        this.port = port;
+        this.pool = new ArrayBlockingQueue<>(maxConnections);
+    }
+
+    /**
+     * Transform the batch to an array, via a CSV transform server
+     *
+     * @param batch Batch to transform
+     * @return Transformed batch
+     */
+    public INDArray transformArray(BatchCSVRecord batch) throws IOException {
+        return transformArrays(Collections.singletonList(batch)).get(0);
+    }
+
+    /**
+     * Transform each batch to an array, via a CSV transform server. All requests are sent before
+     * any of the responses are read (i.e., the requests are pipelined on a single connection)
+     *
+     * @param batches Batches to transform
+     * @return Transformed batches, in the same order as the input
+     */
+    public List<INDArray> transformArrays(List<BatchCSVRecord> batches) throws IOException {
+        List<byte[]> payloads = new ArrayList<>(batches.size());
+        for (BatchCSVRecord b : batches) {
+            payloads.add(BinaryTransformProtocol.encode(b));
+        }
+        return execute(BinaryTransformProtocol.TYPE_CSV_ARRAY, payloads);
+    }
+
+    /**
+     * Transform the image batch to an array, via an image transform server
+     *
+     * @param batch Batch to transform
+     * @return Transformed batch
+     */
+    public INDArray transformArray(BatchImageRecord batch) throws IOException {
+        return execute(BinaryTransformProtocol.TYPE_IMAGE_ARRAY,
+                        Collections.singletonList(BinaryTransformProtocol.encode(batch))).get(0);
+    }
+
+    private List<INDArray> execute(final byte type, final List<byte[]> payloads) throws IOException {
+        final Connection c = borrow();
+        List<INDArray> out = new ArrayList<>(payloads.size());
+        String error = null;
+        try {
+            //Pipelined requests are written from another thread: otherwise, with large batches, both the client and
+            //the server could block writing while the socket buffers are full
+            Future<?> write = null;
+            if (payloads.size() == 1) {
+                writeAll(c, type, payloads);
+            } else {
+                write = writer.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        writeAll(c, type, payloads);
+                        return null;
+                    }
+                });
+            }
+
+            //Read all responses (even after an error) so that the connection can be reused
+            for (int i = 0; i < payloads.size(); i++) {
+                Frame f = BinaryTransformProtocol.readFrame(c.in);
+                if (f == null)
+                    throw new EOFException("Connection closed by server");
+                if (f.getRequestId() != i)
+                    throw new IOException("Unexpected response: expected request " + i + ", got " + f.getRequestId());
+                if (f.getType() == BinaryTransformProtocol.STATUS_OK) {
+                    out.add(BinaryTransformProtocol.fromBytes(f.getPayload()));
+                } else if (error == null) {
+                    error = BinaryTransformProtocol.errorMessage(f.getPayload());
+                }
+            }
+            if (write != null)
+                write.get();
+        } catch (InterruptedException e) {
+            c.close();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for transform server");
+        } catch (ExecutionException e) {
+            c.close();
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } catch (IOException | RuntimeException e) {
+            //Connection state is unknown: don't return it to the pool
+            c.close();
+            throw e;
+        }
+        release(c);
+        if (error != null)
+            throw new IOException("Error from transform server: " + error);
+        return out;
+    }
+
+    private static void writeAll(Connection c, byte type, List<byte[]> payloads) throws IOException {
+        for (int i = 0; i < payloads.size(); i++) {
+            BinaryTransformProtocol.writeFrame(c.out, i, type, payloads.get(i));
+        }
+        c.out.flush();
+    }
+
+    private Connection borrow() throws IOException {
+        if (closed)
+            throw new IllegalStateException("Client has been closed");
+        Connection c = pool.poll();
+        return c != null ? c : new Connection(new Socket(host, port));
+    }
+
+    private void release(Connection c) {
+        if (closed || !pool.offer(c))
+            c.close();
+    }
+
+    /**
+     * Close all pooled connections. Connections currently in use are closed when they are released
+     */
+    @Override
+    public void close() {
+        closed = true;
+        writer.shutdown();
+        Connection c;
+        while ((c = pool.poll()) != null) {
+            c.close();
+        }
+    }
+
+    private static class Connection {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        private Connection(Socket socket) throws IOException {
+            socket.setTcpNoDelay(true);
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.warn("Error closing connection", e);
+            }
+        }
+    }
+}
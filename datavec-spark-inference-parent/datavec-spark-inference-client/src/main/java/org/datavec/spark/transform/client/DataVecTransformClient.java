@@ -1,5 +1,6 @@
 package org.datavec.spark.transform.client;
 
+import com.mashape.unirest.http.HttpResponse;
 import com.mashape.unirest.http.ObjectMapper;
 import com.mashape.unirest.http.Unirest;
 import com.mashape.unirest.http.exceptions.UnirestException;
@@ -8,10 +9,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.datavec.api.transform.TransformProcess;
 import org.datavec.image.transform.ImageTransformProcess;
 import org.datavec.spark.transform.model.*;
+import org.datavec.spark.transform.service.BinaryTransformProtocol;
 import org.datavec.spark.transform.service.DataVecTransformService;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.shade.jackson.core.JsonProcessingException;
 
+import java.io.DataInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Created by agibsonccc on 6/12/17.
@@ -147,6 +153,37 @@ public class DataVecTransformClient implements DataVecTransformService {
         return null;
     }
 
+    /**
+     * Transform the batch to an array via the /transformarraybinary endpoint. The batch is sent in the
+     * {@link BinaryTransformProtocol} format and the array is returned in the ND4J binary format, avoiding
+     * JSON and base 64 encoding. For lowest latency, use {@link BinaryTransformClient} with the server's
+     * binary port instead.
+     *
+     * @param batchCSVRecord the batch to transform
+     * @return the transformed batch, or null if the request failed
+     */
+    public INDArray transformArrayBinary(BatchCSVRecord batchCSVRecord) {
+        try {
+            HttpResponse<InputStream> response = Unirest.post(url + "/transformarraybinary")
+                    .header("accept", BINARY_CONTENT_TYPE)
+                    .header("Content-Type", BINARY_CONTENT_TYPE)
+                    .body(BinaryTransformProtocol.encode(batchCSVRecord))
+                    .asBinary();
+            if (response.getStatus() != 200) {
+                log.error("Error in transformArrayBinary(BatchCSVRecord): status {}", response.getStatus());
+                return null;
+            }
+            try (DataInputStream dis = new DataInputStream(response.getBody())) {
+                return Nd4j.read(dis);
+            }
+        } catch (UnirestException | IOException e) {
+            log.error("Error in transformArrayBinary(BatchCSVRecord)", e);
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
     /**
      * @param singleCsvRecord
      * @return
@@ -4,20 +4,23 @@ import org.apache.commons.io.FileUtils;
 import org.datavec.api.transform.TransformProcess;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.spark.transform.CSVSparkTransformServer;
+import org.datavec.spark.transform.client.BinaryTransformClient;
 import org.datavec.spark.transform.client.DataVecTransformClient;
 import org.datavec.spark.transform.model.Base64NDArrayBody;
 import org.datavec.spark.transform.model.BatchCSVRecord;
 import org.datavec.spark.transform.model.SequenceBatchCSVRecord;
 import org.datavec.spark.transform.model.SingleCSVRecord;
+import org.datavec.spark.transform.service.BinaryTransformProtocol;
+import org.datavec.spark.transform.service.BinaryTransformProtocol.Frame;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.serde.base64.Nd4jBase64;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
 import java.net.ServerSocket;
+import java.net.Socket;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -32,6 +35,7 @@ import static org.junit.Assume.assumeNotNull;
 public class DataVecTransformClientTest {
     private static CSVSparkTransformServer server;
     private static int port = getAvailablePort();
+    private static int binaryPort = getAvailablePort();
     private static DataVecTransformClient client;
     private static Schema schema = new Schema.Builder().addColumnDouble("1.0").addColumnDouble("2.0").build();
     private static TransformProcess transformProcess =
@@ -43,7 +47,7 @@ public class DataVecTransformClientTest {
         FileUtils.write(fileSave, transformProcess.toJson());
         fileSave.deleteOnExit();
         server = new CSVSparkTransformServer();
-        server.runMain(new String[] {"-dp", String.valueOf(port)});
+        server.runMain(new String[] {"-dp", String.valueOf(port), "-bp", String.valueOf(binaryPort)});
 
         client = new DataVecTransformClient("http://localhost:" + port);
         client.setCSVTransformProcess(transformProcess);
@@ -105,6 +109,59 @@ public class DataVecTransformClientTest {
     }
 
 
+    @Test
+    public void testBatchRecordBinary() throws Exception {
+        SingleCSVRecord singleCsvRecord = new SingleCSVRecord(new String[] {"0", "1"});
+        BatchCSVRecord batchCSVRecord = new BatchCSVRecord(Arrays.asList(singleCsvRecord, singleCsvRecord));
+
+        INDArray expected = Nd4jBase64.fromBase64(client.transformArray(batchCSVRecord).getNdarray());
+        INDArray arr = client.transformArrayBinary(batchCSVRecord);
+        assertEquals(expected, arr);
+
+        try (BinaryTransformClient binaryClient = new BinaryTransformClient("localhost", binaryPort)) {
+            assertEquals(expected, binaryClient.transformArray(batchCSVRecord));
+
+            List<BatchCSVRecord> batches = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                batches.add(batchCSVRecord);
+            }
+            List<INDArray> arrays = binaryClient.transformArrays(batches);
+            assertEquals(10, arrays.size());
+            for (INDArray a : arrays) {
+                assertEquals(expected, a);
+            }
+        }
+    }
+
+    @Test
+    public void testMalformedBinaryFrame() throws Exception {
+        SingleCSVRecord singleCsvRecord = new SingleCSVRecord(new String[] {"0", "1"});
+        BatchCSVRecord batchCSVRecord = new BatchCSVRecord(Arrays.asList(singleCsvRecord, singleCsvRecord));
+        INDArray expected = Nd4jBase64.fromBase64(client.transformArray(batchCSVRecord).getNdarray());
+
+        try (Socket socket = new Socket("localhost", binaryPort)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            //A few bytes claiming Integer.MAX_VALUE records: must be answered with an error, not an allocation
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            new DataOutputStream(baos).writeInt(Integer.MAX_VALUE);
+            BinaryTransformProtocol.writeFrame(out, 0, BinaryTransformProtocol.TYPE_CSV_ARRAY, baos.toByteArray());
+            out.flush();
+            Frame f = BinaryTransformProtocol.readFrame(in);
+            assertEquals(0, f.getRequestId());
+            assertEquals(BinaryTransformProtocol.STATUS_ERROR, f.getType());
+
+            //The connection is still served afterwards
+            BinaryTransformProtocol.writeFrame(out, 1, BinaryTransformProtocol.TYPE_CSV_ARRAY,
+                            BinaryTransformProtocol.encode(batchCSVRecord));
+            out.flush();
+            f = BinaryTransformProtocol.readFrame(in);
+            assertEquals(1, f.getRequestId());
+            assertEquals(BinaryTransformProtocol.STATUS_OK, f.getType());
+            assertEquals(expected, BinaryTransformProtocol.fromBytes(f.getPayload()));
+        }
+    }
 
     public static int getAvailablePort() {
         try {
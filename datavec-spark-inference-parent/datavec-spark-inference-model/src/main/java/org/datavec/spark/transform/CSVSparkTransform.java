@@ -3,21 +3,23 @@ package org.datavec.spark.transform;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.datavec.api.records.impl.Record;
+import org.datavec.api.transform.ColumnType;
 import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.batch.*;
+import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.util.ndarray.RecordConverter;
-import org.datavec.api.writable.Writable;
+import org.datavec.api.writable.*;
 import org.datavec.spark.transform.model.Base64NDArrayBody;
 import org.datavec.spark.transform.model.BatchCSVRecord;
 import org.datavec.spark.transform.model.SequenceBatchCSVRecord;
 import org.datavec.spark.transform.model.SingleCSVRecord;
+import org.datavec.spark.transform.service.BinaryTransformProtocol;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.serde.base64.Nd4jBase64;
 
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.io.*;
+import java.util.*;
 
 /**
  * CSVSpark Transform runs
@@ -38,17 +40,173 @@ public class CSVSparkTransform {
      * @param batch the record to convert
      * @return teh base 64ed ndarray
      * @throws IOException
+     * @see #toArrayBinary(BatchCSVRecord)
      */
     public Base64NDArrayBody toArray(BatchCSVRecord batch) throws IOException {
-        List<List<Writable>> records = new ArrayList<>();
-        for (SingleCSVRecord singleCsvRecord : batch.getRecords()) {
-            List<Writable> record2 = transformProcess.transformRawStringsToInputList(singleCsvRecord.getValues());
-            List<Writable> finalRecord = transformProcess.execute(record2);
-            records.add(finalRecord);
+        return new Base64NDArrayBody(Nd4jBase64.base64String(toArrayBatch(batch)));
+    }
+
+    /**
+     * Convert a raw batch via the {@link TransformProcess} to an ndarray, with one row per (non-filtered) record.<br>
+     * All values are parsed in a single pass into primitive column vectors (see {@link #toColumnBatch(BatchCSVRecord)}),
+     * the transform process is executed in columnar batch mode (see {@link TransformProcess#executeBatch(ColumnBatch)}),
+     * and the output columns are then copied directly into the array
+     *
+     * @param batch the batch to convert
+     * @return the transformed batch, as a matrix
+     */
+    public INDArray toArrayBatch(BatchCSVRecord batch) {
+        ColumnBatch out = transformProcess.executeBatch(toColumnBatch(batch));
+        int rows = out.getNumRows();
+        int cols = out.numColumns();
+        if (rows == 0)
+            throw new IllegalArgumentException("Cannot convert batch to an array: no records (after filtering)");
+
+        double[] data = new double[rows * cols];
+        for (int c = 0; c < cols; c++) {
+            ColumnVector column = out.getColumn(c);
+            if (column instanceof DoubleColumnVector) {
+                double[] values = ((DoubleColumnVector) column).getData();
+                for (int r = 0; r < rows; r++)
+                    data[r * cols + c] = values[r];
+            } else if (column instanceof IntColumnVector) {
+                int[] values = ((IntColumnVector) column).getData();
+                for (int r = 0; r < rows; r++)
+                    data[r * cols + c] = values[r];
+            } else if (column instanceof LongColumnVector) {
+                long[] values = ((LongColumnVector) column).getData();
+                for (int r = 0; r < rows; r++)
+                    data[r * cols + c] = values[r];
+            } else if (column instanceof DictionaryColumnVector) {
+                //Parse each distinct value only once
+                DictionaryColumnVector dict = (DictionaryColumnVector) column;
+                double[] parsed = new double[dict.getDictionary().size()];
+                for (int i = 0; i < parsed.length; i++)
+                    parsed[i] = Double.parseDouble(dict.getDictionary().get(i));
+                int[] codes = dict.getCodes();
+                for (int r = 0; r < rows; r++)
+                    data[r * cols + c] = parsed[codes[r]];
+            } else {
+                for (int r = 0; r < rows; r++) {
+                    Writable w = column.getWritable(r);
+                    if (w instanceof NDArrayWritable) {
+                        //Array valued columns: each output row may span multiple array columns
+                        return RecordConverter.toMatrix(out.toRecords());
+                    }
+                    data[r * cols + c] = w.toDouble();
+                }
+            }
         }
 
-        INDArray convert = RecordConverter.toMatrix(records);
-        return new Base64NDArrayBody(Nd4jBase64.base64String(convert));
+        return Nd4j.create(data, new int[] {rows, cols});
+    }
+
+    /**
+     * Convert a raw batch via the {@link TransformProcess} to an ndarray (as per {@link #toArrayBatch(BatchCSVRecord)}),
+     * serialized in the ND4J binary format. This avoids the cost of base 64 encoding (and decoding) the array.
+     * Use {@link #fromBinary(byte[])} to restore the array.
+     *
+     * @param batch the batch to convert
+     * @return the transformed batch, as a serialized ndarray
+     * @throws IOException
+     */
+    public byte[] toArrayBinary(BatchCSVRecord batch) throws IOException {
+        return BinaryTransformProtocol.toBytes(toArrayBatch(batch));
+    }
+
+    /**
+     * Restore an ndarray serialized by {@link #toArrayBinary(BatchCSVRecord)}
+     *
+     * @param bytes the serialized array
+     * @return the array
+     * @throws IOException
+     */
+    public static INDArray fromBinary(byte[] bytes) throws IOException {
+        return BinaryTransformProtocol.fromBytes(bytes);
+    }
+
+    /**
+     * Parse the raw string values of a batch directly into a {@link ColumnBatch}, according to the initial schema of
+     * the {@link TransformProcess}. Integer, long, time (epoch milliseconds) and double values are parsed into
+     * primitive arrays, and string and categorical values are dictionary encoded.
+     *
+     * @param batch the batch to parse
+     * @return the parsed batch
+     */
+    public ColumnBatch toColumnBatch(BatchCSVRecord batch) {
+        Schema schema = transformProcess.getInitialSchema();
+        List<SingleCSVRecord> records = batch.getRecords();
+        int rows = records.size();
+        int cols = schema.numColumns();
+
+        ColumnVector[] columns = new ColumnVector[cols];
+        for (int c = 0; c < cols; c++) {
+            switch (schema.getType(c)) {
+                case Double:
+                    columns[c] = new DoubleColumnVector(new double[rows]);
+                    break;
+                case Integer:
+                    columns[c] = new IntColumnVector(new int[rows]);
+                    break;
+                case Long:
+                case Time:
+                    columns[c] = new LongColumnVector(new long[rows]);
+                    break;
+                case String:
+                case Categorical:
+                    columns[c] = new DictionaryColumnVector(new int[rows], new ArrayList<String>());
+                    break;
+                default:
+                    columns[c] = new WritableColumnVector(new Writable[rows]);
+            }
+        }
+        List<Map<String, Integer>> dictionaryIndexes = new ArrayList<>(cols);
+        for (int c = 0; c < cols; c++)
+            dictionaryIndexes.add(new HashMap<String, Integer>());
+
+        for (int r = 0; r < rows; r++) {
+            List<String> values = records.get(r).getValues();
+            if (values.size() != cols)
+                throw new IllegalArgumentException(
+                                String.format("Number of values %d does not match the number of input columns %d for schema",
+                                                values.size(), cols));
+            for (int c = 0; c < cols; c++) {
+                String value = values.get(c);
+                ColumnVector column = columns[c];
+                if (column instanceof DoubleColumnVector) {
+                    ((DoubleColumnVector) column).getData()[r] = Double.parseDouble(value);
+                } else if (column instanceof IntColumnVector) {
+                    ((IntColumnVector) column).getData()[r] = Integer.parseInt(value);
+                } else if (column instanceof LongColumnVector) {
+                    ((LongColumnVector) column).getData()[r] = Long.parseLong(value);
+                } else if (column instanceof DictionaryColumnVector) {
+                    DictionaryColumnVector dict = (DictionaryColumnVector) column;
+                    Map<String, Integer> indexes = dictionaryIndexes.get(c);
+                    Integer idx = indexes.get(value);
+                    if (idx == null) {
+                        idx = dict.getDictionary().size();
+                        dict.getDictionary().add(value);
+                        indexes.put(value, idx);
+                    }
+                    dict.getCodes()[r] = idx;
+                } else {
+                    ((WritableColumnVector) column).getData()[r] = parse(schema.getType(c), value);
+                }
+            }
+        }
+
+        return new ColumnBatch(schema, rows, columns);
+    }
+
+    private static Writable parse(ColumnType type, String value) {
+        switch (type) {
+            case Float:
+                return new FloatWritable(Float.parseFloat(value));
+            case Boolean:
+                return new BooleanWritable(Boolean.parseBoolean(value));
+            default:
+                return new Text(value);
+        }
     }
 
     /**
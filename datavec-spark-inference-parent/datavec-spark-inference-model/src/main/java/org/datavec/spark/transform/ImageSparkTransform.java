@@ -7,6 +7,7 @@ import org.datavec.image.transform.ImageTransformProcess;
 import org.datavec.spark.transform.model.Base64NDArrayBody;
 import org.datavec.spark.transform.model.BatchImageRecord;
 import org.datavec.spark.transform.model.SingleImageRecord;
+import org.datavec.spark.transform.service.BinaryTransformProtocol;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.serde.base64.Nd4jBase64;
@@ -31,6 +32,17 @@ public class ImageSparkTransform {
     }
 
     public Base64NDArrayBody toArray(BatchImageRecord batch) throws IOException {
+        return new Base64NDArrayBody(Nd4jBase64.base64String(toArrayBatch(batch)));
+    }
+
+    /**
+     * Load and transform each image in the batch, and stack the results into a single array
+     *
+     * @param batch the batch of images to convert
+     * @return the transformed images, with shape [numImages, channels, height, width]
+     * @throws IOException
+     */
+    public INDArray toArrayBatch(BatchImageRecord batch) throws IOException {
         List<INDArray> records = new ArrayList<>();
 
         for (SingleImageRecord imgRecord : batch.getRecords()) {
@@ -40,9 +52,19 @@ public class ImageSparkTransform {
         }
 
         int shape[] = records.get(0).shape();
-        INDArray array = Nd4j.create(records, new int[] {records.size(), shape[1], shape[2], shape[3]});
+        return Nd4j.create(records, new int[] {records.size(), shape[1], shape[2], shape[3]});
+    }
 
-        return new Base64NDArrayBody(Nd4jBase64.base64String(array));
+    /**
+     * As per {@link #toArrayBatch(BatchImageRecord)}, but with the array serialized in the ND4J binary format
+     * instead of base 64. Use {@link BinaryTransformProtocol#fromBytes(byte[])} to restore the array.
+     *
+     * @param batch the batch of images to convert
+     * @return the transformed images, as a serialized ndarray
+     * @throws IOException
+     */
+    public byte[] toArrayBinary(BatchImageRecord batch) throws IOException {
+        return BinaryTransformProtocol.toBytes(toArrayBatch(batch));
     }
 
 }
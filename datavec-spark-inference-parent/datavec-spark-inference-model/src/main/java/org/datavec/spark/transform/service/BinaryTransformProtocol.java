@@ -0,0 +1,263 @@
+package org.datavec.spark.transform.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.datavec.spark.transform.model.BatchCSVRecord;
+import org.datavec.spark.transform.model.BatchImageRecord;
+import org.datavec.spark.transform.model.SingleCSVRecord;
+import org.datavec.spark.transform.model.SingleImageRecord;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Length-prefixed binary protocol used by the binary transform endpoints, as an alternative to JSON.
+ * <p>
+ * Batches are encoded as a row count, followed by (for each row) a value count and the values themselves, each
+ * value being a UTF-8 string prefixed by its length in bytes (-1 for null). Image batches are encoded the same way,
+ * with one URI per row. When decoding, counts and lengths are checked against the number of bytes remaining before
+ * anything is allocated, so that a malformed request fails with an IOException.
+ * <p>
+ * Over a socket, requests and responses are sent as frames: {@code [int length][int requestId][byte type][payload]},
+ * where length is the number of bytes following the length field. Request payloads are encoded batches; response
+ * payloads are either an array in the ND4J binary format ({@link #STATUS_OK}) or a UTF-8 error message
+ * ({@link #STATUS_ERROR}). Responses are returned in request order, so clients may pipeline requests: i.e., send
+ * several frames before reading any of the responses.
+ */
+public class BinaryTransformProtocol {
+
+    /** Request type: CSV batch, to be transformed to an array */
+    public static final byte TYPE_CSV_ARRAY = 1;
+    /** Request type: image batch, to be transformed to an array */
+    public static final byte TYPE_IMAGE_ARRAY = 2;
+
+    /** Response type: success, payload is an array in the ND4J binary format */
+    public static final byte STATUS_OK = 0;
+    /** Response type: failure, payload is a UTF-8 error message */
+    public static final byte STATUS_ERROR = 1;
+
+    /** Maximum frame length (bytes) that will be accepted when reading */
+    public static final int MAX_FRAME_LENGTH = 256 * 1024 * 1024;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private BinaryTransformProtocol() {}
+
+    /**
+     * A single request or response frame
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Frame {
+        private int requestId;
+        private byte type;
+        private byte[] payload;
+    }
+
+    /**
+     * Write a frame to the output stream. The stream is not flushed
+     *
+     * @param out       Stream to write to
+     * @param requestId Request ID
+     * @param type      Request type (for requests) or status (for responses)
+     * @param payload   Payload of the frame
+     */
+    public static void writeFrame(DataOutputStream out, int requestId, byte type, byte[] payload) throws IOException {
+        out.writeInt(payload.length + 5);
+        out.writeInt(requestId);
+        out.writeByte(type);
+        out.write(payload);
+    }
+
+    /**
+     * Read a frame from the input stream
+     *
+     * @param in Stream to read from
+     * @return The frame, or null if the end of the stream was reached before the start of a frame
+     */
+    public static Frame readFrame(DataInputStream in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length < 5 || length > MAX_FRAME_LENGTH) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+        int requestId = in.readInt();
+        byte type = in.readByte();
+        byte[] payload = new byte[length - 5];
+        in.readFully(payload);
+        return new Frame(requestId, type, payload);
+    }
+
+    /**
+     * Encode the given batch
+     *
+     * @param batch Batch to encode
+     * @return Encoded batch
+     */
+    public static byte[] encode(BatchCSVRecord batch) throws IOException {
+        List<SingleCSVRecord> records = batch.getRecords();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(baos);
+        dos.writeInt(records == null ? 0 : records.size());
+        if (records != null) {
+            for (SingleCSVRecord record : records) {
+                List<String> values = record.getValues();
+                dos.writeInt(values.size());
+                for (String s : values) {
+                    writeString(dos, s);
+                }
+            }
+        }
+        dos.flush();
+        return baos.toByteArray();
+    }
+
+    /**
+     * Decode a batch previously encoded with {@link #encode(BatchCSVRecord)}
+     *
+     * @param bytes Encoded batch
+     * @return Decoded batch
+     */
+    public static BatchCSVRecord decodeCSVBatch(byte[] bytes) throws IOException {
+        DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bytes));
+        int numRecords = readCount(dis, "record");
+        List<SingleCSVRecord> records = new ArrayList<>(numRecords);
+        for (int i = 0; i < numRecords; i++) {
+            int numValues = readCount(dis, "value");
+            List<String> values = new ArrayList<>(numValues);
+            for (int j = 0; j < numValues; j++) {
+                values.add(readString(dis));
+            }
+            records.add(new SingleCSVRecord(values));
+        }
+        return new BatchCSVRecord(records);
+    }
+
+    /**
+     * Encode the given image batch
+     *
+     * @param batch Batch to encode
+     * @return Encoded batch
+     */
+    public static byte[] encode(BatchImageRecord batch) throws IOException {
+        List<SingleImageRecord> records = batch.getRecords();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(baos);
+        dos.writeInt(records == null ? 0 : records.size());
+        if (records != null) {
+            for (SingleImageRecord record : records) {
+                dos.writeInt(1);
+                writeString(dos, record.getUri() == null ? null : record.getUri().toString());
+            }
+        }
+        dos.flush();
+        return baos.toByteArray();
+    }
+
+    /**
+     * Decode an image batch previously encoded with {@link #encode(BatchImageRecord)}
+     *
+     * @param bytes Encoded batch
+     * @return Decoded batch
+     */
+    public static BatchImageRecord decodeImageBatch(byte[] bytes) throws IOException {
+        DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bytes));
+        int numRecords = readCount(dis, "record");
+        List<SingleImageRecord> records = new ArrayList<>(numRecords);
+        for (int i = 0; i < numRecords; i++) {
+            int numValues = dis.readInt();
+            if (numValues != 1) {
+                throw new IOException("Invalid image record: expected 1 value (URI), got " + numValues);
+            }
+            String uri = readString(dis);
+            records.add(new SingleImageRecord(uri == null ? null : URI.create(uri)));
+        }
+        return new BatchImageRecord(records);
+    }
+
+    /**
+     * Serialize the array in the ND4J binary format, as used for {@link #STATUS_OK} response payloads
+     *
+     * @param arr Array to serialize
+     * @return Serialized array
+     */
+    public static byte[] toBytes(INDArray arr) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(baos)) {
+            Nd4j.write(arr, dos);
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * Restore an array serialized with {@link #toBytes(INDArray)}
+     *
+     * @param bytes Serialized array
+     * @return The array
+     */
+    public static INDArray fromBytes(byte[] bytes) throws IOException {
+        try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return Nd4j.read(dis);
+        }
+    }
+
+    private static void writeString(DataOutputStream dos, String s) throws IOException {
+        if (s == null) {
+            dos.writeInt(-1);
+            return;
+        }
+        byte[] b = s.getBytes(UTF8);
+        dos.writeInt(b.length);
+        dos.write(b);
+    }
+
+    /**
+     * Read a count of records or values. Each of these takes at least 4 bytes (its own count or length), so the count
+     * cannot be more than a quarter of the bytes remaining in the (in-memory) stream
+     */
+    private static int readCount(DataInputStream dis, String what) throws IOException {
+        int count = dis.readInt();
+        if (count < 0 || count > dis.available() / 4) {
+            throw new IOException("Invalid " + what + " count: " + count + " (" + dis.available()
+                            + " bytes remaining)");
+        }
+        return count;
+    }
+
+    private static String readString(DataInputStream dis) throws IOException {
+        int length = dis.readInt();
+        if (length == -1)
+            return null;
+        if (length < 0 || length > dis.available()) {
+            throw new IOException("Invalid string length: " + length + " (" + dis.available() + " bytes remaining)");
+        }
+        byte[] b = new byte[length];
+        dis.readFully(b);
+        return new String(b, UTF8);
+    }
+
+    /**
+     * @param message Error message
+     * @return Error message as a response payload
+     */
+    public static byte[] errorPayload(String message) {
+        return (message == null ? "" : message).getBytes(UTF8);
+    }
+
+    /**
+     * @param payload Payload of a {@link #STATUS_ERROR} response
+     * @return Error message
+     */
+    public static String errorMessage(byte[] payload) {
+        return new String(payload, UTF8);
+    }
+}
@@ -12,6 +12,10 @@ import java.io.IOException;
 public interface DataVecTransformService {
 
     String SEQUENCE_OR_NOT_HEADER = "Sequence";
+    /**
+     * Content type of arrays returned in the ND4J binary format, for example by the /transformarraybinary endpoint
+     */
+    String BINARY_CONTENT_TYPE = "application/octet-stream";
 
 
     /**
@@ -0,0 +1,95 @@
+package org.datavec.spark.transform;
+
+import org.datavec.spark.transform.model.BatchCSVRecord;
+import org.datavec.spark.transform.model.BatchImageRecord;
+import org.datavec.spark.transform.model.SingleCSVRecord;
+import org.datavec.spark.transform.service.BinaryTransformProtocol;
+import org.datavec.spark.transform.service.BinaryTransformProtocol.Frame;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.*;
+import java.net.URI;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class BinaryTransformProtocolTest {
+
+    @Test
+    public void testBatchRoundTrip() throws Exception {
+        BatchCSVRecord batch = new BatchCSVRecord();
+        batch.add(new SingleCSVRecord("1.0", "abc", ""));
+        batch.add(new SingleCSVRecord(Arrays.asList("-2", null, "\u00e9\u4e2d")));
+
+        BatchCSVRecord decoded = BinaryTransformProtocol.decodeCSVBatch(BinaryTransformProtocol.encode(batch));
+        assertEquals(batch, decoded);
+
+        BatchImageRecord images = new BatchImageRecord();
+        images.add(new URI("file:///tmp/image0.png"));
+        images.add(new URI("file:///tmp/image1.png"));
+        assertEquals(images, BinaryTransformProtocol.decodeImageBatch(BinaryTransformProtocol.encode(images)));
+    }
+
+    @Test
+    public void testFrames() throws Exception {
+        INDArray arr = Nd4j.linspace(1, 6, 6).reshape(2, 3);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(baos);
+        BinaryTransformProtocol.writeFrame(dos, 0, BinaryTransformProtocol.STATUS_OK,
+                        BinaryTransformProtocol.toBytes(arr));
+        BinaryTransformProtocol.writeFrame(dos, 1, BinaryTransformProtocol.STATUS_ERROR,
+                        BinaryTransformProtocol.errorPayload("Some error"));
+        dos.flush();
+
+        DataInputStream dis = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        Frame f0 = BinaryTransformProtocol.readFrame(dis);
+        assertEquals(0, f0.getRequestId());
+        assertEquals(BinaryTransformProtocol.STATUS_OK, f0.getType());
+        assertEquals(arr, BinaryTransformProtocol.fromBytes(f0.getPayload()));
+
+        Frame f1 = BinaryTransformProtocol.readFrame(dis);
+        assertEquals(1, f1.getRequestId());
+        assertEquals(BinaryTransformProtocol.STATUS_ERROR, f1.getType());
+        assertEquals("Some error", BinaryTransformProtocol.errorMessage(f1.getPayload()));
+
+        assertNull(BinaryTransformProtocol.readFrame(dis));
+    }
+
+    @Test
+    public void testMalformedBatches() throws Exception {
+        //Counts and lengths far larger than the payload, or negative: rejected before allocating anything
+        byte[][] csv = {ints(Integer.MAX_VALUE), ints(-1), ints(1, Integer.MAX_VALUE), ints(1, -5),
+                        ints(1, 1, Integer.MAX_VALUE), ints(1, 1, -2), ints(2, 1, 3)};
+        for (byte[] b : csv) {
+            try {
+                BinaryTransformProtocol.decodeCSVBatch(b);
+                fail("Expected IOException");
+            } catch (IOException e) {
+                //Expected
+            }
+        }
+
+        byte[][] images = {ints(Integer.MAX_VALUE), ints(-1), ints(1, 1, Integer.MAX_VALUE), ints(1, 1, -2)};
+        for (byte[] b : images) {
+            try {
+                BinaryTransformProtocol.decodeImageBatch(b);
+                fail("Expected IOException");
+            } catch (IOException e) {
+                //Expected
+            }
+        }
+    }
+
+    private static byte[] ints(int... values) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(baos);
+        for (int v : values) {
+            dos.writeInt(v);
+        }
+        dos.flush();
+        return baos.toByteArray();
+    }
+}
@@ -1,9 +1,11 @@
 package org.datavec.spark.transform;
 
+import org.datavec.api.transform.MathOp;
 import org.datavec.api.transform.TransformProcess;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.transform.integer.BaseIntegerTransform;
 import org.datavec.api.transform.transform.nlp.TextToCharacterIndexTransform;
+import org.datavec.api.util.ndarray.RecordConverter;
 import org.datavec.api.writable.DoubleWritable;
 import org.datavec.api.writable.Text;
 import org.datavec.api.writable.Writable;
@@ -14,6 +16,7 @@ import org.datavec.spark.transform.model.SingleCSVRecord;
 import org.junit.Test;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.ops.aggregates.Batch;
+import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.serde.base64.Nd4jBase64;
 
 import java.util.*;
@@ -77,6 +80,35 @@ public class CSVSparkTransformTest {
 
 
 
+    @Test
+    public void testToArrayBatchMatchesSingleRecord() throws Exception {
+        Schema schema = new Schema.Builder().addColumnInteger("int").addColumnCategorical("cat", "a", "b", "c")
+                .addColumnDouble("dbl").addColumnString("str").build();
+
+        TransformProcess transformProcess = new TransformProcess.Builder(schema).categoricalToInteger("cat")
+                .doubleMathOp("dbl", MathOp.Multiply, 2.0).removeColumns("str").build();
+        CSVSparkTransform csvSparkTransform = new CSVSparkTransform(transformProcess);
+
+        BatchCSVRecord batch = new BatchCSVRecord();
+        for (int i = 0; i < 10; i++) {
+            batch.add(new SingleCSVRecord(new String[] {String.valueOf(i), String.valueOf((char) ('a' + i % 3)),
+                    String.valueOf(i / 4.0), "s" + i}));
+        }
+
+        INDArray expected = Nd4j.create(10, 3);
+        for (int i = 0; i < 10; i++) {
+            List<Writable> out = transformProcess.execute(
+                    transformProcess.transformRawStringsToInputList(batch.getRecords().get(i).getValues()));
+            expected.putRow(i, RecordConverter.toArray(out));
+        }
+
+        INDArray arr = csvSparkTransform.toArrayBatch(batch);
+        assertEquals(expected, arr);
+
+        INDArray fromBinary = CSVSparkTransform.fromBinary(csvSparkTransform.toArrayBinary(batch));
+        assertEquals(expected, fromBinary);
+    }
+
     @Test
     public void testSingleBatchSequence() throws Exception {
         List<Writable> input = new ArrayList<>();
@@ -0,0 +1,137 @@
+package org.datavec.spark.transform;
+
+import lombok.extern.slf4j.Slf4j;
+import org.datavec.spark.transform.service.BinaryTransformProtocol;
+import org.datavec.spark.transform.service.BinaryTransformProtocol.Frame;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A plain socket server for the {@link BinaryTransformProtocol}, used alongside the REST server
+ * to avoid the overhead of HTTP and JSON for latency sensitive clients.
+ * <p>
+ * Each connection is served by its own thread: frames are read, handled and answered in order,
+ * so clients may pipeline requests on a connection. Responses are only flushed once no further
+ * requests are waiting to be read, so a pipelined burst of requests is answered with few writes.
+ */
+@Slf4j
+public class BinaryTransformServer {
+
+    /**
+     * Handles a single request frame
+     */
+    public interface Handler {
+        /**
+         * @param type    Request type, for example {@link BinaryTransformProtocol#TYPE_CSV_ARRAY}
+         * @param payload Request payload
+         * @return Response payload: an array in the ND4J binary format
+         */
+        byte[] handle(byte type, byte[] payload) throws Exception;
+    }
+
+    private final ServerSocket serverSocket;
+    private final Handler handler;
+    private final ExecutorService executor;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private volatile boolean running = true;
+
+    /**
+     * @param port    Port to listen on (0 for any free port)
+     * @param handler Handler for the requests
+     */
+    public BinaryTransformServer(int port, Handler handler) throws IOException {
+        this.serverSocket = new ServerSocket(port);
+        this.handler = handler;
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "BinaryTransformServer");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.execute(this::acceptLoop);
+        log.info("Binary transform server listening on port {}", getPort());
+    }
+
+    /**
+     * @return The port the server is listening on
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Stop the server, closing all open connections
+     */
+    public void stop() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            log.warn("Error closing binary transform server socket", e);
+        }
+        for (Socket s : connections) {
+            closeQuietly(s);
+        }
+        executor.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (running)
+                    log.error("Error accepting binary transform connection", e);
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            Frame frame;
+            while ((frame = BinaryTransformProtocol.readFrame(in)) != null) {
+                byte status;
+                byte[] response;
+                try {
+                    response = handler.handle(frame.getType(), frame.getPayload());
+                    status = BinaryTransformProtocol.STATUS_OK;
+                } catch (Exception e) {
+                    log.error("Error handling binary transform request", e);
+                    response = BinaryTransformProtocol.errorPayload(e.getMessage());
+                    status = BinaryTransformProtocol.STATUS_ERROR;
+                }
+                BinaryTransformProtocol.writeFrame(out, frame.getRequestId(), status, response);
+                if (in.available() == 0)
+                    out.flush();
+            }
+            out.flush();
+        } catch (SocketException e) {
+            //Connection closed by the client, or by stop()
+        } catch (IOException e) {
+            if (running)
+                log.error("Error in binary transform connection", e);
+        } finally {
+            connections.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            //Ignore
+        }
+    }
+}
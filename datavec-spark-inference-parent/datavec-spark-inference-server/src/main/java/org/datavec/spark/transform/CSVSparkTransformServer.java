@@ -8,6 +8,7 @@ import org.apache.commons.io.FileUtils;
 import org.datavec.api.transform.TransformProcess;
 import org.datavec.image.transform.ImageTransformProcess;
 import org.datavec.spark.transform.model.*;
+import org.datavec.spark.transform.service.BinaryTransformProtocol;
 import play.Mode;
 import play.routing.RoutingDsl;
 import play.server.Server;
@@ -185,8 +186,37 @@ public class CSVSparkTransformServer extends SparkTransformServer {
             }
         })));
 
+        routingDsl.POST("/transformarraybinary").routeTo(FunctionUtil.function0((() -> {
+            if (isSequence())
+                return badRequest("Binary array output is not supported for sequences");
+            try {
+                BatchCSVRecord batchCSVRecord;
+                if (isBinaryRequest()) {
+                    byte[] bytes = getRequestBytes();
+                    batchCSVRecord = bytes == null ? null : BinaryTransformProtocol.decodeCSVBatch(bytes);
+                } else {
+                    batchCSVRecord = objectMapper.readValue(getJsonText(), BatchCSVRecord.class);
+                }
+                if (batchCSVRecord == null)
+                    return badRequest();
+                return ok(transform.toArrayBinary(batchCSVRecord)).as(BINARY_CONTENT_TYPE);
+            } catch (Exception e) {
+                log.error("Error in /transformarraybinary", e);
+                return internalServerError(e.getMessage());
+            }
+        })));
+
 
         server = Server.forRouter(routingDsl.build(), Mode.PROD, port);
+
+        startBinaryServer((type, payload) -> {
+            if (type != BinaryTransformProtocol.TYPE_CSV_ARRAY)
+                throw new IllegalArgumentException(
+                                "Unsupported binary request type for CSV transform server: " + type);
+            if (transform == null)
+                throw new IllegalStateException("No transform process has been set");
+            return transform.toArrayBinary(BinaryTransformProtocol.decodeCSVBatch(payload));
+        });
     }
 
     public static void main(String[] args) throws Exception {
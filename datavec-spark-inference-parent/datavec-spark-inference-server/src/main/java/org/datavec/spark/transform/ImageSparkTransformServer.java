@@ -8,6 +8,7 @@ import org.apache.commons.io.FileUtils;
 import org.datavec.api.transform.TransformProcess;
 import org.datavec.image.transform.ImageTransformProcess;
 import org.datavec.spark.transform.model.*;
+import org.datavec.spark.transform.service.BinaryTransformProtocol;
 import play.Mode;
 import play.routing.RoutingDsl;
 import play.server.Server;
@@ -105,7 +106,34 @@ public class ImageSparkTransformServer extends SparkTransformServer {
             }
         })));
 
+        routingDsl.POST("/transformarraybinary").routeTo(FunctionUtil.function0((() -> {
+            try {
+                BatchImageRecord batch;
+                if (isBinaryRequest()) {
+                    byte[] bytes = getRequestBytes();
+                    batch = bytes == null ? null : BinaryTransformProtocol.decodeImageBatch(bytes);
+                } else {
+                    batch = objectMapper.readValue(getJsonText(), BatchImageRecord.class);
+                }
+                if (batch == null)
+                    return badRequest();
+                return ok(transform.toArrayBinary(batch)).as(BINARY_CONTENT_TYPE);
+            } catch (Exception e) {
+                log.error("Error in /transformarraybinary", e);
+                return internalServerError(e.getMessage());
+            }
+        })));
+
         server = Server.forRouter(routingDsl.build(), Mode.PROD, port);
+
+        startBinaryServer((type, payload) -> {
+            if (type != BinaryTransformProtocol.TYPE_IMAGE_ARRAY)
+                throw new IllegalArgumentException(
+                                "Unsupported binary request type for image transform server: " + type);
+            if (transform == null)
+                throw new IllegalStateException("No transform process has been set");
+            return transform.toArrayBinary(BinaryTransformProtocol.decodeImageBatch(payload));
+        });
     }
 
     @Override
@@ -6,8 +6,11 @@ import org.datavec.spark.transform.model.Base64NDArrayBody;
 import org.datavec.spark.transform.model.BatchCSVRecord;
 import org.datavec.spark.transform.service.DataVecTransformService;
 import org.nd4j.shade.jackson.databind.ObjectMapper;
+import play.mvc.Http;
 import play.server.Server;
 
+import java.io.IOException;
+
 import static play.mvc.Controller.request;
 
 /**
@@ -20,7 +23,10 @@ public abstract class SparkTransformServer implements DataVecTransformService {
     protected int port = 9000;
     @Parameter(names = {"-dt", "--dataType"}, arity = 1)
     private TransformDataType transformDataType = null;
+    @Parameter(names = {"-bp", "--binaryPort"}, arity = 1)
+    protected int binaryPort = -1;
     protected Server server;
+    protected BinaryTransformServer binaryServer;
     protected static ObjectMapper objectMapper = new ObjectMapper();
     protected static String contentType = "application/json";
 
@@ -32,6 +38,28 @@ public abstract class SparkTransformServer implements DataVecTransformService {
     public void stop() {
         if (server != null)
             server.stop();
+        if (binaryServer != null)
+            binaryServer.stop();
+    }
+
+    /**
+     * Start the {@link BinaryTransformServer} on the binary port, if one was specified
+     *
+     * @param handler Handler for the binary requests
+     */
+    protected void startBinaryServer(BinaryTransformServer.Handler handler) throws IOException {
+        if (binaryPort >= 0)
+            binaryServer = new BinaryTransformServer(binaryPort, handler);
+    }
+
+    protected boolean isBinaryRequest() {
+        return request().hasHeader("Content-Type")
+                && request().getHeader("Content-Type").startsWith(BINARY_CONTENT_TYPE);
+    }
+
+    protected byte[] getRequestBytes() {
+        Http.RawBuffer raw = request().body().asRaw();
+        return raw == null ? null : raw.asBytes();
     }
 
     protected boolean isSequence() {
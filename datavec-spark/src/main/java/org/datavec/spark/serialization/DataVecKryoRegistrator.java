@@ -0,0 +1,48 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.serialization;
+
+import com.esotericsoftware.kryo.Kryo;
+import org.apache.spark.serializer.KryoRegistrator;
+import org.datavec.api.writable.WritableType;
+
+/**
+ * Kryo registrator for DataVec: registers compact serializers for all core {@link org.datavec.api.writable.Writable}s
+ * ({@link WritableSerializer}) and for records and sequences ({@link WritableListSerializer}, registered for the
+ * common {@link java.util.List} implementations, which are deserialized as the same class).<br>
+ * To use, set spark.serializer to org.apache.spark.serializer.KryoSerializer and spark.kryo.registrator to this
+ * class, or use {@link org.datavec.spark.transform.utils.SparkUtils#registerKryoRegistrator(org.apache.spark.SparkConf)}.
+ * <br>
+ * Note that the registration order determines the class IDs: the same registrator must be used for writing and
+ * reading any persisted (Kryo serialized) data.
+ */
+public class DataVecKryoRegistrator implements KryoRegistrator {
+
+    @Override
+    public void registerClasses(Kryo kryo) {
+        for (WritableType t : WritableType.values()) {
+            if (t.isCoreWritable()) {
+                kryo.register(t.getWritableClass(), new WritableSerializer(t));
+            }
+        }
+
+        WritableListSerializer listSerializer = new WritableListSerializer();
+        for (Class<?> c : WritableListSerializer.LIST_CLASSES) {
+            kryo.register(c, listSerializer);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.serialization;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.datavec.api.writable.Writable;
+import org.datavec.api.writable.WritableType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Compact Kryo serializer for lists, and in particular for DataVec records (List&lt;Writable&gt;).<br>
+ * A list is written as its size (variable length integer), followed by one type byte and the value for each element.
+ * Core Writables are written via {@link WritableSerializer}, with the type byte being the index of the
+ * {@link WritableType}; all other elements (including nested lists, such as the time steps of a sequence) are
+ * written via {@link Kryo#writeClassAndObject(Output, Object)}. Hence a record of N numerical values takes N type
+ * bytes plus the values themselves, with no class names.<br>
+ * Lists are deserialized as the class they were serialized from: the lists of {@link #LIST_CLASSES} (which
+ * {@link DataVecKryoRegistrator} registers this serializer for) are rebuilt via their factory methods, and any other
+ * list class must have a no-argument constructor.
+ */
+public class WritableListSerializer extends Serializer<List<?>> {
+
+    private static final byte TYPE_NULL = -1;
+    private static final byte TYPE_OTHER = -2;
+    private static final WritableType[] TYPES = WritableType.values();
+
+    private static final Class<?> ARRAYS_AS_LIST = Arrays.asList().getClass();
+    private static final Class<?> SINGLETON_LIST = Collections.singletonList(null).getClass();
+    private static final Class<?> EMPTY_LIST = Collections.emptyList().getClass();
+    private static final Class<?> UNMODIFIABLE_RANDOM_ACCESS_LIST =
+                    Collections.unmodifiableList(new ArrayList<>()).getClass();
+    private static final Class<?> UNMODIFIABLE_LIST = Collections.unmodifiableList(new LinkedList<>()).getClass();
+
+    /** The common List implementations, which are all deserialized as the same class. */
+    public static final List<Class<?>> LIST_CLASSES = Collections.unmodifiableList(Arrays.<Class<?>>asList(
+                    ArrayList.class, LinkedList.class, ARRAYS_AS_LIST, SINGLETON_LIST, EMPTY_LIST,
+                    UNMODIFIABLE_RANDOM_ACCESS_LIST, UNMODIFIABLE_LIST));
+
+    @Override
+    public void write(Kryo kryo, Output output, List<?> list) {
+        output.writeInt(list.size(), true);
+        for (Object o : list) {
+            if (o == null) {
+                output.writeByte(TYPE_NULL);
+                continue;
+            }
+            WritableType t = (o instanceof Writable ? WritableSerializer.compactType((Writable) o) : null);
+            if (t == null) {
+                output.writeByte(TYPE_OTHER);
+                kryo.writeClassAndObject(output, o);
+            } else {
+                output.writeByte((byte) t.typeIdx());
+                WritableSerializer.writeValue(output, (Writable) o, t);
+            }
+        }
+    }
+
+    @Override
+    public List<?> read(Kryo kryo, Input input, Class<List<?>> c) {
+        int size = input.readInt(true);
+        ArrayList<Object> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            byte type = input.readByte();
+            switch (type) {
+                case TYPE_NULL:
+                    out.add(null);
+                    break;
+                case TYPE_OTHER:
+                    out.add(kryo.readClassAndObject(input));
+                    break;
+                default:
+                    out.add(WritableSerializer.readValue(input, TYPES[type]));
+            }
+        }
+        return restore(kryo, c, out);
+    }
+
+    private static List<?> restore(Kryo kryo, Class<?> c, ArrayList<Object> list) {
+        if (c == ArrayList.class) {
+            return list;
+        } else if (c == LinkedList.class) {
+            return new LinkedList<>(list);
+        } else if (c == ARRAYS_AS_LIST) {
+            return Arrays.asList(list.toArray());
+        } else if (c == SINGLETON_LIST) {
+            return Collections.singletonList(list.get(0));
+        } else if (c == EMPTY_LIST) {
+            return Collections.emptyList();
+        } else if (c == UNMODIFIABLE_RANDOM_ACCESS_LIST) {
+            return Collections.unmodifiableList(list);
+        } else if (c == UNMODIFIABLE_LIST) {
+            return Collections.unmodifiableList(new LinkedList<>(list));
+        }
+
+        List<Object> out;
+        try {
+            out = (List<Object>) kryo.newInstance(c);
+        } catch (KryoException e) {
+            throw new KryoException("Cannot deserialize list of class " + c.getName(), e);
+        }
+        out.addAll(list);
+        return out;
+    }
+}
@@ -0,0 +1,147 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.serialization;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.datavec.api.writable.*;
+
+import java.io.*;
+
+/**
+ * Compact Kryo serializer for the core DataVec {@link Writable}s (see {@link WritableType#isCoreWritable()}).<br>
+ * Values are written without any class information or headers: booleans, bytes, floats and doubles in their fixed
+ * width binary form; integers and longs as (zig-zag) variable length integers; Text as a variable length byte count
+ * followed by the UTF-8 bytes; and NDArrays as a variable length byte count followed by the output of
+ * {@link NDArrayWritable#write(DataOutput)}. NullWritable is written as zero bytes.<br>
+ * Note that variable length integers are written with {@link Output#writeInt(int, boolean)}, which is available in
+ * the Kryo versions used by both Spark 1 and Spark 2.<br>
+ * One instance is registered per core Writable class: see {@link DataVecKryoRegistrator}
+ */
+public class WritableSerializer extends Serializer<Writable> {
+
+    private final WritableType type;
+
+    /**
+     * @param type Type of Writable to serialize. Must be a core Writable type
+     */
+    public WritableSerializer(WritableType type) {
+        if (!type.isCoreWritable()) {
+            throw new IllegalArgumentException("Only core writable types are supported: got " + type);
+        }
+        this.type = type;
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output, Writable writable) {
+        writeValue(output, writable, type);
+    }
+
+    @Override
+    public Writable read(Kryo kryo, Input input, Class<Writable> c) {
+        return readValue(input, type);
+    }
+
+    /**
+     * Returns the WritableType that the Writable can be compactly serialized as, or null if it cannot be (i.e., it is
+     * not a core Writable, or is a subclass of a core Writable)
+     */
+    static WritableType compactType(Writable writable) {
+        WritableType t = writable.getType();
+        if (t == null || !t.isCoreWritable() || writable.getClass() != t.getWritableClass()) {
+            return null;
+        }
+        return t;
+    }
+
+    static void writeValue(Output output, Writable w, WritableType type) {
+        switch (type) {
+            case Boolean:
+                output.writeBoolean(((BooleanWritable) w).get());
+                break;
+            case Byte:
+                output.writeByte(((ByteWritable) w).get());
+                break;
+            case Double:
+                output.writeDouble(((DoubleWritable) w).get());
+                break;
+            case Float:
+                output.writeFloat(((FloatWritable) w).get());
+                break;
+            case Int:
+                output.writeInt(((IntWritable) w).get(), false);
+                break;
+            case Long:
+                output.writeLong(((LongWritable) w).get(), false);
+                break;
+            case Null:
+                break;
+            case Text:
+                Text t = (Text) w;
+                output.writeInt(t.getLength(), true);
+                output.writeBytes(t.getBytes(), 0, t.getLength());
+                break;
+            case NDArray:
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                try (DataOutputStream dos = new DataOutputStream(baos)) {
+                    w.write(dos);
+                } catch (IOException e) {
+                    throw new RuntimeException("Error serializing NDArrayWritable", e);
+                }
+                byte[] bytes = baos.toByteArray();
+                output.writeInt(bytes.length, true);
+                output.writeBytes(bytes);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported writable type: " + type);
+        }
+    }
+
+    static Writable readValue(Input input, WritableType type) {
+        switch (type) {
+            case Boolean:
+                return new BooleanWritable(input.readBoolean());
+            case Byte:
+                return new ByteWritable(input.readByte());
+            case Double:
+                return new DoubleWritable(input.readDouble());
+            case Float:
+                return new FloatWritable(input.readFloat());
+            case Int:
+                return new IntWritable(input.readInt(false));
+            case Long:
+                return new LongWritable(input.readLong(false));
+            case Null:
+                return NullWritable.INSTANCE;
+            case Text:
+                return new Text(input.readBytes(input.readInt(true)));
+            case NDArray:
+                byte[] bytes = input.readBytes(input.readInt(true));
+                NDArrayWritable w = new NDArrayWritable();
+                try {
+                    w.readFields(new DataInputStream(new ByteArrayInputStream(bytes)));
+                } catch (IOException e) {
+                    throw new RuntimeException("Error deserializing NDArrayWritable", e);
+                }
+                return w;
+            default:
+                throw new IllegalArgumentException("Unsupported writable type: " + type);
+        }
+    }
+}
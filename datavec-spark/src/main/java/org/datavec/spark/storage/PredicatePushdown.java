@@ -0,0 +1,124 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.storage;
+
+import org.apache.spark.sql.Column;
+import org.datavec.api.transform.condition.BooleanCondition;
+import org.datavec.api.transform.condition.Condition;
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.condition.column.*;
+
+import java.util.Set;
+
+import static org.apache.spark.sql.functions.col;
+import static org.apache.spark.sql.functions.not;
+
+/**
+ * Translates DataVec {@link Condition}s to Spark SQL {@link Column} predicates, so that they can be pushed down to
+ * columnar readers such as Parquet. Column conditions on double, integer, long, float, time, string and categorical
+ * columns are supported, as are {@link BooleanCondition}s that combine them.<br>
+ * Any other condition (or combination including one) cannot be translated, and {@link #toColumn(Condition)}
+ * returns null.
+ */
+public class PredicatePushdown {
+
+    private PredicatePushdown() {}
+
+    /**
+     * Convert the condition to an equivalent Spark column predicate: the predicate is true for exactly those rows
+     * for which {@link Condition#condition(java.util.List)} would return true.
+     *
+     * @param condition Condition to convert
+     * @return The column predicate, or null if the condition cannot be translated
+     */
+    public static Column toColumn(Condition condition) {
+        if (condition instanceof BooleanCondition) {
+            return toColumn((BooleanCondition) condition);
+        } else if (condition instanceof DoubleColumnCondition) {
+            DoubleColumnCondition c = (DoubleColumnCondition) condition;
+            return toColumn(c.columnName(), c.getOp(), c.getValue(), c.getSet());
+        } else if (condition instanceof IntegerColumnCondition) {
+            IntegerColumnCondition c = (IntegerColumnCondition) condition;
+            return toColumn(c.columnName(), c.getOp(), c.getValue(), c.getSet());
+        } else if (condition instanceof LongColumnCondition) {
+            LongColumnCondition c = (LongColumnCondition) condition;
+            return toColumn(c.columnName(), c.getOp(), c.getValue(), c.getSet());
+        } else if (condition instanceof TimeColumnCondition) {
+            TimeColumnCondition c = (TimeColumnCondition) condition;
+            return toColumn(c.columnName(), c.getOp(), c.getValue(), c.getSet());
+        } else if (condition instanceof StringColumnCondition) {
+            StringColumnCondition c = (StringColumnCondition) condition;
+            return toColumn(c.columnName(), c.getOp(), c.getValue(), c.getSet());
+        } else if (condition instanceof CategoricalColumnCondition) {
+            CategoricalColumnCondition c = (CategoricalColumnCondition) condition;
+            return toColumn(c.columnName(), c.getOp(), c.getValue(), c.getSet());
+        }
+        return null;
+    }
+
+    private static Column toColumn(BooleanCondition condition) {
+        Condition[] conditions = condition.getConditions();
+        Column[] columns = new Column[conditions.length];
+        for (int i = 0; i < conditions.length; i++) {
+            columns[i] = toColumn(conditions[i]);
+            if (columns[i] == null)
+                return null;
+        }
+
+        Column out = columns[0];
+        switch (condition.getType()) {
+            case AND:
+                for (int i = 1; i < columns.length; i++)
+                    out = out.and(columns[i]);
+                return out;
+            case OR:
+                for (int i = 1; i < columns.length; i++)
+                    out = out.or(columns[i]);
+                return out;
+            case NOT:
+                return not(out);
+            case XOR:
+                return out.and(not(columns[1])).or(not(out).and(columns[1]));
+            default:
+                return null;
+        }
+    }
+
+    private static Column toColumn(String columnName, ConditionOp op, Object value, Set<?> set) {
+        Column column = col(columnName);
+        switch (op) {
+            case LessThan:
+                return column.lt(value);
+            case LessOrEqual:
+                return column.leq(value);
+            case GreaterThan:
+                return column.gt(value);
+            case GreaterOrEqual:
+                return column.geq(value);
+            case Equal:
+                return column.equalTo(value);
+            case NotEqual:
+                return column.notEqual(value);
+            case InSet:
+                return column.isin(set.toArray());
+            case NotInSet:
+                return not(column.isin(set.toArray()));
+            default:
+                return null;
+        }
+    }
+}
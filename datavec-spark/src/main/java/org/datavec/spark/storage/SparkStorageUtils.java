@@ -26,19 +26,32 @@ import org.apache.hadoop.mapreduce.lib.output.SequenceFileOutputFormat;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.SQLContext;
+import org.datavec.api.transform.condition.Condition;
+import org.datavec.api.transform.metadata.ColumnMetaData;
+import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.Writable;
 import org.datavec.hadoop.records.reader.mapfile.record.RecordWritable;
 import org.datavec.hadoop.records.reader.mapfile.record.SequenceRecordWritable;
+import org.datavec.spark.storage.functions.ConditionRowFilterFunction;
 import org.datavec.spark.storage.functions.RecordLoadPairFunction;
 import org.datavec.spark.storage.functions.RecordSavePrepPairFunction;
 import org.datavec.spark.storage.functions.SequenceRecordLoadPairFunction;
 import org.datavec.spark.storage.functions.SequenceRecordSavePrepPairFunction;
+import org.datavec.spark.transform.DataFrames;
+import org.datavec.spark.transform.DataRowsFacade;
 
 import  edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import static org.datavec.spark.transform.DataRowsFacade.dataRows;
+
 /**
- * Utility methods for saving and restoring Writable objects from Spark RDD is to Hadoop formats
+ * Utility methods for saving and restoring Writable objects from Spark RDD is to Hadoop formats and Parquet
  *
  * @author Alex Black
  */
@@ -362,4 +375,194 @@ public class SparkStorageUtils {
         return pairRDD.mapToPair(new SequenceRecordLoadPairFunction());
     }
 
+    /**
+     * Save a {@code JavaRDD<List<Writable>>} to Parquet. Column types are mapped from the DataVec schema via
+     * {@link DataFrames#fromSchema(Schema)}, and the DataVec column metadata is stored in the Parquet schema, so the
+     * data can be restored without deserializing any columns that are not required.<br>
+     * <b>Note</b>: Bytes, boolean and NDArray columns are not supported.
+     * <p>
+     * Use {@link #restoreParquet(String, JavaSparkContext)} or
+     * {@link #restoreParquet(String, JavaSparkContext, String[], Condition)} to restore values saved with this method.
+     *
+     * @param path   Path to save the Parquet files
+     * @param schema Schema of the data
+     * @param rdd    RDD to save
+     * @see #saveParquetSequences(String, Schema, JavaRDD)
+     */
+    public static void saveParquet(String path, Schema schema, JavaRDD<List<Writable>> rdd) {
+        saveParquet(path, schema, rdd, null);
+    }
+
+    /**
+     * Save a {@code JavaRDD<List<Writable>>} to Parquet. Column types are mapped from the DataVec schema via
+     * {@link DataFrames#fromSchema(Schema)}, and the DataVec column metadata is stored in the Parquet schema, so the
+     * data can be restored without deserializing any columns that are not required.<br>
+     * <b>Note</b>: Bytes, boolean and NDArray columns are not supported.
+     * <p>
+     * Use {@link #restoreParquet(String, JavaSparkContext)} or
+     * {@link #restoreParquet(String, JavaSparkContext, String[], Condition)} to restore values saved with this method.
+     *
+     * @param path           Path to save the Parquet files
+     * @param schema         Schema of the data
+     * @param rdd            RDD to save
+     * @param maxOutputFiles Nullable. If non-null: first coalesce the RDD to the specified size (number of partitions)
+     *                       to limit the maximum number of output Parquet files
+     * @see #saveParquetSequences(String, Schema, JavaRDD)
+     */
+    public static void saveParquet(String path, Schema schema, JavaRDD<List<Writable>> rdd,
+                    @Nullable Integer maxOutputFiles) {
+        path = FilenameUtils.normalize(path, true);
+        if (maxOutputFiles != null) {
+            rdd = rdd.coalesce(maxOutputFiles);
+        }
+        DataFrames.toDataFrame(schema, rdd).get().write().parquet(path);
+    }
+
+    /**
+     * Restore a {@code JavaRDD<List<Writable>>} previously saved with {@link #saveParquet(String, Schema, JavaRDD)}
+     *
+     * @param path Path of the Parquet files
+     * @param sc   Spark context
+     * @return The restored RDD
+     */
+    public static JavaRDD<List<Writable>> restoreParquet(String path, JavaSparkContext sc) {
+        return restoreParquet(path, sc, null, null);
+    }
+
+    /**
+     * Restore a {@code JavaRDD<List<Writable>>} previously saved with {@link #saveParquet(String, Schema, JavaRDD)},
+     * reading only the specified columns, and only the records matching the specified condition.<br>
+     * Where possible (see {@link PredicatePushdown}), the condition is pushed down to the Parquet reader, so that
+     * row groups that cannot match are skipped entirely. Otherwise, the condition is applied after reading.<br>
+     * <b>Note</b>: records for which the condition is <i>true</i> are retained. This is the opposite of
+     * {@link org.datavec.api.transform.filter.ConditionFilter}, which removes the examples that match the condition.
+     *
+     * @param path      Path of the Parquet files
+     * @param sc        Spark context
+     * @param columns   Nullable. If non-null: names of the columns to restore, in the order they should be returned
+     * @param condition Nullable. If non-null: only records for which this condition is true are restored. The
+     *                  condition may refer to columns that are not restored
+     * @return The restored RDD
+     */
+    public static JavaRDD<List<Writable>> restoreParquet(String path, JavaSparkContext sc, @Nullable String[] columns,
+                    @Nullable Condition condition) {
+        DataRowsFacade rows = readParquet(path, sc, columns, condition, false);
+        return DataFrames.toRecords(rows).getSecond();
+    }
+
+    /**
+     * Save a {@code JavaRDD<List<List<Writable>>>} to Parquet. Each time step is stored as a row, along with the
+     * sequence UUID and time step index columns described in {@link DataFrames#toDataFrameSequence(Schema, JavaRDD)},
+     * which are used to reconstruct the sequences on restore.<br>
+     * <b>Note</b>: Bytes, boolean and NDArray columns are not supported.
+     * <p>
+     * Use {@link #restoreParquetSequences(String, JavaSparkContext)} or
+     * {@link #restoreParquetSequences(String, JavaSparkContext, String[], Condition)} to restore values saved with
+     * this method.
+     *
+     * @param path   Path to save the Parquet files
+     * @param schema Schema of the time steps
+     * @param rdd    RDD to save
+     * @see #saveParquet(String, Schema, JavaRDD)
+     */
+    public static void saveParquetSequences(String path, Schema schema, JavaRDD<List<List<Writable>>> rdd) {
+        saveParquetSequences(path, schema, rdd, null);
+    }
+
+    /**
+     * Save a {@code JavaRDD<List<List<Writable>>>} to Parquet. Each time step is stored as a row, along with the
+     * sequence UUID and time step index columns described in {@link DataFrames#toDataFrameSequence(Schema, JavaRDD)},
+     * which are used to reconstruct the sequences on restore.<br>
+     * <b>Note</b>: Bytes, boolean and NDArray columns are not supported.
+     * <p>
+     * Use {@link #restoreParquetSequences(String, JavaSparkContext)} or
+     * {@link #restoreParquetSequences(String, JavaSparkContext, String[], Condition)} to restore values saved with
+     * this method.
+     *
+     * @param path           Path to save the Parquet files
+     * @param schema         Schema of the time steps
+     * @param rdd            RDD to save
+     * @param maxOutputFiles Nullable. If non-null: first coalesce the RDD to the specified size (number of partitions)
+     *                       to limit the maximum number of output Parquet files
+     * @see #saveParquet(String, Schema, JavaRDD)
+     */
+    public static void saveParquetSequences(String path, Schema schema, JavaRDD<List<List<Writable>>> rdd,
+                    @Nullable Integer maxOutputFiles) {
+        path = FilenameUtils.normalize(path, true);
+        if (maxOutputFiles != null) {
+            rdd = rdd.coalesce(maxOutputFiles);
+        }
+        DataFrames.toDataFrameSequence(schema, rdd).get().write().parquet(path);
+    }
+
+    /**
+     * Restore a {@code JavaRDD<List<List<Writable>>>} previously saved with
+     * {@link #saveParquetSequences(String, Schema, JavaRDD)}
+     *
+     * @param path Path of the Parquet files
+     * @param sc   Spark context
+     * @return The restored RDD
+     */
+    public static JavaRDD<List<List<Writable>>> restoreParquetSequences(String path, JavaSparkContext sc) {
+        return restoreParquetSequences(path, sc, null, null);
+    }
+
+    /**
+     * Restore a {@code JavaRDD<List<List<Writable>>>} previously saved with
+     * {@link #saveParquetSequences(String, Schema, JavaRDD)}, reading only the specified columns, and only the time
+     * steps matching the specified condition. Time steps retain their original order; sequences for which no time
+     * steps match the condition are not returned.<br>
+     * Where possible (see {@link PredicatePushdown}), the condition is pushed down to the Parquet reader. Otherwise,
+     * it is applied after reading.<br>
+     * <b>Note</b>: time steps for which the condition is <i>true</i> are retained.
+     *
+     * @param path      Path of the Parquet files
+     * @param sc        Spark context
+     * @param columns   Nullable. If non-null: names of the columns to restore, in the order they should be returned
+     * @param condition Nullable. If non-null: only time steps for which this condition is true are restored. The
+     *                  condition is evaluated on individual time steps, and may refer to columns that are not restored
+     * @return The restored RDD
+     */
+    public static JavaRDD<List<List<Writable>>> restoreParquetSequences(String path, JavaSparkContext sc,
+                    @Nullable String[] columns, @Nullable Condition condition) {
+        DataRowsFacade rows = readParquet(path, sc, columns, condition, true);
+        return DataFrames.toRecordsSequence(rows).getSecond();
+    }
+
+    private static DataRowsFacade readParquet(String path, JavaSparkContext sc, String[] columns, Condition condition,
+                    boolean sequence) {
+        SQLContext sqlContext = new SQLContext(sc);
+        DataRowsFacade rows = dataRows(sqlContext.read().parquet(FilenameUtils.normalize(path, true)));
+
+        //Sequences: the first two columns are the sequence UUID and time step index
+        int firstColumn = (sequence ? 2 : 0);
+
+        if (condition != null) {
+            List<ColumnMetaData> meta = DataFrames.fromStructType(rows.get().schema()).getColumnMetaData();
+            Schema schema = new Schema(new ArrayList<>(meta.subList(firstColumn, meta.size())));
+            condition.setInputSchema(schema);
+
+            Column predicate = PredicatePushdown.toColumn(condition);
+            if (predicate != null) {
+                rows = dataRows(rows.get().filter(predicate));
+            } else {
+                JavaRDD<Row> filtered = rows.get().javaRDD()
+                                .filter(new ConditionRowFilterFunction(schema, condition, firstColumn));
+                rows = dataRows(sqlContext.createDataFrame(filtered, rows.get().schema()));
+            }
+        }
+
+        if (columns != null) {
+            List<String> selected = new ArrayList<>();
+            if (sequence) {
+                selected.add(DataFrames.SEQUENCE_UUID_COLUMN);
+                selected.add(DataFrames.SEQUENCE_INDEX_COLUMN);
+            }
+            Collections.addAll(selected, columns);
+            rows = dataRows(rows.get().select(DataFrames.toColumns(DataFrames.toArray(selected))));
+        }
+
+        return rows;
+    }
+
 }
@@ -0,0 +1,49 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.storage.functions;
+
+import lombok.AllArgsConstructor;
+import org.apache.spark.api.java.function.Function;
+import org.apache.spark.sql.Row;
+import org.datavec.api.transform.condition.Condition;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.transform.DataFrames;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A function used to filter rows restored via {@link org.datavec.spark.storage.SparkStorageUtils}, for conditions
+ * that cannot be pushed down to the Parquet reader. Rows for which the condition is true are retained.
+ */
+@AllArgsConstructor
+public class ConditionRowFilterFunction implements Function<Row, Boolean> {
+
+    private final Schema schema;
+    private final Condition condition;
+    private final int firstColumn;
+
+    @Override
+    public Boolean call(Row row) throws Exception {
+        List<Writable> values = new ArrayList<>(schema.numColumns());
+        for (int i = 0; i < schema.numColumns(); i++) {
+            values.add(DataFrames.toWritable(schema.getType(i), row, firstColumn + i));
+        }
+        return condition.condition(values);
+    }
+}
@@ -16,9 +16,11 @@
 
 package org.datavec.spark.transform;
 
+import com.tdunning.math.stats.TDigest;
 import org.apache.spark.api.java.JavaDoubleRDD;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.storage.StorageLevel;
 import org.datavec.api.transform.ColumnType;
 import org.datavec.api.transform.analysis.DataAnalysis;
 import org.datavec.api.transform.analysis.SequenceDataAnalysis;
@@ -43,6 +45,8 @@ import org.datavec.spark.transform.analysis.seqlength.IntToDoubleFunction;
 import org.datavec.spark.transform.analysis.seqlength.SequenceLengthAnalysisAddFunction;
 import org.datavec.spark.transform.analysis.seqlength.SequenceLengthAnalysisCounter;
 import org.datavec.spark.transform.analysis.seqlength.SequenceLengthAnalysisMergeFunction;
+import org.datavec.spark.transform.analysis.sketch.SketchAnalysisAddFunction;
+import org.datavec.spark.transform.analysis.sketch.SketchAnalysisCounter;
 import org.datavec.spark.transform.analysis.string.StringAnalysisCounter;
 import org.datavec.spark.transform.filter.FilterWritablesBySchemaFunction;
 import org.datavec.spark.transform.misc.ColumnToKeyPairTransform;
@@ -65,6 +69,7 @@ import java.util.*;
 public class AnalyzeSpark {
 
     public static final int DEFAULT_HISTOGRAM_BUCKETS = 30;
+    public static final int DEFAULT_TOP_K = 10;
 
     public static SequenceDataAnalysis analyzeSequence(Schema schema, JavaRDD<List<List<Writable>>> data) {
         return analyzeSequence(schema, data, DEFAULT_HISTOGRAM_BUCKETS);
@@ -79,7 +84,7 @@ public class AnalyzeSpark {
      */
     public static SequenceDataAnalysis analyzeSequence(Schema schema, JavaRDD<List<List<Writable>>> data,
                     int maxHistogramBuckets) {
-        data.cache();
+        boolean cached = cacheIfNotPersisted(data);
         JavaRDD<List<Writable>> fmSeq = data.flatMap(new SequenceFlatMapFunction());
         DataAnalysis da = analyze(schema, fmSeq);
         //Analyze the length of the sequences:
@@ -105,6 +110,8 @@ public class AnalyzeSpark {
             hist = drdd.histogram(maxHistogramBuckets);
         }
         seqLengths.unpersist();
+        if (cached)
+            data.unpersist();
 
 
         SequenceLengthAnalysis lengthAnalysis = SequenceLengthAnalysis.builder()
@@ -122,7 +129,7 @@ public class AnalyzeSpark {
     }
 
     public static DataAnalysis analyze(Schema schema, JavaRDD<List<Writable>> data, int maxHistogramBuckets) {
-        data.cache();
+        boolean cached = cacheIfNotPersisted(data);
         /*
          * TODO: Some care should be given to add histogramBuckets and histogramBucketCounts to this in the future
          */
@@ -137,100 +144,7 @@ public class AnalyzeSpark {
         List<ColumnAnalysis> list = new ArrayList<>(nColumns);
 
         for (int i = 0; i < nColumns; i++) {
-            ColumnType ct = columnTypes.get(i);
-
-            switch (ct) {
-                case String:
-                    StringAnalysisCounter sac = (StringAnalysisCounter) counters.get(i);
-                    list.add(new StringAnalysis.Builder().countTotal(sac.getCountTotal())
-                                    .minLength(sac.getMinLengthSeen()).maxLength(sac.getMaxLengthSeen())
-                                    .meanLength(sac.getMean()).sampleStdevLength(sac.getSampleStdev())
-                                    .sampleVarianceLength(sac.getSampleVariance()).build());
-                    minsMaxes[i][0] = sac.getMinLengthSeen();
-                    minsMaxes[i][1] = sac.getMaxLengthSeen();
-                    break;
-                case Integer:
-                    IntegerAnalysisCounter iac = (IntegerAnalysisCounter) counters.get(i);
-                    IntegerAnalysis ia = new IntegerAnalysis.Builder().min(iac.getMinValueSeen())
-                                    .max(iac.getMaxValueSeen()).mean(iac.getMean()).sampleStdev(iac.getSampleStdev())
-                                    .sampleVariance(iac.getSampleVariance()).countZero(iac.getCountZero())
-                                    .countNegative(iac.getCountNegative()).countPositive(iac.getCountPositive())
-                                    .countMinValue(iac.getCountMinValue()).countMaxValue(iac.getCountMaxValue())
-                                    .countTotal(iac.getCountTotal()).digest(iac.getDigest()).build();
-                    list.add(ia);
-
-                    minsMaxes[i][0] = iac.getMinValueSeen();
-                    minsMaxes[i][1] = iac.getMaxValueSeen();
-
-                    break;
-                case Long:
-                    LongAnalysisCounter lac = (LongAnalysisCounter) counters.get(i);
-
-                    LongAnalysis la = new LongAnalysis.Builder().min(lac.getMinValueSeen()).max(lac.getMaxValueSeen())
-                                    .mean(lac.getMean()).sampleStdev(lac.getSampleStdev())
-                                    .sampleVariance(lac.getSampleVariance()).countZero(lac.getCountZero())
-                                    .countNegative(lac.getCountNegative()).countPositive(lac.getCountPositive())
-                                    .countMinValue(lac.getCountMinValue()).countMaxValue(lac.getCountMaxValue())
-                                    .countTotal(lac.getCountTotal()).digest(lac.getDigest()).build();
-
-                    list.add(la);
-
-                    minsMaxes[i][0] = lac.getMinValueSeen();
-                    minsMaxes[i][1] = lac.getMaxValueSeen();
-
-                    break;
-                case Double:
-                    DoubleAnalysisCounter dac = (DoubleAnalysisCounter) counters.get(i);
-                    DoubleAnalysis da = new DoubleAnalysis.Builder().min(dac.getMinValueSeen())
-                                    .max(dac.getMaxValueSeen()).mean(dac.getMean()).sampleStdev(dac.getSampleStdev())
-                                    .sampleVariance(dac.getSampleVariance()).countZero(dac.getCountZero())
-                                    .countNegative(dac.getCountNegative()).countPositive(dac.getCountPositive())
-                                    .countMinValue(dac.getCountMinValue()).countMaxValue(dac.getCountMaxValue())
-                                    .countNaN(dac.getCountNaN()).digest(dac.getDigest()).countTotal(dac.getCountTotal()).build();
-                    list.add(da);
-
-                    minsMaxes[i][0] = dac.getMinValueSeen();
-                    minsMaxes[i][1] = dac.getMaxValueSeen();
-
-                    break;
-                case Categorical:
-                    CategoricalAnalysisCounter cac = (CategoricalAnalysisCounter) counters.get(i);
-                    CategoricalAnalysis ca = new CategoricalAnalysis(cac.getCounts());
-                    list.add(ca);
-
-                    break;
-                case Time:
-                    LongAnalysisCounter lac2 = (LongAnalysisCounter) counters.get(i);
-
-                    TimeAnalysis la2 = new TimeAnalysis.Builder().min(lac2.getMinValueSeen())
-                                    .max(lac2.getMaxValueSeen()).mean(lac2.getMean()).sampleStdev(lac2.getSampleStdev())
-                                    .sampleVariance(lac2.getSampleVariance()).countZero(lac2.getCountZero())
-                                    .countNegative(lac2.getCountNegative()).countPositive(lac2.getCountPositive())
-                                    .countMinValue(lac2.getCountMinValue()).countMaxValue(lac2.getCountMaxValue())
-                                    .countTotal(lac2.getCountTotal()).digest(lac2.getDigest()).build();
-
-                    list.add(la2);
-
-                    minsMaxes[i][0] = lac2.getMinValueSeen();
-                    minsMaxes[i][1] = lac2.getMaxValueSeen();
-
-                    break;
-                case Bytes:
-                    BytesAnalysisCounter bac = (BytesAnalysisCounter) counters.get(i);
-                    list.add(new BytesAnalysis.Builder().countTotal(bac.getCountTotal()).build());
-                    break;
-                case NDArray:
-                    NDArrayAnalysisCounter nac = (NDArrayAnalysisCounter) counters.get(i);
-                    NDArrayAnalysis nda = nac.toAnalysisObject();
-                    list.add(nda);
-
-                    minsMaxes[i][0] = nda.getMinValue();
-                    minsMaxes[i][1] = nda.getMaxValue();
-
-                    break;
-                default:
-                    throw new IllegalStateException("Unknown column type: " + ct);
-            }
+            list.add(toColumnAnalysis(columnTypes.get(i), counters.get(i), minsMaxes[i]));
         }
 
         List<HistogramCounter> histogramCounters =
@@ -240,32 +154,199 @@ public class AnalyzeSpark {
         //Merge analysis values and histogram values
         for (int i = 0; i < list.size(); i++) {
             HistogramCounter hc = histogramCounters.get(i);
-            ColumnAnalysis ca = list.get(i);
-            if (ca instanceof IntegerAnalysis) {
-                ((IntegerAnalysis) ca).setHistogramBuckets(hc.getBins());
-                ((IntegerAnalysis) ca).setHistogramBucketCounts(hc.getCounts());
-            } else if (ca instanceof DoubleAnalysis) {
-                ((DoubleAnalysis) ca).setHistogramBuckets(hc.getBins());
-                ((DoubleAnalysis) ca).setHistogramBucketCounts(hc.getCounts());
-            } else if (ca instanceof LongAnalysis) {
-                ((LongAnalysis) ca).setHistogramBuckets(hc.getBins());
-                ((LongAnalysis) ca).setHistogramBucketCounts(hc.getCounts());
-            } else if (ca instanceof TimeAnalysis) {
-                ((TimeAnalysis) ca).setHistogramBuckets(hc.getBins());
-                ((TimeAnalysis) ca).setHistogramBucketCounts(hc.getCounts());
-            } else if (ca instanceof StringAnalysis) {
-                ((StringAnalysis) ca).setHistogramBuckets(hc.getBins());
-                ((StringAnalysis) ca).setHistogramBucketCounts(hc.getCounts());
-            } else if (ca instanceof NDArrayAnalysis) {
-                ((NDArrayAnalysis) ca).setHistogramBuckets(hc.getBins());
-                ((NDArrayAnalysis) ca).setHistogramBucketCounts(hc.getCounts());
-            }
+            if (hc != null)
+                setHistogram(list.get(i), hc.getBins(), hc.getCounts());
+        }
+
+        if (cached)
+            data.unpersist();
+
+        return new DataAnalysis(schema, list);
+    }
+
+    /**
+     * Cache the data for use in multiple passes, unless it has already been persisted by the caller (for example,
+     * by {@link SparkPipelineSession}). Returns true if the data was cached here, in which case it should be
+     * unpersisted once the analysis is complete
+     */
+    private static boolean cacheIfNotPersisted(JavaRDD<?> data) {
+        if (data.getStorageLevel().equals(StorageLevel.NONE())) {
+            data.cache();
+            return true;
         }
+        return false;
+    }
+
+    public static DataAnalysis analyzeSinglePass(Schema schema, JavaRDD<List<Writable>> data) {
+        return analyzeSinglePass(schema, data, DEFAULT_HISTOGRAM_BUCKETS, DEFAULT_TOP_K);
+    }
+
+    /**
+     * Analyze the data using a single pass, without caching the input RDD.<br>
+     * Unlike {@link #analyze(Schema, JavaRDD, int)} (which requires a second pass over the data to calculate the
+     * histograms), the histograms here are estimated from mergeable t-digest sketches, collected in the same pass as
+     * the other statistics. Quantiles (median, 90th and 99th percentiles etc) are available via
+     * {@link NumericalColumnAnalysis#getQuantile(double)}. For String columns, the approximate number of unique values
+     * (HyperLogLog++) and the approximate {@code topK} most frequent values are also calculated.<br>
+     * Consequently histogram bucket counts (and String column unique/most frequent counts) are approximate; all other
+     * statistics are exact. The most frequent values are merged across partitions by re-offering the per-partition
+     * counts, which loses the error bounds of the individual sketches (see
+     * {@link SketchAnalysisCounter#merge(SketchAnalysisCounter)}).
+     *
+     * @param schema              Schema of the data
+     * @param data                Data to analyze
+     * @param maxHistogramBuckets Number of histogram buckets
+     * @param topK                Number of most frequent values to report for String columns
+     * @return Data analysis
+     */
+    public static DataAnalysis analyzeSinglePass(Schema schema, JavaRDD<List<Writable>> data,
+                    int maxHistogramBuckets, int topK) {
+        List<ColumnType> columnTypes = schema.getColumnTypes();
+        List<AnalysisCounter> counters = data.aggregate(null, new SketchAnalysisAddFunction(schema, topK),
+                        new AnalysisCombineFunction());
+
+        int nColumns = schema.numColumns();
+        List<ColumnAnalysis> list = new ArrayList<>(nColumns);
+        double[] minMax = new double[2];
+        for (int i = 0; i < nColumns; i++) {
+            SketchAnalysisCounter sc = (SketchAnalysisCounter) counters.get(i);
+            ColumnAnalysis ca = toColumnAnalysis(columnTypes.get(i), sc.getCounter(), minMax);
+
+            if (ca instanceof StringAnalysis) {
+                ((StringAnalysis) ca).setCountUnique(sc.getCountUnique());
+                ((StringAnalysis) ca).setMostFrequent(sc.getMostFrequent());
+            }
 
+            TDigest digest = sc.getValueDigest();
+            if (digest != null && digest.size() > 0) {
+                double[] bins = SketchAnalysisCounter.getHistogramBuckets(minMax[0], minMax[1], maxHistogramBuckets);
+                setHistogram(ca, bins, SketchAnalysisCounter.getHistogramCounts(digest, bins));
+            }
+            list.add(ca);
+        }
 
         return new DataAnalysis(schema, list);
     }
 
+    private static ColumnAnalysis toColumnAnalysis(ColumnType ct, AnalysisCounter counter, double[] minMax) {
+        ColumnAnalysis out;
+        switch (ct) {
+            case String:
+                StringAnalysisCounter sac = (StringAnalysisCounter) counter;
+                out = new StringAnalysis.Builder().countTotal(sac.getCountTotal())
+                                .minLength(sac.getMinLengthSeen()).maxLength(sac.getMaxLengthSeen())
+                                .meanLength(sac.getMean()).sampleStdevLength(sac.getSampleStdev())
+                                .sampleVarianceLength(sac.getSampleVariance()).build();
+                minMax[0] = sac.getMinLengthSeen();
+                minMax[1] = sac.getMaxLengthSeen();
+                break;
+            case Integer:
+                IntegerAnalysisCounter iac = (IntegerAnalysisCounter) counter;
+                IntegerAnalysis ia = new IntegerAnalysis.Builder().min(iac.getMinValueSeen())
+                                .max(iac.getMaxValueSeen()).mean(iac.getMean()).sampleStdev(iac.getSampleStdev())
+                                .sampleVariance(iac.getSampleVariance()).countZero(iac.getCountZero())
+                                .countNegative(iac.getCountNegative()).countPositive(iac.getCountPositive())
+                                .countMinValue(iac.getCountMinValue()).countMaxValue(iac.getCountMaxValue())
+                                .countTotal(iac.getCountTotal()).digest(iac.getDigest()).build();
+                out = ia;
+
+                minMax[0] = iac.getMinValueSeen();
+                minMax[1] = iac.getMaxValueSeen();
+
+                break;
+            case Long:
+                LongAnalysisCounter lac = (LongAnalysisCounter) counter;
+
+                LongAnalysis la = new LongAnalysis.Builder().min(lac.getMinValueSeen()).max(lac.getMaxValueSeen())
+                                .mean(lac.getMean()).sampleStdev(lac.getSampleStdev())
+                                .sampleVariance(lac.getSampleVariance()).countZero(lac.getCountZero())
+                                .countNegative(lac.getCountNegative()).countPositive(lac.getCountPositive())
+                                .countMinValue(lac.getCountMinValue()).countMaxValue(lac.getCountMaxValue())
+                                .countTotal(lac.getCountTotal()).digest(lac.getDigest()).build();
+
+                out = la;
+
+                minMax[0] = lac.getMinValueSeen();
+                minMax[1] = lac.getMaxValueSeen();
+
+                break;
+            case Double:
+                DoubleAnalysisCounter dac = (DoubleAnalysisCounter) counter;
+                DoubleAnalysis da = new DoubleAnalysis.Builder().min(dac.getMinValueSeen())
+                                .max(dac.getMaxValueSeen()).mean(dac.getMean()).sampleStdev(dac.getSampleStdev())
+                                .sampleVariance(dac.getSampleVariance()).countZero(dac.getCountZero())
+                                .countNegative(dac.getCountNegative()).countPositive(dac.getCountPositive())
+                                .countMinValue(dac.getCountMinValue()).countMaxValue(dac.getCountMaxValue())
+                                .countNaN(dac.getCountNaN()).digest(dac.getDigest()).countTotal(dac.getCountTotal()).build();
+                out = da;
+
+                minMax[0] = dac.getMinValueSeen();
+                minMax[1] = dac.getMaxValueSeen();
+
+                break;
+            case Categorical:
+                CategoricalAnalysisCounter cac = (CategoricalAnalysisCounter) counter;
+                CategoricalAnalysis ca = new CategoricalAnalysis(cac.getCounts());
+                out = ca;
+
+                break;
+            case Time:
+                LongAnalysisCounter lac2 = (LongAnalysisCounter) counter;
+
+                TimeAnalysis la2 = new TimeAnalysis.Builder().min(lac2.getMinValueSeen())
+                                .max(lac2.getMaxValueSeen()).mean(lac2.getMean()).sampleStdev(lac2.getSampleStdev())
+                                .sampleVariance(lac2.getSampleVariance()).countZero(lac2.getCountZero())
+                                .countNegative(lac2.getCountNegative()).countPositive(lac2.getCountPositive())
+                                .countMinValue(lac2.getCountMinValue()).countMaxValue(lac2.getCountMaxValue())
+                                .countTotal(lac2.getCountTotal()).digest(lac2.getDigest()).build();
+
+                out = la2;
+
+                minMax[0] = lac2.getMinValueSeen();
+                minMax[1] = lac2.getMaxValueSeen();
+
+                break;
+            case Bytes:
+                BytesAnalysisCounter bac = (BytesAnalysisCounter) counter;
+                out = new BytesAnalysis.Builder().countTotal(bac.getCountTotal()).build();
+                break;
+            case NDArray:
+                NDArrayAnalysisCounter nac = (NDArrayAnalysisCounter) counter;
+                NDArrayAnalysis nda = nac.toAnalysisObject();
+                out = nda;
+
+                minMax[0] = nda.getMinValue();
+                minMax[1] = nda.getMaxValue();
+
+                break;
+            default:
+                throw new IllegalStateException("Unknown column type: " + ct);
+        }
+        return out;
+    }
+
+    private static void setHistogram(ColumnAnalysis ca, double[] bins, long[] counts) {
+        if (ca instanceof IntegerAnalysis) {
+            ((IntegerAnalysis) ca).setHistogramBuckets(bins);
+            ((IntegerAnalysis) ca).setHistogramBucketCounts(counts);
+        } else if (ca instanceof DoubleAnalysis) {
+            ((DoubleAnalysis) ca).setHistogramBuckets(bins);
+            ((DoubleAnalysis) ca).setHistogramBucketCounts(counts);
+        } else if (ca instanceof LongAnalysis) {
+            ((LongAnalysis) ca).setHistogramBuckets(bins);
+            ((LongAnalysis) ca).setHistogramBucketCounts(counts);
+        } else if (ca instanceof TimeAnalysis) {
+            ((TimeAnalysis) ca).setHistogramBuckets(bins);
+            ((TimeAnalysis) ca).setHistogramBucketCounts(counts);
+        } else if (ca instanceof StringAnalysis) {
+            ((StringAnalysis) ca).setHistogramBuckets(bins);
+            ((StringAnalysis) ca).setHistogramBucketCounts(counts);
+        } else if (ca instanceof NDArrayAnalysis) {
+            ((NDArrayAnalysis) ca).setHistogramBuckets(bins);
+            ((NDArrayAnalysis) ca).setHistogramBucketCounts(counts);
+        }
+    }
+
     /**
      * Randomly sample values from a single column
      *
@@ -369,7 +450,7 @@ public class AnalyzeSpark {
      * @return
      */
     public static DataQualityAnalysis analyzeQuality(final Schema schema, final JavaRDD<List<Writable>> data) {
-        data.cache();
+        //Single pass over the data: no need to cache
         int nColumns = schema.numColumns();
 
 
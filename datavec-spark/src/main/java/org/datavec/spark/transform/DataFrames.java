@@ -9,11 +9,15 @@ import org.apache.spark.sql.Column;
 import org.apache.spark.sql.Row;
 import org.apache.spark.sql.SQLContext;
 import org.apache.spark.sql.functions;
+import org.apache.spark.sql.types.DataType;
 import org.apache.spark.sql.types.DataTypes;
 import org.apache.spark.sql.types.Metadata;
+import org.apache.spark.sql.types.MetadataBuilder;
 import org.apache.spark.sql.types.StructField;
 import org.apache.spark.sql.types.StructType;
 import org.nd4j.linalg.primitives.Pair;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.*;
 import org.datavec.spark.transform.sparkfunction.SequenceToRows;
@@ -26,6 +30,7 @@ import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.apache.spark.sql.functions.avg;
@@ -43,6 +48,10 @@ public class DataFrames {
 
     public static final String SEQUENCE_UUID_COLUMN = "__SEQ_UUID";
     public static final String SEQUENCE_INDEX_COLUMN = "__SEQ_IDX";
+    /**
+     * Key used in the Spark field {@link Metadata} to store the DataVec column metadata (as JSON)
+     */
+    public static final String COLUMN_METADATA_KEY = "datavec.columnMetaData";
 
     private DataFrames() {}
 
@@ -112,7 +121,11 @@ public class DataFrames {
 
     /**
      * Convert a datavec schema to a
-     * struct type in spark
+     * struct type in spark.<br>
+     * String and categorical columns are stored as strings, and time columns as longs. The full DataVec
+     * {@link ColumnMetaData} for each column is stored in the field metadata under {@link #COLUMN_METADATA_KEY},
+     * so that {@link #fromStructType(StructType)} can restore the original schema (for example, after a round trip
+     * through Parquet)
      *
      * @param schema the schema to convert
      * @return the datavec struct type
@@ -120,24 +133,7 @@ public class DataFrames {
     public static StructType fromSchema(Schema schema) {
         StructField[] structFields = new StructField[schema.numColumns()];
         for (int i = 0; i < structFields.length; i++) {
-            switch (schema.getColumnTypes().get(i)) {
-                case Double:
-                    structFields[i] = new StructField(schema.getName(i), DataTypes.DoubleType, false, Metadata.empty());
-                    break;
-                case Integer:
-                    structFields[i] =
-                                    new StructField(schema.getName(i), DataTypes.IntegerType, false, Metadata.empty());
-                    break;
-                case Long:
-                    structFields[i] = new StructField(schema.getName(i), DataTypes.LongType, false, Metadata.empty());
-                    break;
-                case Float:
-                    structFields[i] = new StructField(schema.getName(i), DataTypes.FloatType, false, Metadata.empty());
-                    break;
-                default:
-                    throw new IllegalStateException(
-                                    "This api should not be used with strings , binary data or ndarrays. This is only for columnar data");
-            }
+            structFields[i] = toStructField(schema.getMetaData(i));
         }
         return new StructType(structFields);
     }
@@ -162,35 +158,100 @@ public class DataFrames {
         structFields[1] = new StructField(SEQUENCE_INDEX_COLUMN, DataTypes.IntegerType, false, Metadata.empty());
 
         for (int i = 0; i < schema.numColumns(); i++) {
-            switch (schema.getColumnTypes().get(i)) {
-                case Double:
-                    structFields[i + 2] =
-                                    new StructField(schema.getName(i), DataTypes.DoubleType, false, Metadata.empty());
-                    break;
-                case Integer:
-                    structFields[i + 2] =
-                                    new StructField(schema.getName(i), DataTypes.IntegerType, false, Metadata.empty());
-                    break;
-                case Long:
-                    structFields[i + 2] =
-                                    new StructField(schema.getName(i), DataTypes.LongType, false, Metadata.empty());
-                    break;
-                case Float:
-                    structFields[i + 2] =
-                                    new StructField(schema.getName(i), DataTypes.FloatType, false, Metadata.empty());
-                    break;
-                default:
-                    throw new IllegalStateException(
-                                    "This api should not be used with strings , binary data or ndarrays. This is only for columnar data");
-            }
+            structFields[i + 2] = toStructField(schema.getMetaData(i));
         }
         return new StructType(structFields);
     }
 
+    private static StructField toStructField(ColumnMetaData columnMetaData) {
+        DataType dataType;
+        switch (columnMetaData.getColumnType()) {
+            case Double:
+                dataType = DataTypes.DoubleType;
+                break;
+            case Integer:
+                dataType = DataTypes.IntegerType;
+                break;
+            case Long:
+            case Time:
+                dataType = DataTypes.LongType;
+                break;
+            case Float:
+                dataType = DataTypes.FloatType;
+                break;
+            case String:
+            case Categorical:
+                dataType = DataTypes.StringType;
+                break;
+            default:
+                throw new IllegalStateException(
+                                "This api should not be used with binary data or ndarrays. This is only for columnar data");
+        }
+        String json = new Schema(Collections.singletonList(columnMetaData)).toJson();
+        Metadata metadata = new MetadataBuilder().putString(COLUMN_METADATA_KEY, json).build();
+        return new StructField(columnMetaData.getName(), dataType, false, metadata);
+    }
+
+    /**
+     * Convert a single value from a Spark row to a writable
+     *
+     * @param type Column type of the value, as per the DataVec schema
+     * @param row  Row of data
+     * @param idx  Index of the value in the row
+     * @return The value as a writable
+     */
+    public static Writable toWritable(ColumnType type, Row row, int idx) {
+        switch (type) {
+            case Double:
+                return new DoubleWritable(row.getDouble(idx));
+            case Float:
+                return new FloatWritable(row.getFloat(idx));
+            case Integer:
+                return new IntWritable(row.getInt(idx));
+            case Long:
+            case Time:
+                return new LongWritable(row.getLong(idx));
+            case String:
+            case Categorical:
+                return new Text(row.getString(idx));
+            default:
+                throw new IllegalStateException("Illegal type: " + type);
+        }
+    }
+
+    /**
+     * Convert a single writable to the value to store in a Spark row, as per {@link #fromSchema(Schema)}
+     *
+     * @param type     Column type of the value, as per the DataVec schema
+     * @param writable Writable to convert
+     * @return The value to store in the row
+     */
+    public static Object toRowValue(ColumnType type, Writable writable) {
+        switch (type) {
+            case Double:
+                return writable.toDouble();
+            case Integer:
+                return writable.toInt();
+            case Long:
+            case Time:
+                return writable.toLong();
+            case Float:
+                return writable.toFloat();
+            case String:
+            case Categorical:
+                return writable.toString();
+            default:
+                throw new IllegalStateException(
+                                "This api should not be used with binary data or ndarrays. This is only for columnar data");
+        }
+    }
+
 
     /**
      * Create a datavec schema
-     * from a struct type
+     * from a struct type.<br>
+     * Fields created by {@link #fromSchema(Schema)} retain their original DataVec column metadata
+     * (including categorical state names and time zones); other fields are mapped by their Spark type
      *
      * @param structType the struct type to create the schema from
      * @return the created schema
@@ -200,6 +261,11 @@ public class DataFrames {
         StructField[] fields = structType.fields();
         String[] fieldNames = structType.fieldNames();
         for (int i = 0; i < fields.length; i++) {
+            Metadata metadata = fields[i].metadata();
+            if (metadata.contains(COLUMN_METADATA_KEY)) {
+                builder.addColumn(Schema.fromJson(metadata.getString(COLUMN_METADATA_KEY)).getMetaData(0));
+                continue;
+            }
             String name = fields[i].dataType().typeName().toLowerCase();
             switch (name) {
                 case "double":
@@ -340,25 +406,7 @@ public class DataFrames {
     public static List<Writable> rowToWritables(Schema schema, Row row) {
         List<Writable> ret = new ArrayList<>();
         for (int i = 0; i < row.size(); i++) {
-            switch (schema.getType(i)) {
-                case Double:
-                    ret.add(new DoubleWritable(row.getDouble(i)));
-                    break;
-                case Float:
-                    ret.add(new FloatWritable(row.getFloat(i)));
-                    break;
-                case Integer:
-                    ret.add(new IntWritable(row.getInt(i)));
-                    break;
-                case Long:
-                    ret.add(new LongWritable(row.getLong(i)));
-                    break;
-                case String:
-                    ret.add(new Text(row.getString(i)));
-                    break;
-                default:
-                    throw new IllegalStateException("Illegal type");
-            }
+            ret.add(toWritable(schema.getType(i), row, i));
         }
         return ret;
     }
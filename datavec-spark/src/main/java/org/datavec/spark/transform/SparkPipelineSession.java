@@ -0,0 +1,498 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.apache.commons.math3.util.Pair;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.storage.RDDInfo;
+import org.apache.spark.storage.StorageLevel;
+import org.datavec.api.transform.DataAction;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.analysis.DataAnalysis;
+import org.datavec.api.transform.quality.DataQualityAnalysis;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.serde.JsonSerializer;
+import org.datavec.api.writable.Writable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * A pipeline session executes several DataVec operations (analysis, data quality analysis and transform processes)
+ * over shared inputs, while computing each shared part of their lineage only once.<br>
+ * Operations are first added to the session, and then executed together via {@link #run()}. The session then:<br>
+ * - Persists (with the configured {@link StorageLevel}) any input RDD that is used by more than one pass over the
+ * data, and materializes it once<br>
+ * - Detects the longest common prefix of the actions of the transform processes that are executed on the same input,
+ * executes each shared prefix once, and persists the result<br>
+ * - Unpersists everything it persisted: input RDDs that are not required by any transform output are unpersisted at the
+ * end of {@link #run()}, all others when the session is closed<br>
+ * Per-stage timings and cached sizes are available via {@link #getStages()} and {@link #getStageReport()}.<br>
+ * <b>Note</b>: as with {@link SparkTransformExecutor}, the outputs of the transform processes are lazily evaluated
+ * RDDs that depend on the persisted data. The session should be closed only once the outputs are no longer required.
+ * <p>
+ * Typical use:
+ * <pre>
+ * {@code try (SparkPipelineSession session = new SparkPipelineSession()) {
+ *     session.addAnalysis("analysis", schema, data);
+ *     session.addTransform("train", data, trainProcess);
+ *     session.addTransform("test", data, testProcess);
+ *     session.run();
+ *     ...
+ * }}
+ * </pre>
+ * Input RDDs are identified by their RDD id: the same {@code JavaRDD} object (or an RDD with the same id) should be
+ * passed to each operation that shares an input.
+ */
+public class SparkPipelineSession implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SparkPipelineSession.class);
+
+    public static final StorageLevel DEFAULT_STORAGE_LEVEL = StorageLevel.MEMORY_AND_DISK();
+
+    public enum StageType {
+        Persist, Analysis, QualityAnalysis
+    }
+
+    /**
+     * Timing and caching information for one executed stage of the session. For {@link StageType#Persist} stages,
+     * the number of records, and the in-memory and on-disk size of the persisted RDD (as reported by Spark, in bytes)
+     * are also provided; otherwise these are -1
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Stage {
+        private final String name;
+        private final StageType type;
+        private final long durationMillis;
+        private final long numRecords;
+        private final long memorySize;
+        private final long diskSize;
+    }
+
+    @AllArgsConstructor
+    private static class AnalysisOp {
+        private final String name;
+        private final Schema schema;
+        private final JavaRDD<List<Writable>> data;
+        private final boolean quality;
+    }
+
+    private static class TransformOp {
+        private final String name;
+        private final JavaRDD<List<Writable>> data;
+        private final JavaRDD<List<List<Writable>>> sequenceData;
+        private final TransformProcess transformProcess;
+        //JSON representation of each action: used to detect common prefixes, as not all transforms implement equals
+        private final List<String> actionKeys;
+
+        private TransformOp(String name, JavaRDD<List<Writable>> data, JavaRDD<List<List<Writable>>> sequenceData,
+                        TransformProcess transformProcess) {
+            this.name = name;
+            this.data = data;
+            this.sequenceData = sequenceData;
+            this.transformProcess = transformProcess;
+            JsonSerializer serializer = new JsonSerializer();
+            actionKeys = new ArrayList<>();
+            for (DataAction d : transformProcess.getActionList()) {
+                actionKeys.add(serializer.serialize(d));
+            }
+        }
+
+        private List<DataAction> actions() {
+            return transformProcess.getActionList();
+        }
+    }
+
+    private static class InputGroup {
+        private final List<AnalysisOp> analyses = new ArrayList<>();
+        private final List<TransformOp> transforms = new ArrayList<>();
+    }
+
+    private final StorageLevel storageLevel;
+    private final Set<String> names = new HashSet<>();
+    private final List<AnalysisOp> analysisOps = new ArrayList<>();
+    private final List<TransformOp> transformOps = new ArrayList<>();
+
+    private final Map<String, DataAnalysis> analysisResults = new HashMap<>();
+    private final Map<String, DataQualityAnalysis> qualityResults = new HashMap<>();
+    private final Map<String, Pair<JavaRDD<List<Writable>>, JavaRDD<List<List<Writable>>>>> outputs = new HashMap<>();
+    private final List<JavaRDD<?>> persisted = new ArrayList<>();
+    private final List<Stage> stages = new ArrayList<>();
+    private boolean executed = false;
+
+    /**
+     * Create a session that persists shared data with {@link #DEFAULT_STORAGE_LEVEL}
+     */
+    public SparkPipelineSession() {
+        this(DEFAULT_STORAGE_LEVEL);
+    }
+
+    /**
+     * @param storageLevel Storage level used to persist shared data
+     */
+    public SparkPipelineSession(StorageLevel storageLevel) {
+        if (storageLevel == null || storageLevel.equals(StorageLevel.NONE()))
+            throw new IllegalArgumentException("Invalid storage level: " + storageLevel);
+        this.storageLevel = storageLevel;
+    }
+
+    /**
+     * Add an analysis (as per {@link AnalyzeSpark#analyze(Schema, JavaRDD)}) to the session
+     *
+     * @param name   Unique name of the operation, used to get the result via {@link #getAnalysis(String)}
+     * @param schema Schema of the data
+     * @param data   Data to analyze
+     */
+    public void addAnalysis(String name, Schema schema, JavaRDD<List<Writable>> data) {
+        checkNotExecuted(name);
+        analysisOps.add(new AnalysisOp(name, schema, data, false));
+    }
+
+    /**
+     * Add a data quality analysis (as per {@link AnalyzeSpark#analyzeQuality(Schema, JavaRDD)}) to the session
+     *
+     * @param name   Unique name of the operation, used to get the result via {@link #getQualityAnalysis(String)}
+     * @param schema Schema of the data
+     * @param data   Data to analyze
+     */
+    public void addQualityAnalysis(String name, Schema schema, JavaRDD<List<Writable>> data) {
+        checkNotExecuted(name);
+        analysisOps.add(new AnalysisOp(name, schema, data, true));
+    }
+
+    /**
+     * Add the execution of a transform process on non-sequence data to the session. The output is available via
+     * {@link #getOutput(String)} or {@link #getSequenceOutput(String)}, depending on the final schema of the
+     * transform process
+     *
+     * @param name             Unique name of the operation
+     * @param data             Input data
+     * @param transformProcess Transform process to execute
+     */
+    public void addTransform(String name, JavaRDD<List<Writable>> data, TransformProcess transformProcess) {
+        checkNotExecuted(name);
+        transformOps.add(new TransformOp(name, data, null, transformProcess));
+    }
+
+    /**
+     * Add the execution of a transform process on sequence data to the session. The output is available via
+     * {@link #getOutput(String)} or {@link #getSequenceOutput(String)}, depending on the final schema of the
+     * transform process
+     *
+     * @param name             Unique name of the operation
+     * @param sequenceData     Input sequence data
+     * @param transformProcess Transform process to execute
+     */
+    public void addSequenceTransform(String name, JavaRDD<List<List<Writable>>> sequenceData,
+                    TransformProcess transformProcess) {
+        checkNotExecuted(name);
+        transformOps.add(new TransformOp(name, null, sequenceData, transformProcess));
+    }
+
+    private void checkNotExecuted(String name) {
+        if (executed)
+            throw new IllegalStateException("Cannot add operations: session has already been executed");
+        if (!names.add(name))
+            throw new IllegalArgumentException("Duplicate operation name: \"" + name + "\"");
+    }
+
+    /**
+     * Execute all operations added to the session. Analyses are complete when this method returns; transform outputs
+     * are lazily evaluated RDDs, which may depend on data persisted by this session until it is closed
+     */
+    public void run() {
+        if (executed)
+            throw new IllegalStateException("Session has already been executed");
+        executed = true;
+
+        //Group the operations by input RDD
+        Map<Integer, InputGroup> groups = new LinkedHashMap<>();
+        Map<Integer, JavaRDD<?>> inputs = new HashMap<>();
+        for (AnalysisOp op : analysisOps) {
+            group(groups, inputs, op.data).analyses.add(op);
+        }
+        for (TransformOp op : transformOps) {
+            group(groups, inputs, op.data != null ? op.data : op.sequenceData).transforms.add(op);
+        }
+
+        for (Map.Entry<Integer, InputGroup> e : groups.entrySet()) {
+            JavaRDD<?> input = inputs.get(e.getKey());
+            InputGroup group = e.getValue();
+
+            //Count the passes over this input: 2 per analysis (statistics + histograms), 1 per quality analysis, and
+            //1 per branch of the transform processes (after merging common prefixes)
+            int passes = branches(group.transforms, 0).size();
+            for (AnalysisOp op : group.analyses) {
+                passes += (op.quality ? 1 : 2);
+            }
+
+            boolean persistInput = passes > 1 && input.getStorageLevel().equals(StorageLevel.NONE());
+            if (persistInput) {
+                persist("input (rdd " + input.id() + ")", input);
+            }
+
+            for (AnalysisOp op : group.analyses) {
+                long start = System.currentTimeMillis();
+                if (op.quality) {
+                    qualityResults.put(op.name, AnalyzeSpark.analyzeQuality(op.schema, op.data));
+                } else {
+                    analysisResults.put(op.name, AnalyzeSpark.analyze(op.schema, op.data));
+                }
+                long duration = System.currentTimeMillis() - start;
+                stages.add(new Stage(op.name, op.quality ? StageType.QualityAnalysis : StageType.Analysis, duration,
+                                -1, -1, -1));
+            }
+
+            boolean inputRequired = false;
+            if (!group.transforms.isEmpty()) {
+                TransformOp first = group.transforms.get(0);
+                inputRequired = executeTransforms(first.data, first.sequenceData,
+                                first.transformProcess.getInitialSchema(), group.transforms, 0);
+            }
+
+            //All analyses are complete, and anything derived from the input has been persisted: unless transform
+            //outputs are derived directly from the input, it is no longer needed
+            if (persistInput && !inputRequired) {
+                unpersist(input);
+            }
+        }
+    }
+
+    private static InputGroup group(Map<Integer, InputGroup> groups, Map<Integer, JavaRDD<?>> inputs,
+                    JavaRDD<?> rdd) {
+        InputGroup g = groups.get(rdd.id());
+        if (g == null) {
+            g = new InputGroup();
+            groups.put(rdd.id(), g);
+            inputs.put(rdd.id(), rdd);
+        }
+        return g;
+    }
+
+    /**
+     * Split the transform operations (which all share the same first {@code depth} actions) into branches: operations
+     * in the same branch have the same action at index {@code depth}, or have no actions left
+     */
+    private static List<List<TransformOp>> branches(List<TransformOp> ops, int depth) {
+        List<List<TransformOp>> out = new ArrayList<>();
+        for (TransformOp op : ops) {
+            String next = (op.actionKeys.size() > depth ? op.actionKeys.get(depth) : null);
+            List<TransformOp> branch = null;
+            for (List<TransformOp> b : out) {
+                List<String> l = b.get(0).actionKeys;
+                String other = (l.size() > depth ? l.get(depth) : null);
+                if (next == null ? other == null : next.equals(other)) {
+                    branch = b;
+                    break;
+                }
+            }
+            if (branch == null) {
+                branch = new ArrayList<>();
+                out.add(branch);
+            }
+            branch.add(op);
+        }
+        return out;
+    }
+
+    /**
+     * Execute the transform operations, all of which share the same first {@code depth} actions, on the result of
+     * those actions. Returns true if any output is derived directly from the given data (i.e., without a persisted
+     * prefix in between)
+     */
+    private boolean executeTransforms(JavaRDD<List<Writable>> data, JavaRDD<List<List<Writable>>> sequenceData,
+                    Schema schema, List<TransformOp> ops, int depth) {
+        boolean dataRequired = false;
+        for (List<TransformOp> branch : branches(ops, depth)) {
+            List<DataAction> actions = branch.get(0).actions();
+            if (actions.size() == depth) {
+                //No actions left: the output is the data itself
+                for (TransformOp op : branch) {
+                    outputs.put(op.name, new Pair<>(data, sequenceData));
+                }
+                dataRequired = true;
+            } else if (branch.size() == 1) {
+                TransformProcess remaining =
+                                new TransformProcess(schema, new ArrayList<>(actions.subList(depth, actions.size())));
+                outputs.put(branch.get(0).name, SparkTransformExecutor.execute(data, sequenceData, remaining));
+                dataRequired = true;
+            } else {
+                //Execute the longest common prefix of this branch once, and persist it
+                int end = commonPrefixEnd(branch, depth);
+                TransformProcess prefix = new TransformProcess(schema, new ArrayList<>(actions.subList(depth, end)));
+                Pair<JavaRDD<List<Writable>>, JavaRDD<List<List<Writable>>>> p =
+                                SparkTransformExecutor.execute(data, sequenceData, prefix);
+                persist("prefix " + names(branch) + " (steps " + depth + " to " + (end - 1) + ")",
+                                p.getFirst() != null ? p.getFirst() : p.getSecond());
+                executeTransforms(p.getFirst(), p.getSecond(), prefix.getFinalSchema(), branch, end);
+            }
+        }
+        return dataRequired;
+    }
+
+    private static int commonPrefixEnd(List<TransformOp> ops, int depth) {
+        List<String> first = ops.get(0).actionKeys;
+        int end = depth;
+        while (end < first.size()) {
+            for (TransformOp op : ops) {
+                List<String> l = op.actionKeys;
+                if (l.size() <= end || !first.get(end).equals(l.get(end)))
+                    return end;
+            }
+            end++;
+        }
+        return end;
+    }
+
+    private static List<String> names(List<TransformOp> ops) {
+        List<String> out = new ArrayList<>(ops.size());
+        for (TransformOp op : ops) {
+            out.add(op.name);
+        }
+        return out;
+    }
+
+    private void persist(String name, JavaRDD<?> rdd) {
+        long start = System.currentTimeMillis();
+        rdd.persist(storageLevel);
+        persisted.add(rdd);
+        long count = rdd.count();
+        long duration = System.currentTimeMillis() - start;
+
+        long memorySize = 0;
+        long diskSize = 0;
+        for (RDDInfo info : rdd.context().getRDDStorageInfo()) {
+            if (info.id() == rdd.id()) {
+                memorySize = info.memSize();
+                diskSize = info.diskSize();
+            }
+        }
+        stages.add(new Stage(name, StageType.Persist, duration, count, memorySize, diskSize));
+        log.debug("Persisted {}: {} records in {} ms ({} bytes in memory, {} bytes on disk)", name, count, duration,
+                        memorySize, diskSize);
+    }
+
+    private void unpersist(JavaRDD<?> rdd) {
+        rdd.unpersist();
+        persisted.remove(rdd);
+    }
+
+    private void checkExecuted() {
+        if (!executed)
+            throw new IllegalStateException("Session has not been executed: call run() first");
+    }
+
+    /**
+     * @param name Name of the analysis operation
+     * @return Result of the analysis
+     */
+    public DataAnalysis getAnalysis(String name) {
+        checkExecuted();
+        if (!analysisResults.containsKey(name))
+            throw new IllegalArgumentException("No analysis with name \"" + name + "\"");
+        return analysisResults.get(name);
+    }
+
+    /**
+     * @param name Name of the data quality analysis operation
+     * @return Result of the data quality analysis
+     */
+    public DataQualityAnalysis getQualityAnalysis(String name) {
+        checkExecuted();
+        if (!qualityResults.containsKey(name))
+            throw new IllegalArgumentException("No quality analysis with name \"" + name + "\"");
+        return qualityResults.get(name);
+    }
+
+    /**
+     * @param name Name of the transform operation
+     * @return Output of the transform process. Only valid if the transform process returns non-sequence data
+     */
+    public JavaRDD<List<Writable>> getOutput(String name) {
+        JavaRDD<List<Writable>> out = output(name).getFirst();
+        if (out == null)
+            throw new IllegalStateException("Transform \"" + name + "\" returns sequence data: use getSequenceOutput");
+        return out;
+    }
+
+    /**
+     * @param name Name of the transform operation
+     * @return Output of the transform process. Only valid if the transform process returns sequence data
+     */
+    public JavaRDD<List<List<Writable>>> getSequenceOutput(String name) {
+        JavaRDD<List<List<Writable>>> out = output(name).getSecond();
+        if (out == null)
+            throw new IllegalStateException("Transform \"" + name + "\" returns non-sequence data: use getOutput");
+        return out;
+    }
+
+    private Pair<JavaRDD<List<Writable>>, JavaRDD<List<List<Writable>>>> output(String name) {
+        checkExecuted();
+        if (!outputs.containsKey(name))
+            throw new IllegalArgumentException("No transform with name \"" + name + "\"");
+        return outputs.get(name);
+    }
+
+    /**
+     * @return The stages executed by {@link #run()}, in order of execution
+     */
+    public List<Stage> getStages() {
+        return Collections.unmodifiableList(stages);
+    }
+
+    /**
+     * @return A table of the stages executed by {@link #run()}, with their timings and cached sizes
+     */
+    public String getStageReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-16s%-12s%-14s%-16s%-16s%s", "Type", "Time (ms)", "Records", "Memory (bytes)",
+                        "Disk (bytes)", "Name")).append("\n");
+        for (Stage s : stages) {
+            sb.append(String.format("%-16s%-12d%-14s%-16s%-16s%s", s.getType(), s.getDurationMillis(),
+                            orNA(s.getNumRecords()), orNA(s.getMemorySize()), orNA(s.getDiskSize()), s.getName()))
+                            .append("\n");
+        }
+        return sb.toString();
+    }
+
+    private static String orNA(long value) {
+        return value < 0 ? "-" : String.valueOf(value);
+    }
+
+    /**
+     * @return The RDDs currently persisted by this session
+     */
+    public List<JavaRDD<?>> getPersisted() {
+        return Collections.unmodifiableList(persisted);
+    }
+
+    /**
+     * Unpersist all data persisted by this session. The transform outputs remain valid, but will be recomputed from
+     * the original inputs if they are used again
+     */
+    @Override
+    public void close() {
+        for (JavaRDD<?> rdd : persisted) {
+            rdd.unpersist();
+        }
+        persisted.clear();
+    }
+}
@@ -19,12 +19,14 @@ package org.datavec.spark.transform;
 import org.apache.commons.math3.util.Pair;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.api.java.function.Function;
 import org.apache.spark.api.java.function.Function2;
+import org.apache.spark.broadcast.Broadcast;
+import org.apache.spark.util.SizeEstimator;
 import org.datavec.api.transform.DataAction;
-import org.datavec.api.transform.Transform;
 import org.datavec.api.transform.TransformProcess;
-import org.datavec.api.transform.filter.Filter;
+import org.datavec.api.transform.join.HashJoin;
 import org.datavec.api.transform.join.Join;
 import org.datavec.api.transform.ops.IAggregableReduceOp;
 import org.datavec.api.transform.rank.CalculateSortedRank;
@@ -34,29 +36,29 @@ import org.datavec.api.transform.schema.SequenceSchema;
 import org.datavec.api.transform.sequence.ConvertToSequence;
 import org.datavec.api.transform.sequence.SequenceSplit;
 import org.datavec.api.writable.Writable;
-import org.datavec.spark.SequenceEmptyRecordFunction;
-import org.datavec.spark.functions.EmptyRecordFunction;
 import org.datavec.spark.transform.analysis.SequenceFlatMapFunction;
-import org.datavec.spark.transform.filter.SparkFilterFunction;
+import org.datavec.spark.transform.join.BroadcastHashJoinFunction;
 import org.datavec.spark.transform.join.ExecuteJoinFromCoGroupFlatMapFunction;
 import org.datavec.spark.transform.join.ExtractKeysFunction;
-import org.datavec.spark.transform.misc.ColumnAsKeyPairFunction;
-import org.datavec.spark.transform.rank.UnzipForCalculateSortedRankFunction;
+import org.datavec.spark.transform.rank.*;
 import org.datavec.spark.transform.reduce.MapToPairForReducerFunction;
 import org.datavec.spark.transform.sequence.*;
+import org.datavec.spark.transform.transform.FusedTransformFunction;
 import org.datavec.spark.transform.transform.SequenceSplitFunction;
-import org.datavec.spark.transform.transform.SparkTransformFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import scala.Tuple2;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 
 /**
  * Execute a datavec
  * transform process
- * on spark rdds.
+ * on spark rdds.<br>
+ * Consecutive transforms and filters are fused and executed in a single mapPartitions stage, with no intermediate
+ * RDDs; reductions, sequence conversions, sequence splits and rank calculations are executed as separate stages.
  *
  * @author Alex Black
  */
@@ -67,6 +69,20 @@ public class SparkTransformExecutor {
     //will cause some functions to invoke a try catch block and just log errors
     //returning empty records
     public final static String LOG_ERROR_PROPERTY = "org.datavec.spark.transform.logerrors";
+    //a boolean jvm argument: when true, ConvertToSequence operations are executed using a secondary sort
+    //(repartitionAndSortWithinPartitions) instead of groupByKey. See isSecondarySortConvertToSequence()
+    public final static String SECONDARY_SORT_SEQUENCE_PROPERTY = "org.datavec.spark.transform.sequence.secondarysort";
+    //an integer jvm argument: maximum length of the sequences created by ConvertToSequence operations. Longer
+    //sequences are split. See getMaxSequenceLength()
+    public final static String MAX_SEQUENCE_LENGTH_PROPERTY = "org.datavec.spark.transform.sequence.maxlength";
+    //a long jvm argument: maximum estimated size in bytes of one side of a join, for it to be broadcast when the join
+    //strategy is Join.JoinStrategy.Auto. 0 or less: never broadcast automatically. See getBroadcastJoinThreshold()
+    public final static String BROADCAST_JOIN_THRESHOLD_PROPERTY = "org.datavec.spark.transform.join.broadcastthreshold";
+    public final static long DEFAULT_BROADCAST_JOIN_THRESHOLD = 10 * 1024 * 1024;
+    //number of examples sampled to estimate the size of each example, when deciding whether to broadcast a join side
+    private final static int BROADCAST_JOIN_SIZE_SAMPLE = 1000;
+    //maximum total number of examples sampled to determine the range partition bounds for CalculateSortedRank
+    private final static int MAX_RANK_SAMPLE_SIZE = 1000000;
 
     /**
      * @deprecated Use static methods instead of instance methods on SparkTransformExecutor
@@ -158,7 +174,52 @@ public class SparkTransformExecutor {
         return Boolean.getBoolean(LOG_ERROR_PROPERTY);
     }
 
-    private static Pair<JavaRDD<List<Writable>>, JavaRDD<List<List<Writable>>>> execute(
+    /**
+     * Returns true if ConvertToSequence operations should be executed using a secondary sort: i.e., examples are
+     * partitioned by key and sorted by (key, time step) using repartitionAndSortWithinPartitions, and sequences
+     * are then assembled by streaming through each sorted partition. Unlike the default groupByKey implementation,
+     * the examples for one key never need to be held in memory all at once (other than for the returned sequence
+     * itself), and the shuffle sort spills to disk as required. This is useful for data with skewed keys (i.e., very
+     * long sequences).<br>
+     * Enabled by setting the {@link #SECONDARY_SORT_SEQUENCE_PROPERTY} system property to true, or by setting a
+     * maximum sequence length (see {@link #getMaxSequenceLength()})
+     */
+    public static boolean isSecondarySortConvertToSequence() {
+        return Boolean.getBoolean(SECONDARY_SORT_SEQUENCE_PROPERTY) || getMaxSequenceLength() > 0;
+    }
+
+    /**
+     * Maximum length of the sequences created by ConvertToSequence operations, as set by the
+     * {@link #MAX_SEQUENCE_LENGTH_PROPERTY} system property. Sequences longer than this are split into consecutive
+     * sequences of at most this length. Returns 0 (no limit) if not set.
+     */
+    public static int getMaxSequenceLength() {
+        return Integer.getInteger(MAX_SEQUENCE_LENGTH_PROPERTY, 0);
+    }
+
+    /**
+     * Maximum estimated size (in bytes) of one side of a join for it to be broadcast automatically, as set by the
+     * {@link #BROADCAST_JOIN_THRESHOLD_PROPERTY} system property. Default: {@link #DEFAULT_BROADCAST_JOIN_THRESHOLD}.
+     * Values of 0 or less disable automatic broadcast joins. See {@link #executeJoin(Join, JavaRDD, JavaRDD)}
+     */
+    public static long getBroadcastJoinThreshold() {
+        return Long.getLong(BROADCAST_JOIN_THRESHOLD_PROPERTY, DEFAULT_BROADCAST_JOIN_THRESHOLD);
+    }
+
+    /**
+     * Transforms and filters are narrow operations: they are executed per example (or sequence), and consecutive
+     * narrow operations are fused into a single Spark operation. All other actions require a shuffle, or change the
+     * type of the data (examples vs. sequences)
+     */
+    private static boolean isNarrow(DataAction d) {
+        return d.getTransform() != null || d.getFilter() != null;
+    }
+
+    /**
+     * Execute the TransformProcess on either non-sequence or sequence input (exactly one of which should be non-null).
+     * Exactly one of the returned RDDs is non-null, depending on the type of the TransformProcess output
+     */
+    static Pair<JavaRDD<List<Writable>>, JavaRDD<List<List<Writable>>>> execute(
                     JavaRDD<List<Writable>> inputWritables, JavaRDD<List<List<Writable>>> inputSequence,
                     TransformProcess sequence) {
         JavaRDD<List<Writable>> currentWritables = inputWritables;
@@ -182,38 +243,29 @@ public class SparkTransformExecutor {
         }
 
 
-        int count = 1;
-        for (DataAction d : dataActions) {
-            //log.info("Starting execution of stage {} of {}", count, dataActions.size());     //
-
-            if (d.getTransform() != null) {
-                Transform t = d.getTransform();
-                if (currentWritables != null) {
-                    Function<List<Writable>, List<Writable>> function = new SparkTransformFunction(t);
-                    if (isTryCatch())
-                        currentWritables = currentWritables.map(function).filter(new EmptyRecordFunction());
-                    else
-                        currentWritables = currentWritables.map(function);
-                } else {
-                    Function<List<List<Writable>>, List<List<Writable>>> function =
-                                    new SparkSequenceTransformFunction(t);
-                    if (isTryCatch())
-                        currentSequence = currentSequence.map(function).filter(new SequenceEmptyRecordFunction());
-                    else
-                        currentSequence = currentSequence.map(function);
-
+        Schema currentSchema = sequence.getInitialSchema();
+        for (int i = 0; i < dataActions.size(); i++) {
+            DataAction d = dataActions.get(i);
 
+            if (isNarrow(d)) {
+                //Fuse this and all directly following transforms and filters into a single mapPartitions call
+                int end = i + 1;
+                while (end < dataActions.size() && isNarrow(dataActions.get(end))) {
+                    end++;
                 }
-            } else if (d.getFilter() != null) {
-                //Filter
-                Filter f = d.getFilter();
+                List<DataAction> fused = new ArrayList<>(dataActions.subList(i, end));
+                TransformProcess segment = new TransformProcess(currentSchema, fused);
                 if (currentWritables != null) {
-                    currentWritables = currentWritables.filter(new SparkFilterFunction(f));
+                    currentWritables = currentWritables.mapPartitions(new FusedTransformFunction(segment.compile()));
                 } else {
-                    currentSequence = currentSequence.filter(new SparkSequenceFilterFunction(f));
+                    currentSequence = currentSequence.mapPartitions(new FusedSequenceTransformFunction(fused));
                 }
+                currentSchema = segment.getFinalSchema();
+                i = end - 1;
+                continue;
+            }
 
-            } else if (d.getConvertToSequence() != null) {
+            if (d.getConvertToSequence() != null) {
                 //Convert to a sequence...
                 final ConvertToSequence cts = d.getConvertToSequence();
 
@@ -221,6 +273,17 @@ public class SparkTransformExecutor {
                     //Edge case: create a sequence from each example, by treating each value as a sequence of length 1
                     currentSequence = currentWritables.map(new ConvertToSequenceLengthOne());
                     currentWritables = null;
+                } else if (isSecondarySortConvertToSequence()) {
+                    //Secondary sort: partition by key only, but sort by (key, time step) within each partition
+                    int[] colIdxs = cts.getInputSchema().getIndexOfColumns(cts.getKeyColumns());
+                    SequenceSortComparator comparator = new SequenceSortComparator(colIdxs, cts.getComparator());
+                    JavaPairRDD<List<Writable>, Writable> sorted = currentWritables
+                                    .mapToPair(new SparkMapToPairForSortFunction())
+                                    .repartitionAndSortWithinPartitions(new SequenceKeyPartitioner(
+                                                    currentWritables.partitions().size(), colIdxs), comparator);
+                    currentSequence = sorted.mapPartitions(new SortedToSequenceFunction(comparator,
+                                    getMaxSequenceLength()));
+                    currentWritables = null;
                 } else {
                     //Standard case: join by key
                     //First: convert to PairRDD
@@ -234,6 +297,7 @@ public class SparkTransformExecutor {
                     currentSequence = grouped.mapValues(new SparkGroupToSequenceFunction(cts.getComparator())).values();
                     currentWritables = null;
                 }
+                currentSchema = cts.transform(currentSchema);
             } else if (d.getConvertFromSequence() != null) {
                 //Convert from sequence...
 
@@ -244,6 +308,7 @@ public class SparkTransformExecutor {
 
                 currentWritables = currentSequence.flatMap(new SequenceFlatMapFunction());
                 currentSequence = null;
+                currentSchema = d.getConvertFromSequence().transform((SequenceSchema) currentSchema);
             } else if (d.getSequenceSplit() != null) {
                 SequenceSplit sequenceSplit = d.getSequenceSplit();
                 if (currentSequence == null)
@@ -288,6 +353,7 @@ public class SparkTransformExecutor {
                                         return listIAggregableReduceOp.get();
                                     }
                                 }).values();
+                currentSchema = reducer.transform(currentSchema);
 
             } else if (d.getCalculateSortedRank() != null) {
                 CalculateSortedRank csr = d.getCalculateSortedRank();
@@ -298,31 +364,28 @@ public class SparkTransformExecutor {
                                                     + "Trying to execute a CalculateSortedRank operation on a sequence? (not currently supported)");
                 }
 
-                Comparator<Writable> comparator = csr.getComparator();
-                String sortColumn = csr.getSortOnColumn();
-                int sortColumnIdx = csr.getInputSchema().getIndexOfColumn(sortColumn);
-                boolean ascending = csr.isAscending();
-                //NOTE: this likely isn't the most efficient implementation.
-                JavaPairRDD<Writable, List<Writable>> pairRDD =
-                                currentWritables.mapToPair(new ColumnAsKeyPairFunction(sortColumnIdx));
-                pairRDD = pairRDD.sortByKey(comparator, ascending);
-
-                JavaPairRDD<Tuple2<Writable, List<Writable>>, Long> zipped = pairRDD.zipWithIndex();
-                currentWritables = zipped.map(new UnzipForCalculateSortedRankFunction());
+                currentWritables = executeSortedRank(csr, currentWritables);
+                currentSchema = csr.transform(currentSchema);
             } else {
                 throw new RuntimeException("Unknown/not implemented action: " + d);
             }
-
-            count++;
         }
 
-        //log.info("Completed {} of {} execution steps", count - 1, dataActions.size());       //Lazy execution means this can be printed before anything has actually happened...
-
         return new Pair<>(currentWritables, currentSequence);
     }
 
     /**
-     * Execute a join on the specified data
+     * Execute a join on the specified data<br>
+     * The join is executed as either a shuffle join (cogroup of the left and right data) or a broadcast hash join
+     * (the small side is collected, indexed as a {@link HashJoin} and broadcast; the large side is then joined
+     * against it, without any shuffle), depending on the {@link Join.JoinStrategy}:<br>
+     * - Shuffle (default): always use a shuffle join<br>
+     * - BroadcastLeft/BroadcastRight: broadcast the specified side, if valid for the join type (Inner and RightOuter
+     * joins for BroadcastLeft; Inner and LeftOuter joins for BroadcastRight). Otherwise, use a shuffle join<br>
+     * - Auto: broadcast a side for which this is valid, if its estimated size is at most
+     * {@link #getBroadcastJoinThreshold()} bytes. Otherwise, use a shuffle join. The sizes are estimated from the
+     * first examples of each side, which runs up to two extra (take) jobs per side, even when a shuffle join is then
+     * used
      *
      * @param join  Join to execute
      * @param left  Left data for join
@@ -332,6 +395,14 @@ public class SparkTransformExecutor {
     public static JavaRDD<List<Writable>> executeJoin(Join join, JavaRDD<List<Writable>> left,
                     JavaRDD<List<Writable>> right) {
 
+        Join.JoinStrategy strategy = join.getStrategy();
+        if (strategy != Join.JoinStrategy.Shuffle) {
+            JavaRDD<List<Writable>> joined = executeBroadcastJoin(join, strategy, left, right);
+            if (joined != null) {
+                return joined;
+            }
+        }
+
         String[] leftColumnNames = join.getJoinColumnsLeft();
         int[] leftColumnIndexes = new int[leftColumnNames.length];
         for (int i = 0; i < leftColumnNames.length; i++) {
@@ -352,4 +423,138 @@ public class SparkTransformExecutor {
 
         return cogroupedJV.flatMap(new ExecuteJoinFromCoGroupFlatMapFunction(join));
     }
+
+    /**
+     * Execute the join as a broadcast hash join, if possible for the given strategy and join type. Returns null if
+     * a shuffle join should be used instead
+     */
+    private static JavaRDD<List<Writable>> executeBroadcastJoin(Join join, Join.JoinStrategy strategy,
+                    JavaRDD<List<Writable>> left, JavaRDD<List<Writable>> right) {
+        boolean canBuildLeft = !HashJoin.preservesBuildSide(join.getJoinType(), true);
+        boolean canBuildRight = !HashJoin.preservesBuildSide(join.getJoinType(), false);
+
+        List<List<Writable>> buildData = null;
+        boolean buildLeft = false;
+        switch (strategy) {
+            case BroadcastLeft:
+                if (canBuildLeft) {
+                    buildData = left.collect();
+                    buildLeft = true;
+                } else {
+                    log.warn("Cannot broadcast left data for join type {}: using shuffle join", join.getJoinType());
+                }
+                break;
+            case BroadcastRight:
+                if (canBuildRight) {
+                    buildData = right.collect();
+                } else {
+                    log.warn("Cannot broadcast right data for join type {}: using shuffle join", join.getJoinType());
+                }
+                break;
+            case Auto:
+                long threshold = getBroadcastJoinThreshold();
+                if (threshold <= 0) {
+                    break;
+                }
+                if (canBuildRight) {
+                    buildData = collectIfSmall(right, threshold);
+                }
+                if (buildData == null && canBuildLeft) {
+                    buildData = collectIfSmall(left, threshold);
+                    buildLeft = true;
+                }
+                break;
+            default:
+                break;
+        }
+
+        if (buildData == null) {
+            return null;
+        }
+
+        JavaSparkContext sc = new JavaSparkContext(left.context());
+        Broadcast<HashJoin> hashJoin = sc.broadcast(new HashJoin(join, buildLeft, buildData));
+        JavaRDD<List<Writable>> probe = (buildLeft ? right : left);
+        return probe.flatMap(new BroadcastHashJoinFunction(hashJoin));
+    }
+
+    /**
+     * Execute a CalculateSortedRank operation. The examples are sorted once, with a single shuffle, and the ranks are
+     * assigned in a single streaming pass over the sorted partitions:<br>
+     * - Global ranks: the examples are range partitioned (using bounds determined from a weighted sample of the data)
+     * and sorted within each partition. The number of examples (and, for dense ranks, the number of distinct examples)
+     * in each sorted partition gives the rank offset for each partition. Note that this still requires three Spark
+     * jobs, as for sortByKey followed by zipWithIndex: one to sample the input for the partition bounds, one to count
+     * the examples in each sorted partition (which executes the shuffle), and the one that assigns the ranks (which
+     * reuses the shuffle output). Exact offsets cannot be counted before the bounds are known, nor within the shuffle
+     * itself.<br>
+     * - Ranks within groups: the examples are hash partitioned on the group columns and sorted within each partition
+     * by group and then rank order. No offsets are required.
+     */
+    private static JavaRDD<List<Writable>> executeSortedRank(CalculateSortedRank csr, JavaRDD<List<Writable>> data) {
+        int numPartitions = Math.max(1, data.partitions().size());
+        Comparator<List<Writable>> comparator = csr.exampleComparator();
+        JavaPairRDD<List<Writable>, Writable> pairs = data.mapToPair(new SparkMapToPairForSortFunction());
+
+        if (csr.isGrouped()) {
+            int[] groupIdxs = csr.groupByColumnIndexes();
+            JavaRDD<List<Writable>> sorted = pairs.repartitionAndSortWithinPartitions(
+                            new SequenceKeyPartitioner(numPartitions, groupIdxs),
+                            new GroupedRankComparator(groupIdxs, comparator)).keys();
+            return sorted.mapPartitionsWithIndex(new AssignSortedRankFunction(csr, null, null), true);
+        }
+
+        //Determine range partition bounds. Sample sizes as per Spark's RangePartitioner
+        int sampleSize = Math.min(20 * numPartitions, MAX_RANK_SAMPLE_SIZE);
+        int sampleSizePerPartition = (int) Math.ceil(3.0 * sampleSize / numPartitions);
+        SortedRankSample sample = data.aggregate(new SortedRankSample(sampleSizePerPartition),
+                        new SortedRankSampleAddFunction(), new SortedRankSampleMergeFunction());
+        SortedRankPartitioner partitioner =
+                        new SortedRankPartitioner(sample.determineBounds(comparator, numPartitions), comparator);
+        int nOut = partitioner.numPartitions();
+
+        JavaRDD<List<Writable>> sorted = pairs.repartitionAndSortWithinPartitions(partitioner, comparator).keys();
+
+        //Offsets from the sorted partitions: this job executes the shuffle, and the rank assignment reuses its output
+        boolean dense = csr.getRankType() == CalculateSortedRank.RankType.Dense;
+        long[][] stats = new long[nOut][0];
+        for (long[] l : sorted.mapPartitionsWithIndex(new SortedRankStatsFunction(dense ? comparator : null), true)
+                        .collect()) {
+            stats[(int) l[0]] = l;
+        }
+        long[] rowOffsets = new long[nOut];
+        long[] distinctOffsets = (dense ? new long[nOut] : null);
+        for (int i = 1; i < nOut; i++) {
+            rowOffsets[i] = rowOffsets[i - 1] + stats[i - 1][1];
+            if (dense) {
+                distinctOffsets[i] = distinctOffsets[i - 1] + stats[i - 1][2];
+            }
+        }
+
+        return sorted.mapPartitionsWithIndex(new AssignSortedRankFunction(csr, rowOffsets, distinctOffsets), true);
+    }
+
+    /**
+     * Collect the data, if its estimated size is at most maxBytes. Otherwise, return null.<br>
+     * The size of each example is estimated from a sample of the first examples; at most (maxBytes / exampleSize) + 1
+     * examples are then taken. Consequently, determining that an RDD is too large does not require a full pass over
+     * the data
+     */
+    private static List<List<Writable>> collectIfSmall(JavaRDD<List<Writable>> rdd, long maxBytes) {
+        List<List<Writable>> sample = rdd.take(BROADCAST_JOIN_SIZE_SAMPLE);
+        if (sample.isEmpty()) {
+            return sample;
+        }
+        long bytesPerExample = Math.max(1, SizeEstimator.estimate(sample) / sample.size());
+        long maxExamples = maxBytes / bytesPerExample;
+        if (sample.size() < BROADCAST_JOIN_SIZE_SAMPLE) {
+            //Entire RDD is in the sample
+            return (sample.size() <= maxExamples ? sample : null);
+        }
+        if (maxExamples < sample.size() || maxExamples >= Integer.MAX_VALUE) {
+            return null;
+        }
+        List<List<Writable>> data = rdd.take((int) maxExamples + 1);
+        return (data.size() <= maxExamples ? data : null);
+    }
 }
@@ -44,34 +44,7 @@ public class AnalysisAddFunction implements Function2<List<AnalysisCounter>, Lis
             analysisCounters = new ArrayList<>();
             List<ColumnType> columnTypes = schema.getColumnTypes();
             for (ColumnType ct : columnTypes) {
-                switch (ct) {
-                    case String:
-                        analysisCounters.add(new StringAnalysisCounter());
-                        break;
-                    case Integer:
-                        analysisCounters.add(new IntegerAnalysisCounter());
-                        break;
-                    case Long:
-                        analysisCounters.add(new LongAnalysisCounter());
-                        break;
-                    case Double:
-                        analysisCounters.add(new DoubleAnalysisCounter());
-                        break;
-                    case Categorical:
-                        analysisCounters.add(new CategoricalAnalysisCounter());
-                        break;
-                    case Time:
-                        analysisCounters.add(new LongAnalysisCounter());
-                        break;
-                    case Bytes:
-                        analysisCounters.add(new BytesAnalysisCounter());
-                        break;
-                    case NDArray:
-                        analysisCounters.add(new NDArrayAnalysisCounter());
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Unknown column type: " + ct);
-                }
+                analysisCounters.add(newCounter(ct));
             }
         }
 
@@ -85,4 +58,33 @@ public class AnalysisAddFunction implements Function2<List<AnalysisCounter>, Lis
 
         return analysisCounters;
     }
+
+    /**
+     * Create a new (empty) analysis counter for the given column type
+     *
+     * @param ct Type of the column
+     * @return Analysis counter for that column type
+     */
+    public static AnalysisCounter newCounter(ColumnType ct) {
+        switch (ct) {
+            case String:
+                return new StringAnalysisCounter();
+            case Integer:
+                return new IntegerAnalysisCounter();
+            case Long:
+                return new LongAnalysisCounter();
+            case Double:
+                return new DoubleAnalysisCounter();
+            case Categorical:
+                return new CategoricalAnalysisCounter();
+            case Time:
+                return new LongAnalysisCounter();
+            case Bytes:
+                return new BytesAnalysisCounter();
+            case NDArray:
+                return new NDArrayAnalysisCounter();
+            default:
+                throw new IllegalArgumentException("Unknown column type: " + ct);
+        }
+    }
 }
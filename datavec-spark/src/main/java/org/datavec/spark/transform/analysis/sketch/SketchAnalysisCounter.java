@@ -0,0 +1,233 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.analysis.sketch;
+
+import com.clearspring.analytics.stream.Counter;
+import com.clearspring.analytics.stream.StreamSummary;
+import com.clearspring.analytics.stream.cardinality.CardinalityMergeException;
+import com.clearspring.analytics.stream.cardinality.HyperLogLogPlus;
+import com.tdunning.math.stats.TDigest;
+import lombok.Data;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.writable.NDArrayWritable;
+import org.datavec.api.writable.NullWritable;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.transform.analysis.AnalysisCounter;
+import org.datavec.spark.transform.analysis.aggregate.AnalysisAddFunction;
+import org.datavec.spark.transform.analysis.columns.DoubleAnalysisCounter;
+import org.datavec.spark.transform.analysis.columns.IntegerAnalysisCounter;
+import org.datavec.spark.transform.analysis.columns.LongAnalysisCounter;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An analysis counter that wraps the standard per-column {@link AnalysisCounter} and additionally maintains
+ * mergeable sketches, so that a full column analysis (including histograms) can be calculated in a single pass
+ * over the data:<br>
+ * - A t-digest of the values (Integer, Long, Double and Time columns), the string lengths (String columns) or the
+ *   array values (NDArray columns). Histograms and quantiles are calculated from this digest<br>
+ * - A HyperLogLog++ sketch for the approximate number of unique values (String columns only)<br>
+ * - A SpaceSaving (stream summary) sketch for the approximate most frequent values (String columns only)<br>
+ * The number of unique values is an estimate (relative standard deviation {@link #DEFAULT_RELATIVE_SD}); merging
+ * HyperLogLog++ sketches does not add further error. The most frequent values are approximate, and more so after
+ * merging: see {@link #merge(SketchAnalysisCounter)}.
+ */
+@Data
+public class SketchAnalysisCounter implements AnalysisCounter<SketchAnalysisCounter> {
+
+    /**
+     * Relative standard deviation of the HyperLogLog++ cardinality estimate
+     */
+    public static final double DEFAULT_RELATIVE_SD = 0.05;
+
+    private final ColumnType columnType;
+    private final int topK;
+    private AnalysisCounter counter;
+    private TDigest digest;
+    private HyperLogLogPlus hll;
+    private StreamSummary<String> frequent;
+
+    /**
+     * @param columnType Type of the column to analyze
+     * @param topK       Number of most frequent values to report for String columns
+     */
+    public SketchAnalysisCounter(ColumnType columnType, int topK) {
+        this.columnType = columnType;
+        this.topK = topK;
+        this.counter = AnalysisAddFunction.newCounter(columnType);
+        switch (columnType) {
+            case String:
+                //See StringQuality for the precision calculation
+                hll = new HyperLogLogPlus((int) Math.ceil(2.0 * Math.log(1.054 / DEFAULT_RELATIVE_SD) / Math.log(2)),
+                                0);
+                //Over-provision the summary: the top k estimates are more accurate when capacity >> k
+                frequent = new StreamSummary<>(getSummaryCapacity());
+                digest = TDigest.createDigest(100);
+                break;
+            case NDArray:
+                digest = TDigest.createDigest(100);
+                break;
+            default:
+                //Numerical counters already maintain their own digest
+        }
+    }
+
+    private int getSummaryCapacity() {
+        return Math.max(100, 10 * topK);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public SketchAnalysisCounter add(Writable writable) {
+        counter.add(writable);
+        switch (columnType) {
+            case String:
+                String str = writable.toString();
+                digest.add(str.length());
+                hll.offer(str);
+                frequent.offer(str);
+                break;
+            case NDArray:
+                if (writable instanceof NullWritable)
+                    break;
+                INDArray arr = ((NDArrayWritable) writable).get();
+                if (arr == null)
+                    break;
+                int length = arr.length();
+                for (int i = 0; i < length; i++) {
+                    digest.add(arr.getDouble(i));
+                }
+                break;
+        }
+        return this;
+    }
+
+    /**
+     * Merge the other counter into this one. Note that stream summaries are not exactly mergeable: the counters of
+     * the other summary are re-offered to this one with their counts, but their error bounds are dropped, and values
+     * already evicted from either summary are lost. Hence after merging, the most frequent values and their counts
+     * are approximate, without the error guarantee of a single SpaceSaving sketch.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public SketchAnalysisCounter merge(SketchAnalysisCounter other) {
+        if (columnType != other.columnType)
+            throw new IllegalArgumentException("Cannot merge counters for different column types: " + columnType
+                            + " vs. " + other.columnType);
+        counter = counter.merge(other.counter);
+        if (digest != null)
+            digest.add(other.digest);
+        if (hll != null) {
+            try {
+                hll.addAll(other.hll);
+            } catch (CardinalityMergeException e) {
+                throw new IllegalStateException("Could not merge cardinality estimates", e);
+            }
+        }
+        if (frequent != null) {
+            for (Counter<String> c : other.frequent.topK(other.frequent.getCapacity())) {
+                frequent.offer(c.getItem(), (int) Math.min(Integer.MAX_VALUE, c.getCount()));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return The digest used for quantiles and histograms of this column, or null if the column type has no
+     *         numerical representation (Categorical, Bytes)
+     */
+    public TDigest getValueDigest() {
+        switch (columnType) {
+            case Integer:
+                return ((IntegerAnalysisCounter) counter).getDigest();
+            case Long:
+            case Time:
+                return ((LongAnalysisCounter) counter).getDigest();
+            case Double:
+                return ((DoubleAnalysisCounter) counter).getDigest();
+            default:
+                return digest;
+        }
+    }
+
+    /**
+     * @return Approximate number of unique values, for String columns. -1 for other column types
+     */
+    public long getCountUnique() {
+        return hll == null ? -1 : hll.cardinality();
+    }
+
+    /**
+     * @return The (approximate) {@code topK} most frequent values and their counts, ordered from most to least
+     *         frequent. Null for non-String columns
+     */
+    public Map<String, Long> getMostFrequent() {
+        if (frequent == null)
+            return null;
+        List<Counter<String>> top = frequent.topK(topK);
+        Map<String, Long> out = new LinkedHashMap<>();
+        for (Counter<String> c : top) {
+            out.put(c.getItem(), c.getCount());
+        }
+        return out;
+    }
+
+    /**
+     * Get the histogram bucket edges for this column: {@code nBins+1} equally spaced values between min and max
+     */
+    public static double[] getHistogramBuckets(double min, double max, int nBins) {
+        double[] bins = new double[nBins + 1];
+        double step = (max - min) / nBins;
+        for (int i = 0; i < nBins; i++) {
+            bins[i] = min + i * step;
+        }
+        bins[nBins] = max;
+        return bins;
+    }
+
+    /**
+     * Estimate the histogram bucket counts from a digest, using the digest's cumulative distribution function
+     * evaluated at each bucket edge.
+     *
+     * @param digest Digest of the column values
+     * @param bins   Bucket edges, as per {@link #getHistogramBuckets(double, double, int)}
+     * @return Approximate count for each bucket. The counts sum to the digest size
+     */
+    public static long[] getHistogramCounts(TDigest digest, double[] bins) {
+        int nBins = bins.length - 1;
+        long[] counts = new long[nBins];
+        long total = digest.size();
+        if (total == 0)
+            return counts;
+        if (bins[0] == bins[nBins]) {
+            //All values are identical
+            counts[nBins - 1] = total;
+            return counts;
+        }
+        long prev = 0;
+        for (int i = 1; i <= nBins; i++) {
+            long cumulative = (i == nBins ? total : Math.round(total * digest.cdf(bins[i])));
+            cumulative = Math.max(prev, Math.min(total, cumulative));
+            counts[i - 1] = cumulative - prev;
+            prev = cumulative;
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,36 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.join;
+
+import org.apache.spark.broadcast.Broadcast;
+import org.datavec.api.transform.join.HashJoin;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.transform.BaseFlatMapFunctionAdaptee;
+
+import java.util.List;
+
+/**
+ * Execute a join by joining each example of the (large) probe side against a broadcast {@link HashJoin} of the
+ * (small) build side. No shuffle of the probe side is required.<br>
+ * Only valid for join types that do not preserve the build side: see {@link HashJoin#preservesBuildSide()}
+ */
+public class BroadcastHashJoinFunction extends BaseFlatMapFunctionAdaptee<List<Writable>, List<Writable>> {
+
+    public BroadcastHashJoinFunction(Broadcast<HashJoin> hashJoin) {
+        super(new BroadcastHashJoinFunctionAdapter(hashJoin));
+    }
+}
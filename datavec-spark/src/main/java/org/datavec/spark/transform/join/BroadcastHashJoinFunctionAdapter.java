@@ -0,0 +1,41 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.join;
+
+import org.apache.spark.broadcast.Broadcast;
+import org.datavec.api.transform.join.HashJoin;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.functions.FlatMapFunctionAdapter;
+
+import java.util.List;
+
+/**
+ * Join each example against a broadcast {@link HashJoin}: see {@link BroadcastHashJoinFunction}
+ */
+public class BroadcastHashJoinFunctionAdapter implements FlatMapFunctionAdapter<List<Writable>, List<Writable>> {
+
+    private final Broadcast<HashJoin> hashJoin;
+
+    public BroadcastHashJoinFunctionAdapter(Broadcast<HashJoin> hashJoin) {
+        this.hashJoin = hashJoin;
+    }
+
+    @Override
+    public Iterable<List<Writable>> call(List<Writable> probeRecord) throws Exception {
+        return hashJoin.getValue().join(probeRecord);
+    }
+}
@@ -0,0 +1,72 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import org.apache.spark.api.java.function.Function2;
+import org.datavec.api.transform.rank.CalculateSortedRank;
+import org.datavec.api.transform.rank.SortedRankAssigner;
+import org.datavec.api.writable.Writable;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Assigns ranks to sorted examples, in a single streaming pass over each partition, for executing a
+ * CalculateSortedRank operation. For global (non-grouped) ranks, the offsets provide the number of examples and number
+ * of distinct examples in all preceding partitions.
+ */
+public class AssignSortedRankFunction
+                implements Function2<Integer, Iterator<List<Writable>>, Iterator<List<Writable>>> {
+
+    private final CalculateSortedRank csr;
+    private final long[] rowOffsets;
+    private final long[] distinctOffsets;
+
+    /**
+     * @param csr             CalculateSortedRank operation, with the input schema set
+     * @param rowOffsets      Number of examples before each partition. May be null (all 0)
+     * @param distinctOffsets Number of distinct examples before each partition. May be null (all 0)
+     */
+    public AssignSortedRankFunction(CalculateSortedRank csr, long[] rowOffsets, long[] distinctOffsets) {
+        this.csr = csr;
+        this.rowOffsets = rowOffsets;
+        this.distinctOffsets = distinctOffsets;
+    }
+
+    @Override
+    public Iterator<List<Writable>> call(Integer partitionIdx, final Iterator<List<Writable>> iter) throws Exception {
+        long rowOffset = (rowOffsets == null ? 0 : rowOffsets[partitionIdx]);
+        long distinctOffset = (distinctOffsets == null ? 0 : distinctOffsets[partitionIdx]);
+        final SortedRankAssigner assigner = new SortedRankAssigner(csr, rowOffset, distinctOffset);
+        return new Iterator<List<Writable>>() {
+            @Override
+            public boolean hasNext() {
+                return iter.hasNext();
+            }
+
+            @Override
+            public List<Writable> next() {
+                return assigner.next(iter.next());
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
@@ -0,0 +1,53 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.transform.sequence.SequenceSortComparator;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Comparator for calculating ranks within groups: examples are ordered first by their group columns, so that all
+ * examples of one group are contiguous, and then by the rank comparator. The order of the groups themselves is
+ * arbitrary but consistent (see {@link SequenceSortComparator#compareKeys(List, List, int[])}).
+ */
+public class GroupedRankComparator implements Comparator<List<Writable>>, Serializable {
+
+    private final int[] groupColumns;
+    private final Comparator<List<Writable>> comparator;
+
+    /**
+     * @param groupColumns Indexes of the group by columns
+     * @param comparator   Comparator for the examples within each group
+     */
+    public GroupedRankComparator(int[] groupColumns, Comparator<List<Writable>> comparator) {
+        this.groupColumns = groupColumns;
+        this.comparator = comparator;
+    }
+
+    @Override
+    public int compare(List<Writable> o1, List<Writable> o2) {
+        int c = SequenceSortComparator.compareKeys(o1, o2, groupColumns);
+        if (c != 0) {
+            return c;
+        }
+        return comparator.compare(o1, o2);
+    }
+}
@@ -0,0 +1,81 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import org.apache.spark.Partitioner;
+import org.datavec.api.writable.Writable;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Range partitioner for executing a CalculateSortedRank operation: examples are assigned to partitions by comparing
+ * them (using the same comparator as used for sorting) against a set of strictly increasing bounds. Partition i
+ * contains the examples greater than bound i-1 and less than or equal to bound i; consequently all examples that are
+ * equal according to the comparator (i.e., ties) are assigned to the same partition.
+ */
+public class SortedRankPartitioner extends Partitioner {
+
+    private final List<List<Writable>> bounds;
+    private final Comparator<List<Writable>> comparator;
+
+    /**
+     * @param bounds     Strictly increasing partition bounds. See {@link SortedRankSample#determineBounds(Comparator, int)}
+     * @param comparator Comparator used to sort the examples
+     */
+    public SortedRankPartitioner(List<List<Writable>> bounds, Comparator<List<Writable>> comparator) {
+        this.bounds = bounds;
+        this.comparator = comparator;
+    }
+
+    @Override
+    public int numPartitions() {
+        return bounds.size() + 1;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int getPartition(Object key) {
+        List<Writable> example = (List<Writable>) key;
+        //Binary search: number of bounds strictly less than the example
+        int lo = 0;
+        int hi = bounds.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comparator.compare(bounds.get(mid), example) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SortedRankPartitioner)) {
+            return false;
+        }
+        SortedRankPartitioner p = (SortedRankPartitioner) o;
+        return bounds.equals(p.bounds) && comparator.equals(p.comparator);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * bounds.hashCode() + comparator.hashCode();
+    }
+}
@@ -0,0 +1,130 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A weighted sample of examples, used to determine the range partition bounds for executing a CalculateSortedRank
+ * operation. Each partition of the data is sampled using reservoir sampling; when the per-partition samples are merged,
+ * each sampled example is weighted by the number of examples it represents (partition size / partition sample size),
+ * so that the bounds are balanced even when the input partitions differ in size.
+ */
+public class SortedRankSample implements Serializable {
+
+    private final int sampleSizePerPartition;
+
+    //Reservoir sample for a single partition (before merging)
+    private long count;
+    private List<List<Writable>> reservoir = new ArrayList<>();
+    private transient Random rng;
+
+    //Merged, weighted samples
+    private List<List<Writable>> sampled = new ArrayList<>();
+    private List<Double> weights = new ArrayList<>();
+
+    /**
+     * @param sampleSizePerPartition Maximum number of examples to sample from each partition
+     */
+    public SortedRankSample(int sampleSizePerPartition) {
+        this.sampleSizePerPartition = sampleSizePerPartition;
+    }
+
+    /**
+     * Add an example from the current partition to the reservoir sample
+     */
+    public SortedRankSample add(List<Writable> example) {
+        count++;
+        if (reservoir.size() < sampleSizePerPartition) {
+            reservoir.add(example);
+        } else {
+            if (rng == null)
+                rng = new Random();
+            long idx = (long) (rng.nextDouble() * count);
+            if (idx < sampleSizePerPartition)
+                reservoir.set((int) idx, example);
+        }
+        return this;
+    }
+
+    /**
+     * Merge the (reservoir or merged) samples from another partition into this sample
+     */
+    public SortedRankSample merge(SortedRankSample other) {
+        if (!other.reservoir.isEmpty()) {
+            double weight = other.count / (double) other.reservoir.size();
+            for (List<Writable> l : other.reservoir) {
+                sampled.add(l);
+                weights.add(weight);
+            }
+        }
+        sampled.addAll(other.sampled);
+        weights.addAll(other.weights);
+        return this;
+    }
+
+    /**
+     * Determine the range partition bounds from the merged sample: up to {@code numPartitions - 1} strictly
+     * increasing (according to the comparator) examples, such that the weighted number of sampled examples between
+     * consecutive bounds is approximately equal
+     *
+     * @param comparator    Comparator used to sort the examples
+     * @param numPartitions Target number of partitions
+     * @return Partition bounds
+     */
+    public List<List<Writable>> determineBounds(final Comparator<List<Writable>> comparator, int numPartitions) {
+        List<Integer> order = new ArrayList<>(sampled.size());
+        double totalWeight = 0.0;
+        for (int i = 0; i < sampled.size(); i++) {
+            order.add(i);
+            totalWeight += weights.get(i);
+        }
+        Collections.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return comparator.compare(sampled.get(o1), sampled.get(o2));
+            }
+        });
+
+        List<List<Writable>> bounds = new ArrayList<>();
+        double step = totalWeight / numPartitions;
+        double cumulative = 0.0;
+        double target = step;
+        List<Writable> previousBound = null;
+        for (Integer i : order) {
+            if (bounds.size() >= numPartitions - 1)
+                break;
+            cumulative += weights.get(i);
+            if (cumulative >= target) {
+                List<Writable> candidate = sampled.get(i);
+                if (previousBound == null || comparator.compare(candidate, previousBound) > 0) {
+                    bounds.add(candidate);
+                    previousBound = candidate;
+                    target += step;
+                }
+            }
+        }
+        return bounds;
+    }
+}
@@ -1,5 +1,5 @@
 /*-
- *  * Copyright 2016 Skymind, Inc.
+ *  * Copyright 2017 Skymind, Inc.
  *  *
  *  *    Licensed under the Apache License, Version 2.0 (the "License");
  *  *    you may not use this file except in compliance with the License.
@@ -16,25 +16,17 @@
 
 package org.datavec.spark.transform.rank;
 
-import org.apache.spark.api.java.function.Function;
-import org.datavec.api.writable.LongWritable;
+import org.apache.spark.api.java.function.Function2;
 import org.datavec.api.writable.Writable;
-import scala.Tuple2;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
- * A simple helper function for use in executing CalculateSortedRank
- *
- * @author Alex Black
+ * Adds examples to a {@link SortedRankSample}, for use in RDD.aggregate
  */
-public class UnzipForCalculateSortedRankFunction
-                implements Function<Tuple2<Tuple2<Writable, List<Writable>>, Long>, List<Writable>> {
+public class SortedRankSampleAddFunction implements Function2<SortedRankSample, List<Writable>, SortedRankSample> {
     @Override
-    public List<Writable> call(Tuple2<Tuple2<Writable, List<Writable>>, Long> v1) throws Exception {
-        List<Writable> inputWritables = new ArrayList<>(v1._1()._2());
-        inputWritables.add(new LongWritable(v1._2()));
-        return inputWritables;
+    public SortedRankSample call(SortedRankSample sample, List<Writable> example) throws Exception {
+        return sample.add(example);
     }
 }
@@ -0,0 +1,29 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import org.apache.spark.api.java.function.Function2;
+
+/**
+ * Merges {@link SortedRankSample}s, for use in RDD.aggregate
+ */
+public class SortedRankSampleMergeFunction implements Function2<SortedRankSample, SortedRankSample, SortedRankSample> {
+    @Override
+    public SortedRankSample call(SortedRankSample s1, SortedRankSample s2) throws Exception {
+        return s1.merge(s2);
+    }
+}
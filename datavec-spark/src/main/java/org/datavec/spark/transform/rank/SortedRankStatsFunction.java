@@ -0,0 +1,53 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.rank;
+
+import lombok.AllArgsConstructor;
+import org.apache.spark.api.java.function.Function2;
+import org.datavec.api.writable.Writable;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Calculates the number of examples and the number of distinct examples (according to the comparator) in each
+ * partition of sorted data. Used to calculate the rank offset of each partition: the number of examples in the
+ * preceding partitions and, for dense ranks, the number of distinct examples in the preceding partitions. Returns a
+ * single {partitionIdx, count, distinctCount} array per partition. If the comparator is null, distinct examples are not
+ * counted (distinctCount is 0).
+ */
+@AllArgsConstructor
+public class SortedRankStatsFunction implements Function2<Integer, Iterator<List<Writable>>, Iterator<long[]>> {
+    private final Comparator<List<Writable>> comparator;
+
+    @Override
+    public Iterator<long[]> call(Integer partitionIdx, Iterator<List<Writable>> iter) throws Exception {
+        long count = 0;
+        long distinct = 0;
+        List<Writable> previous = null;
+        while (iter.hasNext()) {
+            List<Writable> next = iter.next();
+            if (comparator != null && (previous == null || comparator.compare(previous, next) != 0))
+                distinct++;
+            count++;
+            previous = next;
+        }
+        return Collections.singletonList(new long[] {partitionIdx, count, distinct}).iterator();
+    }
+}
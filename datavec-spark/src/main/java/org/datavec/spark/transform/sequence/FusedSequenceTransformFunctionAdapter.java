@@ -0,0 +1,81 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.sequence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.datavec.api.transform.DataAction;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.functions.FlatMapFunctionAdapter;
+import org.datavec.spark.transform.SparkTransformExecutor;
+import org.datavec.spark.transform.transform.FusedIterable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Executes a fused chain of transforms and filters on a partition of sequences: see
+ * {@link FusedSequenceTransformFunction}
+ */
+@Slf4j
+public class FusedSequenceTransformFunctionAdapter
+                implements FlatMapFunctionAdapter<Iterator<List<List<Writable>>>, List<List<Writable>>> {
+
+    private final List<DataAction> actions;
+    //Read on the driver, when the function is created: the property need not be set on the executors
+    private final boolean tryCatch = SparkTransformExecutor.isTryCatch();
+
+    public FusedSequenceTransformFunctionAdapter(List<DataAction> actions) {
+        for (DataAction d : actions) {
+            if (d.getTransform() == null && d.getFilter() == null) {
+                throw new IllegalArgumentException("Only transforms and filters can be fused. Got: " + d);
+            }
+        }
+        this.actions = new ArrayList<>(actions);
+    }
+
+    @Override
+    public Iterable<List<List<Writable>>> call(Iterator<List<List<Writable>>> partition) throws Exception {
+        return new FusedIterable<List<List<Writable>>>(partition) {
+            @Override
+            protected List<List<Writable>> apply(List<List<Writable>> in) {
+                if (!tryCatch) {
+                    return execute(in);
+                }
+                try {
+                    List<List<Writable>> out = execute(in);
+                    return (out == null || out.isEmpty() ? null : out);
+                } catch (Exception e) {
+                    log.warn("Error occurred " + e + " on sequence " + in);
+                    return null;
+                }
+            }
+        };
+    }
+
+    private List<List<Writable>> execute(List<List<Writable>> sequence) {
+        List<List<Writable>> curr = sequence;
+        for (DataAction d : actions) {
+            if (d.getTransform() != null) {
+                curr = d.getTransform().mapSequence(curr);
+            } else if (d.getFilter().removeSequence(curr)) {
+                return null;
+            }
+        }
+        return curr;
+    }
+}
@@ -0,0 +1,73 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.sequence;
+
+import org.apache.spark.Partitioner;
+import org.datavec.api.writable.Writable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Partitioner for examples that are to be converted to sequences via a secondary sort: examples are assigned to
+ * partitions based only on the values of their key columns, so all examples for one sequence end up in the same
+ * partition (see {@link SequenceSortComparator})
+ */
+public class SequenceKeyPartitioner extends Partitioner {
+
+    private final int numPartitions;
+    private final int[] keyColumns;
+
+    /**
+     * @param numPartitions Number of output partitions
+     * @param keyColumns    Indexes of the key columns in each example
+     */
+    public SequenceKeyPartitioner(int numPartitions, int[] keyColumns) {
+        if (numPartitions <= 0) {
+            throw new IllegalArgumentException("Number of partitions must be positive: got " + numPartitions);
+        }
+        this.numPartitions = numPartitions;
+        this.keyColumns = keyColumns;
+    }
+
+    @Override
+    public int numPartitions() {
+        return numPartitions;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int getPartition(Object key) {
+        int hash = SequenceSortComparator.keyHash((List<Writable>) key, keyColumns);
+        int mod = hash % numPartitions;
+        return (mod < 0 ? mod + numPartitions : mod);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SequenceKeyPartitioner)) {
+            return false;
+        }
+        SequenceKeyPartitioner p = (SequenceKeyPartitioner) o;
+        return numPartitions == p.numPartitions && Arrays.equals(keyColumns, p.keyColumns);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * numPartitions + Arrays.hashCode(keyColumns);
+    }
+}
@@ -0,0 +1,98 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.sequence;
+
+import org.datavec.api.transform.sequence.SequenceComparator;
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Comparator for the secondary sort used to convert examples to sequences: examples are ordered first by their key
+ * columns, so that all examples of one sequence are contiguous, and then by the {@link SequenceComparator} of the
+ * ConvertToSequence operation, so that the examples of each sequence are in time step order.<br>
+ * The order of the keys themselves is arbitrary (by hash code, then by value) but consistent.
+ */
+public class SequenceSortComparator implements Comparator<List<Writable>>, Serializable {
+
+    private final int[] keyColumns;
+    private final SequenceComparator comparator;
+
+    /**
+     * @param keyColumns Indexes of the key columns in each example
+     * @param comparator Comparator for the time steps within each sequence
+     */
+    public SequenceSortComparator(int[] keyColumns, SequenceComparator comparator) {
+        this.keyColumns = keyColumns;
+        this.comparator = comparator;
+    }
+
+    @Override
+    public int compare(List<Writable> o1, List<Writable> o2) {
+        int c = compareKeys(o1, o2);
+        if (c != 0) {
+            return c;
+        }
+        return comparator.compare(o1, o2);
+    }
+
+    /**
+     * Compare only the key columns of the two examples. Returns 0 if (and only if, barring Writables with equal class
+     * and string representations that are not equal) both examples belong to the same sequence
+     */
+    public int compareKeys(List<Writable> o1, List<Writable> o2) {
+        return compareKeys(o1, o2, keyColumns);
+    }
+
+    /**
+     * Compare only the specified key columns of the two examples, using the same (arbitrary but consistent) order as
+     * {@link #compareKeys(List, List)}
+     */
+    public static int compareKeys(List<Writable> o1, List<Writable> o2, int[] keyColumns) {
+        int c = Integer.compare(keyHash(o1, keyColumns), keyHash(o2, keyColumns));
+        if (c != 0) {
+            return c;
+        }
+        for (int idx : keyColumns) {
+            Writable w1 = o1.get(idx);
+            Writable w2 = o2.get(idx);
+            c = w1.getClass().getName().compareTo(w2.getClass().getName());
+            if (c != 0) {
+                return c;
+            }
+            c = w1.toString().compareTo(w2.toString());
+            if (c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Hash code of the key columns of the example. Equal to the hash code of a list of the key values
+     */
+    public static int keyHash(List<Writable> example, int[] keyColumns) {
+        int hash = 1;
+        for (int idx : keyColumns) {
+            Writable w = example.get(idx);
+            hash = 31 * hash + (w == null ? 0 : w.hashCode());
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,45 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.sequence;
+
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.transform.BaseFlatMapFunctionAdaptee;
+import scala.Tuple2;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Spark function for converting examples to sequences without grouping: the input partition must have been sorted
+ * with a {@link SequenceSortComparator} and partitioned with a {@link SequenceKeyPartitioner} (for example, via
+ * repartitionAndSortWithinPartitions), so that the examples of each sequence are contiguous and in order.
+ * Sequences are then assembled one at a time while streaming through the partition; only the current sequence is
+ * held in memory.<br>
+ * Optionally, a maximum sequence length can be specified: longer sequences are split into consecutive sequences of
+ * at most that length.
+ */
+public class SortedToSequenceFunction
+                extends BaseFlatMapFunctionAdaptee<Iterator<Tuple2<List<Writable>, Writable>>, List<List<Writable>>> {
+
+    /**
+     * @param comparator        Comparator that was used to sort the partition
+     * @param maxSequenceLength Maximum sequence length. Values of 0 or less: no limit
+     */
+    public SortedToSequenceFunction(SequenceSortComparator comparator, int maxSequenceLength) {
+        super(new SortedToSequenceFunctionAdapter(comparator, maxSequenceLength));
+    }
+}
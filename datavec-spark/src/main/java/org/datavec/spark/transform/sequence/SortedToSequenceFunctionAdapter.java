@@ -0,0 +1,99 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.sequence;
+
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.functions.FlatMapFunctionAdapter;
+import scala.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Assembles sequences from a partition of examples sorted by {@link SequenceSortComparator}: see
+ * {@link SortedToSequenceFunction}
+ */
+public class SortedToSequenceFunctionAdapter
+                implements FlatMapFunctionAdapter<Iterator<Tuple2<List<Writable>, Writable>>, List<List<Writable>>> {
+
+    private final SequenceSortComparator comparator;
+    private final int maxSequenceLength;
+
+    /**
+     * @param comparator        Comparator that was used to sort the partition
+     * @param maxSequenceLength Maximum sequence length. Longer sequences are split into multiple sequences of at most
+     *                          this length. Values of 0 or less: no limit
+     */
+    public SortedToSequenceFunctionAdapter(SequenceSortComparator comparator, int maxSequenceLength) {
+        this.comparator = comparator;
+        this.maxSequenceLength = maxSequenceLength;
+    }
+
+    @Override
+    public Iterable<List<List<Writable>>> call(final Iterator<Tuple2<List<Writable>, Writable>> partition)
+                    throws Exception {
+        return new Iterable<List<List<Writable>>>() {
+            @Override
+            public Iterator<List<List<Writable>>> iterator() {
+                return new SequenceIterator(partition);
+            }
+        };
+    }
+
+    private class SequenceIterator implements Iterator<List<List<Writable>>> {
+        private final Iterator<Tuple2<List<Writable>, Writable>> iter;
+        private List<Writable> next;
+
+        private SequenceIterator(Iterator<Tuple2<List<Writable>, Writable>> iter) {
+            this.iter = iter;
+            this.next = (iter.hasNext() ? iter.next()._1() : null);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public List<List<Writable>> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            List<List<Writable>> sequence = new ArrayList<>();
+            List<Writable> first = next;
+            sequence.add(first);
+            next = null;
+            while (iter.hasNext()) {
+                List<Writable> w = iter.next()._1();
+                if (comparator.compareKeys(first, w) != 0
+                                || (maxSequenceLength > 0 && sequence.size() >= maxSequenceLength)) {
+                    next = w;
+                    break;
+                }
+                sequence.add(w);
+            }
+            return sequence;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -43,23 +43,7 @@ public class SequenceToRowsAdapter implements FlatMapFunctionAdapter<List<List<W
             values[0] = sequenceUUID;
             values[1] = stepCount++;
             for (int i = 0; i < step.size(); i++) {
-                switch (schema.getColumnTypes().get(i)) {
-                    case Double:
-                        values[i + 2] = step.get(i).toDouble();
-                        break;
-                    case Integer:
-                        values[i + 2] = step.get(i).toInt();
-                        break;
-                    case Long:
-                        values[i + 2] = step.get(i).toLong();
-                        break;
-                    case Float:
-                        values[i + 2] = step.get(i).toFloat();
-                        break;
-                    default:
-                        throw new IllegalStateException(
-                                        "This api should not be used with strings , binary data or ndarrays. This is only for columnar data");
-                }
+                values[i + 2] = DataFrames.toRowValue(schema.getColumnTypes().get(i), step.get(i));
             }
 
             Row row = new GenericRowWithSchema(values, structType);
@@ -4,7 +4,8 @@ import lombok.AllArgsConstructor;
 import org.apache.spark.api.java.function.Function;
 import org.apache.spark.sql.Row;
 import org.datavec.api.transform.schema.Schema;
-import org.datavec.api.writable.*;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.transform.DataFrames;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -27,23 +28,7 @@ public class ToRecord implements Function<Row, List<Writable>> {
         for (int i = 0; i < v1.size(); i++) {
             if (v1.get(i) == null)
                 throw new IllegalStateException("Row item " + i + " is null");
-            switch (schema.getType(i)) {
-                case Double:
-                    ret.add(new DoubleWritable(v1.getDouble(i)));
-                    break;
-                case Float:
-                    ret.add(new FloatWritable(v1.getFloat(i)));
-                    break;
-                case Integer:
-                    ret.add(new IntWritable(v1.getInt(i)));
-                    break;
-                case Long:
-                    ret.add(new LongWritable(v1.getLong(i)));
-                    break;
-                default:
-                    throw new IllegalStateException("Illegal type");
-            }
-
+            ret.add(DataFrames.toWritable(schema.getType(i), v1, i));
         }
         return ret;
     }
@@ -63,23 +63,7 @@ public class ToRow implements Function<List<Writable>, Row> {
                                 "Illegal record of size " + v1 + ". Should have been " + schema.numColumns());
             Object[] values = new Object[v1.size()];
             for (int i = 0; i < values.length; i++) {
-                switch (schema.getColumnTypes().get(i)) {
-                    case Double:
-                        values[i] = v1.get(i).toDouble();
-                        break;
-                    case Integer:
-                        values[i] = v1.get(i).toInt();
-                        break;
-                    case Long:
-                        values[i] = v1.get(i).toLong();
-                        break;
-                    case Float:
-                        values[i] = v1.get(i).toFloat();
-                        break;
-                    default:
-                        throw new IllegalStateException(
-                                        "This api should not be used with strings , binary data or ndarrays. This is only for columnar data");
-                }
+                values[i] = DataFrames.toRowValue(schema.getColumnTypes().get(i), v1.get(i));
             }
 
             Row row = new GenericRowWithSchema(values, structType);
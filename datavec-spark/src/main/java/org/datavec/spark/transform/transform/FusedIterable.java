@@ -0,0 +1,80 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.transform;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A lazy Iterable that applies a function to each element of an iterator, skipping elements for which the function
+ * returns null. Used to execute a chain of fused operations within a single Spark mapPartitions call, without
+ * materializing the partition
+ *
+ * @param <T> Type of the elements
+ */
+public abstract class FusedIterable<T> implements Iterable<T> {
+
+    private final Iterator<T> input;
+
+    protected FusedIterable(Iterator<T> input) {
+        this.input = input;
+    }
+
+    /**
+     * Apply the fused operations to a single element
+     *
+     * @param in Input element
+     * @return Output element, or null if the element should be removed
+     */
+    protected abstract T apply(T in) throws Exception;
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private T next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && input.hasNext()) {
+                    try {
+                        next = apply(input.next());
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T ret = next;
+                next = null;
+                return ret;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Not supported");
+            }
+        };
+    }
+}
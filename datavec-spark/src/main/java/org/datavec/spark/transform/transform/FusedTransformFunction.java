@@ -0,0 +1,39 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.transform;
+
+import org.datavec.api.transform.plan.ExecutionPlan;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.transform.BaseFlatMapFunctionAdaptee;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Spark function for executing a chain of consecutive transforms and filters on (non-sequence) examples in a single
+ * mapPartitions call. The chain is compiled to an {@link ExecutionPlan} (see
+ * {@link org.datavec.api.transform.TransformProcess#compile()}), so consecutive single-column transforms are fused and
+ * filters are executed as early as possible.<br>
+ * In try-catch mode (see {@link org.datavec.spark.transform.SparkTransformExecutor#isTryCatch()}), examples for which
+ * the chain throws an exception or returns an empty list are logged and removed.
+ */
+public class FusedTransformFunction extends BaseFlatMapFunctionAdaptee<Iterator<List<Writable>>, List<Writable>> {
+
+    public FusedTransformFunction(ExecutionPlan plan) {
+        super(new FusedTransformFunctionAdapter(plan));
+    }
+}
@@ -0,0 +1,61 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform.transform;
+
+import lombok.extern.slf4j.Slf4j;
+import org.datavec.api.transform.plan.ExecutionPlan;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.functions.FlatMapFunctionAdapter;
+import org.datavec.spark.transform.SparkTransformExecutor;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Executes a fused chain of transforms and filters on a partition of examples: see {@link FusedTransformFunction}
+ */
+@Slf4j
+public class FusedTransformFunctionAdapter
+                implements FlatMapFunctionAdapter<Iterator<List<Writable>>, List<Writable>> {
+
+    private final ExecutionPlan plan;
+    //Read on the driver, when the function is created: the property need not be set on the executors
+    private final boolean tryCatch = SparkTransformExecutor.isTryCatch();
+
+    public FusedTransformFunctionAdapter(ExecutionPlan plan) {
+        this.plan = plan;
+    }
+
+    @Override
+    public Iterable<List<Writable>> call(Iterator<List<Writable>> partition) throws Exception {
+        return new FusedIterable<List<Writable>>(partition) {
+            @Override
+            protected List<Writable> apply(List<Writable> in) {
+                if (!tryCatch) {
+                    return plan.execute(in);
+                }
+                try {
+                    List<Writable> out = plan.execute(in);
+                    return (out == null || out.isEmpty() ? null : out);
+                } catch (Exception e) {
+                    log.warn("Error occurred " + e + " on record " + in);
+                    return null;
+                }
+            }
+        };
+    }
+}
@@ -31,6 +31,7 @@ import org.datavec.api.transform.split.RandomSplit;
 import org.datavec.api.transform.split.SplitStrategy;
 import org.datavec.api.transform.ui.HtmlAnalysis;
 import org.datavec.api.writable.*;
+import org.datavec.spark.serialization.DataVecKryoRegistrator;
 
 import java.io.*;
 import java.util.ArrayList;
@@ -269,14 +270,34 @@ public class SparkUtils {
     }
 
     /**
-     * Register the DataVec writable classes for Kryo
+     * Register the DataVec writable classes for Kryo.<br>
+     * Note that the classes are serialized with Kryo's default serializers: for compact serialization of writables
+     * and records, use {@link #registerKryoRegistrator(SparkConf)} instead
      */
     public static void registerKryoClasses(SparkConf conf) {
         List<Class<?>> classes = Arrays.<Class<?>>asList(BooleanWritable.class, ByteWritable.class,
                         DoubleWritable.class, FloatWritable.class, IntWritable.class, LongWritable.class,
                         NullWritable.class, Text.class);
 
-        conf.registerKryoClasses((Class<?>[]) classes.toArray());
+        conf.registerKryoClasses(classes.toArray(new Class<?>[classes.size()]));
+    }
+
+    /**
+     * Configure Spark to use Kryo serialization, with the {@link DataVecKryoRegistrator}: i.e., compact custom
+     * serializers for all core writables and for records (List&lt;Writable&gt;). Any registrators already set via
+     * spark.kryo.registrator are retained.
+     *
+     * @param conf Spark configuration to modify
+     */
+    public static void registerKryoRegistrator(SparkConf conf) {
+        conf.set("spark.serializer", "org.apache.spark.serializer.KryoSerializer");
+        String registrator = DataVecKryoRegistrator.class.getName();
+        String existing = conf.get("spark.kryo.registrator", "");
+        if (existing.isEmpty()) {
+            conf.set("spark.kryo.registrator", registrator);
+        } else if (!Arrays.asList(existing.split(",")).contains(registrator)) {
+            conf.set("spark.kryo.registrator", existing + "," + registrator);
+        }
     }
 
     public static Class<? extends CompressionCodec> getCompressionCodeClass(String compressionCodecClass) {
@@ -0,0 +1,116 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.serialization;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.apache.spark.SparkConf;
+import org.datavec.api.writable.*;
+import org.datavec.spark.transform.utils.SparkUtils;
+import org.junit.Test;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestDataVecKryoRegistrator {
+
+    private static byte[] serialize(Kryo kryo, Object o) {
+        Output output = new Output(1024, -1);
+        kryo.writeClassAndObject(output, o);
+        return output.toBytes();
+    }
+
+    private static Object deserialize(Kryo kryo, byte[] bytes) {
+        return kryo.readClassAndObject(new Input(bytes));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        Kryo kryo = new Kryo();
+        new DataVecKryoRegistrator().registerClasses(kryo);
+
+        List<Writable> record = Arrays.<Writable>asList(new BooleanWritable(true), new ByteWritable((byte) -3),
+                        new DoubleWritable(1.5), new FloatWritable(-2.5f), new IntWritable(-123456),
+                        new LongWritable(Long.MAX_VALUE), NullWritable.INSTANCE, new Text("text value"),
+                        new NDArrayWritable(Nd4j.linspace(1, 6, 6).reshape(2, 3)));
+
+        //Individual writables
+        for (Writable w : record) {
+            assertEquals(w, deserialize(kryo, serialize(kryo, w)));
+        }
+
+        //Records and sequences
+        assertEquals(record, deserialize(kryo, serialize(kryo, record)));
+        List<List<Writable>> sequence = new ArrayList<>();
+        sequence.add(record);
+        sequence.add(new ArrayList<>(record));
+        assertEquals(sequence, deserialize(kryo, serialize(kryo, sequence)));
+    }
+
+    @Test
+    public void testListClasses() {
+        Kryo kryo = new Kryo();
+        new DataVecKryoRegistrator().registerClasses(kryo);
+
+        List<Writable> record = Arrays.<Writable>asList(new IntWritable(1), new Text("two"));
+        List<List<Writable>> lists = Arrays.asList(new ArrayList<>(record), new LinkedList<>(record), record,
+                        Collections.<Writable>singletonList(new IntWritable(3)), Collections.<Writable>emptyList(),
+                        Collections.unmodifiableList(new ArrayList<>(record)),
+                        Collections.unmodifiableList(new LinkedList<>(record)));
+        for (List<Writable> list : lists) {
+            Object out = deserialize(kryo, serialize(kryo, list));
+            assertEquals(list.getClass(), out.getClass());
+            assertEquals(list, out);
+        }
+    }
+
+    @Test
+    public void testCompact() {
+        Kryo kryo = new Kryo();
+        new DataVecKryoRegistrator().registerClasses(kryo);
+        Kryo defaultKryo = new Kryo();
+
+        List<Writable> record = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            record.add(new IntWritable(i));
+        }
+
+        byte[] compact = serialize(kryo, record);
+        //1 byte class ID, 1 byte reference marker, 1 byte size, 1 type byte + 1 value byte per element
+        assertEquals(3 + 2 * record.size(), compact.length);
+        assertTrue(compact.length < serialize(defaultKryo, record).length);
+    }
+
+    @Test
+    public void testRegisterKryoRegistrator() {
+        SparkConf conf = new SparkConf().set("spark.kryo.registrator", "org.example.OtherRegistrator");
+        SparkUtils.registerKryoRegistrator(conf);
+        SparkUtils.registerKryoRegistrator(conf);
+
+        assertEquals("org.apache.spark.serializer.KryoSerializer", conf.get("spark.serializer"));
+        assertEquals("org.example.OtherRegistrator," + DataVecKryoRegistrator.class.getName(),
+                        conf.get("spark.kryo.registrator"));
+    }
+}
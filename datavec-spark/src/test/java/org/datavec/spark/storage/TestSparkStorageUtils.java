@@ -19,6 +19,13 @@ package org.datavec.spark.storage;
 import com.google.common.io.Files;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
+import org.datavec.api.transform.condition.BooleanCondition;
+import org.datavec.api.transform.condition.Condition;
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.condition.column.CategoricalColumnCondition;
+import org.datavec.api.transform.condition.column.IntegerColumnCondition;
+import org.datavec.api.transform.condition.column.NaNColumnCondition;
+import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.*;
 import org.datavec.spark.BaseSparkTest;
 import org.junit.Test;
@@ -27,10 +34,13 @@ import org.nd4j.linalg.factory.Nd4j;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -138,6 +148,94 @@ public class TestSparkStorageUtils extends BaseSparkTest {
         assertTrue(l.containsAll(restored2) && restored2.containsAll(l));
     }
 
+    @Test
+    public void testSaveRestoreParquet() {
+        Schema schema = new Schema.Builder().addColumnString("str").addColumnInteger("int")
+                        .addColumnDouble("dbl").addColumnCategorical("cat", "a", "b").build();
+
+        List<List<Writable>> l = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            l.add(Arrays.<Writable>asList(new Text("s" + i), new IntWritable(i), new DoubleWritable(i / 2.0),
+                            new Text(i % 2 == 0 ? "a" : "b")));
+        }
 
+        JavaRDD<List<Writable>> rdd = sc.parallelize(l);
+
+        File f = Files.createTempDir();
+        f.delete();
+        f.deleteOnExit();
+        String path = "file:///" + f.getAbsolutePath();
+
+        SparkStorageUtils.saveParquet(path, schema, rdd);
+        List<List<Writable>> restored = SparkStorageUtils.restoreParquet(path, sc).collect();
+        assertEquals(10, restored.size());
+        assertTrue(l.containsAll(restored) && restored.containsAll(l));
+
+        //Projection + condition that can be pushed down:
+        Condition condition = BooleanCondition.AND(new IntegerColumnCondition("int", ConditionOp.GreaterOrEqual, 5),
+                        new CategoricalColumnCondition("cat", ConditionOp.Equal, "a"));
+        assertNotNull(PredicatePushdown.toColumn(condition));
+        List<List<Writable>> projected =
+                        SparkStorageUtils.restoreParquet(path, sc, new String[] {"dbl", "str"}, condition).collect();
+
+        List<List<Writable>> expected = new ArrayList<>();
+        for (int i : new int[] {6, 8}) {
+            expected.add(Arrays.<Writable>asList(new DoubleWritable(i / 2.0), new Text("s" + i)));
+        }
+        assertEquals(2, projected.size());
+        assertTrue(expected.containsAll(projected) && projected.containsAll(expected));
+
+        //Condition that can't be pushed down is applied after reading:
+        Condition notNaN = BooleanCondition.NOT(new NaNColumnCondition("dbl"));
+        assertNull(PredicatePushdown.toColumn(notNaN));
+        List<List<Writable>> all = SparkStorageUtils.restoreParquet(path, sc, null, notNaN).collect();
+        assertEquals(10, all.size());
+    }
+
+    @Test
+    public void testSaveRestoreParquetSequences() {
+        Schema schema = new Schema.Builder().addColumnString("str").addColumnInteger("int").addColumnDouble("dbl")
+                        .build();
+
+        List<List<List<Writable>>> l = new ArrayList<>();
+        for (int s = 0; s < 3; s++) {
+            List<List<Writable>> seq = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                seq.add(Arrays.<Writable>asList(new Text("s" + s + "_" + i), new IntWritable(10 * s + i),
+                                new DoubleWritable(i)));
+            }
+            l.add(seq);
+        }
+
+        JavaRDD<List<List<Writable>>> rdd = sc.parallelize(l);
+
+        File f = Files.createTempDir();
+        f.delete();
+        f.deleteOnExit();
+        String path = "file:///" + f.getAbsolutePath();
+
+        SparkStorageUtils.saveParquetSequences(path, schema, rdd);
+        List<List<List<Writable>>> restored = SparkStorageUtils.restoreParquetSequences(path, sc).collect();
+        assertEquals(3, restored.size());
+        assertTrue(l.containsAll(restored) && restored.containsAll(l));
+
+        //Projection + time step filtering: sequence 0 has no matching steps, and is removed
+        Condition condition = new IntegerColumnCondition("int", ConditionOp.GreaterThan, 10);
+        List<List<List<Writable>>> filtered = SparkStorageUtils
+                        .restoreParquetSequences(path, sc, new String[] {"int"}, condition).collect();
+
+        List<List<List<Writable>>> expected = new ArrayList<>();
+        expected.add(Arrays.asList(Collections.<Writable>singletonList(new IntWritable(11)),
+                        Collections.<Writable>singletonList(new IntWritable(12)),
+                        Collections.<Writable>singletonList(new IntWritable(13))));
+        List<List<Writable>> seq2 = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            seq2.add(Collections.<Writable>singletonList(new IntWritable(20 + i)));
+        }
+        expected.add(seq2);
+
+        assertEquals(2, filtered.size());
+        assertTrue(expected.containsAll(filtered) && filtered.containsAll(expected));
+    }
 
 }
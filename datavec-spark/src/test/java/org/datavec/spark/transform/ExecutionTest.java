@@ -18,7 +18,12 @@ package org.datavec.spark.transform;
 
 import org.apache.spark.api.java.JavaRDD;
 import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.ReduceOp;
 import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.condition.column.IntegerColumnCondition;
+import org.datavec.api.transform.condition.column.StringColumnCondition;
+import org.datavec.api.transform.reduce.Reducer;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.schema.SequenceSchema;
 import org.datavec.api.writable.DoubleWritable;
@@ -117,4 +122,44 @@ public class ExecutionTest extends BaseSparkTest {
         assertEquals(expectedSequence, out);
     }
 
+    @Test
+    public void testExecutionFilterReduceTransform() {
+        //Transforms and filters on either side of a reduction: executed as two fused stages
+        Schema schema = new Schema.Builder().addColumnString("key").addColumnInteger("value").build();
+
+        TransformProcess tp = new TransformProcess.Builder(schema)
+                        .filter(new IntegerColumnCondition("value", ConditionOp.LessThan, 0))
+                        .integerMathOp("value", MathOp.Multiply, 2)
+                        .reduce(new Reducer.Builder(ReduceOp.Sum).keyColumns("key").build())
+                        .filter(new StringColumnCondition("key", ConditionOp.Equal, "key2"))
+                        .integerMathOp("sum(value)", MathOp.Add, 1).build();
+
+        List<List<Writable>> inputData = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            inputData.add(Arrays.<Writable>asList(new Text("key" + (i % 3)), new IntWritable(i % 2 == 0 ? i : -i)));
+        }
+
+        JavaRDD<List<Writable>> rdd = sc.parallelize(inputData, 4);
+
+        List<List<Writable>> out = new ArrayList<>(SparkTransformExecutor.execute(rdd, tp).collect());
+
+        Collections.sort(out, new Comparator<List<Writable>>() {
+            @Override
+            public int compare(List<Writable> o1, List<Writable> o2) {
+                return o1.get(0).toString().compareTo(o2.get(0).toString());
+            }
+        });
+
+        assertEquals(2, out.size());
+        for (int k = 0; k < 2; k++) {
+            int expSum = 0;
+            for (int i = 0; i < 100; i += 2) {
+                if (i % 3 == k)
+                    expSum += 2 * i;
+            }
+            assertEquals("key" + k, out.get(k).get(0).toString());
+            assertEquals(expSum + 1, out.get(k).get(1).toInt());
+        }
+    }
+
 }
@@ -0,0 +1,138 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.transform;
+
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.storage.StorageLevel;
+import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.analysis.DataAnalysis;
+import org.datavec.api.transform.quality.DataQualityAnalysis;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.DoubleWritable;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.BaseSparkTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestSparkPipelineSession extends BaseSparkTest {
+
+    @Test
+    public void testSharedInputsAndPrefixes() {
+        Schema schema = new Schema.Builder().addColumnInteger("col0")
+                        .addColumnCategorical("col1", "state0", "state1", "state2").addColumnDouble("col2").build();
+
+        List<List<Writable>> inputData = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            inputData.add(Arrays.<Writable>asList(new IntWritable(i), new Text("state" + (i % 3)),
+                            new DoubleWritable(i / 10.0)));
+        }
+        JavaRDD<List<Writable>> rdd = sc.parallelize(inputData);
+
+        //Two transform processes sharing the first two actions; the third differs only in the scalar of its 2nd action
+        TransformProcess tp1 = new TransformProcess.Builder(schema).categoricalToInteger("col1")
+                        .doubleMathOp("col2", MathOp.Add, 10.0).build();
+        TransformProcess tp2 = new TransformProcess.Builder(schema).categoricalToInteger("col1")
+                        .doubleMathOp("col2", MathOp.Add, 10.0).removeColumns("col0").build();
+        TransformProcess tp3 = new TransformProcess.Builder(schema).categoricalToInteger("col1")
+                        .doubleMathOp("col2", MathOp.Add, 20.0).build();
+
+        List<List<Writable>> expected1 = SparkTransformExecutor.execute(rdd, tp1).collect();
+        List<List<Writable>> expected2 = SparkTransformExecutor.execute(rdd, tp2).collect();
+        List<List<Writable>> expected3 = SparkTransformExecutor.execute(rdd, tp3).collect();
+        DataAnalysis expectedAnalysis = AnalyzeSpark.analyze(schema, rdd);
+        DataQualityAnalysis expectedQuality = AnalyzeSpark.analyzeQuality(schema, rdd);
+        assertEquals(StorageLevel.NONE(), rdd.getStorageLevel());
+
+        SparkPipelineSession session = new SparkPipelineSession(StorageLevel.MEMORY_ONLY());
+        session.addAnalysis("analysis", schema, rdd);
+        session.addQualityAnalysis("quality", schema, rdd);
+        session.addTransform("tp1", rdd, tp1);
+        session.addTransform("tp2", rdd, tp2);
+        session.addTransform("tp3", rdd, tp3);
+        session.run();
+
+        assertEquals(expectedAnalysis.toString(), session.getAnalysis("analysis").toString());
+        assertEquals(expectedQuality.toString(), session.getQualityAnalysis("quality").toString());
+        assertEquals(new HashSet<>(expected1), new HashSet<>(session.getOutput("tp1").collect()));
+        assertEquals(new HashSet<>(expected2), new HashSet<>(session.getOutput("tp2").collect()));
+        assertEquals(new HashSet<>(expected3), new HashSet<>(session.getOutput("tp3").collect()));
+
+        //Stages: persist input, analysis, quality analysis, persist the common prefix of all 3 transform processes
+        //(1 action), then persist the common prefix of tp1 and tp2 (1 more action)
+        List<SparkPipelineSession.Stage> stages = session.getStages();
+        assertEquals(5, stages.size());
+        assertEquals(SparkPipelineSession.StageType.Persist, stages.get(0).getType());
+        assertEquals(30, stages.get(0).getNumRecords());
+        assertEquals(SparkPipelineSession.StageType.Analysis, stages.get(1).getType());
+        assertEquals(SparkPipelineSession.StageType.QualityAnalysis, stages.get(2).getType());
+        assertEquals(SparkPipelineSession.StageType.Persist, stages.get(3).getType());
+        assertTrue(stages.get(3).getName().contains("[tp1, tp2, tp3]"));
+        assertEquals(SparkPipelineSession.StageType.Persist, stages.get(4).getType());
+        assertTrue(stages.get(4).getName().contains("[tp1, tp2]"));
+        assertEquals(30, stages.get(4).getNumRecords());
+        assertTrue(stages.get(4).getMemorySize() > 0);
+
+        //All transform outputs are derived from the persisted prefixes, so the input itself is no longer persisted
+        assertEquals(2, session.getPersisted().size());
+        assertEquals(StorageLevel.NONE(), rdd.getStorageLevel());
+
+        session.close();
+        assertEquals(0, session.getPersisted().size());
+    }
+
+    @Test
+    public void testInputUnpersistedAfterRun() {
+        Schema schema = new Schema.Builder().addColumnInteger("col0").addColumnDouble("col1").build();
+
+        List<List<Writable>> inputData = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            inputData.add(Arrays.<Writable>asList(new IntWritable(i), new DoubleWritable(i)));
+        }
+        JavaRDD<List<Writable>> rdd = sc.parallelize(inputData);
+
+        TransformProcess tp1 = new TransformProcess.Builder(schema).doubleMathOp("col1", MathOp.Multiply, 2.0)
+                        .removeColumns("col0").build();
+        TransformProcess tp2 = new TransformProcess.Builder(schema).doubleMathOp("col1", MathOp.Multiply, 2.0)
+                        .build();
+
+        try (SparkPipelineSession session = new SparkPipelineSession()) {
+            session.addAnalysis("analysis", schema, rdd);
+            session.addTransform("tp1", rdd, tp1);
+            session.addTransform("tp2", rdd, tp2);
+            session.run();
+
+            //All transforms are derived from the persisted prefix: the input is no longer required
+            assertEquals(StorageLevel.NONE(), rdd.getStorageLevel());
+            assertEquals(1, session.getPersisted().size());
+
+            assertEquals(10, session.getOutput("tp1").count());
+            assertEquals(10, session.getOutput("tp2").count());
+            assertEquals(new HashSet<>(SparkTransformExecutor.execute(rdd, tp2).collect()),
+                            new HashSet<>(session.getOutput("tp2").collect()));
+        }
+    }
+}
@@ -243,4 +243,59 @@ public class TestAnalysis extends BaseSparkTest {
         assertEquals(2L, (long) map.get(new Text("ThirdMostCommon")));
     }
 
+    @Test
+    public void testAnalysisSinglePass() {
+        Random r = new Random(12345);
+        int n = 10000;
+        List<List<Writable>> data = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            //Zipf-like string distribution: "s0" most frequent, then "s1", etc.
+            int s = (int) Math.floor(Math.pow(r.nextDouble(), 3) * 50);
+            data.add(Arrays.<Writable>asList(new DoubleWritable(i), new IntWritable(i % 100), new Text("s" + s)));
+        }
+
+        Schema schema = new Schema.Builder().addColumnDouble("d").addColumnInteger("i").addColumnString("s")
+                        .build();
+
+        JavaRDD<List<Writable>> rdd = sc.parallelize(data, 4);
+        DataAnalysis exact = AnalyzeSpark.analyze(schema, rdd, 10);
+        DataAnalysis approx = AnalyzeSpark.analyzeSinglePass(schema, rdd, 10, 3);
+
+        //Non-histogram statistics are exact
+        DoubleAnalysis de = (DoubleAnalysis) exact.getColumnAnalysis("d");
+        DoubleAnalysis da = (DoubleAnalysis) approx.getColumnAnalysis("d");
+        assertEquals(de.getMean(), da.getMean(), 1e-6);
+        assertEquals(de.getSampleStdev(), da.getSampleStdev(), 1e-6);
+        assertEquals(de.getCountTotal(), da.getCountTotal());
+        assertEquals(de.getMin(), da.getMin(), 0.0);
+        assertEquals(de.getMax(), da.getMax(), 0.0);
+
+        //Quantiles and histograms from the digest
+        assertEquals(n / 2.0, da.getMedian(), n * 0.01);
+        assertEquals(n * 0.9, da.getPercentile90(), n * 0.01);
+        assertEquals(n * 0.99, da.getPercentile99(), n * 0.01);
+        assertArrayEquals(de.getHistogramBuckets(), da.getHistogramBuckets(), 1e-6);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(de.getHistogramBucketCounts()[i], da.getHistogramBucketCounts()[i], n * 0.01);
+        }
+        assertEquals(n, sumHistogram(da.getHistogramBucketCounts()));
+
+        IntegerAnalysis ia = (IntegerAnalysis) approx.getColumnAnalysis("i");
+        assertEquals(49.5, ia.getMedian(), 1.0);
+
+        //String columns: approximate unique count and most frequent values
+        StringAnalysis sa = (StringAnalysis) approx.getColumnAnalysis("s");
+        assertEquals(50, sa.getCountUnique(), 5);
+        List<String> top = new ArrayList<>(sa.getMostFrequent().keySet());
+        assertEquals(Arrays.asList("s0", "s1", "s2"), top);
+        assertEquals(n, sumHistogram(sa.getHistogramBucketCounts()));
+    }
+
+    private static long sumHistogram(long[] counts) {
+        long sum = 0;
+        for (long l : counts)
+            sum += l;
+        return sum;
+    }
+
 }
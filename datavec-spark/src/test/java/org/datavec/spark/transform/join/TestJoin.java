@@ -232,4 +232,44 @@ public class TestJoin extends BaseSparkTest {
         assertEquals(4, count);
     }
 
+    @Test
+    public void testJoinStrategies() {
+        Schema leftSchema = new Schema.Builder().addColumnInteger("key").addColumnString("leftValue").build();
+        Schema rightSchema = new Schema.Builder().addColumnInteger("key").addColumnDouble("rightValue").build();
+
+        List<List<Writable>> left = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            left.add(Arrays.<Writable>asList(new IntWritable(i % 7), new Text("left" + i)));
+        }
+        List<List<Writable>> right = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            right.add(Arrays.<Writable>asList(new IntWritable(3 + i % 10), new DoubleWritable(i)));
+        }
+
+        JavaRDD<List<Writable>> leftRDD = sc.parallelize(left, 2);
+        JavaRDD<List<Writable>> rightRDD = sc.parallelize(right, 3);
+
+        Comparator<List<Writable>> c = new Comparator<List<Writable>>() {
+            @Override
+            public int compare(List<Writable> o1, List<Writable> o2) {
+                return o1.toString().compareTo(o2.toString());
+            }
+        };
+
+        for (Join.JoinType jt : Join.JoinType.values()) {
+            List<List<Writable>> expected = null;
+            for (Join.JoinStrategy strategy : Join.JoinStrategy.values()) {
+                Join join = new Join.Builder(jt).setJoinColumns("key").setSchemas(leftSchema, rightSchema)
+                                .setStrategy(strategy).build();
+                List<List<Writable>> out =
+                                new ArrayList<>(SparkTransformExecutor.executeJoin(join, leftRDD, rightRDD).collect());
+                Collections.sort(out, c);
+                if (expected == null) {
+                    expected = out;
+                } else {
+                    assertEquals(jt + " - " + strategy, expected, out);
+                }
+            }
+        }
+    }
 }
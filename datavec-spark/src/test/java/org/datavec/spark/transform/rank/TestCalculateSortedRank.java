@@ -19,20 +19,22 @@ package org.datavec.spark.transform.rank;
 import org.apache.spark.api.java.JavaRDD;
 import org.datavec.api.transform.ColumnType;
 import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.rank.CalculateSortedRank;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.DoubleWritable;
 import org.datavec.api.writable.Text;
 import org.datavec.api.writable.Writable;
 import org.datavec.api.writable.comparator.DoubleWritableComparator;
+import org.datavec.api.writable.comparator.TextWritableComparator;
+import org.datavec.api.writable.comparator.WritableComparator;
 import org.datavec.spark.BaseSparkTest;
 import org.datavec.spark.transform.SparkTransformExecutor;
 import org.junit.Test;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by Alex on 1/06/2016.
@@ -74,4 +76,62 @@ public class TestCalculateSortedRank extends BaseSparkTest {
         }
     }
 
+    @Test
+    public void testCalculateSortedRankTypesAndGroups() {
+        //Values 0 to 99, each value 3 times (twice with text "a", once with "b"), in random order over several partitions
+        List<List<Writable>> data = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            data.add(Arrays.asList((Writable) new Text(i < 200 ? "a" : "b"), new DoubleWritable(i % 100)));
+        }
+        Collections.shuffle(data, new Random(12345));
+        JavaRDD<List<Writable>> rdd = sc.parallelize(data, 5);
+
+        Schema schema = new Schema.Builder().addColumnsString("TextCol").addColumnDouble("DoubleCol").build();
+        String[] sortOn = {"DoubleCol", "TextCol"};
+        WritableComparator[] comparators = {new DoubleWritableComparator(), new TextWritableComparator()};
+
+        for (CalculateSortedRank.RankType rankType : CalculateSortedRank.RankType.values()) {
+            TransformProcess tp = new TransformProcess.Builder(schema).calculateSortedRank(new CalculateSortedRank(
+                            "rank", sortOn, comparators, false, rankType, null)).build();
+            List<List<Writable>> out = SparkTransformExecutor.execute(rdd, tp).collect();
+            assertEquals(300, out.size());
+
+            //Descending order: for each value v (from 99 down to 0), (v,"b") then (v,"a") twice
+            Set<Long> ranks = new HashSet<>();
+            for (List<Writable> example : out) {
+                boolean isA = example.get(0).toString().equals("a");
+                long value = (long) example.get(1).toDouble();
+                long rank = example.get(2).toLong();
+                ranks.add(rank);
+                long first = 3 * (99 - value);
+                switch (rankType) {
+                    case RowNumber:
+                        if (isA) {
+                            assertTrue(rank == first + 1 || rank == first + 2);
+                        } else {
+                            assertEquals(first, rank);
+                        }
+                        break;
+                    case Competition:
+                        assertEquals(isA ? first + 1 : first, rank);
+                        break;
+                    case Dense:
+                        assertEquals(2 * (99 - value) + (isA ? 1 : 0), rank);
+                        break;
+                }
+            }
+            assertEquals(rankType == CalculateSortedRank.RankType.RowNumber ? 300 : 200, ranks.size());
+        }
+
+        //Ranks within groups: dense rank of the value within each of "a" and "b"
+        TransformProcess tp = new TransformProcess.Builder(schema).calculateSortedRank(new CalculateSortedRank("rank",
+                        new String[] {"DoubleCol"}, new WritableComparator[] {new DoubleWritableComparator()}, true,
+                        CalculateSortedRank.RankType.Dense, new String[] {"TextCol"})).build();
+        List<List<Writable>> out = SparkTransformExecutor.execute(rdd, tp).collect();
+        assertEquals(300, out.size());
+        for (List<Writable> example : out) {
+            assertEquals((long) example.get(1).toDouble(), example.get(2).toLong());
+        }
+    }
+
 }
@@ -27,6 +27,7 @@ import org.datavec.spark.BaseSparkTest;
 import org.datavec.spark.transform.SparkTransformExecutor;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -113,4 +114,39 @@ public class TestConvertToSequence extends BaseSparkTest {
             assertTrue(out2.contains(Collections.singletonList(allExamples.get(i))));
         }
     }
+
+    @Test
+    public void testConvertToSequenceSecondarySortMaxLength() {
+
+        Schema s = new Schema.Builder().addColumnsString("key").addColumnLong("time").build();
+
+        List<List<Writable>> allExamples = Arrays.asList(Arrays.<Writable>asList(new Text("k1"), new LongWritable(10)),
+                        Arrays.<Writable>asList(new Text("k2"), new LongWritable(10)),
+                        Arrays.<Writable>asList(new Text("k1"), new LongWritable(-10)),
+                        Arrays.<Writable>asList(new Text("k2"), new LongWritable(5)),
+                        Arrays.<Writable>asList(new Text("k1"), new LongWritable(0)));
+
+        TransformProcess tp = new TransformProcess.Builder(s)
+                        .convertToSequence("key", new NumericalColumnComparator("time")).build();
+
+        JavaRDD<List<Writable>> rdd = sc.parallelize(allExamples, 3);
+
+        List<List<List<Writable>>> out;
+        System.setProperty(SparkTransformExecutor.MAX_SEQUENCE_LENGTH_PROPERTY, "2");
+        try {
+            assertTrue(SparkTransformExecutor.isSecondarySortConvertToSequence());
+            out = new ArrayList<>(SparkTransformExecutor.executeToSequence(rdd, tp).collect());
+        } finally {
+            System.clearProperty(SparkTransformExecutor.MAX_SEQUENCE_LENGTH_PROPERTY);
+        }
+
+        //k1 sequence (length 3) is split into sequences of length 2 and 1
+        assertEquals(3, out.size());
+        assertTrue(out.contains(Arrays.asList(Arrays.<Writable>asList(new Text("k1"), new LongWritable(-10)),
+                        Arrays.<Writable>asList(new Text("k1"), new LongWritable(0)))));
+        assertTrue(out.contains(Collections.singletonList(
+                        Arrays.<Writable>asList(new Text("k1"), new LongWritable(10)))));
+        assertTrue(out.contains(Arrays.asList(Arrays.<Writable>asList(new Text("k2"), new LongWritable(5)),
+                        Arrays.<Writable>asList(new Text("k2"), new LongWritable(10)))));
+    }
 }